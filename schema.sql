@@ -1,4 +1,9 @@
+-- Base schema. Secondary indexes and later schema changes are applied on top of it
+-- by com.ccrms.util.SchemaMigrator, which records applied versions in schema_version.
+
 -- Drop tables if they exist to ensure a clean setup
+DROP TABLE IF EXISTS schema_version;
+DROP TABLE IF EXISTS evidence_indicators;
 DROP TABLE IF EXISTS evidence;
 DROP TABLE IF EXISTS complaints;
 DROP TABLE IF EXISTS criminals;
@@ -1,19 +1,71 @@
 package com.ccrms;
 
+import com.ccrms.analytics.ComplaintSnapshot;
+import com.ccrms.analytics.SnapshotChanges;
+import com.ccrms.analytics.Selection;
+import com.ccrms.dao.AsyncDAO;
+import com.ccrms.dao.CachingUserDAO;
 import com.ccrms.dao.ComplaintDAO;
-import com.ccrms.dao.CriminalDAO;
-import com.ccrms.dao.EvidenceDAO;
-import com.ccrms.dao.UserDAO;
+import com.ccrms.dao.ComplaintFilter;
+import com.ccrms.dao.ComplaintRepository;
+import com.ccrms.dao.CriminalRepository;
+import com.ccrms.dao.DaoMetrics;
+import com.ccrms.dao.DataAccessException;
+import com.ccrms.dao.EvidenceRepository;
+import com.ccrms.dao.ExportDAO;
+import com.ccrms.dao.ReportDAO;
+import com.ccrms.dao.Repositories;
+import com.ccrms.events.ChangeEventBus;
+import com.ccrms.index.AssignmentScheduler;
+import com.ccrms.index.CaseGraph;
+import com.ccrms.index.ComplaintRollup;
+import com.ccrms.index.IndicatorIndex;
+import com.ccrms.index.Indexes;
+import com.ccrms.index.InvertedIndex;
+import com.ccrms.index.IpRange;
+import com.ccrms.index.IpRangeIndex;
+import com.ccrms.index.NameIndex;
+import com.ccrms.index.SearchIndex;
+import com.ccrms.io.ComplaintCsvImporter;
+import com.ccrms.io.ComplaintExporter;
+import com.ccrms.io.DiagnosticsWriter;
+import com.ccrms.io.TableRenderer;
+import com.ccrms.io.ThreatFeedReader;
+import com.ccrms.models.CaseFile;
 import com.ccrms.models.Complaint;
 import com.ccrms.models.Criminal;
 import com.ccrms.models.Evidence;
 import com.ccrms.models.User;
+import com.ccrms.store.ChangeJournal;
+import com.ccrms.util.ConnectionPool;
 import com.ccrms.util.DatabaseConnector;
+import com.ccrms.util.LatencyHistogram;
 import com.ccrms.util.PasswordUtil;
+import com.ccrms.util.SchemaMigrator;
+import com.ccrms.util.StatementRegistry;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntFunction;
 
 /**
  * Main class for the Cyber Crime Record Management System.
@@ -21,21 +73,44 @@ import java.util.Scanner;
  */
 public class Main {
 
-    // DAOs for database interaction
-    private static final UserDAO userDAO = new UserDAO();
-    private static final ComplaintDAO complaintDAO = new ComplaintDAO();
-    private static final CriminalDAO criminalDAO = new CriminalDAO();
-    private static final EvidenceDAO evidenceDAO = new EvidenceDAO();
+    // Repositories of the storage backend chosen at startup (MySQL or the embedded store)
+    private static final CachingUserDAO userDAO = new CachingUserDAO();
+    private static final ComplaintRepository complaintDAO = Repositories.complaints();
+    private static final CriminalRepository criminalDAO = Repositories.criminals();
+    private static final EvidenceRepository evidenceDAO = Repositories.evidence();
+    private static final ReportDAO reportDAO = new ReportDAO();
+    private static final ExportDAO exportDAO = new ExportDAO();
+    private static final AsyncDAO asyncDAO = new AsyncDAO(complaintDAO, criminalDAO, evidenceDAO, userDAO);
+
+    private static final int SEARCH_RESULT_LIMIT = 20;
 
     // Scanner for user input
     private static final Scanner scanner = new Scanner(System.in);
 
+    // Buffered console output for large listings; flushed once per screen
+    private static final PrintWriter console = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 64 * 1024), false);
+
     // Currently logged-in user
     private static User currentUser = null;
 
+    // Columnar copy of the complaints for ad-hoc analytics, built on first use
+    private static ComplaintSnapshot analyticsSnapshot = null;
+    private static SnapshotChanges analyticsChanges = null;
+
     public static void main(String[] args) {
+        // Any options mean a headless run (see ScriptRunner and SessionServer)
+        if (args.length > 0) {
+            System.exit(Arrays.asList(args).contains("--serve") ? SessionServer.run(args) : ScriptRunner.run(args));
+        }
+
         printHeader("Welcome to the Cyber Crime Record Management System");
 
+        // Bring the schema up to date (indexes etc.) before serving any request
+        if (SchemaMigrator.migrate() == -1) {
+            System.out.println("The database schema could not be brought up to date; see the error output. Exiting.");
+            System.exit(1);
+        }
+
         // Loop for login attempts
         int loginAttempts = 3;
         while (loginAttempts > 0 && currentUser == null) {
@@ -53,11 +128,13 @@ public class Main {
 
         // If login was successful, show the main menu
         if (currentUser != null) {
+            Indexes.warmUpAsync(); // Build the search indexes while the user navigates
             showMainMenu();
         }
 
         // Cleanup resources before exiting
         scanner.close();
+        asyncDAO.close();
         DatabaseConnector.closeConnection();
         System.out.println("Application terminated.");
     }
@@ -101,6 +178,11 @@ public class Main {
             if (currentUser.getRole().equalsIgnoreCase("Admin")) {
                 System.out.println("5. Delete Records");
             }
+            System.out.println("6. Search Records");
+            System.out.println("7. Case Linkage Analysis");
+            if (currentUser.getRole().equalsIgnoreCase("Admin")) {
+                System.out.println("8. Diagnostics");
+            }
             System.out.println("0. Logout and Exit");
             System.out.print("Enter your choice: ");
 
@@ -126,6 +208,19 @@ public class Main {
                             System.out.println("Invalid choice. Please enter a number from the menu.");
                         }
                         break;
+                    case 6:
+                        searchRecords();
+                        break;
+                    case 7:
+                        analyzeCaseLinks();
+                        break;
+                    case 8:
+                        if (currentUser.getRole().equalsIgnoreCase("Admin")) {
+                            showDiagnostics();
+                        } else {
+                            System.out.println("Invalid choice. Please enter a number from the menu.");
+                        }
+                        break;
                     case 0:
                         exit = true;
                         System.out.println("You have been logged out.");
@@ -146,6 +241,11 @@ public class Main {
             System.out.println("1. Add New Complaint");
             System.out.println("2. View All Complaints");
             System.out.println("3. Update Complaint Status");
+            System.out.println("4. Bulk Import Complaints from CSV");
+            System.out.println("5. Export Complaints with Evidence");
+            System.out.println("6. View Complaint Details");
+            System.out.println("7. Officer Workload");
+            System.out.println("8. Bulk Status Change");
             System.out.println("9. Back to Main Menu");
             System.out.print("Enter your choice: ");
 
@@ -161,6 +261,21 @@ public class Main {
                     case 3:
                         updateComplaintStatus();
                         break;
+                    case 4:
+                        importComplaintsFromCsv();
+                        break;
+                    case 5:
+                        exportComplaints();
+                        break;
+                    case 6:
+                        viewComplaintDetails();
+                        break;
+                    case 7:
+                        viewOfficerWorkload();
+                        break;
+                    case 8:
+                        bulkUpdateStatus();
+                        break;
                     case 9:
                         back = true;
                         break;
@@ -186,11 +301,18 @@ public class Main {
 
             complaint.setComplaintDate(new Date(System.currentTimeMillis())); // Set current date
             complaint.setStatus("Open"); // Default status
-            complaint.setAssignedOfficerId(currentUser.getUserId()); // Assign to current user
+            // The least loaded officer; the current user if there are no officers or the
+            // workloads are still loading, rather than keep the user waiting for the load
+            AssignmentScheduler scheduler = Indexes.assignmentsIfLoaded();
+            int officerId = scheduler == null ? -1 : scheduler.assign(complaint.getCrimeType());
+            complaint.setAssignedOfficerId(officerId < 0 ? currentUser.getUserId() : officerId);
 
             if (complaintDAO.addComplaint(complaint)) {
-                System.out.println("Complaint added successfully!");
+                System.out.println("Complaint added successfully! Assigned to " + officerName(complaint.getAssignedOfficerId()) + ".");
             } else {
+                if (officerId >= 0) {
+                    scheduler.release(officerId);
+                }
                 System.out.println("Failed to add complaint.");
             }
         } catch (Exception e) {
@@ -198,17 +320,286 @@ public class Main {
         }
     }
 
+    /**
+     * Changes the status of a list of complaints, or of every complaint matching some criteria,
+     * in one transaction, e.g. to close stale cases at year-end.
+     */
+    private static void bulkUpdateStatus() {
+        printHeader("Bulk Status Change");
+        System.out.print("Select complaints by (1 = ID list, 2 = Criteria): ");
+        String mode = scanner.nextLine().trim();
+        int[] complaintIds = null;
+        ComplaintFilter filter = null;
+        try {
+            if (mode.equals("1")) {
+                System.out.print("Complaint IDs (e.g. 12, 15, 100-250): ");
+                complaintIds = ScriptRunner.parseIdList(scanner.nextLine());
+            } else if (mode.equals("2")) {
+                System.out.println("Leave a criterion blank to ignore it.");
+                System.out.print("Crime type: ");
+                String crimeType = scanner.nextLine().trim();
+                System.out.print("From date (YYYY-MM-DD): ");
+                String from = scanner.nextLine().trim();
+                System.out.print("To date (YYYY-MM-DD): ");
+                String to = scanner.nextLine().trim();
+                System.out.print("Assigned officer ID: ");
+                String officer = scanner.nextLine().trim();
+                System.out.print("Current status: ");
+                String current = scanner.nextLine().trim();
+                filter = new ComplaintFilter()
+                        .crimeType(crimeType.isEmpty() ? null : crimeType)
+                        .from(from.isEmpty() ? null : LocalDate.parse(from))
+                        .to(to.isEmpty() ? null : LocalDate.parse(to))
+                        .officer(officer.isEmpty() ? null : Integer.parseInt(officer))
+                        .status(current.isEmpty() ? null : current);
+                if (filter.isEmpty()) {
+                    System.out.println("Please enter at least one criterion.");
+                    return;
+                }
+            } else {
+                System.out.println("Invalid choice.");
+                return;
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid number: " + e.getMessage());
+            return;
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date: " + e.getParsedString());
+            return;
+        }
+
+        System.out.print("New Status (Open, Under Investigation, Closed): ");
+        String newStatus = scanner.nextLine().trim();
+        if (!Arrays.asList("Open", "Under Investigation", "Closed").contains(newStatus)) {
+            System.out.println("Invalid status.");
+            return;
+        }
+        int matching = complaintIds != null ? complaintIds.length : complaintDAO.countComplaints(filter);
+        if (matching <= 0) {
+            System.out.println(matching == 0 ? "No complaints match." : "Failed to count the matching complaints.");
+            return;
+        }
+        System.out.print((complaintIds != null ? matching + " complaint ID(s) given" : matching + " complaint(s) match " + filter)
+                + ". Set their status to '" + newStatus + "'? (y/n) [n]: ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        int changed = complaintIds != null ? complaintDAO.updateStatusByIds(complaintIds, newStatus)
+                : complaintDAO.updateStatusWhere(filter, newStatus);
+        if (changed == -1) {
+            System.out.println("Failed to update statuses; no complaint was changed.");
+        } else {
+            System.out.printf("%d complaint(s) changed to '%s' in %.1f ms%s%n", changed, newStatus,
+                    (System.nanoTime() - start) / 1_000_000.0,
+                    changed < matching ? " (the others are gone or already had the status)." : ".");
+        }
+    }
+
+    private static void viewOfficerWorkload() {
+        printHeader("Officer Workload");
+        AssignmentScheduler scheduler = Indexes.assignments();
+        List<AssignmentScheduler.Workload> workloads = scheduler.getWorkloads();
+        if (workloads.isEmpty()) {
+            System.out.println("No users with the Officer role.");
+            return;
+        }
+        System.out.printf("%-10s %-20s %8s %8s %8s  %s%n", "ID", "Officer", "Active", "Open", "Pending", "Specialty");
+        for (AssignmentScheduler.Workload workload : workloads) {
+            System.out.printf("%-10d %-20s %8d %8d %8d  %s%n", workload.getOfficerId(), workload.getUsername(),
+                    workload.getActiveCases(), workload.getOpenCases(), workload.getPendingAssignments(),
+                    workload.getSpecialty() == null ? "-" : workload.getSpecialty());
+        }
+        System.out.println("New complaints go to the least loaded officer (specialty weight "
+                + scheduler.getSpecialtyWeight() + ").");
+        if (!currentUser.getRole().equalsIgnoreCase("Admin")) {
+            return;
+        }
+
+        AssignmentScheduler.RebalancePlan plan = scheduler.planRebalance();
+        if (plan.getMoveCount() == 0) {
+            System.out.println("Workloads are balanced as far as 'Open' complaints allow (spread " + plan.getSpreadBefore() + ").");
+            return;
+        }
+        System.out.println("Rebalancing would move " + plan.getMoveCount() + " 'Open' complaint(s) and narrow the spread from "
+                + plan.getSpreadBefore() + " to " + plan.getSpreadAfter() + " cases.");
+        System.out.print("Rebalance now? (y/n) [n]: ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            return;
+        }
+        int[] moved = complaintDAO.reassignOpenComplaints(plan.getComplaintIds(), plan.getOfficerIds());
+        if (moved == null) {
+            System.out.println("Failed to rebalance workloads.");
+        } else {
+            System.out.println(moved.length + " complaint(s) reassigned"
+                    + (moved.length < plan.getMoveCount() ? " (the others changed status meanwhile)." : "."));
+        }
+    }
+
     private static void viewAllComplaints() {
         printHeader("All Complaints");
-        List<Complaint> complaints = complaintDAO.getAllComplaints();
-        if (complaints.isEmpty()) {
-            System.out.println("No complaints found.");
-        } else {
-            for (Complaint complaint : complaints) {
-                System.out.println("--------------------");
-                System.out.println(complaint);
+        TableRenderer<Complaint> table = new TableRenderer<Complaint>()
+                .addNumberColumn("ID", 10, Complaint::getComplaintId)
+                .addColumn("Date", 10, Complaint::getComplaintDate)
+                .addColumn("Crime Type", 20, Complaint::getCrimeType)
+                .addColumn("Victim", 24, Complaint::getVictimName)
+                .addColumn("Status", 19, Complaint::getStatus)
+                .addColumn("Officer", 16, complaint -> officerName(complaint.getAssignedOfficerId()))
+                .addNumberColumn("Criminal", 10, Complaint::getCriminalId)
+                .addColumn("Description", 50, Complaint::getDescription);
+
+        // Pages are read by keyset, so remember where each page seen so far ends
+        int pageSize = ComplaintDAO.DEFAULT_PAGE_SIZE;
+        List<Complaint> pageEnds = new ArrayList<>();
+        browseTable("complaints", table, pageIndex -> {
+            while (pageEnds.size() < pageIndex) {
+                List<Complaint> skipped = complaintDAO.getComplaintPage(
+                        pageEnds.isEmpty() ? null : pageEnds.get(pageEnds.size() - 1), pageSize);
+                if (skipped.isEmpty()) {
+                    return skipped;
+                }
+                pageEnds.add(skipped.get(skipped.size() - 1));
             }
+            List<Complaint> page = complaintDAO.getComplaintPage(pageIndex == 0 ? null : pageEnds.get(pageIndex - 1), pageSize);
+            if (!page.isEmpty() && pageEnds.size() == pageIndex) {
+                pageEnds.add(page.get(page.size() - 1));
+            }
+            return page;
+        });
+    }
+
+    /**
+     * Shows records a page at a time as a table, until the user goes back.
+     * The user can move to the next or previous page, jump to a page and choose the columns.
+     * @param what The plural name of the records, for messages.
+     * @param pages Loads a page by its zero-based index; an empty list means there is no such page.
+     */
+    private static <T> void browseTable(String what, TableRenderer<T> table, IntFunction<List<T>> pages) {
+        List<String> headers = table.getHeaders();
+        BitSet columns = table.allColumns();
+        int pageIndex = 0;
+        List<T> page = pages.apply(0);
+        if (page.isEmpty()) {
+            System.out.println("No " + what + " found.");
+            return;
         }
+        StringBuilder screen = new StringBuilder(16 * 1024);
+        while (true) {
+            screen.setLength(0);
+            try {
+                table.render(page, columns, screen);
+            } catch (IOException e) {
+                throw new IllegalStateException(e); // StringBuilder does not throw
+            }
+            screen.append("\n--- Page ").append(pageIndex + 1).append(", ").append(page.size()).append(' ').append(what)
+                  .append(" --- [Enter] next  [p] previous  [g N] go to page N  [c] columns  [q] back: ");
+            console.append(screen).flush();
+
+            String input = scanner.nextLine().trim().toLowerCase();
+            int target = pageIndex;
+            if (input.isEmpty() || input.equals("n")) {
+                target = pageIndex + 1;
+            } else if (input.equals("p")) {
+                target = Math.max(0, pageIndex - 1);
+            } else if (input.startsWith("g")) {
+                try {
+                    target = Integer.parseInt(input.substring(1).trim()) - 1;
+                } catch (NumberFormatException e) {
+                    System.out.println("Error: Please enter a page number, e.g. 'g 5'.");
+                }
+                if (target < 0) {
+                    System.out.println("Error: Pages start at 1.");
+                    target = pageIndex;
+                }
+            } else if (input.equals("c")) {
+                columns = chooseColumns(headers, columns);
+            } else if (input.equals("q")) {
+                return;
+            } else {
+                System.out.println("Error: Unknown command '" + input + "'.");
+            }
+
+            if (target != pageIndex) {
+                List<T> next = pages.apply(target);
+                if (next.isEmpty()) {
+                    System.out.println("\n--- There is no page " + (target + 1) + " of " + what + " ---");
+                } else {
+                    pageIndex = target;
+                    page = next;
+                }
+            }
+        }
+    }
+
+    private static BitSet chooseColumns(List<String> headers, BitSet current) {
+        StringBuilder menu = new StringBuilder("\nColumns:");
+        for (int i = 0; i < headers.size(); i++) {
+            menu.append("\n  ").append(i + 1).append(". ").append(headers.get(i)).append(current.get(i) ? " *" : "");
+        }
+        System.out.println(menu);
+        System.out.print("Enter the column numbers to show, separated by commas (Enter for all): ");
+        String input = scanner.nextLine().trim();
+        BitSet chosen = new BitSet(headers.size());
+        if (input.isEmpty()) {
+            chosen.set(0, headers.size());
+            return chosen;
+        }
+        for (String part : input.split(",")) {
+            try {
+                int column = Integer.parseInt(part.trim()) - 1;
+                if (column >= 0 && column < headers.size()) {
+                    chosen.set(column);
+                    continue;
+                }
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+            System.out.println("Error: No column '" + part.trim() + "'. Keeping the current columns.");
+            return current;
+        }
+        return chosen;
+    }
+
+    private static void viewComplaintDetails() {
+        printHeader("Complaint Details");
+        try {
+            System.out.print("Enter Complaint ID: ");
+            int complaintId = Integer.parseInt(scanner.nextLine());
+
+            // Complaint, evidence, criminal and officer are fetched concurrently
+            CaseFile caseFile = asyncDAO.loadCaseFile(complaintId).join();
+            if (caseFile == null) {
+                System.out.println("No complaint found with ID: " + complaintId);
+                return;
+            }
+            System.out.println(caseFile.getComplaint());
+            System.out.println("  Officer: " + (caseFile.getOfficer() == null ? "Unknown" : caseFile.getOfficer().getUsername()));
+            System.out.println("\n--- Linked Criminal ---");
+            System.out.println(caseFile.getCriminal() == null ? "None" : caseFile.getCriminal().toString());
+            System.out.println("\n--- Evidence ---");
+            if (caseFile.getEvidence().isEmpty()) {
+                System.out.println("No evidence recorded.");
+            } else {
+                for (Evidence evidence : caseFile.getEvidence()) {
+                    System.out.println(evidence);
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid Complaint ID. Please enter a number.");
+        } catch (CompletionException e) {
+            System.out.println("Failed to load complaint details: " + e.getCause());
+        }
+    }
+
+    /**
+     * Resolves an officer's username through the user cache.
+     * @param officerId The assigned officer's user ID.
+     * @return The username, or "Unknown" if no such user exists.
+     */
+    private static String officerName(int officerId) {
+        User officer = userDAO.findById(officerId);
+        return officer == null ? "Unknown" : officer.getUsername();
     }
 
     private static void updateComplaintStatus() {
@@ -229,6 +620,54 @@ public class Main {
         }
     }
 
+    private static void importComplaintsFromCsv() {
+        printHeader("Bulk Import Complaints");
+        System.out.println("Expected header: victim_name,crime_type,complaint_date,description,status,assigned_officer_id,criminal_id,evidence_type,evidence_details");
+        System.out.print("Enter path to CSV file: ");
+        Path file = Paths.get(scanner.nextLine().trim());
+        if (!Files.isRegularFile(file)) {
+            System.out.println("File not found: " + file);
+            return;
+        }
+
+        ComplaintCsvImporter importer = new ComplaintCsvImporter(
+                complaintDAO, evidenceDAO, ComplaintDAO.DEFAULT_BATCH_SIZE, currentUser.getUserId());
+        try {
+            ComplaintCsvImporter.Result result = importer.importFile(file,
+                    progress -> System.out.printf("  ... %d rows (%.0f rows/sec)%n", progress.getRows(), progress.getRowsPerSecond()));
+            System.out.println("Import finished. " + result);
+        } catch (IOException e) {
+            System.out.println("Import failed: " + e.getMessage());
+        }
+    }
+
+    private static void exportComplaints() {
+        printHeader("Export Complaints with Evidence");
+        System.out.print("Enter output file path: ");
+        Path file = Paths.get(scanner.nextLine().trim());
+        System.out.print("Format (ndjson/csv) [ndjson]: ");
+        String formatInput = scanner.nextLine().trim();
+        ComplaintExporter.Format format = formatInput.equalsIgnoreCase("csv")
+                ? ComplaintExporter.Format.CSV : ComplaintExporter.Format.NDJSON;
+        System.out.print("Compress with gzip? (y/n) [n]: ");
+        boolean compress = scanner.nextLine().trim().equalsIgnoreCase("y");
+
+        long start = System.nanoTime();
+        try (ComplaintExporter exporter = new ComplaintExporter(file, format, compress)) {
+            long rows = exportDAO.exportComplaintsWithEvidence(exporter);
+            if (rows < 0) {
+                System.out.println("Export failed. The output file is incomplete.");
+                return;
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.printf("Exported %d complaints (%d rows, %.1f MB uncompressed) to %s in %.1f s (%.0f rows/sec).%n",
+                    exporter.getComplaintCount(), rows, exporter.getBytesWritten() / (1024.0 * 1024.0),
+                    file, seconds, seconds > 0 ? rows / seconds : 0.0);
+        } catch (IOException e) {
+            System.out.println("Export failed: " + e.getMessage());
+        }
+    }
+
     private static void manageCriminals() {
         boolean back = false;
         while (!back) {
@@ -265,6 +704,22 @@ public class Main {
             Criminal criminal = new Criminal();
             System.out.print("Enter Criminal's Name: ");
             criminal.setName(scanner.nextLine());
+
+            // Warn before creating a likely duplicate
+            List<NameIndex.NameMatch> similar = Indexes.names()
+                    .findSimilar(criminal.getName(), NameIndex.DEFAULT_MIN_SIMILARITY, 5);
+            if (!similar.isEmpty()) {
+                System.out.println("Possible duplicates already on record:");
+                for (NameIndex.NameMatch match : similar) {
+                    System.out.printf("  ID %-8d %-30s (%.0f%% similar)%n",
+                            match.getCriminalId(), match.getName(), match.getSimilarity() * 100);
+                }
+                System.out.print("Add this criminal anyway? (y/n): ");
+                if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                    System.out.println("Criminal not added.");
+                    return;
+                }
+            }
             System.out.print("Enter Crime History: ");
             criminal.setCrimeHistory(scanner.nextLine());
             System.out.print("Enter Status (e.g., Under Investigation, Arrested): ");
@@ -282,15 +737,19 @@ public class Main {
 
     private static void viewAllCriminals() {
         printHeader("All Criminals");
+        TableRenderer<Criminal> table = new TableRenderer<Criminal>()
+                .addNumberColumn("ID", 10, Criminal::getCriminalId)
+                .addColumn("Name", 30, Criminal::getName)
+                .addColumn("Status", 19, Criminal::getStatus)
+                .addColumn("Crime History", 60, Criminal::getCrimeHistory);
         List<Criminal> criminals = criminalDAO.getAllCriminals();
-        if (criminals.isEmpty()) {
-            System.out.println("No criminals found.");
-        } else {
-            for (Criminal criminal : criminals) {
-                System.out.println("--------------------");
-                System.out.println(criminal);
-            }
-        }
+        int pageSize = ComplaintDAO.DEFAULT_PAGE_SIZE;
+        browseTable("criminals", table, pageIndex -> {
+            int from = pageIndex * pageSize;
+            return from >= criminals.size()
+                    ? new ArrayList<>()
+                    : criminals.subList(from, Math.min(from + pageSize, criminals.size()));
+        });
     }
 
     private static void manageEvidence() {
@@ -299,6 +758,10 @@ public class Main {
             printHeader("Evidence Management");
             System.out.println("1. Add Evidence to a Complaint");
             System.out.println("2. View Evidence for a Complaint");
+            System.out.println("3. Find Complaints Sharing an Indicator");
+            System.out.println("4. Find Related Complaints");
+            System.out.println("5. Search IP Addresses by CIDR or Range");
+            System.out.println("6. Match a Threat Feed File");
             System.out.println("9. Back to Main Menu");
             System.out.print("Enter your choice: ");
 
@@ -311,6 +774,18 @@ public class Main {
                     case 2:
                         viewEvidenceForComplaint();
                         break;
+                    case 3:
+                        findComplaintsByIndicator();
+                        break;
+                    case 4:
+                        findRelatedComplaints();
+                        break;
+                    case 5:
+                        searchIpRange();
+                        break;
+                    case 6:
+                        matchThreatFeed();
+                        break;
                     case 9:
                         back = true;
                         break;
@@ -365,24 +840,838 @@ public class Main {
         }
     }
 
+    private static void findComplaintsByIndicator() {
+        printHeader("Find Complaints Sharing an Indicator");
+        System.out.print("Enter Evidence Type (e.g., Email, IP Address, Phone): ");
+        String evidenceType = scanner.nextLine();
+        System.out.print("Enter Value: ");
+        String value = scanner.nextLine();
+
+        long start = System.nanoTime();
+        int[] complaintIds = Indexes.indicators().findComplaints(evidenceType, value);
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        if (complaintIds.length == 0) {
+            System.out.printf("No complaints mention this indicator (%.2f ms).%n", millis);
+            return;
+        }
+        System.out.printf("%d complaint(s) mention this indicator (%.2f ms):%n", complaintIds.length, millis);
+        printComplaints(complaintIds);
+    }
+
+    private static void findRelatedComplaints() {
+        printHeader("Find Related Complaints");
+        try {
+            System.out.print("Enter Complaint ID: ");
+            int complaintId = Integer.parseInt(scanner.nextLine());
+            List<Evidence> evidenceList = evidenceDAO.getEvidenceForComplaint(complaintId);
+            if (evidenceList.isEmpty()) {
+                System.out.println("No evidence found for Complaint ID: " + complaintId);
+                return;
+            }
+
+            IndicatorIndex index = Indexes.indicators();
+            boolean found = false;
+            for (Evidence evidence : evidenceList) {
+                int[] related = Arrays.stream(index.findComplaints(evidence.getEvidenceType(), evidence.getDetails()))
+                        .filter(id -> id != complaintId)
+                        .toArray();
+                if (related.length > 0) {
+                    found = true;
+                    System.out.println("--------------------");
+                    System.out.println(evidence.getEvidenceType() + " '" + evidence.getDetails() + "' also appears in "
+                            + related.length + " other complaint(s): " + Arrays.toString(related));
+                }
+            }
+            if (!found) {
+                System.out.println("No other complaints share evidence with Complaint ID: " + complaintId);
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid Complaint ID. Please enter a number.");
+        }
+    }
+
+    private static void searchIpRange() {
+        printHeader("Search IP Addresses");
+        System.out.print("Enter CIDR block or range (e.g., 203.0.113.0/24, 10.0.0.1-10.0.0.99): ");
+        IpRange range = IpRange.parse(scanner.nextLine());
+        if (range == null) {
+            System.out.println("Invalid CIDR block or range.");
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<IpRangeIndex.Match> matches = Indexes.ipRanges().find(range);
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        if (matches.isEmpty()) {
+            System.out.printf("No IP evidence in %s (%.2f ms).%n", range, millis);
+            return;
+        }
+        System.out.printf("%d IP evidence record(s) in %s (%.2f ms):%n", matches.size(), range, millis);
+        for (int i = 0; i < matches.size() && i < SEARCH_RESULT_LIMIT; i++) {
+            IpRangeIndex.Match match = matches.get(i);
+            System.out.printf("  %-39s Complaint ID: %d, Evidence ID: %d%n",
+                    match.getAddress(), match.getComplaintId(), match.getEvidenceId());
+        }
+        if (matches.size() > SEARCH_RESULT_LIMIT) {
+            System.out.println("  ... and " + (matches.size() - SEARCH_RESULT_LIMIT) + " more.");
+        }
+    }
+
+    private static void matchThreatFeed() {
+        printHeader("Match a Threat Feed File");
+        System.out.println("One CIDR block, range or address per line, optionally followed by a label.");
+        System.out.print("Enter path to feed file: ");
+        Path file = Paths.get(scanner.nextLine().trim());
+        if (!Files.isRegularFile(file)) {
+            System.out.println("File not found: " + file);
+            return;
+        }
+
+        ThreatFeedReader.Result feed;
+        try {
+            feed = ThreatFeedReader.read(file);
+        } catch (IOException e) {
+            System.out.println("Failed to read feed: " + e.getMessage());
+            return;
+        }
+        if (feed.getRejectedLines() > 0) {
+            System.out.println("Skipped " + feed.getRejectedLines() + " invalid line(s).");
+        }
+
+        long start = System.nanoTime();
+        List<IpRangeIndex.FeedMatch> matches = Indexes.ipRanges().matchAll(feed.getRanges());
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        Set<Integer> complaints = new TreeSet<>();
+        for (IpRangeIndex.FeedMatch feedMatch : matches) {
+            complaints.add(feedMatch.getMatch().getComplaintId());
+        }
+        System.out.printf("%d range(s) checked: %d IP evidence match(es) across %d complaint(s) (%.2f ms).%n",
+                feed.getRanges().size(), matches.size(), complaints.size(), millis);
+        for (int i = 0; i < matches.size() && i < SEARCH_RESULT_LIMIT; i++) {
+            IpRangeIndex.FeedMatch feedMatch = matches.get(i);
+            System.out.printf("  %-39s Complaint ID: %d  <- %s%n", feedMatch.getMatch().getAddress(),
+                    feedMatch.getMatch().getComplaintId(), feedMatch.getRange());
+        }
+        if (matches.size() > SEARCH_RESULT_LIMIT) {
+            System.out.println("  ... and " + (matches.size() - SEARCH_RESULT_LIMIT) + " more.");
+        }
+    }
+
+    /**
+     * Loads and prints complaints concurrently, at most SEARCH_RESULT_LIMIT of them.
+     */
+    private static void printComplaints(int[] complaintIds) {
+        int count = Math.min(complaintIds.length, SEARCH_RESULT_LIMIT);
+        List<CompletableFuture<Complaint>> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(asyncDAO.getComplaintById(complaintIds[i]));
+        }
+        for (int i = 0; i < count; i++) {
+            System.out.println("--------------------");
+            try {
+                Complaint complaint = records.get(i).join();
+                System.out.println(complaint == null ? "Record " + complaintIds[i] + " no longer exists." : complaint);
+            } catch (CompletionException e) {
+                System.out.println("Failed to load record " + complaintIds[i] + ": " + e.getCause());
+            }
+        }
+        if (complaintIds.length > count) {
+            System.out.println("... and " + (complaintIds.length - count) + " more.");
+        }
+    }
+
     private static void generateReports() {
-        printHeader("Generate Reports");
-        System.out.println("This feature is a simplified demonstration.");
-        
-        List<Complaint> complaints = complaintDAO.getAllComplaints();
-        long openCount = complaints.stream().filter(c -> "Open".equalsIgnoreCase(c.getStatus())).count();
-        long investigatingCount = complaints.stream().filter(c -> "Under Investigation".equalsIgnoreCase(c.getStatus())).count();
-        long closedCount = complaints.stream().filter(c -> "Closed".equalsIgnoreCase(c.getStatus())).count();
+        boolean back = false;
+        while (!back) {
+            printHeader("Generate Reports");
+            System.out.println("1. Crime Status Report");
+            System.out.println("2. Complaints by Crime Type");
+            System.out.println("3. Complaints by Officer");
+            System.out.println("4. Complaints by Month");
+            System.out.println("5. Crime Type x Status");
+            System.out.println("6. Officer x Status");
+            System.out.println("7. Month x Crime Type");
+            System.out.println("8. Possible Duplicate Criminals");
+            System.out.println("9. Ad-hoc Analytics (in-memory snapshot)");
+            System.out.println("10. Complaint Trends by Day, Week or Month");
+            System.out.println("0. Back to Main Menu");
+            System.out.print("Enter your choice: ");
+
+            try {
+                int choice = Integer.parseInt(scanner.nextLine());
+                switch (choice) {
+                    case 1:
+                        printStatusReport();
+                        break;
+                    case 2:
+                        printCountReport(ReportDAO.Dimension.CRIME_TYPE);
+                        break;
+                    case 3:
+                        printCountReport(ReportDAO.Dimension.OFFICER);
+                        break;
+                    case 4:
+                        printCountReport(ReportDAO.Dimension.MONTH);
+                        break;
+                    case 5:
+                        printCrossTabReport(ReportDAO.Dimension.CRIME_TYPE, ReportDAO.Dimension.STATUS);
+                        break;
+                    case 6:
+                        printCrossTabReport(ReportDAO.Dimension.OFFICER, ReportDAO.Dimension.STATUS);
+                        break;
+                    case 7:
+                        printCrossTabReport(ReportDAO.Dimension.MONTH, ReportDAO.Dimension.CRIME_TYPE);
+                        break;
+                    case 8:
+                        printDuplicateCriminalsReport();
+                        break;
+                    case 9:
+                        runAdHocAnalytics();
+                        break;
+                    case 10:
+                        printTrendReport();
+                        break;
+                    case 0:
+                        back = true;
+                        break;
+                    default:
+                        System.out.println("Invalid choice.");
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter a number.");
+            }
+        }
+    }
+
+    private static void printStatusReport() {
+        // Statuses compare case-insensitively, as in the database's collation
+        Map<String, Long> counts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        reportDAO.countBy(ReportDAO.Dimension.STATUS).forEach((status, count) -> counts.merge(status, count, Long::sum));
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
 
         System.out.println("\n--- Crime Status Report ---");
-        System.out.println("Total Complaints: " + complaints.size());
-        System.out.println("Open Cases: " + openCount);
-        System.out.println("Cases Under Investigation: " + investigatingCount);
-        System.out.println("Closed Cases: " + closedCount);
-        System.out.println("\nPress Enter to return to the Main Menu.");
+        System.out.println("Total Complaints: " + total);
+        System.out.println("Open Cases: " + counts.getOrDefault("Open", 0L));
+        System.out.println("Cases Under Investigation: " + counts.getOrDefault("Under Investigation", 0L));
+        System.out.println("Closed Cases: " + counts.getOrDefault("Closed", 0L));
+        waitForEnter();
+    }
+
+    private static void printCountReport(ReportDAO.Dimension dimension) {
+        printCounts(dimension, reportDAO.countBy(dimension));
+    }
+
+    private static void printCounts(ReportDAO.Dimension dimension, Map<String, Long> counts) {
+        System.out.println("\n--- Complaints by " + dimension.getLabel() + " ---");
+        if (counts.isEmpty()) {
+            System.out.println("No complaints found.");
+        } else {
+            long total = 0;
+            for (Map.Entry<String, Long> entry : counts.entrySet()) {
+                System.out.printf("%-30s %10d%n", entry.getKey(), entry.getValue());
+                total += entry.getValue();
+            }
+            System.out.printf("%-30s %10d%n", "Total", total);
+        }
+        waitForEnter();
+    }
+
+    private static void printDuplicateCriminalsReport() {
+        NameIndex names = Indexes.names();
+        long start = System.nanoTime();
+        List<int[]> clusters = names.findDuplicateClusters(NameIndex.DEFAULT_MIN_SIMILARITY);
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        System.out.println("\n--- Possible Duplicate Criminals ---");
+        if (clusters.isEmpty()) {
+            System.out.printf("No likely duplicates among %d criminals (%.2f ms).%n", names.size(), millis);
+        } else {
+            System.out.printf("%d group(s) of similar names among %d criminals (%.2f ms):%n", clusters.size(), names.size(), millis);
+            for (int[] cluster : clusters) {
+                System.out.println("--------------------");
+                for (int criminalId : cluster) {
+                    System.out.printf("  ID %-8d %s%n", criminalId, names.getName(criminalId));
+                }
+            }
+        }
+        waitForEnter();
+    }
+
+    private static void printCrossTabReport(ReportDAO.Dimension rows, ReportDAO.Dimension columns) {
+        printCrossTab(rows, columns, reportDAO.crossTab(rows, columns));
+    }
+
+    private static void printCrossTab(ReportDAO.Dimension rows, ReportDAO.Dimension columns, Map<String, Map<String, Long>> table) {
+        System.out.println("\n--- " + rows.getLabel() + " x " + columns.getLabel() + " ---");
+        if (table.isEmpty()) {
+            System.out.println("No complaints found.");
+            waitForEnter();
+            return;
+        }
+
+        // Collect the column headers in a stable order
+        Set<String> columnKeys = new TreeSet<>();
+        for (Map<String, Long> row : table.values()) {
+            columnKeys.addAll(row.keySet());
+        }
+
+        StringBuilder header = new StringBuilder(String.format("%-24s", rows.getLabel()));
+        for (String column : columnKeys) {
+            header.append(String.format(" %20s", column));
+        }
+        System.out.println(header);
+        for (Map.Entry<String, Map<String, Long>> row : table.entrySet()) {
+            StringBuilder line = new StringBuilder(String.format("%-24s", row.getKey()));
+            for (String column : columnKeys) {
+                line.append(String.format(" %20d", row.getValue().getOrDefault(column, 0L)));
+            }
+            System.out.println(line);
+        }
+        waitForEnter();
+    }
+
+    /**
+     * Filters and groups a columnar snapshot of the complaints in memory. The snapshot is
+     * built on first use and kept until refreshed, so repeated questions cost no database work.
+     */
+    private static void runAdHocAnalytics() {
+        if (analyticsSnapshot == null && !refreshAnalyticsSnapshot()) {
+            waitForEnter();
+            return;
+        }
+        Selection filter = analyticsSnapshot.all();
+        String filterText = "none";
+        boolean back = false;
+        while (!back) {
+            printHeader("Ad-hoc Analytics");
+            System.out.println(analyticsSnapshot + ", built " + (System.currentTimeMillis() - analyticsSnapshot.getBuiltAtMillis()) / 1000 + " s ago, "
+                    + describeChanges(analyticsChanges.getChangedRows()) + " since");
+            System.out.println("Filter: " + filterText + " (" + filter.count() + " complaints)");
+            System.out.println("1. Set Filter");
+            System.out.println("2. Clear Filter");
+            System.out.println("3. Count by One Dimension");
+            System.out.println("4. Cross-Tab by Two Dimensions");
+            System.out.println("5. List Matching Complaints");
+            System.out.println("6. Refresh Snapshot");
+            System.out.println("0. Back to Reports");
+            System.out.print("Enter your choice: ");
+
+            try {
+                int choice = Integer.parseInt(scanner.nextLine());
+                switch (choice) {
+                    case 1: {
+                        List<String> description = new ArrayList<>();
+                        Selection selection = readAnalyticsFilter(description);
+                        if (selection != null) {
+                            filter = selection;
+                            filterText = description.isEmpty() ? "none" : String.join(", ", description);
+                        }
+                        break;
+                    }
+                    case 2:
+                        filter = analyticsSnapshot.all();
+                        filterText = "none";
+                        break;
+                    case 3: {
+                        ReportDAO.Dimension dimension = readDimension("Group by");
+                        long start = System.nanoTime();
+                        Map<String, Long> counts = analyticsSnapshot.countBy(dimension, filter);
+                        System.out.printf("(%.2f ms)%n", (System.nanoTime() - start) / 1_000_000.0);
+                        printCounts(dimension, counts);
+                        break;
+                    }
+                    case 4: {
+                        ReportDAO.Dimension rows = readDimension("Rows");
+                        ReportDAO.Dimension columns = readDimension("Columns");
+                        long start = System.nanoTime();
+                        Map<String, Map<String, Long>> table = analyticsSnapshot.crossTab(rows, columns, filter);
+                        System.out.printf("(%.2f ms)%n", (System.nanoTime() - start) / 1_000_000.0);
+                        printCrossTab(rows, columns, table);
+                        break;
+                    }
+                    case 5:
+                        printComplaints(analyticsSnapshot.complaintIds(filter));
+                        waitForEnter();
+                        break;
+                    case 6:
+                        if (!refreshAnalyticsSnapshot()) {
+                            break;
+                        }
+                        filter = analyticsSnapshot.all();
+                        filterText = "none";
+                        break;
+                    case 0:
+                        back = true;
+                        break;
+                    default:
+                        System.out.println("Invalid choice.");
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter a number.");
+            }
+        }
+    }
+
+    /**
+     * Prints complaint counts per period from the precomputed rollup cells.
+     */
+    private static void printTrendReport() {
+        printHeader("Complaint Trends");
+        ComplaintRollup.Granularity[] granularities = ComplaintRollup.Granularity.values();
+        System.out.print("Period (1 = Day, 2 = Week, 3 = Month) [3]: ");
+        String input = scanner.nextLine().trim();
+        ComplaintRollup.Granularity granularity;
+        try {
+            granularity = input.isEmpty() ? ComplaintRollup.Granularity.MONTH : granularities[Integer.parseInt(input) - 1];
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.out.println("Invalid period.");
+            return;
+        }
+
+        LocalDate to = LocalDate.now();
+        LocalDate from = granularity == ComplaintRollup.Granularity.DAY ? to.minusDays(29)
+                : granularity == ComplaintRollup.Granularity.WEEK ? to.minusWeeks(11) : to.minusMonths(11);
+        try {
+            System.out.print("From date (YYYY-MM-DD) [" + from + "]: ");
+            input = scanner.nextLine().trim();
+            from = input.isEmpty() ? from : LocalDate.parse(input);
+            System.out.print("To date (YYYY-MM-DD) [" + to + "]: ");
+            input = scanner.nextLine().trim();
+            to = input.isEmpty() ? to : LocalDate.parse(input);
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date: " + e.getParsedString());
+            return;
+        }
+
+        System.out.print("Split by (1 = Total only, 2 = Crime Type, 3 = Status) [1]: ");
+        input = scanner.nextLine().trim();
+        ComplaintRollup.Breakdown breakdown = input.equals("2") ? ComplaintRollup.Breakdown.CRIME_TYPE
+                : input.equals("3") ? ComplaintRollup.Breakdown.STATUS : ComplaintRollup.Breakdown.TOTAL;
+        System.out.print("Only crime type (blank for all): ");
+        String crimeType = scanner.nextLine().trim();
+        System.out.print("Only status (blank for all): ");
+        String status = scanner.nextLine().trim();
+
+        long start = System.nanoTime();
+        ComplaintRollup.Trend trend;
+        try {
+            trend = Indexes.rollup().query(granularity, from, to, breakdown,
+                    crimeType.isEmpty() ? null : crimeType, status.isEmpty() ? null : status);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        long max = 1;
+        for (int period = 0; period < trend.getPeriods().size(); period++) {
+            max = Math.max(max, trend.getPeriodTotal(period));
+        }
+        boolean split = breakdown != ComplaintRollup.Breakdown.TOTAL;
+        StringBuilder header = new StringBuilder(String.format("%-12s", granularity.getLabel()));
+        if (split) {
+            for (String group : trend.getGroups()) {
+                header.append(String.format(" %12s", group.length() > 12 ? group.substring(0, 12) : group));
+            }
+        }
+        System.out.println(header.append(String.format(" %8s", "Total")));
+        for (int period = 0; period < trend.getPeriods().size(); period++) {
+            StringBuilder line = new StringBuilder(String.format("%-12s", trend.getPeriods().get(period)));
+            if (split) {
+                for (int group = 0; group < trend.getGroups().size(); group++) {
+                    line.append(String.format(" %12d", trend.getCount(period, group)));
+                }
+            }
+            long total = trend.getPeriodTotal(period);
+            line.append(String.format(" %8d ", total)).append("#".repeat((int) (total * 40 / max)));
+            console.println(line);
+        }
+        console.flush();
+        System.out.printf("(%d periods from %d precomputed cells in %.2f ms)%n", trend.getPeriods().size(), trend.getCellsRead(), millis);
+        waitForEnter();
+    }
+
+    private static String describeChanges(int changedRows) {
+        return changedRows < 0 ? "too many changes to count" : changedRows + " rows changed";
+    }
+
+    /**
+     * @return false if the complaints could not be read; the previous snapshot is kept.
+     */
+    private static boolean refreshAnalyticsSnapshot() {
+        System.out.println("Building the complaint snapshot...");
+        long start = System.nanoTime();
+        if (analyticsChanges == null) {
+            analyticsChanges = SnapshotChanges.start(); // Before the read, so no change is missed
+        }
+        try {
+            analyticsSnapshot = ComplaintSnapshot.build(complaintDAO, userDAO);
+        } catch (DataAccessException e) {
+            System.out.println("Failed to read the complaints: " + e.getMessage());
+            return false;
+        }
+        analyticsChanges.track(analyticsSnapshot);
+        System.out.printf("Loaded %d complaints in %.0f ms.%n", analyticsSnapshot.size(), (System.nanoTime() - start) / 1_000_000.0);
+        return true;
+    }
+
+    /**
+     * Prompts for each filter criterion; blank answers leave a criterion out.
+     * @param description Receives a readable description of the chosen criteria.
+     * @return The matching rows, or null if an answer was invalid.
+     */
+    private static Selection readAnalyticsFilter(List<String> description) {
+        Selection selection = analyticsSnapshot.all();
+        System.out.print("Status(es), comma-separated (blank for any): ");
+        List<String> statuses = readList();
+        if (!statuses.isEmpty()) {
+            selection = selection.and(analyticsSnapshot.statusIn(statuses));
+            description.add("status in " + statuses);
+        }
+        System.out.print("Crime type(s), comma-separated (blank for any): ");
+        List<String> crimeTypes = readList();
+        if (!crimeTypes.isEmpty()) {
+            selection = selection.and(analyticsSnapshot.crimeTypeIn(crimeTypes));
+            description.add("crime type in " + crimeTypes);
+        }
+        try {
+            System.out.print("From date (YYYY-MM-DD, blank for any): ");
+            String from = scanner.nextLine().trim();
+            System.out.print("To date (YYYY-MM-DD, blank for any): ");
+            String to = scanner.nextLine().trim();
+            if (!from.isEmpty() || !to.isEmpty()) {
+                selection = selection.and(analyticsSnapshot.dateBetween(
+                        from.isEmpty() ? null : LocalDate.parse(from), to.isEmpty() ? null : LocalDate.parse(to)));
+                description.add("date " + (from.isEmpty() ? "..." : from) + " to " + (to.isEmpty() ? "..." : to));
+            }
+            System.out.print("Assigned officer ID (blank for any): ");
+            String officer = scanner.nextLine().trim();
+            if (!officer.isEmpty()) {
+                selection = selection.and(analyticsSnapshot.officerIs(Integer.parseInt(officer)));
+                description.add("officer " + officer);
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            System.out.println("Invalid value: " + e.getMessage());
+            return null;
+        }
+        System.out.print("Linked to a criminal? (y/n, blank for any): ");
+        String linked = scanner.nextLine().trim();
+        if (linked.equalsIgnoreCase("y") || linked.equalsIgnoreCase("n")) {
+            selection = selection.and(analyticsSnapshot.criminalLinked(linked.equalsIgnoreCase("y")));
+            description.add(linked.equalsIgnoreCase("y") ? "with criminal" : "without criminal");
+        }
+        return selection;
+    }
+
+    private static List<String> readList() {
+        List<String> values = new ArrayList<>();
+        for (String value : scanner.nextLine().split(",")) {
+            if (!value.trim().isEmpty()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+
+    private static ReportDAO.Dimension readDimension(String prompt) {
+        ReportDAO.Dimension[] dimensions = ReportDAO.Dimension.values();
+        while (true) {
+            StringBuilder options = new StringBuilder(prompt).append(" (");
+            for (int i = 0; i < dimensions.length; i++) {
+                options.append(i == 0 ? "" : ", ").append(i + 1).append(" = ").append(dimensions[i].getLabel());
+            }
+            System.out.print(options.append("): "));
+            try {
+                int choice = Integer.parseInt(scanner.nextLine().trim());
+                if (choice >= 1 && choice <= dimensions.length) {
+                    return dimensions[choice - 1];
+                }
+            } catch (NumberFormatException e) {
+                // Ask again
+            }
+            System.out.println("Please enter a number from 1 to " + dimensions.length + ".");
+        }
+    }
+
+    private static void showDiagnostics() {
+        boolean back = false;
+        while (!back) {
+            printHeader("Diagnostics");
+            System.out.println("1. DAO Operation Latency");
+            System.out.println("2. SQL Statement Statistics");
+            System.out.println("3. Connection Pool (or Store) Usage");
+            System.out.println("4. Write JSON Snapshot");
+            System.out.println("9. Back to Main Menu");
+            System.out.print("Enter your choice: ");
+
+            try {
+                int choice = Integer.parseInt(scanner.nextLine());
+                switch (choice) {
+                    case 1:
+                        printDaoLatency();
+                        break;
+                    case 2:
+                        printStatementStatistics();
+                        break;
+                    case 3:
+                        printPoolUsage();
+                        break;
+                    case 4:
+                        writeDiagnosticsSnapshot();
+                        break;
+                    case 9:
+                        back = true;
+                        break;
+                    default:
+                        System.out.println("Invalid choice.");
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter a number.");
+            }
+        }
+    }
+
+    /**
+     * Prints call counts and latency percentiles of every DAO operation that has been called.
+     */
+    private static void printDaoLatency() {
+        System.out.println("\n--- DAO Operation Latency ---");
+        System.out.printf("%-40s %9s %8s %9s %9s %9s%n", "Operation", "Calls", "Failed", "p50 ms", "p99 ms", "Max ms");
+        for (DaoMetrics.Stats stats : DaoMetrics.getStats()) {
+            if (stats.getCalls() == 0) {
+                continue;
+            }
+            LatencyHistogram.Snapshot latency = stats.getLatency();
+            System.out.printf("%-40s %9d %8d %9.3f %9.3f %9.3f%n",
+                    stats.getName(), stats.getCalls(), stats.getFailures(),
+                    latency.getPercentileNanos(50) / 1_000_000.0, latency.getPercentileNanos(99) / 1_000_000.0,
+                    latency.getMaxNanos() / 1_000_000.0);
+        }
+        waitForEnter();
+    }
+
+    private static void printPoolUsage() {
+        if (Repositories.isEmbedded()) {
+            System.out.println("\n--- Embedded Store Usage ---");
+            System.out.println(Repositories.getEmbeddedStore().getStats());
+        } else {
+            ConnectionPool.Stats stats = DatabaseConnector.getPoolStats();
+            System.out.println("\n--- Connection Pool Usage ---");
+            System.out.printf("In use: %d of %d connections (%.0f%%), %d idle%n", stats.getActive(), stats.getMaxSize(),
+                    100.0 * stats.getActive() / stats.getMaxSize(), stats.getIdle());
+            System.out.println(stats);
+        }
+
+        System.out.println("\n--- Change Events ---");
+        ChangeJournal journal = ChangeEventBus.getJournal();
+        System.out.printf("Published: %d (last sequence %d), journal: %s%n", ChangeEventBus.getPublished(), ChangeEventBus.getLastSequence(),
+                journal == null ? "off" : journal.getPath() + " (" + journal.getEventCount() + " events, " + journal.getBytes() / 1024 + " KB)");
+        for (ChangeEventBus.Subscription subscription : ChangeEventBus.getSubscriptions()) {
+            System.out.println("  " + subscription);
+        }
+        waitForEnter();
+    }
+
+    private static void writeDiagnosticsSnapshot() {
+        System.out.print("Enter output file path [ccrms-diagnostics.json]: ");
+        String input = scanner.nextLine().trim();
+        Path file = Paths.get(input.isEmpty() ? "ccrms-diagnostics.json" : input);
+        try {
+            DiagnosticsWriter.write(file);
+            System.out.println("Diagnostics snapshot written to " + file.toAbsolutePath());
+        } catch (IOException e) {
+            System.out.println("Could not write the snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prints execution statistics of every registered SQL statement, most total time first.
+     */
+    private static void printStatementStatistics() {
+        System.out.println("\n--- Statement Statistics ---");
+        System.out.printf("%-46s %9s %10s %6s %9s %9s %9s %9s%n",
+                "Statement", "Execs", "Rows", "Errors", "Mean ms", "p50 ms", "p99 ms", "Max ms");
+        for (StatementRegistry.Stats stats : StatementRegistry.getStats()) {
+            if (stats.getExecutions() == 0 && stats.getErrors() == 0) {
+                continue;
+            }
+            LatencyHistogram.Snapshot latency = stats.getLatency();
+            System.out.printf("%-46s %9d %10d %6d %9.3f %9.3f %9.3f %9.3f%n",
+                    stats.getName(), stats.getExecutions(), stats.getRows(), stats.getErrors(),
+                    latency.getMeanNanos() / 1_000_000.0, latency.getPercentileNanos(50) / 1_000_000.0,
+                    latency.getPercentileNanos(99) / 1_000_000.0, latency.getMaxNanos() / 1_000_000.0);
+        }
+        waitForEnter();
+    }
+
+    private static void waitForEnter() {
+        System.out.println("\nPress Enter to continue.");
         scanner.nextLine(); // Wait for user to acknowledge
     }
 
+    private static void searchRecords() {
+        boolean back = false;
+        while (!back) {
+            printHeader("Search Records");
+            System.out.println("1. Search Complaint Descriptions");
+            System.out.println("2. Search Criminal Histories");
+            System.out.println("9. Back to Main Menu");
+            System.out.print("Enter your choice: ");
+
+            try {
+                int choice = Integer.parseInt(scanner.nextLine());
+                switch (choice) {
+                    case 1:
+                    case 2:
+                        runKeywordSearch(choice == 1);
+                        break;
+                    case 9:
+                        back = true;
+                        break;
+                    default:
+                        System.out.println("Invalid choice.");
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter a number.");
+            }
+        }
+    }
+
+    private static void runKeywordSearch(boolean complaints) {
+        System.out.print("Enter keywords: ");
+        String query = scanner.nextLine();
+        System.out.print("Match (all/any) [all]: ");
+        boolean matchAll = !scanner.nextLine().trim().equalsIgnoreCase("any");
+
+        SearchIndex index = Indexes.search();
+        long start = System.nanoTime();
+        List<InvertedIndex.Hit> hits = complaints
+                ? index.searchComplaints(query, matchAll, SEARCH_RESULT_LIMIT)
+                : index.searchCriminals(query, matchAll, SEARCH_RESULT_LIMIT);
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        if (hits.isEmpty()) {
+            System.out.printf("No matches (%.2f ms).%n", millis);
+            return;
+        }
+        System.out.printf("Top %d matches (%.2f ms):%n", hits.size(), millis);
+
+        // Load the matching records concurrently
+        List<CompletableFuture<?>> records = new ArrayList<>();
+        for (InvertedIndex.Hit hit : hits) {
+            records.add(complaints ? asyncDAO.getComplaintById(hit.getId()) : asyncDAO.getCriminalById(hit.getId()));
+        }
+        for (int i = 0; i < hits.size(); i++) {
+            System.out.println("--------------------");
+            System.out.printf("Score: %.3f%n", hits.get(i).getScore());
+            try {
+                Object record = records.get(i).join();
+                System.out.println(record == null ? "Record " + hits.get(i).getId() + " no longer exists." : record);
+            } catch (CompletionException e) {
+                System.out.println("Failed to load record " + hits.get(i).getId() + ": " + e.getCause());
+            }
+        }
+    }
+
+    private static void analyzeCaseLinks() {
+        boolean back = false;
+        while (!back) {
+            printHeader("Case Linkage Analysis");
+            System.out.println("Complaints are linked through shared criminals and shared evidence.");
+            System.out.println("1. View Linked Cluster of a Complaint");
+            System.out.println("2. View Neighborhood of a Complaint (k hops)");
+            System.out.println("3. Largest Case Rings");
+            System.out.println("9. Back to Main Menu");
+            System.out.print("Enter your choice: ");
+
+            try {
+                int choice = Integer.parseInt(scanner.nextLine());
+                switch (choice) {
+                    case 1:
+                        viewLinkedCluster();
+                        break;
+                    case 2:
+                        viewNeighborhood();
+                        break;
+                    case 3:
+                        viewLargestRings();
+                        break;
+                    case 9:
+                        back = true;
+                        break;
+                    default:
+                        System.out.println("Invalid choice.");
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter a number.");
+            }
+        }
+    }
+
+    private static void viewLinkedCluster() {
+        System.out.print("Enter Complaint ID: ");
+        int complaintId = Integer.parseInt(scanner.nextLine());
+        int[] cluster = Indexes.caseGraph().clusterOf(complaintId);
+        if (cluster.length == 0) {
+            System.out.println("Complaint not found: " + complaintId);
+        } else if (cluster.length == 1) {
+            System.out.println("Complaint " + complaintId + " is not linked to any other complaint.");
+        } else {
+            System.out.println("Complaint " + complaintId + " is in a cluster of " + cluster.length + " linked complaints:");
+            printComplaints(cluster);
+        }
+    }
+
+    private static void viewNeighborhood() {
+        System.out.print("Enter Complaint ID: ");
+        int complaintId = Integer.parseInt(scanner.nextLine());
+        System.out.print("Enter number of hops [2]: ");
+        String hopsText = scanner.nextLine().trim();
+        int hops = hopsText.isEmpty() ? 2 : Integer.parseInt(hopsText);
+
+        List<int[]> levels = Indexes.caseGraph().neighborhood(complaintId, hops);
+        if (levels.isEmpty()) {
+            System.out.println("No linked complaints within " + hops + " hop(s) of Complaint " + complaintId + ".");
+            return;
+        }
+        for (int i = 0; i < levels.size(); i++) {
+            int[] level = levels.get(i);
+            System.out.printf("%d hop(s): %d complaint(s) %s%n", i + 1, level.length,
+                    level.length > SEARCH_RESULT_LIMIT
+                            ? Arrays.toString(Arrays.copyOf(level, SEARCH_RESULT_LIMIT)) + " ..."
+                            : Arrays.toString(level));
+        }
+    }
+
+    private static void viewLargestRings() {
+        long start = System.nanoTime();
+        List<CaseGraph.Ring> rings = Indexes.caseGraph().largestRings(10, 2);
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        System.out.println("\n--- Largest Case Rings ---");
+        if (rings.isEmpty()) {
+            System.out.printf("No linked complaints found (%.2f ms).%n", millis);
+        } else {
+            System.out.printf("Top %d ring(s) (%.2f ms):%n", rings.size(), millis);
+            for (int i = 0; i < rings.size(); i++) {
+                CaseGraph.Ring ring = rings.get(i);
+                int[] complaintIds = ring.getComplaintIds();
+                System.out.println("--------------------");
+                System.out.printf("#%d: %d complaints, %d criminal(s), %d shared indicator(s)%n", i + 1,
+                        complaintIds.length, ring.getCriminalIds().length, ring.getSharedIndicators());
+                System.out.println("  Complaint IDs: " + (complaintIds.length > SEARCH_RESULT_LIMIT
+                        ? Arrays.toString(Arrays.copyOf(complaintIds, SEARCH_RESULT_LIMIT)) + " ..."
+                        : Arrays.toString(complaintIds)));
+                if (ring.getCriminalIds().length > 0) {
+                    System.out.println("  Criminal IDs: " + Arrays.toString(ring.getCriminalIds()));
+                }
+            }
+        }
+        waitForEnter();
+    }
+
     private static void manageDeletion() {
         boolean back = false;
         while(!back) {
@@ -0,0 +1,699 @@
+package com.ccrms;
+
+import com.ccrms.dao.ComplaintFilter;
+import com.ccrms.dao.ComplaintRepository;
+import com.ccrms.dao.CriminalRepository;
+import com.ccrms.dao.EvidenceRepository;
+import com.ccrms.dao.ReportDAO;
+import com.ccrms.dao.Repositories;
+import com.ccrms.dao.UserRepository;
+import com.ccrms.index.AssignmentScheduler;
+import com.ccrms.index.Indexes;
+import com.ccrms.io.Json;
+import com.ccrms.models.Complaint;
+import com.ccrms.models.Criminal;
+import com.ccrms.models.Evidence;
+import com.ccrms.models.User;
+import com.ccrms.util.DatabaseConnector;
+import com.ccrms.util.LatencyHistogram;
+import com.ccrms.util.PasswordUtil;
+import com.ccrms.util.SchemaMigrator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Runs the system without the menus, from a script of commands.
+ *
+ * Usage:
+ *   java -cp bin:lib/* com.ccrms.Main --script commands.txt --user admin [--batch-size N] [--fail-fast]
+ * Use '--script -' to read the commands from standard input. The password is read from the
+ * CCRMS_PASSWORD environment variable, so it does not show up in the process list.
+ *
+ * One command per line: a command name followed by key=value arguments. Values containing
+ * spaces are double-quoted (\" and \\ escape inside quotes). Blank lines and lines starting
+ * with '#' are ignored.
+ * <pre>
+ *   add-complaint victim="Alice Smith" type=Phishing description="Fake bank email" [date=2025-07-15] [status=Open] [officer=2|auto] [criminal=1]
+ *   update-status id=42 status=Closed
+ *   bulk-status status=Closed [ids=1,2,10-99] [type=Phishing] [from=2024-01-01] [to=2024-12-31] [officer=2] [current=Open]
+ *   add-evidence complaint=42 type="Email ID" details=scammer@fakebank.com
+ *   add-criminal name="John Doe" history="Phishing in 2022" [status="Under Investigation"]
+ *   get-complaint id=42
+ *   report by=status|crime-type|officer|month [columns=status|crime-type|officer|month]
+ *   rebalance                (admins only)
+ *   flush
+ *   quit
+ * </pre>
+ * Consecutive add-complaint, add-evidence and update-status commands are sent as JDBC batches
+ * of up to batch-size rows; any other command (or flush) sends the pending batch first.
+ * officer=auto assigns the complaint to the least loaded officer, counting the complaints
+ * still pending in the batch, and rebalance moves 'Open' complaints from the most to the
+ * least loaded officers (see {@link AssignmentScheduler}). bulk-status sets the status of the
+ * listed complaints, or of every complaint matching the other criteria, in one transaction;
+ * it needs ids or at least one criterion. All
+ * commands run on one pinned connection. The same commands serve the sessions of
+ * {@link SessionServer}, which flush as soon as the client stops sending.
+ *
+ * Output: one JSON object per command on standard output, in script order, e.g.
+ * {"line":3,"command":"add-complaint","ok":true,"id":1051}, followed by a summary object with
+ * the totals and throughput. The exit status is 0 if every command succeeded, 1 if any
+ * failed and 2 if the script could not be run at all.
+ */
+public class ScriptRunner {
+
+    private static final String PASSWORD_ENV = "CCRMS_PASSWORD";
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final String[] COMPLAINT_STATUSES = {"Open", "Under Investigation", "Closed"};
+
+    private final ComplaintRepository complaintDAO = Repositories.complaints();
+    private final CriminalRepository criminalDAO = Repositories.criminals();
+    private final EvidenceRepository evidenceDAO = Repositories.evidence();
+    private final ReportDAO reportDAO = new ReportDAO();
+
+    private final User user;
+    private final int batchSize;
+    private final boolean failFast;
+    private final boolean interactive;
+    private final LatencyHistogram commandLatency;
+    private final PrintStream out;
+
+    // Batchable commands of one kind, waiting to be sent together
+    private String pendingCommand = null;
+    private final List<Command> pending = new ArrayList<>();
+
+    private long succeeded = 0;
+    private long failed = 0;
+
+    /**
+     * A parsed script line.
+     */
+    static final class Command {
+        final long line;
+        final String name;
+        final Map<String, String> arguments;
+        Object payload; // The model object or value prepared for a batch
+
+        Command(long line, String name, Map<String, String> arguments) {
+            this.line = line;
+            this.name = name;
+            this.arguments = arguments;
+        }
+    }
+
+    /**
+     * Thrown for a command that cannot be run as written.
+     */
+    static class CommandException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        CommandException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * @param interactive Whether to send pending batches and output whenever the input has
+     *                    nothing more buffered, instead of only when a batch is full.
+     * @param commandLatency Records the time taken by each command line; may be null.
+     */
+    ScriptRunner(User user, int batchSize, boolean failFast, boolean interactive,
+                 LatencyHistogram commandLatency, PrintStream out) {
+        this.user = user;
+        this.batchSize = batchSize;
+        this.failFast = failFast;
+        this.interactive = interactive;
+        this.commandLatency = commandLatency;
+        this.out = out;
+    }
+
+    /**
+     * Entry point for the command-line options of {@link Main}.
+     * @param args The command-line arguments.
+     * @return The process exit status.
+     */
+    public static int run(String[] args) {
+        String script = null;
+        String username = null;
+        int batchSize = DEFAULT_BATCH_SIZE;
+        boolean failFast = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--script":
+                        script = args[++i];
+                        break;
+                    case "--user":
+                        username = args[++i];
+                        break;
+                    case "--batch-size":
+                        batchSize = Integer.parseInt(args[++i]);
+                        break;
+                    case "--fail-fast":
+                        failFast = true;
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + args[i]);
+                        return 2;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.err.println("Invalid options: " + String.join(" ", args));
+            return 2;
+        }
+        if (script == null || username == null || batchSize <= 0) {
+            System.err.println("Usage: --script <file|-> --user <username> [--batch-size N] [--fail-fast]");
+            System.err.println("The password is read from the " + PASSWORD_ENV + " environment variable.");
+            return 2;
+        }
+
+        try {
+            if (SchemaMigrator.migrate() == -1) {
+                System.err.println("Error: The database schema could not be brought up to date.");
+                return 2;
+            }
+            User user = authenticate(Repositories.users(), username, System.getenv(PASSWORD_ENV));
+            if (user == null) {
+                System.err.println("Error: Invalid username or password.");
+                return 2;
+            }
+
+            ScriptRunner runner = new ScriptRunner(user, batchSize, failFast, false, null, System.out);
+            // The embedded store has no connections to pin
+            Connection shared = Repositories.isEmbedded() ? null : DatabaseConnector.pinConnection();
+            try (BufferedReader reader = script.equals("-")
+                    ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                    : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+                return runner.execute(reader);
+            } finally {
+                if (shared != null) {
+                    shared.close(); // Unpins it and returns it to the pool
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not connect to the database: " + e.getMessage());
+            return 2;
+        } catch (IOException e) {
+            System.err.println("Could not read the script: " + e.getMessage());
+            return 2;
+        } finally {
+            DatabaseConnector.closeConnection();
+        }
+    }
+
+    /**
+     * @return The user with the given credentials, or null if they do not match.
+     */
+    static User authenticate(UserRepository userDAO, String username, String password) {
+        if (username == null || password == null) {
+            return null;
+        }
+        User user = userDAO.findByUsername(username);
+        if (user == null || !PasswordUtil.checkPassword(password, user.getPasswordHash())) {
+            return null;
+        }
+        return user;
+    }
+
+    /**
+     * Runs every command of the script up to the end of the input or a quit command,
+     * then prints the summary.
+     * @return The exit status.
+     */
+    int execute(BufferedReader reader) throws IOException {
+        long start = System.nanoTime();
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            long commandStart = System.nanoTime();
+            try {
+                Command command = parse(lineNumber, trimmed);
+                if (command.name.equals("quit")) {
+                    break;
+                }
+                dispatch(command);
+            } catch (CommandException e) {
+                flush();
+                fail(new Command(lineNumber, "?", new HashMap<>()), e.getMessage());
+            }
+            if (interactive && !reader.ready()) {
+                // The client is waiting for the answers before sending more
+                flush();
+                out.flush();
+            }
+            if (commandLatency != null) {
+                commandLatency.record(System.nanoTime() - commandStart);
+            }
+            if (failFast && failed > 0) {
+                break;
+            }
+        }
+        flush();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long total = succeeded + failed;
+        out.println(String.format(Locale.ROOT,
+                "{\"summary\":true,\"commands\":%d,\"succeeded\":%d,\"failed\":%d,\"elapsed_ms\":%.1f,\"commands_per_second\":%.1f}",
+                total, succeeded, failed, seconds * 1000, seconds > 0 ? total / seconds : 0.0));
+        out.flush();
+        return failed == 0 ? 0 : 1;
+    }
+
+    private void dispatch(Command command) {
+        try {
+            switch (command.name) {
+                case "add-complaint":
+                    command.payload = toComplaint(command);
+                    enqueue(command);
+                    break;
+                case "add-evidence":
+                    command.payload = new Evidence(0, intArgument(command, "complaint", true),
+                            stringArgument(command, "type", true), stringArgument(command, "details", true));
+                    enqueue(command);
+                    break;
+                case "update-status":
+                    intArgument(command, "id", true);
+                    command.payload = complaintStatus(stringArgument(command, "status", true));
+                    enqueue(command);
+                    break;
+                case "add-criminal":
+                    flush();
+                    addCriminal(command);
+                    break;
+                case "get-complaint":
+                    flush();
+                    getComplaint(command);
+                    break;
+                case "report":
+                    flush();
+                    report(command);
+                    break;
+                case "bulk-status":
+                    flush();
+                    bulkStatus(command);
+                    break;
+                case "rebalance":
+                    flush();
+                    rebalance(command);
+                    break;
+                case "flush":
+                    flush();
+                    succeed(command, "");
+                    break;
+                default:
+                    throw new CommandException("Unknown command: " + command.name);
+            }
+        } catch (CommandException e) {
+            flush(); // Keep the output in script order
+            fail(command, e.getMessage());
+        }
+    }
+
+    // --- Batched commands ---
+
+    private void enqueue(Command command) {
+        if (pendingCommand != null && !pendingCommand.equals(command.name)) {
+            flush();
+        }
+        pendingCommand = command.name;
+        pending.add(command);
+        if (pending.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends the pending batch and reports its results.
+     */
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        switch (pendingCommand) {
+            case "add-complaint": {
+                List<Complaint> complaints = new ArrayList<>(pending.size());
+                for (Command command : pending) {
+                    complaints.add((Complaint) command.payload);
+                }
+                int[] ids = complaintDAO.addComplaints(complaints, batchSize);
+                for (int i = ids.length; i < pending.size(); i++) {
+                    if ("auto".equalsIgnoreCase(pending.get(i).arguments.get("officer"))) {
+                        Indexes.assignments().release(complaints.get(i).getAssignedOfficerId());
+                    }
+                }
+                reportInserted(ids);
+                break;
+            }
+            case "add-evidence": {
+                List<Evidence> evidence = new ArrayList<>(pending.size());
+                for (Command command : pending) {
+                    evidence.add((Evidence) command.payload);
+                }
+                int[] ids = evidenceDAO.addEvidenceBatch(evidence, batchSize);
+                reportInserted(ids);
+                break;
+            }
+            case "update-status": {
+                int[] complaintIds = new int[pending.size()];
+                String[] statuses = new String[pending.size()];
+                for (int i = 0; i < pending.size(); i++) {
+                    complaintIds[i] = Integer.parseInt(pending.get(i).arguments.get("id"));
+                    statuses[i] = (String) pending.get(i).payload;
+                }
+                int[] counts = complaintDAO.updateComplaintStatuses(complaintIds, statuses, batchSize);
+                for (int i = 0; i < pending.size(); i++) {
+                    if (i >= counts.length) {
+                        fail(pending.get(i), "Batch failed; see the error output.");
+                    } else if (counts[i] == 0) {
+                        fail(pending.get(i), "Complaint not found: " + complaintIds[i]);
+                    } else {
+                        succeed(pending.get(i), counts[i] == Statement.SUCCESS_NO_INFO ? "" : ",\"rows\":" + counts[i]);
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IllegalStateException(pendingCommand);
+        }
+        pending.clear();
+        pendingCommand = null;
+    }
+
+    private void reportInserted(int[] ids) {
+        for (int i = 0; i < pending.size(); i++) {
+            if (i < ids.length) {
+                succeed(pending.get(i), ",\"id\":" + ids[i]);
+            } else {
+                fail(pending.get(i), "Batch failed; see the error output.");
+            }
+        }
+    }
+
+    private Complaint toComplaint(Command command) throws CommandException {
+        Complaint complaint = new Complaint();
+        complaint.setVictimName(stringArgument(command, "victim", true));
+        complaint.setCrimeType(stringArgument(command, "type", true));
+        complaint.setDescription(stringArgument(command, "description", true));
+        String date = stringArgument(command, "date", false);
+        try {
+            complaint.setComplaintDate(date == null ? new Date(System.currentTimeMillis()) : Date.valueOf(date));
+        } catch (IllegalArgumentException e) {
+            throw new CommandException("Invalid date (expected YYYY-MM-DD): " + date);
+        }
+        String status = stringArgument(command, "status", false);
+        complaint.setStatus(status == null ? "Open" : complaintStatus(status));
+        if ("auto".equalsIgnoreCase(stringArgument(command, "officer", false))) {
+            int officer = Indexes.assignments().assign(complaint.getCrimeType());
+            complaint.setAssignedOfficerId(officer < 0 ? user.getUserId() : officer);
+        } else {
+            Integer officer = intArgument(command, "officer", false);
+            complaint.setAssignedOfficerId(officer == null ? user.getUserId() : officer);
+        }
+        complaint.setCriminalId(intArgument(command, "criminal", false));
+        return complaint;
+    }
+
+    // --- Immediate commands ---
+
+    private void addCriminal(Command command) throws CommandException {
+        Criminal criminal = new Criminal();
+        criminal.setName(stringArgument(command, "name", true));
+        criminal.setCrimeHistory(stringArgument(command, "history", true));
+        String status = stringArgument(command, "status", false);
+        criminal.setStatus(status == null ? "Under Investigation" : status);
+        int id = criminalDAO.addCriminal(criminal);
+        if (id == -1) {
+            fail(command, "Failed to add criminal; see the error output.");
+        } else {
+            succeed(command, ",\"id\":" + id);
+        }
+    }
+
+    private void getComplaint(Command command) throws CommandException {
+        int id = intArgument(command, "id", true);
+        Complaint complaint = complaintDAO.getComplaintById(id);
+        if (complaint == null) {
+            fail(command, "Complaint not found: " + id);
+            return;
+        }
+        StringBuilder fields = new StringBuilder(",\"complaint\":{\"id\":").append(complaint.getComplaintId());
+        fields.append(",\"victim\":");
+        Json.appendString(fields, complaint.getVictimName());
+        fields.append(",\"type\":");
+        Json.appendString(fields, complaint.getCrimeType());
+        fields.append(",\"date\":");
+        Json.appendString(fields, complaint.getComplaintDate() == null ? null : complaint.getComplaintDate().toString());
+        fields.append(",\"description\":");
+        Json.appendString(fields, complaint.getDescription());
+        fields.append(",\"status\":");
+        Json.appendString(fields, complaint.getStatus());
+        fields.append(",\"officer\":").append(complaint.getAssignedOfficerId())
+              .append(",\"criminal\":").append(complaint.getCriminalId() == null ? "null" : complaint.getCriminalId().toString())
+              .append('}');
+        succeed(command, fields.toString());
+    }
+
+    private void bulkStatus(Command command) throws CommandException {
+        String status = complaintStatus(stringArgument(command, "status", true));
+        String ids = stringArgument(command, "ids", false);
+        int rows;
+        if (ids != null) {
+            try {
+                rows = complaintDAO.updateStatusByIds(parseIdList(ids), status);
+            } catch (NumberFormatException e) {
+                throw new CommandException("Invalid ID list (expected e.g. 1,2,10-99): " + ids);
+            }
+        } else {
+            String current = stringArgument(command, "current", false);
+            ComplaintFilter filter = new ComplaintFilter()
+                    .crimeType(stringArgument(command, "type", false))
+                    .from(dateArgument(command, "from"))
+                    .to(dateArgument(command, "to"))
+                    .officer(intArgument(command, "officer", false))
+                    .status(current == null ? null : complaintStatus(current));
+            if (filter.isEmpty()) {
+                throw new CommandException("bulk-status needs ids or at least one of type, from, to, officer and current");
+            }
+            rows = complaintDAO.updateStatusWhere(filter, status);
+        }
+        if (rows == -1) {
+            fail(command, "Failed to update statuses; see the error output.");
+        } else {
+            succeed(command, ",\"rows\":" + rows);
+        }
+    }
+
+    private void rebalance(Command command) {
+        if (!user.getRole().equalsIgnoreCase("Admin")) {
+            fail(command, "Only admins can rebalance workloads.");
+            return;
+        }
+        int moved = Indexes.assignments().rebalance(complaintDAO);
+        if (moved == -1) {
+            fail(command, "Failed to rebalance workloads; see the error output.");
+        } else {
+            succeed(command, ",\"moved\":" + moved);
+        }
+    }
+
+    private void report(Command command) throws CommandException {
+        ReportDAO.Dimension rows = dimension(stringArgument(command, "by", true));
+        String columnsArgument = stringArgument(command, "columns", false);
+        StringBuilder fields = new StringBuilder(",\"counts\":{");
+        if (columnsArgument == null) {
+            appendCounts(fields, reportDAO.countBy(rows));
+        } else {
+            boolean first = true;
+            for (Map.Entry<String, Map<String, Long>> row : reportDAO.crossTab(rows, dimension(columnsArgument)).entrySet()) {
+                if (!first) {
+                    fields.append(',');
+                }
+                first = false;
+                Json.appendString(fields, String.valueOf(row.getKey()));
+                fields.append(":{");
+                appendCounts(fields, row.getValue());
+                fields.append('}');
+            }
+        }
+        succeed(command, fields.append('}').toString());
+    }
+
+    private static void appendCounts(StringBuilder fields, Map<String, Long> counts) {
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (!first) {
+                fields.append(',');
+            }
+            first = false;
+            Json.appendString(fields, String.valueOf(entry.getKey()));
+            fields.append(':').append(entry.getValue());
+        }
+    }
+
+    // --- Arguments ---
+
+    private static String stringArgument(Command command, String key, boolean required) throws CommandException {
+        String value = command.arguments.get(key);
+        if (value == null && required) {
+            throw new CommandException("Missing argument '" + key + "' for " + command.name);
+        }
+        return value;
+    }
+
+    private static Integer intArgument(Command command, String key, boolean required) throws CommandException {
+        String value = stringArgument(command, key, required);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new CommandException("Argument '" + key + "' must be a number: " + value);
+        }
+    }
+
+    private static LocalDate dateArgument(Command command, String key) throws CommandException {
+        String value = stringArgument(command, key, false);
+        try {
+            return value == null ? null : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new CommandException("Argument '" + key + "' must be a date (YYYY-MM-DD): " + value);
+        }
+    }
+
+    /**
+     * Parses a list of complaint IDs such as "1, 2, 10-99", where a-b stands for a to b inclusive.
+     * @throws NumberFormatException if an element is not an ID or a range.
+     */
+    static int[] parseIdList(String value) {
+        IntStream.Builder ids = IntStream.builder();
+        for (String element : value.split(",")) {
+            element = element.trim();
+            int dash = element.indexOf('-', 1);
+            if (dash < 0) {
+                ids.add(Integer.parseInt(element));
+                continue;
+            }
+            int first = Integer.parseInt(element.substring(0, dash).trim());
+            int last = Integer.parseInt(element.substring(dash + 1).trim());
+            if (last < first || last - first >= 1_000_000) {
+                throw new NumberFormatException("Invalid range: " + element);
+            }
+            for (int id = first; id <= last; id++) {
+                ids.add(id);
+            }
+        }
+        return ids.build().toArray();
+    }
+
+    private static String complaintStatus(String value) throws CommandException {
+        for (String status : COMPLAINT_STATUSES) {
+            if (status.equalsIgnoreCase(value)) {
+                return status;
+            }
+        }
+        throw new CommandException("Invalid status '" + value + "' (expected Open, Under Investigation or Closed)");
+    }
+
+    private static ReportDAO.Dimension dimension(String value) throws CommandException {
+        try {
+            return ReportDAO.Dimension.valueOf(value.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new CommandException("Invalid report dimension '" + value + "' (expected status, crime-type, officer or month)");
+        }
+    }
+
+    /**
+     * Splits a line into the command name and its key=value arguments.
+     */
+    static Command parse(long lineNumber, String line) throws CommandException {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '\\' && i + 1 < line.length()) {
+                    token.append(line.charAt(++i));
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    token.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                inToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        if (quoted) {
+            throw new CommandException("Unterminated quote on line " + lineNumber);
+        }
+        if (inToken) {
+            tokens.add(token.toString());
+        }
+
+        Map<String, String> arguments = new HashMap<>();
+        for (String argument : tokens.subList(1, tokens.size())) {
+            int equals = argument.indexOf('=');
+            if (equals <= 0) {
+                throw new CommandException("Expected key=value but found '" + argument + "' on line " + lineNumber);
+            }
+            arguments.put(argument.substring(0, equals), argument.substring(equals + 1));
+        }
+        return new Command(lineNumber, tokens.get(0).toLowerCase(Locale.ROOT), arguments);
+    }
+
+    // --- Output ---
+
+    private void succeed(Command command, String fields) {
+        succeeded++;
+        print(command, true, fields);
+    }
+
+    private void fail(Command command, String error) {
+        failed++;
+        StringBuilder fields = new StringBuilder(",\"error\":");
+        Json.appendString(fields, error);
+        print(command, false, fields.toString());
+    }
+
+    private void print(Command command, boolean ok, String fields) {
+        StringBuilder json = new StringBuilder(64 + fields.length());
+        json.append("{\"line\":").append(command.line).append(",\"command\":");
+        Json.appendString(json, command.name);
+        json.append(",\"ok\":").append(ok).append(fields).append('}');
+        out.println(json);
+    }
+}
@@ -0,0 +1,326 @@
+package com.ccrms;
+
+import com.ccrms.dao.CachingUserDAO;
+import com.ccrms.dao.Repositories;
+import com.ccrms.io.Json;
+import com.ccrms.models.User;
+import com.ccrms.util.ConnectionPool;
+import com.ccrms.util.DatabaseConnector;
+import com.ccrms.util.LatencyHistogram;
+import com.ccrms.util.SchemaMigrator;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves many officers from one process over a line protocol on TCP.
+ *
+ * Usage:
+ *   java -cp bin:lib/* com.ccrms.Main --serve 7070 [--bind 127.0.0.1] [--max-sessions 200] [--batch-size N]
+ *
+ * A session starts with {@code login user=<name> password=<password>}; after that it takes the
+ * commands of {@link ScriptRunner}, one per line, and answers each with one JSON line. quit, or
+ * closing the socket, ends the session; a session idle for 30 minutes is closed.
+ *
+ * Each session keeps its own user and runs on its own thread. The DAOs are shared, and a DAO
+ * call holds a pooled connection only while it runs, so the sessions share the few connections
+ * of {@link DatabaseConnector}. A session spends nearly all its time waiting for the officer,
+ * so sessions run on virtual threads where the runtime has them (Java 21+), like
+ * {@link com.ccrms.dao.AsyncDAO}; on older runtimes a platform thread per session is still
+ * affordable at the default limit of 200 sessions. Connections beyond the limit are refused
+ * with an error line rather than queued.
+ *
+ * Every minute, and on shutdown, the server logs the session counts, the command latency
+ * percentiles and the connection pool usage to standard error.
+ */
+public class SessionServer {
+
+    private static final int DEFAULT_MAX_SESSIONS = 200;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int LOGIN_ATTEMPTS = 3;
+    private static final int IDLE_TIMEOUT_MS = 30 * 60_000;
+    private static final long STATS_INTERVAL_SECONDS = 60;
+    private static final long SHUTDOWN_WAIT_SECONDS = 10;
+
+    private final CachingUserDAO userDAO = new CachingUserDAO();
+    private final LatencyHistogram commandLatency = new LatencyHistogram();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicLong totalSessions = new AtomicLong();
+    private final AtomicLong refusedSessions = new AtomicLong();
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions;
+    private final Semaphore sessionSlots;
+    private final ScheduledExecutorService statsLogger;
+    private final int batchSize;
+    private volatile boolean stopping = false;
+
+    private SessionServer(ServerSocket serverSocket, int maxSessions, int batchSize) {
+        this.serverSocket = serverSocket;
+        this.batchSize = batchSize;
+        this.sessions = newSessionExecutor();
+        this.sessionSlots = new Semaphore(maxSessions);
+        this.statsLogger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ccrms-server-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Entry point for the --serve option of {@link Main}. Returns once the server stops.
+     * @param args The command-line arguments.
+     * @return The process exit status.
+     */
+    public static int run(String[] args) {
+        int port = -1;
+        String bind = "127.0.0.1";
+        int maxSessions = DEFAULT_MAX_SESSIONS;
+        int batchSize = DEFAULT_BATCH_SIZE;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--serve":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--bind":
+                        bind = args[++i];
+                        break;
+                    case "--max-sessions":
+                        maxSessions = Integer.parseInt(args[++i]);
+                        break;
+                    case "--batch-size":
+                        batchSize = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + args[i]);
+                        return 2;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.err.println("Invalid options: " + String.join(" ", args));
+            return 2;
+        }
+        if (port < 0 || port > 65535 || maxSessions <= 0 || batchSize <= 0) {
+            System.err.println("Usage: --serve <port> [--bind <address>] [--max-sessions N] [--batch-size N]");
+            return 2;
+        }
+
+        if (SchemaMigrator.migrate() == -1) {
+            System.err.println("The database schema could not be brought up to date; not serving.");
+            return 2;
+        }
+        ServerSocket serverSocket;
+        try {
+            serverSocket = new ServerSocket(port, 128, InetAddress.getByName(bind));
+        } catch (IOException e) {
+            System.err.println("Could not listen on " + bind + ":" + port + ": " + e.getMessage());
+            return 2;
+        }
+
+        SessionServer server = new SessionServer(serverSocket, maxSessions, batchSize);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "ccrms-server-shutdown"));
+        System.err.println("Serving up to " + maxSessions + " sessions on " + serverSocket.getLocalSocketAddress());
+        server.serve();
+        return 0;
+    }
+
+    /**
+     * Accepts connections until the server socket is closed.
+     */
+    private void serve() {
+        statsLogger.scheduleAtFixedRate(this::logStats, STATS_INTERVAL_SECONDS, STATS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        while (!stopping) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!stopping) {
+                    System.err.println("Error accepting a connection: " + e.getMessage());
+                    stop();
+                }
+                return;
+            }
+            if (!sessionSlots.tryAcquire()) {
+                refusedSessions.incrementAndGet();
+                refuse(socket);
+                continue;
+            }
+            openSockets.add(socket);
+            sessions.execute(() -> {
+                try {
+                    runSession(socket);
+                } finally {
+                    sessionSlots.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor when available, otherwise a daemon cached pool.
+     * Reflection keeps the code compiling and running on runtimes older than Java 21.
+     */
+    private static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "ccrms-session-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Stops accepting, closes every session and the connection pool, and logs the totals.
+     */
+    private synchronized void stop() {
+        if (stopping) {
+            return;
+        }
+        stopping = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Nothing left to accept either way
+        }
+        // Closing the sockets wakes up the sessions blocked reading from their clients
+        for (Socket socket : openSockets) {
+            closeQuietly(socket);
+        }
+        sessions.shutdown();
+        try {
+            sessions.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        statsLogger.shutdownNow();
+        logStats();
+        DatabaseConnector.closeConnection();
+    }
+
+    private void runSession(Socket socket) {
+        activeSessions.incrementAndGet();
+        totalSessions.incrementAndGet();
+        try (Socket s = socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             PrintStream out = new PrintStream(new BufferedOutputStream(s.getOutputStream()), false, StandardCharsets.UTF_8)) {
+            s.setSoTimeout(IDLE_TIMEOUT_MS);
+            User user = login(reader, out);
+            if (user != null) {
+                new ScriptRunner(user, batchSize, false, true, commandLatency, out).execute(reader);
+            }
+        } catch (SocketTimeoutException e) {
+            System.err.println("Closed idle session from " + socket.getRemoteSocketAddress());
+        } catch (IOException e) {
+            // The client went away; nothing is pending since sessions flush before every read
+        } finally {
+            openSockets.remove(socket);
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    /**
+     * Reads login commands until one succeeds or the attempts run out.
+     * @return The logged-in user, or null if the session should end.
+     */
+    private User login(BufferedReader reader, PrintStream out) throws IOException {
+        for (int attempt = 1; attempt <= LOGIN_ATTEMPTS; attempt++) {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            User user = null;
+            String error;
+            try {
+                ScriptRunner.Command command = ScriptRunner.parse(attempt, line.trim());
+                if (command.name.equals("quit")) {
+                    return null;
+                }
+                if (command.name.equals("login")) {
+                    user = ScriptRunner.authenticate(userDAO, command.arguments.get("user"), command.arguments.get("password"));
+                    error = "Invalid username or password.";
+                } else {
+                    error = "Please log in first: login user=<name> password=<password>";
+                }
+            } catch (ScriptRunner.CommandException | IndexOutOfBoundsException e) {
+                error = "Please log in first: login user=<name> password=<password>";
+            }
+
+            StringBuilder json = new StringBuilder("{\"command\":\"login\",\"ok\":").append(user != null);
+            if (user != null) {
+                json.append(",\"user\":");
+                Json.appendString(json, user.getUsername());
+                json.append(",\"role\":");
+                Json.appendString(json, user.getRole());
+            } else {
+                json.append(",\"error\":");
+                Json.appendString(json, error);
+            }
+            out.println(json.append('}'));
+            out.flush();
+            if (user != null) {
+                return user;
+            }
+        }
+        return null;
+    }
+
+    private static void refuse(Socket socket) {
+        try (Socket s = socket; PrintStream out = new PrintStream(s.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            out.println("{\"ok\":false,\"error\":\"Server busy: too many sessions, try again later.\"}");
+        } catch (IOException e) {
+            // The client is gone already
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+    }
+
+    private void logStats() {
+        LatencyHistogram.Snapshot latency = commandLatency.snapshot();
+        String storage;
+        if (Repositories.isEmbedded()) {
+            storage = Repositories.getEmbeddedStore().getStats().toString();
+        } else {
+            ConnectionPool.Stats pool = DatabaseConnector.getPoolStats();
+            storage = String.format(Locale.ROOT, "Pool: %d/%d active, max borrow wait %.1f ms",
+                    pool.getActive(), pool.getMaxSize(), pool.getMaxBorrowWaitNanos() / 1_000_000.0);
+        }
+        System.err.println(String.format(Locale.ROOT,
+                "Sessions: %d active, %d total, %d refused | Commands: %d, p50 %.2f ms, p99 %.2f ms, max %.2f ms | %s",
+                activeSessions.get(), totalSessions.get(), refusedSessions.get(),
+                latency.getCount(),
+                latency.getPercentileNanos(50) / 1_000_000.0,
+                latency.getPercentileNanos(99) / 1_000_000.0,
+                latency.getMaxNanos() / 1_000_000.0,
+                storage));
+    }
+}
@@ -0,0 +1,487 @@
+package com.ccrms.analytics;
+
+import com.ccrms.dao.ComplaintRepository;
+import com.ccrms.dao.ReportDAO;
+import com.ccrms.dao.UserRepository;
+import com.ccrms.events.ChangeEventBus;
+import com.ccrms.models.Complaint;
+import com.ccrms.models.User;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A read-only, column-oriented copy of the complaints table for ad-hoc analytics in memory.
+ *
+ * Each attribute is a primitive array indexed by row, rows in complaint ID order:
+ * <ul>
+ *   <li>status as a byte code, crime type and victim name as int codes into a {@link StringDictionary};</li>
+ *   <li>the complaint date as an int epoch day;</li>
+ *   <li>officer and criminal IDs as ints, with a bitmap marking the complaints without a criminal.</li>
+ * </ul>
+ * A row costs about 25 bytes instead of a Complaint object with its Date and Strings.
+ * Descriptions are free text with nothing to group by and are left out.
+ *
+ * Filters scan one column in a tight loop over the primitive array and return a
+ * {@link Selection} bitmap; group-by counts walk the set bits of a selection. Both are
+ * plain counted loops without allocation or boxing, the shape the JIT compiles best.
+ * A snapshot is immutable, so any number of threads may query it.
+ */
+public final class ComplaintSnapshot {
+
+    private static final int LOAD_PAGE_SIZE = 5_000;
+
+    private final int size;
+    private final int[] complaintIds;
+    private final byte[] statuses;
+    private final int[] crimeTypes;
+    private final int[] victims;
+    private final int[] dates;
+    private final int[] officerIds;
+    private final int[] criminalIds;
+    private final long[] criminalNulls; // Bit set: the complaint has no criminal
+
+    private final StringDictionary statusDictionary;
+    private final StringDictionary crimeTypeDictionary;
+    private final StringDictionary victimDictionary;
+    private final int[] officerKeys; // Distinct officer IDs, sorted
+    private final String[] officerNames; // Parallel to officerKeys
+    private final int minDate;
+    private final int maxDate;
+    private final int[] monthOfDay; // Month group code of each day from minDate to maxDate
+    private final long builtAtMillis;
+    private final long builtAtSequence; // Last change event published before the read began
+
+    private ComplaintSnapshot(Builder builder, Map<Integer, String> names, long builtAtSequence) {
+        size = builder.size;
+        complaintIds = Arrays.copyOf(builder.complaintIds, size);
+        statuses = Arrays.copyOf(builder.statuses, size);
+        crimeTypes = Arrays.copyOf(builder.crimeTypes, size);
+        victims = Arrays.copyOf(builder.victims, size);
+        dates = Arrays.copyOf(builder.dates, size);
+        officerIds = Arrays.copyOf(builder.officerIds, size);
+        criminalIds = Arrays.copyOf(builder.criminalIds, size);
+        criminalNulls = Arrays.copyOf(builder.criminalNulls, words(size));
+        statusDictionary = builder.statusDictionary;
+        crimeTypeDictionary = builder.crimeTypeDictionary;
+        victimDictionary = builder.victimDictionary;
+        officerKeys = Arrays.stream(officerIds).distinct().sorted().toArray();
+        officerNames = new String[officerKeys.length];
+        for (int i = 0; i < officerKeys.length; i++) {
+            officerNames[i] = names.getOrDefault(officerKeys[i], "Unassigned");
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, dates[i]);
+            max = Math.max(max, dates[i]);
+        }
+        minDate = size == 0 ? 0 : min;
+        maxDate = size == 0 ? 0 : max;
+        // A few thousand days at most in practice, so a lookup beats date arithmetic per row
+        monthOfDay = new int[size == 0 ? 0 : maxDate - minDate + 1];
+        int firstMonth = monthIndex(minDate);
+        for (int day = 0; day < monthOfDay.length; day++) {
+            monthOfDay[day] = monthIndex(minDate + day) - firstMonth;
+        }
+        builtAtMillis = System.currentTimeMillis();
+        this.builtAtSequence = builtAtSequence;
+    }
+
+    /**
+     * Reads every complaint once, in ID order, and encodes it into columns.
+     * @param complaints The source of the complaints.
+     * @param users Used to resolve the officer names once per officer.
+     */
+    public static ComplaintSnapshot build(ComplaintRepository complaints, UserRepository users) {
+        long sequence = ChangeEventBus.getLastSequence();
+        Builder builder = new Builder();
+        complaints.streamComplaintsById(LOAD_PAGE_SIZE).forEach(builder::add);
+        Map<Integer, String> names = new HashMap<>();
+        for (int i = 0; i < builder.size; i++) {
+            names.computeIfAbsent(builder.officerIds[i], officerId -> {
+                User officer = users.findById(officerId);
+                return officer == null ? "Unassigned" : officer.getUsername();
+            });
+        }
+        return new ComplaintSnapshot(builder, names, sequence);
+    }
+
+    // --- Filters ---
+
+    /**
+     * @return Every row.
+     */
+    public Selection all() {
+        long[] words = new long[words(size)];
+        Arrays.fill(words, -1L);
+        if ((size & 63) != 0) {
+            words[words.length - 1] = (1L << size) - 1;
+        }
+        return new Selection(words, size);
+    }
+
+    /**
+     * @return The rows whose status is one of the values; unknown values match nothing.
+     */
+    public Selection statusIn(Collection<String> values) {
+        boolean[] wanted = wantedCodes(statusDictionary, values);
+        long[] words = new long[words(size)];
+        for (int base = 0; base < size; base += 64) {
+            int end = Math.min(base + 64, size);
+            long word = 0;
+            for (int i = base; i < end; i++) {
+                word |= (wanted[statuses[i]] ? 1L : 0L) << i;
+            }
+            words[base >>> 6] = word;
+        }
+        return new Selection(words, size);
+    }
+
+    /**
+     * @return The rows whose crime type is one of the values; unknown values match nothing.
+     */
+    public Selection crimeTypeIn(Collection<String> values) {
+        return codesIn(crimeTypes, wantedCodes(crimeTypeDictionary, values));
+    }
+
+    /**
+     * @return The rows of complaints filed by the victim.
+     */
+    public Selection victimIs(String victimName) {
+        int code = victimDictionary.codeOf(victimName);
+        return code < 0 ? new Selection(new long[words(size)], size) : between(victims, code, code);
+    }
+
+    /**
+     * @param from The first day, or null for no lower bound.
+     * @param to The last day (inclusive), or null for no upper bound.
+     * @return The rows whose complaint date lies in the range.
+     */
+    public Selection dateBetween(LocalDate from, LocalDate to) {
+        long low = from == null ? Integer.MIN_VALUE : from.toEpochDay();
+        long high = to == null ? Integer.MAX_VALUE : to.toEpochDay();
+        return between(dates, (int) Math.max(low, Integer.MIN_VALUE), (int) Math.min(high, Integer.MAX_VALUE));
+    }
+
+    public Selection officerIs(int officerId) {
+        return between(officerIds, officerId, officerId);
+    }
+
+    public Selection criminalIs(int criminalId) {
+        return between(criminalIds, criminalId, criminalId).and(criminalLinked(true));
+    }
+
+    /**
+     * @return The rows with (linked = true) or without (linked = false) a criminal.
+     */
+    public Selection criminalLinked(boolean linked) {
+        long[] words = new long[criminalNulls.length];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = linked ? ~criminalNulls[i] : criminalNulls[i];
+        }
+        if (linked && (size & 63) != 0) {
+            words[words.length - 1] &= (1L << size) - 1;
+        }
+        return new Selection(words, size);
+    }
+
+    private Selection codesIn(int[] column, boolean[] wanted) {
+        long[] words = new long[words(size)];
+        for (int base = 0; base < size; base += 64) {
+            int end = Math.min(base + 64, size);
+            long word = 0;
+            for (int i = base; i < end; i++) {
+                word |= (wanted[column[i]] ? 1L : 0L) << i;
+            }
+            words[base >>> 6] = word;
+        }
+        return new Selection(words, size);
+    }
+
+    private Selection between(int[] column, int low, int high) {
+        long[] words = new long[words(size)];
+        for (int base = 0; base < size; base += 64) {
+            int end = Math.min(base + 64, size);
+            long word = 0;
+            for (int i = base; i < end; i++) {
+                int value = column[i];
+                word |= (value >= low & value <= high ? 1L : 0L) << i;
+            }
+            words[base >>> 6] = word;
+        }
+        return new Selection(words, size);
+    }
+
+    private static boolean[] wantedCodes(StringDictionary dictionary, Collection<String> values) {
+        boolean[] wanted = new boolean[dictionary.size()];
+        for (String value : values) {
+            int code = dictionary.codeOf(value);
+            if (code >= 0) {
+                wanted[code] = true;
+            }
+        }
+        return wanted;
+    }
+
+    // --- Aggregation ---
+
+    /**
+     * Counts the selected rows by one dimension, like {@link ReportDAO#countBy}.
+     * @return An ordered map of group value to count.
+     */
+    public Map<String, Long> countBy(ReportDAO.Dimension dimension, Selection selection) {
+        checkSelection(selection);
+        int[] codes = groupCodes(dimension);
+        long[] counts = new long[groupCount(dimension)];
+        long[] words = selection.words;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                counts[codes[(w << 6) + Long.numberOfTrailingZeros(word)]]++;
+                word &= word - 1;
+            }
+        }
+
+        Map<String, Long> sorted = new TreeMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                sorted.merge(groupLabel(dimension, code), counts[code], Long::sum);
+            }
+        }
+        return new LinkedHashMap<>(sorted);
+    }
+
+    /**
+     * Counts the selected rows by two dimensions, like {@link ReportDAO#crossTab}.
+     * @return An ordered map of row value to (column value to count).
+     */
+    public Map<String, Map<String, Long>> crossTab(ReportDAO.Dimension rows, ReportDAO.Dimension columns, Selection selection) {
+        checkSelection(selection);
+        int[] rowCodes = groupCodes(rows);
+        int[] columnCodes = groupCodes(columns);
+        int columnCount = groupCount(columns);
+        long[] counts = new long[groupCount(rows) * columnCount];
+        long[] words = selection.words;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                int row = (w << 6) + Long.numberOfTrailingZeros(word);
+                counts[rowCodes[row] * columnCount + columnCodes[row]]++;
+                word &= word - 1;
+            }
+        }
+
+        Map<String, Map<String, Long>> sorted = new TreeMap<>();
+        for (int cell = 0; cell < counts.length; cell++) {
+            if (counts[cell] > 0) {
+                sorted.computeIfAbsent(groupLabel(rows, cell / columnCount), k -> new TreeMap<>())
+                      .merge(groupLabel(columns, cell % columnCount), counts[cell], Long::sum);
+            }
+        }
+        Map<String, Map<String, Long>> table = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Long>> row : sorted.entrySet()) {
+            table.put(row.getKey(), new LinkedHashMap<>(row.getValue()));
+        }
+        return table;
+    }
+
+    /**
+     * @return The complaint IDs of the selected rows, ascending.
+     */
+    public int[] complaintIds(Selection selection) {
+        checkSelection(selection);
+        int[] ids = new int[selection.count()];
+        int n = 0;
+        long[] words = selection.words;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                ids[n++] = complaintIds[(w << 6) + Long.numberOfTrailingZeros(word)];
+                word &= word - 1;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @return Per row, the group of the dimension as a dense code below {@link #groupCount}.
+     */
+    private int[] groupCodes(ReportDAO.Dimension dimension) {
+        int[] codes;
+        switch (dimension) {
+            case STATUS:
+                codes = new int[size];
+                for (int i = 0; i < size; i++) {
+                    codes[i] = statuses[i];
+                }
+                return codes;
+            case CRIME_TYPE:
+                return crimeTypes;
+            case OFFICER:
+                codes = new int[size];
+                for (int i = 0; i < size; i++) {
+                    codes[i] = Arrays.binarySearch(officerKeys, officerIds[i]);
+                }
+                return codes;
+            case MONTH:
+                codes = new int[size];
+                for (int i = 0; i < size; i++) {
+                    codes[i] = monthOfDay[dates[i] - minDate];
+                }
+                return codes;
+            default:
+                throw new IllegalArgumentException("Unknown dimension " + dimension);
+        }
+    }
+
+    private int groupCount(ReportDAO.Dimension dimension) {
+        switch (dimension) {
+            case STATUS:
+                return statusDictionary.size();
+            case CRIME_TYPE:
+                return crimeTypeDictionary.size();
+            case OFFICER:
+                return officerKeys.length;
+            case MONTH:
+                return size == 0 ? 0 : monthIndex(maxDate) - monthIndex(minDate) + 1;
+            default:
+                throw new IllegalArgumentException("Unknown dimension " + dimension);
+        }
+    }
+
+    private String groupLabel(ReportDAO.Dimension dimension, int code) {
+        switch (dimension) {
+            case STATUS:
+                return statusDictionary.decode(code);
+            case CRIME_TYPE:
+                return crimeTypeDictionary.decode(code);
+            case OFFICER:
+                return officerNames[code];
+            case MONTH:
+                int month = monthIndex(minDate) + code;
+                return String.format("%04d-%02d", month / 12, month % 12 + 1);
+            default:
+                throw new IllegalArgumentException("Unknown dimension " + dimension);
+        }
+    }
+
+    /**
+     * @return year * 12 + month - 1 of an epoch day, by the civil-from-days algorithm.
+     */
+    static int monthIndex(int epochDay) {
+        long z = epochDay + 719468L;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year * 12 + month - 1);
+    }
+
+    private void checkSelection(Selection selection) {
+        if (selection.rowCount != size) {
+            throw new IllegalArgumentException("The selection belongs to a different snapshot");
+        }
+    }
+
+    private static int words(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    // --- Information ---
+
+    public int size() {
+        return size;
+    }
+
+    public StringDictionary getCrimeTypes() {
+        return crimeTypeDictionary;
+    }
+
+    public StringDictionary getStatuses() {
+        return statusDictionary;
+    }
+
+    public long getBuiltAtMillis() {
+        return builtAtMillis;
+    }
+
+    /**
+     * @return The sequence number of the last change event published before the snapshot was
+     *         read; later changes may or may not be in it (see {@link SnapshotChanges}).
+     */
+    public long getBuiltAtSequence() {
+        return builtAtSequence;
+    }
+
+    /**
+     * @return A rough heap footprint of the columns and dictionaries.
+     */
+    public long estimateBytes() {
+        return (long) size * (4 + 1 + 4 + 4 + 4 + 4 + 4) + criminalNulls.length * 8L
+                + statusDictionary.estimateBytes() + crimeTypeDictionary.estimateBytes() + victimDictionary.estimateBytes()
+                + officerKeys.length * 4L + officerNames.length * 48L + monthOfDay.length * 4L;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Complaint Snapshot [%d rows, %d crime types, %d victims, %d officers, ~%d KB]",
+                size, crimeTypeDictionary.size(), victimDictionary.size(), officerKeys.length, estimateBytes() / 1024);
+    }
+
+    /**
+     * Accumulates rows into growable columns.
+     */
+    private static final class Builder {
+        private int size = 0;
+        private int[] complaintIds = new int[1024];
+        private byte[] statuses = new byte[1024];
+        private int[] crimeTypes = new int[1024];
+        private int[] victims = new int[1024];
+        private int[] dates = new int[1024];
+        private int[] officerIds = new int[1024];
+        private int[] criminalIds = new int[1024];
+        private long[] criminalNulls = new long[16];
+        private final StringDictionary statusDictionary = new StringDictionary();
+        private final StringDictionary crimeTypeDictionary = new StringDictionary();
+        private final StringDictionary victimDictionary = new StringDictionary();
+
+        void add(Complaint complaint) {
+            if (size == complaintIds.length) {
+                int capacity = size * 2;
+                complaintIds = Arrays.copyOf(complaintIds, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+                crimeTypes = Arrays.copyOf(crimeTypes, capacity);
+                victims = Arrays.copyOf(victims, capacity);
+                dates = Arrays.copyOf(dates, capacity);
+                officerIds = Arrays.copyOf(officerIds, capacity);
+                criminalIds = Arrays.copyOf(criminalIds, capacity);
+                criminalNulls = Arrays.copyOf(criminalNulls, words(capacity));
+            }
+            int status = statusDictionary.encode(complaint.getStatus());
+            if (status > Byte.MAX_VALUE) {
+                throw new IllegalStateException("More than " + (Byte.MAX_VALUE + 1) + " distinct statuses");
+            }
+            complaintIds[size] = complaint.getComplaintId();
+            statuses[size] = (byte) status;
+            crimeTypes[size] = crimeTypeDictionary.encode(complaint.getCrimeType());
+            victims[size] = victimDictionary.encode(complaint.getVictimName());
+            dates[size] = (int) complaint.getComplaintDate().toLocalDate().toEpochDay();
+            officerIds[size] = complaint.getAssignedOfficerId();
+            if (complaint.getCriminalId() == null) {
+                criminalNulls[size >>> 6] |= 1L << size;
+            } else {
+                criminalIds[size] = complaint.getCriminalId();
+            }
+            size++;
+        }
+    }
+}
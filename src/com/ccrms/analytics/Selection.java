@@ -0,0 +1,81 @@
+package com.ccrms.analytics;
+
+import java.util.Arrays;
+
+/**
+ * A set of rows of a {@link ComplaintSnapshot}, as a bitmap with one bit per row.
+ * Filters of the snapshot return selections, which combine with {@link #and} and {@link #or}
+ * a word (64 rows) at a time.
+ */
+public final class Selection {
+
+    final long[] words;
+    final int rowCount;
+
+    Selection(long[] words, int rowCount) {
+        this.words = words;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * @return The rows in both selections.
+     */
+    public Selection and(Selection other) {
+        checkSameSnapshot(other);
+        long[] result = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return new Selection(result, rowCount);
+    }
+
+    /**
+     * @return The rows in either selection.
+     */
+    public Selection or(Selection other) {
+        checkSameSnapshot(other);
+        long[] result = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            result[i] = words[i] | other.words[i];
+        }
+        return new Selection(result, rowCount);
+    }
+
+    /**
+     * @return The number of selected rows.
+     */
+    public int count() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public boolean contains(int row) {
+        return (words[row >>> 6] & (1L << row)) != 0;
+    }
+
+    private void checkSameSnapshot(Selection other) {
+        if (other.rowCount != rowCount) {
+            throw new IllegalArgumentException("Selections of different snapshots cannot be combined");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Selection)) {
+            return false;
+        }
+        Selection other = (Selection) o;
+        return rowCount == other.rowCount && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * rowCount + Arrays.hashCode(words);
+    }
+}
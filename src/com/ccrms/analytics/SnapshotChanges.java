@@ -0,0 +1,79 @@
+package com.ccrms.analytics;
+
+import com.ccrms.events.ChangeEvent;
+import com.ccrms.events.ChangeEventBus;
+import com.ccrms.events.ChangeListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tells how far a {@link ComplaintSnapshot} has fallen behind the database: the number of
+ * complaints, and criminals they name, changed since it was read.
+ *
+ * Listens on a coalescing subscription of its own, so a burst of writes costs one call per
+ * batch and a row added and deleted within a batch is not counted. Evidence changes do not
+ * touch the snapshot's columns and are ignored.
+ */
+public final class SnapshotChanges implements ChangeListener {
+
+    private final ChangeEventBus.Subscription subscription;
+
+    // Guarded by this
+    private final Map<Long, Long> lastSequenceByRow = new HashMap<>();
+    private long afterSequence;
+    private boolean lost;
+
+    private SnapshotChanges() {
+        subscription = ChangeEventBus.subscribe("analytics-snapshot", this, true);
+    }
+
+    /**
+     * Starts counting changes. Start before reading a snapshot, then {@link #track} it, so no
+     * change between the two is missed.
+     */
+    public static SnapshotChanges start() {
+        return new SnapshotChanges();
+    }
+
+    /**
+     * Counts from now on only the changes the snapshot does not contain.
+     */
+    public synchronized void track(ComplaintSnapshot snapshot) {
+        afterSequence = snapshot.getBuiltAtSequence();
+        lastSequenceByRow.values().removeIf(sequence -> sequence <= afterSequence);
+        lost = false;
+    }
+
+    @Override
+    public synchronized void onChanges(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            if (event.getSequence() <= afterSequence || event.getEntity() == ChangeEvent.Entity.EVIDENCE
+                    || (event.getEntity() == ChangeEvent.Entity.CRIMINAL && event.getAction() == ChangeEvent.Action.ADDED)) {
+                continue; // Already in the snapshot, or not in its columns
+            }
+            lastSequenceByRow.put(((long) event.getEntity().ordinal() << 32) | (event.getId() & 0xFFFFFFFFL), event.getSequence());
+        }
+    }
+
+    @Override
+    public synchronized void onEventsLost(long count) {
+        lost = true;
+    }
+
+    /**
+     * @return The number of rows changed since the tracked snapshot was read (some of the
+     *         first ones may already be in it), or -1 if events were lost and it is unknown.
+     */
+    public synchronized int getChangedRows() {
+        return lost ? -1 : lastSequenceByRow.size();
+    }
+
+    /**
+     * Stops counting.
+     */
+    public void close() {
+        subscription.close();
+    }
+}
@@ -0,0 +1,60 @@
+package com.ccrms.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns dense int codes to distinct strings, so a column of repeated values is stored
+ * as an int per row plus one copy of each distinct value.
+ */
+public final class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * @return The code of the value, assigning the next code if it is new.
+     */
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * @return The code of the value, or -1 if the value does not occur.
+     */
+    public int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * @return The number of distinct values.
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * @return A rough heap footprint: the strings plus the lookup map entries.
+     */
+    long estimateBytes() {
+        long bytes = 0;
+        for (String value : values) {
+            // String object and its byte[] (one byte per char for Latin-1 text), plus a map entry
+            bytes += 24 + 16 + (value == null ? 0 : value.length()) + 48;
+        }
+        return bytes;
+    }
+}
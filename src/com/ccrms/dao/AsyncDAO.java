@@ -0,0 +1,164 @@
+package com.ccrms.dao;
+
+import com.ccrms.models.CaseFile;
+import com.ccrms.models.Complaint;
+import com.ccrms.models.Criminal;
+import com.ccrms.models.Evidence;
+import com.ccrms.models.User;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous facade over the blocking DAOs.
+ *
+ * Each operation runs on its own thread and returns a {@link CompletableFuture}, so
+ * independent lookups can run at the same time and a composite screen costs about as
+ * much as its slowest query. Virtual threads are used when the runtime provides them
+ * (Java 21+); on older runtimes a daemon thread pool is used instead.
+ *
+ * The number of operations touching the database at once is capped at the connection
+ * pool size (see {@link Repositories#getMaxConcurrency()}), so callers queue here rather
+ * than inside the pool. Every call has a deadline
+ * after which its future completes exceptionally with a TimeoutException.
+ */
+public class AsyncDAO implements AutoCloseable {
+
+    public static final long DEFAULT_DEADLINE_MILLIS = 5_000;
+
+    private final ComplaintRepository complaintDAO;
+    private final CriminalRepository criminalDAO;
+    private final EvidenceRepository evidenceDAO;
+    private final UserRepository userDAO;
+
+    private final ExecutorService executor;
+    private final Semaphore concurrencyLimit;
+    private final long deadlineMillis;
+
+    public AsyncDAO(ComplaintRepository complaintDAO, CriminalRepository criminalDAO, EvidenceRepository evidenceDAO, UserRepository userDAO) {
+        this(complaintDAO, criminalDAO, evidenceDAO, userDAO, Repositories.getMaxConcurrency(), DEFAULT_DEADLINE_MILLIS);
+    }
+
+    /**
+     * @param maxConcurrency The maximum number of operations running at once; match it to the connection count.
+     * @param deadlineMillis The default per-call deadline.
+     */
+    public AsyncDAO(ComplaintRepository complaintDAO, CriminalRepository criminalDAO, EvidenceRepository evidenceDAO, UserRepository userDAO,
+                    int maxConcurrency, long deadlineMillis) {
+        this.complaintDAO = complaintDAO;
+        this.criminalDAO = criminalDAO;
+        this.evidenceDAO = evidenceDAO;
+        this.userDAO = userDAO;
+        this.concurrencyLimit = new Semaphore(maxConcurrency, true);
+        this.deadlineMillis = deadlineMillis;
+        this.executor = newExecutor();
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor when available, otherwise a daemon cached pool.
+     * Reflection keeps the code compiling and running on runtimes older than Java 21.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "ccrms-async-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Runs a blocking operation asynchronously with the default deadline.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        return submit(operation, deadlineMillis);
+    }
+
+    /**
+     * Runs a blocking operation asynchronously.
+     * @param operation The blocking DAO call.
+     * @param deadlineMillis The time after which the returned future fails with a TimeoutException.
+     * @return A future holding the operation's result.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> operation, long deadlineMillis) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                concurrencyLimit.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return operation.get();
+            } finally {
+                concurrencyLimit.release();
+            }
+        }, executor).orTimeout(deadlineMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<Complaint> getComplaintById(int complaintId) {
+        return submit(() -> complaintDAO.getComplaintById(complaintId));
+    }
+
+    public CompletableFuture<List<Evidence>> getEvidenceForComplaint(int complaintId) {
+        return submit(() -> evidenceDAO.getEvidenceForComplaint(complaintId));
+    }
+
+    public CompletableFuture<Criminal> getCriminalForComplaint(int complaintId) {
+        return submit(() -> criminalDAO.getCriminalForComplaint(complaintId));
+    }
+
+    public CompletableFuture<Criminal> getCriminalById(int criminalId) {
+        return submit(() -> criminalDAO.getCriminalById(criminalId));
+    }
+
+    public CompletableFuture<User> findUserById(int userId) {
+        return submit(() -> userDAO.findById(userId));
+    }
+
+    public CompletableFuture<Boolean> updateComplaintStatus(int complaintId, String newStatus) {
+        return submit(() -> complaintDAO.updateComplaintStatus(complaintId, newStatus));
+    }
+
+    public CompletableFuture<Boolean> addEvidence(Evidence evidence) {
+        return submit(() -> evidenceDAO.addEvidence(evidence));
+    }
+
+    /**
+     * Loads a complaint together with its evidence, criminal and officer.
+     * The complaint, evidence and criminal queries run concurrently; the officer lookup
+     * starts as soon as the complaint is known.
+     * @param complaintId The ID of the complaint.
+     * @return A future holding the case file, or null if the complaint does not exist.
+     */
+    public CompletableFuture<CaseFile> loadCaseFile(int complaintId) {
+        CompletableFuture<Complaint> complaint = getComplaintById(complaintId);
+        CompletableFuture<List<Evidence>> evidence = getEvidenceForComplaint(complaintId);
+        CompletableFuture<Criminal> criminal = getCriminalForComplaint(complaintId);
+        CompletableFuture<User> officer = complaint.thenCompose(c ->
+                c == null ? CompletableFuture.completedFuture(null) : findUserById(c.getAssignedOfficerId()));
+
+        return CompletableFuture.allOf(complaint, evidence, criminal, officer).thenApply(ignored ->
+                complaint.join() == null ? null
+                        : new CaseFile(complaint.join(), evidence.join(), criminal.join(), officer.join()));
+    }
+
+    /**
+     * Stops accepting new operations. Running operations are allowed to finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,263 @@
+package com.ccrms.dao;
+
+import com.ccrms.models.User;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A read-through cache in front of a {@link UserRepository} (by default the one selected
+ * by {@link Repositories}).
+ *
+ * Users are cached by user_id in a bounded LRU map with a time-to-live, with a
+ * secondary username index pointing into it, so repeated logins and officer-name
+ * lookups are served from memory. Writes made through this DAO invalidate the
+ * affected entry; changes made elsewhere (e.g. directly in the database) must call
+ * one of the invalidate methods, or they become visible once the TTL expires.
+ *
+ * Cached users are copied on the way in and out, so callers cannot modify the cache.
+ */
+public class CachingUserDAO implements UserRepository {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final UserRepository delegate;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Integer, CacheEntry> byId = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Integer> idByUsername = new HashMap<>();
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long expirations = 0;
+    private long invalidations = 0;
+    // Bumped on every invalidation so a load racing with an update cannot re-cache stale data
+    private long generation = 0;
+
+    public CachingUserDAO() {
+        this(Repositories.users(), DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * @param delegate The repository the users are loaded from and written to.
+     * @param maxEntries The maximum number of cached users.
+     * @param ttlMillis How long a cached user may be served before it is reloaded.
+     */
+    public CachingUserDAO(UserRepository delegate, int maxEntries, long ttlMillis) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    @Override
+    public User findByUsername(String username) {
+        long loadGeneration;
+        synchronized (this) {
+            Integer userId = idByUsername.get(username);
+            User cached = null;
+            if (userId != null) {
+                cached = lookup(userId);
+            } else {
+                misses++;
+            }
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        User user = delegate.findByUsername(username);
+        if (user != null) {
+            store(user, loadGeneration);
+        }
+        return user;
+    }
+
+    @Override
+    public User findById(int userId) {
+        long loadGeneration;
+        synchronized (this) {
+            User cached = lookup(userId);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        User user = delegate.findById(userId);
+        if (user != null) {
+            store(user, loadGeneration);
+        }
+        return user;
+    }
+
+    /**
+     * Not cached: the list changes whenever a role does, and it is read rarely.
+     */
+    @Override
+    public List<User> getUsersByRole(String role) {
+        return delegate.getUsersByRole(role);
+    }
+
+    @Override
+    public boolean updatePassword(int userId, String newPasswordHash) {
+        boolean updated = delegate.updatePassword(userId, newPasswordHash);
+        invalidate(userId);
+        return updated;
+    }
+
+    @Override
+    public boolean updateRole(int userId, String newRole) {
+        boolean updated = delegate.updateRole(userId, newRole);
+        invalidate(userId);
+        return updated;
+    }
+
+    /**
+     * Removes a user from the cache, e.g. after their role or password changed.
+     * @param userId The ID of the user to forget.
+     */
+    public synchronized void invalidate(int userId) {
+        generation++;
+        CacheEntry entry = byId.remove(userId);
+        if (entry != null) {
+            idByUsername.remove(entry.user.getUsername());
+            invalidations++;
+        }
+    }
+
+    /**
+     * Removes a user from the cache by username.
+     * @param username The username of the user to forget.
+     */
+    public synchronized void invalidate(String username) {
+        Integer userId = idByUsername.get(username);
+        if (userId != null) {
+            invalidate(userId.intValue());
+        }
+    }
+
+    /**
+     * Empties the cache.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations += byId.size();
+        byId.clear();
+        idByUsername.clear();
+    }
+
+    /**
+     * Looks up a user by ID and counts the hit or miss. Must hold the lock.
+     */
+    private User lookup(int userId) {
+        CacheEntry entry = byId.get(userId);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAt) {
+            byId.remove(userId);
+            idByUsername.remove(entry.user.getUsername());
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return copy(entry.user);
+    }
+
+    private synchronized void store(User user, long loadGeneration) {
+        if (loadGeneration != generation) {
+            return; // An invalidation happened while the user was being loaded
+        }
+        CacheEntry previous = byId.put(user.getUserId(), new CacheEntry(copy(user), System.currentTimeMillis() + ttlMillis));
+        if (previous != null && !previous.user.getUsername().equals(user.getUsername())) {
+            idByUsername.remove(previous.user.getUsername());
+        }
+        idByUsername.put(user.getUsername(), user.getUserId());
+
+        // Evict least recently used entries beyond the bound
+        Iterator<CacheEntry> iterator = byId.values().iterator();
+        while (byId.size() > maxEntries && iterator.hasNext()) {
+            CacheEntry eldest = iterator.next();
+            iterator.remove();
+            idByUsername.remove(eldest.user.getUsername());
+            evictions++;
+        }
+    }
+
+    private static User copy(User user) {
+        User copy = new User(user.getUserId(), user.getUsername(), user.getRole());
+        copy.setPasswordHash(user.getPasswordHash());
+        return copy;
+    }
+
+    /**
+     * @return A snapshot of the cache statistics.
+     */
+    public synchronized CacheStats getStats() {
+        return new CacheStats(byId.size(), maxEntries, hits, misses, evictions, expirations, invalidations);
+    }
+
+    private static final class CacheEntry {
+        final User user;
+        final long expiresAt;
+
+        CacheEntry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Immutable snapshot of the cache counters.
+     */
+    public static class CacheStats {
+        private final int size;
+        private final int maxEntries;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final long invalidations;
+
+        CacheStats(int size, int maxEntries, long hits, long misses, long evictions, long expirations, long invalidations) {
+            this.size = size;
+            this.maxEntries = maxEntries;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.invalidations = invalidations;
+        }
+
+        public int getSize() { return size; }
+        public int getMaxEntries() { return maxEntries; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+        public long getInvalidations() { return invalidations; }
+
+        public double getHitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("User Cache [size=%d/%d, hits=%d, misses=%d, hit ratio=%.1f%%, evictions=%d, expirations=%d, invalidations=%d]",
+                    size, maxEntries, hits, misses, getHitRatio() * 100, evictions, expirations, invalidations);
+        }
+    }
+}
@@ -1,118 +1,688 @@
 package com.ccrms.dao;
 
+import com.ccrms.events.ChangeEvent;
+import com.ccrms.events.ChangeEventBus;
 import com.ccrms.models.Complaint;
+import com.ccrms.models.Evidence;
 import com.ccrms.util.DatabaseConnector;
+import com.ccrms.util.StatementRegistry;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for the Complaint model.
  * Handles all database operations for complaints.
  */
-public class ComplaintDAO {
+public class ComplaintDAO implements ComplaintRepository {
+
+    // SQL used by this DAO (package-private so QueryPlanCheck can EXPLAIN it)
+    // Explicit column list in mapRowToComplaint() order, so rows are read by position
+    static final String COLUMNS = "complaint_id, victim_name, crime_type, complaint_date, description, status, assigned_officer_id, criminal_id";
+    static final String INSERT_SQL = StatementRegistry.register("ComplaintDAO.addComplaint(s)", "INSERT INTO complaints (victim_name, crime_type, complaint_date, description, status, assigned_officer_id, criminal_id) VALUES (?, ?, ?, ?, ?, ?, ?)");
+    static final String SELECT_ALL_SQL = StatementRegistry.register("ComplaintDAO.getAllComplaints", "SELECT " + COLUMNS + " FROM complaints ORDER BY complaint_date DESC");
+    static final String SELECT_BY_ID_SQL = StatementRegistry.register("ComplaintDAO.getComplaintById", "SELECT " + COLUMNS + " FROM complaints WHERE complaint_id = ?");
+    static final String FIRST_PAGE_SQL = StatementRegistry.register("ComplaintDAO.getComplaintPage (first)", "SELECT " + COLUMNS + " FROM complaints ORDER BY complaint_date DESC, complaint_id DESC LIMIT ?");
+    static final String NEXT_PAGE_SQL = StatementRegistry.register("ComplaintDAO.getComplaintPage (next)",
+            "SELECT " + COLUMNS + " FROM complaints WHERE complaint_date < ? OR (complaint_date = ? AND complaint_id < ?) "
+            + "ORDER BY complaint_date DESC, complaint_id DESC LIMIT ?");
+    static final String PAGE_BY_ID_SQL = StatementRegistry.register("ComplaintDAO.getComplaintsAfterId", "SELECT " + COLUMNS + " FROM complaints WHERE complaint_id > ? ORDER BY complaint_id LIMIT ?");
+    static final String UPDATE_STATUS_SQL = StatementRegistry.register("ComplaintDAO.updateComplaintStatus", "UPDATE complaints SET status = ? WHERE complaint_id = ?");
+    // Set-based updates work on fixed-size chunks of IDs (the last one padded by repeating its last
+    // ID), so there is one statement text to cache: lock the rows to change, then change them in one UPDATE
+    static final int ID_CHUNK_SIZE = 100;
+    static final String LOCK_OPEN_SQL = StatementRegistry.register("ComplaintDAO.reassignOpenComplaints (lock)",
+            "SELECT complaint_id FROM complaints WHERE complaint_id IN (" + placeholders(ID_CHUNK_SIZE) + ") AND status = 'Open' FOR UPDATE");
+    static final String REASSIGN_SQL = StatementRegistry.register("ComplaintDAO.reassignOpenComplaints",
+            "UPDATE complaints SET assigned_officer_id = CASE complaint_id"
+            + " WHEN ? THEN ?".repeat(ID_CHUNK_SIZE) + " ELSE assigned_officer_id END"
+            + " WHERE complaint_id IN (" + placeholders(ID_CHUNK_SIZE) + ") AND status = 'Open'");
+    static final String LOCK_FOR_STATUS_SQL = StatementRegistry.register("ComplaintDAO.updateStatusByIds (lock)",
+            "SELECT complaint_id FROM complaints WHERE complaint_id IN (" + placeholders(ID_CHUNK_SIZE) + ") AND status <> ? FOR UPDATE");
+    static final String BULK_STATUS_SQL = StatementRegistry.register("ComplaintDAO.updateStatusByIds",
+            "UPDATE complaints SET status = ? WHERE complaint_id IN (" + placeholders(ID_CHUNK_SIZE) + ") AND status <> ?");
+    static final String DELETE_EVIDENCE_SQL = StatementRegistry.register("ComplaintDAO.deleteComplaint (evidence)", "DELETE FROM evidence WHERE complaint_id = ?");
+    static final String DELETE_SQL = StatementRegistry.register("ComplaintDAO.deleteComplaint", "DELETE FROM complaints WHERE complaint_id = ?");
+
+    // Metrics and JFR events per operation (see DaoMetrics)
+    private static final DaoMetrics.Operation ADD_COMPLAINT = DaoMetrics.operation("ComplaintDAO.addComplaint");
+    private static final DaoMetrics.Operation ADD_COMPLAINTS = DaoMetrics.operation("ComplaintDAO.addComplaints");
+    private static final DaoMetrics.Operation GET_ALL_COMPLAINTS = DaoMetrics.operation("ComplaintDAO.getAllComplaints");
+    private static final DaoMetrics.Operation GET_COMPLAINT_BY_ID = DaoMetrics.operation("ComplaintDAO.getComplaintById");
+    private static final DaoMetrics.Operation GET_COMPLAINT_PAGE = DaoMetrics.operation("ComplaintDAO.getComplaintPage");
+    private static final DaoMetrics.Operation GET_COMPLAINTS_AFTER_ID = DaoMetrics.operation("ComplaintDAO.getComplaintsAfterId");
+    private static final DaoMetrics.Operation UPDATE_COMPLAINT_STATUS = DaoMetrics.operation("ComplaintDAO.updateComplaintStatus");
+    private static final DaoMetrics.Operation UPDATE_COMPLAINT_STATUSES = DaoMetrics.operation("ComplaintDAO.updateComplaintStatuses");
+    private static final DaoMetrics.Operation UPDATE_STATUS_BY_IDS = DaoMetrics.operation("ComplaintDAO.updateStatusByIds");
+    private static final DaoMetrics.Operation UPDATE_STATUS_WHERE = DaoMetrics.operation("ComplaintDAO.updateStatusWhere");
+    private static final DaoMetrics.Operation COUNT_COMPLAINTS = DaoMetrics.operation("ComplaintDAO.countComplaints");
+    private static final DaoMetrics.Operation REASSIGN_OPEN_COMPLAINTS = DaoMetrics.operation("ComplaintDAO.reassignOpenComplaints");
+    private static final DaoMetrics.Operation DELETE_COMPLAINT = DaoMetrics.operation("ComplaintDAO.deleteComplaint");
+
+    /** Default number of rows fetched per keyset page. */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /** Default number of rows sent per JDBC batch and committed per transaction. */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
 
     /**
      * Adds a new complaint to the database.
+     * The generated complaint ID is written back into the Complaint object.
      * @param complaint The Complaint object to be persisted.
      * @return true if the complaint was added successfully, false otherwise.
      */
+    @Override
     public boolean addComplaint(Complaint complaint) {
-        String sql = "INSERT INTO complaints (victim_name, crime_type, complaint_date, description, status, assigned_officer_id, criminal_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        DaoCallEvent call = ADD_COMPLAINT.begin();
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
 
-            pstmt.setString(1, complaint.getVictimName());
-            pstmt.setString(2, complaint.getCrimeType());
-            pstmt.setDate(3, complaint.getComplaintDate());
-            pstmt.setString(4, complaint.getDescription());
-            pstmt.setString(5, complaint.getStatus());
-            pstmt.setInt(6, complaint.getAssignedOfficerId());
-            if (complaint.getCriminalId() != null) {
-                pstmt.setInt(7, complaint.getCriminalId());
-            } else {
-                pstmt.setNull(7, Types.INTEGER);
-            }
+            bindComplaint(pstmt, complaint);
 
             int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        complaint.setComplaintId(generatedKeys.getInt(1));
+                    }
+                }
+                ChangeEventBus.publish(ChangeEvent.complaintAdded(complaint));
+            }
             return affectedRows > 0;
         } catch (SQLException e) {
+            call.fail(e);
             System.err.println("SQL Error adding complaint: " + e.getMessage());
             return false;
+        } finally {
+            call.finish();
         }
     }
 
+    /**
+     * Adds many complaints using JDBC batching, with the default chunk size.
+     * @see #addComplaints(Collection, int)
+     */
+    @Override
+    public int[] addComplaints(Collection<Complaint> complaints) {
+        return addComplaints(complaints, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Adds many complaints using JDBC batching on a single connection.
+     * Rows are sent and committed in chunks of chunkSize, so a failure only rolls back
+     * the chunk in progress; earlier chunks stay committed.
+     * The generated complaint IDs are written back into the Complaint objects.
+     * @param complaints The complaints to insert, in order.
+     * @param chunkSize The number of rows per batch and per transaction.
+     * @return The generated IDs, in input order, for every row that was committed.
+     *         The array is shorter than the input if a chunk failed.
+     */
+    @Override
+    public int[] addComplaints(Collection<Complaint> complaints, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        DaoCallEvent call = ADD_COMPLAINTS.begin();
+        int[] generatedIds = new int[complaints.size()];
+        int committed = 0;
+        Connection conn = null;
+        try {
+            conn = DatabaseConnector.getConnection();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                List<Complaint> chunk = new ArrayList<>(Math.min(chunkSize, complaints.size()));
+                Iterator<Complaint> iterator = complaints.iterator();
+                while (iterator.hasNext()) {
+                    Complaint complaint = iterator.next();
+                    bindComplaint(pstmt, complaint);
+                    pstmt.addBatch();
+                    chunk.add(complaint);
+
+                    if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                        pstmt.executeBatch();
+                        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                            for (Complaint inserted : chunk) {
+                                if (!generatedKeys.next()) {
+                                    throw new SQLException("Driver returned fewer generated keys than rows inserted.");
+                                }
+                                inserted.setComplaintId(generatedKeys.getInt(1));
+                            }
+                        }
+                        conn.commit(); // Commit this chunk
+                        List<ChangeEvent> events = new ArrayList<>(chunk.size());
+                        for (Complaint inserted : chunk) {
+                            generatedIds[committed++] = inserted.getComplaintId();
+                            events.add(ChangeEvent.complaintAdded(inserted));
+                        }
+                        ChangeEventBus.publish(events);
+                        chunk.clear();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error adding complaints in batch: " + e.getMessage());
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback the chunk in progress
+                } catch (SQLException ex) {
+                    System.err.println("SQL Error on rollback: " + ex.getMessage());
+                }
+            }
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    System.err.println("SQL Error closing connection: " + e.getMessage());
+                }
+            }
+            call.finish();
+        }
+        return committed == generatedIds.length ? generatedIds : Arrays.copyOf(generatedIds, committed);
+    }
+
     /**
      * Retrieves a list of all complaints from the database.
      * @return A List of Complaint objects.
      */
+    @Override
     public List<Complaint> getAllComplaints() {
+        DaoCallEvent call = GET_ALL_COMPLAINTS.begin();
         List<Complaint> complaints = new ArrayList<>();
-        String sql = "SELECT * FROM complaints ORDER BY complaint_date DESC";
         try (Connection conn = DatabaseConnector.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
                 complaints.add(mapRowToComplaint(rs));
             }
         } catch (SQLException e) {
+            call.fail(e);
             System.err.println("SQL Error retrieving all complaints: " + e.getMessage());
+        } finally {
+            call.finish();
+        }
+        return complaints;
+    }
+
+    /**
+     * Retrieves a single complaint by its ID.
+     * @param complaintId The ID of the complaint.
+     * @return The Complaint, or null if it does not exist.
+     */
+    @Override
+    public Complaint getComplaintById(int complaintId) {
+        DaoCallEvent call = GET_COMPLAINT_BY_ID.begin();
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
+
+            pstmt.setInt(1, complaintId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapRowToComplaint(rs);
+                }
+            }
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error retrieving complaint: " + e.getMessage());
+        } finally {
+            call.finish();
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves one page of complaints in (complaint_date DESC, complaint_id DESC) order,
+     * using keyset pagination so each page costs an index range scan regardless of depth.
+     * @param after The last complaint of the previous page, or null for the first page.
+     * @param pageSize The maximum number of complaints to return (also used as the fetch size).
+     * @return A List of at most pageSize Complaint objects; empty once the end is reached.
+     */
+    @Override
+    public List<Complaint> getComplaintPage(Complaint after, int pageSize) {
+        try {
+            return fetchComplaintPage(after, pageSize);
+        } catch (SQLException e) {
+            System.err.println("SQL Error retrieving complaint page: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Reads a page for getComplaintPage() and for streamAllComplaints(), which must fail on an error
+     * instead of ending early.
+     */
+    private List<Complaint> fetchComplaintPage(Complaint after, int pageSize) throws SQLException {
+        DaoCallEvent call = GET_COMPLAINT_PAGE.begin();
+        List<Complaint> complaints = new ArrayList<>(pageSize);
+        String sql = after == null ? FIRST_PAGE_SQL : NEXT_PAGE_SQL;
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            int index = 1;
+            if (after != null) {
+                pstmt.setDate(index++, after.getComplaintDate());
+                pstmt.setDate(index++, after.getComplaintDate());
+                pstmt.setInt(index++, after.getComplaintId());
+            }
+            pstmt.setInt(index, pageSize);
+            pstmt.setFetchSize(pageSize);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    complaints.add(mapRowToComplaint(rs));
+                }
+            }
+        } catch (SQLException e) {
+            call.fail(e);
+            throw e;
+        } finally {
+            call.finish();
         }
         return complaints;
     }
 
+    /**
+     * Returns a lazily-consumed stream over all complaints, newest first.
+     * Rows are pulled one keyset page at a time, so only a single page is held in memory
+     * and the first rows are available as soon as the first page arrives.
+     * A connection is only held while a page is being fetched.
+     * @param pageSize The number of rows fetched per round trip.
+     * @return A sequential Stream of Complaint objects.
+     */
+    @Override
+    public Stream<Complaint> streamAllComplaints(int pageSize) {
+        return KeysetStreams.stream(pageSize, after -> fetchComplaintPage(after, pageSize));
+    }
+
+    /**
+     * Retrieves one page of complaints in ascending ID order, using keyset pagination.
+     * @param afterId The last ID of the previous page, or 0 for the first page.
+     * @param pageSize The maximum number of complaints to return.
+     * @return A List of at most pageSize Complaint objects.
+     */
+    @Override
+    public List<Complaint> getComplaintsAfterId(int afterId, int pageSize) {
+        try {
+            return fetchComplaintsAfterId(afterId, pageSize);
+        } catch (SQLException e) {
+            System.err.println("SQL Error retrieving complaints by ID: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * The throwing form of getComplaintsAfterId(), for streamComplaintsById().
+     */
+    private List<Complaint> fetchComplaintsAfterId(int afterId, int pageSize) throws SQLException {
+        DaoCallEvent call = GET_COMPLAINTS_AFTER_ID.begin();
+        List<Complaint> complaints = new ArrayList<>(pageSize);
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(PAGE_BY_ID_SQL)) {
+
+            pstmt.setInt(1, afterId);
+            pstmt.setInt(2, pageSize);
+            pstmt.setFetchSize(pageSize);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    complaints.add(mapRowToComplaint(rs));
+                }
+            }
+        } catch (SQLException e) {
+            call.fail(e);
+            throw e;
+        } finally {
+            call.finish();
+        }
+        return complaints;
+    }
+
+    /**
+     * Returns a lazily-consumed stream over all complaints in ascending ID order,
+     * e.g. for building in-memory indexes.
+     * @param pageSize The number of rows fetched per round trip.
+     * @return A sequential Stream of Complaint objects.
+     */
+    @Override
+    public Stream<Complaint> streamComplaintsById(int pageSize) {
+        return KeysetStreams.stream(pageSize,
+                after -> fetchComplaintsAfterId(after == null ? 0 : after.getComplaintId(), pageSize));
+    }
+
     /**
      * Updates the status of a specific complaint.
      * @param complaintId The ID of the complaint to update.
      * @param newStatus The new status to set.
      * @return true if the update was successful, false otherwise.
      */
+    @Override
     public boolean updateComplaintStatus(int complaintId, String newStatus) {
-        String sql = "UPDATE complaints SET status = ? WHERE complaint_id = ?";
+        DaoCallEvent call = UPDATE_COMPLAINT_STATUS.begin();
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_STATUS_SQL)) {
 
             pstmt.setString(1, newStatus);
             pstmt.setInt(2, complaintId);
 
             int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                ChangeEventBus.publish(ChangeEvent.complaintStatusChanged(complaintId, newStatus));
+            }
             return affectedRows > 0;
         } catch (SQLException e) {
+            call.fail(e);
             System.err.println("SQL Error updating complaint status: " + e.getMessage());
             return false;
+        } finally {
+            call.finish();
+        }
+    }
+
+    /**
+     * Updates the status of many complaints using JDBC batching on a single connection.
+     * Updates are sent and committed in chunks of chunkSize, so a failure only rolls back
+     * the chunk in progress; earlier chunks stay committed.
+     * @param complaintIds The complaints to update, in order.
+     * @param statuses The new status of each complaint (same length as complaintIds).
+     * @param chunkSize The number of updates per batch and per transaction.
+     * @return The number of rows each committed update changed (0 if the complaint does not exist,
+     *         Statement.SUCCESS_NO_INFO if the driver cannot tell), in input order.
+     *         The array is shorter than the input if a chunk failed.
+     */
+    @Override
+    public int[] updateComplaintStatuses(int[] complaintIds, String[] statuses, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        if (complaintIds.length != statuses.length) {
+            throw new IllegalArgumentException("complaintIds and statuses must have the same length");
+        }
+        DaoCallEvent call = UPDATE_COMPLAINT_STATUSES.begin();
+        int[] affected = new int[complaintIds.length];
+        int committed = 0;
+        Connection conn = null;
+        try {
+            conn = DatabaseConnector.getConnection();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_STATUS_SQL)) {
+                while (committed < complaintIds.length) {
+                    int end = Math.min(committed + chunkSize, complaintIds.length);
+                    for (int i = committed; i < end; i++) {
+                        pstmt.setString(1, statuses[i]);
+                        pstmt.setInt(2, complaintIds[i]);
+                        pstmt.addBatch();
+                    }
+                    int[] counts = pstmt.executeBatch();
+                    conn.commit(); // Commit this chunk
+                    System.arraycopy(counts, 0, affected, committed, counts.length);
+                    List<ChangeEvent> events = new ArrayList<>(end - committed);
+                    for (int i = committed; i < end; i++) {
+                        if (affected[i] != 0) { // A row count, or SUCCESS_NO_INFO for rewritten batches
+                            events.add(ChangeEvent.complaintStatusChanged(complaintIds[i], statuses[i]));
+                        }
+                    }
+                    ChangeEventBus.publish(events);
+                    committed = end;
+                }
+            }
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error updating complaint statuses in batch: " + e.getMessage());
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback the chunk in progress
+                } catch (SQLException ex) {
+                    System.err.println("SQL Error on rollback: " + ex.getMessage());
+                }
+            }
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    System.err.println("SQL Error closing connection: " + e.getMessage());
+                }
+            }
+            call.finish();
+        }
+        return committed == affected.length ? affected : Arrays.copyOf(affected, committed);
+    }
+
+    /**
+     * Sets the status of many complaints in one transaction, a chunk of IDs per UPDATE
+     * instead of a round trip per complaint. Each chunk first locks its rows that still need
+     * the change, so the published events name exactly the complaints changed.
+     * @param complaintIds The complaints to update.
+     * @param newStatus The status to set.
+     * @return The number of complaints changed, or -1 if the transaction failed.
+     */
+    @Override
+    public int updateStatusByIds(int[] complaintIds, String newStatus) {
+        DaoCallEvent call = UPDATE_STATUS_BY_IDS.begin();
+        Connection conn = null;
+        try {
+            conn = DatabaseConnector.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+
+            List<ChangeEvent> events = new ArrayList<>();
+            int affected = updateStatusInChunks(conn, complaintIds, newStatus, events);
+            conn.commit(); // Commit transaction
+            ChangeEventBus.publish(events);
+            return affected;
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error updating complaint statuses: " + e.getMessage());
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback on error
+                } catch (SQLException ex) {
+                    System.err.println("SQL Error on rollback: " + ex.getMessage());
+                }
+            }
+            return -1;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    System.err.println("SQL Error closing connection: " + e.getMessage());
+                }
+            }
+            call.finish();
+        }
+    }
+
+    /**
+     * Sets the status of every complaint the filter matches, in one transaction: the matching
+     * rows are locked and read by one SELECT ... FOR UPDATE, then changed in chunks as in
+     * {@link #updateStatusByIds}. Rows that already have the status are not touched.
+     * @param filter The complaints to update.
+     * @param newStatus The status to set.
+     * @return The number of complaints changed, or -1 if the transaction failed.
+     */
+    @Override
+    public int updateStatusWhere(ComplaintFilter filter, String newStatus) {
+        DaoCallEvent call = UPDATE_STATUS_WHERE.begin();
+        Connection conn = null;
+        try {
+            conn = DatabaseConnector.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+
+            List<Integer> complaintIds = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(lockWhereSql(filter))) {
+                pstmt.setString(1, newStatus);
+                filter.bind(pstmt, 2);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        complaintIds.add(rs.getInt(1));
+                    }
+                }
+            }
+            List<ChangeEvent> events = new ArrayList<>();
+            int affected = updateStatusInChunks(conn, complaintIds.stream().mapToInt(Integer::intValue).toArray(), newStatus, events);
+            conn.commit(); // Commit transaction
+            ChangeEventBus.publish(events);
+            return affected;
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error updating complaint statuses by filter: " + e.getMessage());
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback on error
+                } catch (SQLException ex) {
+                    System.err.println("SQL Error on rollback: " + ex.getMessage());
+                }
+            }
+            return -1;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    System.err.println("SQL Error closing connection: " + e.getMessage());
+                }
+            }
+            call.finish();
+        }
+    }
+
+    /**
+     * Counts complaints with one COUNT(*) query, e.g. to confirm a bulk update first.
+     * @param filter The complaints to count.
+     * @return The number of complaints the filter matches, or -1 on error.
+     */
+    @Override
+    public int countComplaints(ComplaintFilter filter) {
+        DaoCallEvent call = COUNT_COMPLAINTS.begin();
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(countWhereSql(filter))) {
+
+            filter.bind(pstmt, 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error counting complaints: " + e.getMessage());
+            return -1;
+        } finally {
+            call.finish();
         }
     }
 
+    /**
+     * Locks and updates the complaints that do not have the status yet, ID_CHUNK_SIZE at a
+     * time, within the caller's transaction.
+     * @param events Receives a status change event per complaint changed.
+     * @return The number of rows changed.
+     */
+    private int updateStatusInChunks(Connection conn, int[] complaintIds, String newStatus, List<ChangeEvent> events) throws SQLException {
+        int affected = 0;
+        try (PreparedStatement pstmtLock = conn.prepareStatement(LOCK_FOR_STATUS_SQL);
+             PreparedStatement pstmtUpdate = conn.prepareStatement(BULK_STATUS_SQL)) {
+            pstmtLock.setString(ID_CHUNK_SIZE + 1, newStatus);
+            pstmtUpdate.setString(1, newStatus);
+            pstmtUpdate.setString(ID_CHUNK_SIZE + 2, newStatus);
+            for (int from = 0; from < complaintIds.length; from += ID_CHUNK_SIZE) {
+                int to = Math.min(from + ID_CHUNK_SIZE, complaintIds.length);
+                for (int i = 0; i < ID_CHUNK_SIZE; i++) {
+                    int complaintId = complaintIds[Math.min(from + i, to - 1)]; // Pad with the last ID
+                    pstmtLock.setInt(i + 1, complaintId);
+                    pstmtUpdate.setInt(i + 2, complaintId);
+                }
+                try (ResultSet rs = pstmtLock.executeQuery()) {
+                    while (rs.next()) {
+                        events.add(ChangeEvent.complaintStatusChanged(rs.getInt(1), newStatus));
+                    }
+                }
+                affected += pstmtUpdate.executeUpdate();
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Builds the locking SELECT of updateStatusWhere (package-private so QueryPlanCheck can EXPLAIN it).
+     */
+    static String lockWhereSql(ComplaintFilter filter) {
+        return StatementRegistry.register("ComplaintDAO.updateStatusWhere (lock)",
+                "SELECT complaint_id FROM complaints WHERE status <> ?" + filter.sqlConditions() + " FOR UPDATE");
+    }
+
+    /**
+     * Builds the query of countComplaints (package-private so QueryPlanCheck can EXPLAIN it).
+     */
+    static String countWhereSql(ComplaintFilter filter) {
+        String conditions = filter.sqlConditions();
+        return StatementRegistry.register("ComplaintDAO.countComplaints",
+                "SELECT COUNT(*) FROM complaints" + (conditions.isEmpty() ? "" : " WHERE" + conditions.substring(" AND".length())));
+    }
+
     /**
      * Deletes a complaint and all associated evidence from the database.
      * @param complaintId The ID of the complaint to delete.
      * @return true if the deletion was successful, false otherwise.
      */
+    @Override
     public boolean deleteComplaint(int complaintId) {
-        String deleteEvidenceSql = "DELETE FROM evidence WHERE complaint_id = ?";
-        String deleteComplaintSql = "DELETE FROM complaints WHERE complaint_id = ?";
+        DaoCallEvent call = DELETE_COMPLAINT.begin();
         Connection conn = null;
         try {
             conn = DatabaseConnector.getConnection();
             conn.setAutoCommit(false); // Start transaction
 
+            // Remember the evidence being removed so the indicator index can drop it
+            List<Evidence> evidenceList = new ArrayList<>();
+            try (PreparedStatement pstmtSelect = conn.prepareStatement(EvidenceDAO.SELECT_FOR_COMPLAINT_SQL)) {
+                pstmtSelect.setInt(1, complaintId);
+                try (ResultSet rs = pstmtSelect.executeQuery()) {
+                    while (rs.next()) {
+                        evidenceList.add(EvidenceDAO.mapRowToEvidence(rs));
+                    }
+                }
+            }
+
             // First, delete associated evidence
-            try (PreparedStatement pstmtEvidence = conn.prepareStatement(deleteEvidenceSql)) {
+            try (PreparedStatement pstmtEvidence = conn.prepareStatement(DELETE_EVIDENCE_SQL)) {
                 pstmtEvidence.setInt(1, complaintId);
                 pstmtEvidence.executeUpdate();
             }
 
             // Then, delete the complaint
-            try (PreparedStatement pstmtComplaint = conn.prepareStatement(deleteComplaintSql)) {
+            try (PreparedStatement pstmtComplaint = conn.prepareStatement(DELETE_SQL)) {
                 pstmtComplaint.setInt(1, complaintId);
                 int affectedRows = pstmtComplaint.executeUpdate();
                 
                 conn.commit(); // Commit transaction
+                if (affectedRows > 0) {
+                    List<ChangeEvent> events = new ArrayList<>(evidenceList.size() + 1);
+                    for (Evidence evidence : evidenceList) {
+                        events.add(ChangeEvent.evidenceDeleted(evidence));
+                    }
+                    events.add(ChangeEvent.complaintDeleted(complaintId));
+                    ChangeEventBus.publish(events);
+                }
                 return affectedRows > 0;
             }
         } catch (SQLException e) {
+            call.fail(e);
             System.err.println("SQL Error deleting complaint: " + e.getMessage());
             if (conn != null) {
                 try {
@@ -131,6 +701,105 @@ public class ComplaintDAO {
                     System.err.println("SQL Error closing connection: " + e.getMessage());
                 }
             }
+            call.finish();
+        }
+    }
+
+    /**
+     * Moves complaints that are still 'Open' to other officers, e.g. to even out workloads.
+     * All chunks run in one transaction: each locks the chunk's rows that are still open and
+     * moves them with a single UPDATE ... CASE, so either every move happens or none does.
+     * @param complaintIds The complaints to move.
+     * @param officerIds The new officer of each complaint (same length as complaintIds).
+     * @return The IDs of the complaints moved, or null if the transaction failed.
+     */
+    @Override
+    public int[] reassignOpenComplaints(int[] complaintIds, int[] officerIds) {
+        if (complaintIds.length != officerIds.length) {
+            throw new IllegalArgumentException("complaintIds and officerIds must have the same length");
+        }
+        DaoCallEvent call = REASSIGN_OPEN_COMPLAINTS.begin();
+        Connection conn = null;
+        try {
+            conn = DatabaseConnector.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+
+            Map<Integer, Integer> officerOf = new HashMap<>();
+            for (int i = 0; i < complaintIds.length; i++) {
+                officerOf.put(complaintIds[i], officerIds[i]);
+            }
+            List<ChangeEvent> events = new ArrayList<>();
+            try (PreparedStatement pstmtLock = conn.prepareStatement(LOCK_OPEN_SQL);
+                 PreparedStatement pstmtUpdate = conn.prepareStatement(REASSIGN_SQL)) {
+                for (int from = 0; from < complaintIds.length; from += ID_CHUNK_SIZE) {
+                    int to = Math.min(from + ID_CHUNK_SIZE, complaintIds.length);
+                    for (int i = 0; i < ID_CHUNK_SIZE; i++) {
+                        int index = Math.min(from + i, to - 1); // Pad with the last pair
+                        pstmtLock.setInt(i + 1, complaintIds[index]);
+                        pstmtUpdate.setInt(2 * i + 1, complaintIds[index]);
+                        pstmtUpdate.setInt(2 * i + 2, officerIds[index]);
+                        pstmtUpdate.setInt(2 * ID_CHUNK_SIZE + i + 1, complaintIds[index]);
+                    }
+                    try (ResultSet rs = pstmtLock.executeQuery()) {
+                        while (rs.next()) {
+                            int complaintId = rs.getInt(1);
+                            events.add(ChangeEvent.complaintReassigned(complaintId, officerOf.get(complaintId)));
+                        }
+                    }
+                    pstmtUpdate.executeUpdate();
+                }
+            }
+            conn.commit(); // Commit transaction
+            ChangeEventBus.publish(events);
+            return events.stream().mapToInt(ChangeEvent::getId).toArray();
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error reassigning complaints: " + e.getMessage());
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback on error
+                } catch (SQLException ex) {
+                    System.err.println("SQL Error on rollback: " + ex.getMessage());
+                }
+            }
+            return null;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    System.err.println("SQL Error closing connection: " + e.getMessage());
+                }
+            }
+            call.finish();
+        }
+    }
+
+    /**
+     * @return "?, ?, ..." with count placeholders, for IN lists.
+     */
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Helper method to bind a Complaint's columns to an INSERT statement.
+     * @param pstmt The statement with the 7 insert parameters.
+     * @param complaint The complaint to bind.
+     * @throws SQLException if a parameter cannot be set.
+     */
+    private void bindComplaint(PreparedStatement pstmt, Complaint complaint) throws SQLException {
+        pstmt.setString(1, complaint.getVictimName());
+        pstmt.setString(2, complaint.getCrimeType());
+        pstmt.setDate(3, complaint.getComplaintDate());
+        pstmt.setString(4, complaint.getDescription());
+        pstmt.setString(5, complaint.getStatus());
+        pstmt.setInt(6, complaint.getAssignedOfficerId());
+        if (complaint.getCriminalId() != null) {
+            pstmt.setInt(7, complaint.getCriminalId());
+        } else {
+            pstmt.setNull(7, Types.INTEGER);
         }
     }
 
@@ -141,16 +810,18 @@ public class ComplaintDAO {
      * @return A populated Complaint object.
      * @throws SQLException if a column is not found.
      */
-    private Complaint mapRowToComplaint(ResultSet rs) throws SQLException {
+    static Complaint mapRowToComplaint(ResultSet rs) throws SQLException {
+        // Columns by position (see COLUMNS): avoids a label lookup per column per row
         Complaint complaint = new Complaint();
-        complaint.setComplaintId(rs.getInt("complaint_id"));
-        complaint.setVictimName(rs.getString("victim_name"));
-        complaint.setCrimeType(rs.getString("crime_type"));
-        complaint.setComplaintDate(rs.getDate("complaint_date"));
-        complaint.setDescription(rs.getString("description"));
-        complaint.setStatus(rs.getString("status"));
-        complaint.setAssignedOfficerId(rs.getInt("assigned_officer_id"));
-        complaint.setCriminalId((Integer) rs.getObject("criminal_id")); // Handle possible NULL
+        complaint.setComplaintId(rs.getInt(1));
+        complaint.setVictimName(rs.getString(2));
+        complaint.setCrimeType(rs.getString(3));
+        complaint.setComplaintDate(rs.getDate(4));
+        complaint.setDescription(rs.getString(5));
+        complaint.setStatus(rs.getString(6));
+        complaint.setAssignedOfficerId(rs.getInt(7));
+        int criminalId = rs.getInt(8);
+        complaint.setCriminalId(rs.wasNull() ? null : criminalId); // Handle possible NULL
         return complaint;
     }
 }
@@ -0,0 +1,190 @@
+package com.ccrms.dao;
+
+import com.ccrms.models.Complaint;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Selects complaints by crime type, date range, assigned officer and status, for the
+ * set-based operations of {@link ComplaintRepository}. Every criterion is optional and they
+ * combine with AND; a filter without criteria matches every complaint.
+ *
+ * Criteria are set by chaining, e.g.
+ * {@code new ComplaintFilter().status("Open").to(LocalDate.of(2024, 12, 31))}.
+ * In SQL the filter becomes a WHERE clause with one placeholder per criterion, so each
+ * combination of criteria has one statement text.
+ */
+public class ComplaintFilter {
+
+    private String crimeType;
+    private LocalDate from;
+    private LocalDate to;
+    private Integer officerId;
+    private String status;
+
+    public ComplaintFilter crimeType(String crimeType) {
+        this.crimeType = crimeType;
+        return this;
+    }
+
+    /**
+     * @param from The first complaint date included.
+     */
+    public ComplaintFilter from(LocalDate from) {
+        this.from = from;
+        return this;
+    }
+
+    /**
+     * @param to The last complaint date included.
+     */
+    public ComplaintFilter to(LocalDate to) {
+        this.to = to;
+        return this;
+    }
+
+    public ComplaintFilter officer(Integer officerId) {
+        this.officerId = officerId;
+        return this;
+    }
+
+    /**
+     * @param status The current status.
+     */
+    public ComplaintFilter status(String status) {
+        this.status = status;
+        return this;
+    }
+
+    public String getCrimeType() {
+        return crimeType;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public Integer getOfficerId() {
+        return officerId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public boolean isEmpty() {
+        return crimeType == null && from == null && to == null && officerId == null && status == null;
+    }
+
+    /**
+     * Evaluates the filter in memory, for the embedded store.
+     */
+    public boolean matches(Complaint complaint) {
+        if (crimeType != null && !crimeType.equals(complaint.getCrimeType())) {
+            return false;
+        }
+        if (status != null && !status.equals(complaint.getStatus())) {
+            return false;
+        }
+        if (officerId != null && officerId != complaint.getAssignedOfficerId()) {
+            return false;
+        }
+        if (from != null || to != null) {
+            if (complaint.getComplaintDate() == null) {
+                return false;
+            }
+            LocalDate date = complaint.getComplaintDate().toLocalDate();
+            return (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+        }
+        return true;
+    }
+
+    /**
+     * @return The conditions as " AND ..." per criterion (empty without criteria), in the
+     *         order {@link #bind} sets them. Columns are unqualified.
+     */
+    String sqlConditions() {
+        StringBuilder sql = new StringBuilder();
+        if (crimeType != null) {
+            sql.append(" AND crime_type = ?");
+        }
+        if (status != null) {
+            sql.append(" AND status = ?");
+        }
+        if (officerId != null) {
+            sql.append(" AND assigned_officer_id = ?");
+        }
+        if (from != null) {
+            sql.append(" AND complaint_date >= ?");
+        }
+        if (to != null) {
+            sql.append(" AND complaint_date <= ?");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Sets the parameters of {@link #sqlConditions()}.
+     * @param index The parameter index of the first condition.
+     * @return The parameter index after the last condition.
+     */
+    int bind(PreparedStatement pstmt, int index) throws SQLException {
+        for (Object value : values()) {
+            pstmt.setObject(index++, value);
+        }
+        return index;
+    }
+
+    /**
+     * @return The parameters of {@link #sqlConditions()}, in order.
+     */
+    List<Object> values() {
+        List<Object> values = new ArrayList<>(5);
+        if (crimeType != null) {
+            values.add(crimeType);
+        }
+        if (status != null) {
+            values.add(status);
+        }
+        if (officerId != null) {
+            values.add(officerId);
+        }
+        if (from != null) {
+            values.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            values.add(Date.valueOf(to));
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        List<String> criteria = new ArrayList<>(5);
+        if (crimeType != null) {
+            criteria.add("crime type " + crimeType);
+        }
+        if (status != null) {
+            criteria.add("status " + status);
+        }
+        if (officerId != null) {
+            criteria.add("officer " + officerId);
+        }
+        if (from != null) {
+            criteria.add("from " + from);
+        }
+        if (to != null) {
+            criteria.add("to " + to);
+        }
+        return criteria.isEmpty() ? "all complaints" : String.join(", ", criteria);
+    }
+}
@@ -0,0 +1,102 @@
+package com.ccrms.dao;
+
+import com.ccrms.models.Complaint;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Storage operations for complaints, implemented by {@link ComplaintDAO} (MySQL) and by the
+ * embedded store. Failures are reported on standard error and signalled through the return
+ * value (false, an empty list, null or a short array), as in the DAOs. Streams are the
+ * exception: they throw {@link DataAccessException} rather than end early.
+ */
+public interface ComplaintRepository {
+
+    /**
+     * Adds a complaint and writes the generated ID back into it.
+     */
+    boolean addComplaint(Complaint complaint);
+
+    /**
+     * Adds many complaints in chunks of the default batch size.
+     */
+    int[] addComplaints(Collection<Complaint> complaints);
+
+    /**
+     * Adds many complaints, committing every chunkSize rows.
+     * @return The generated IDs, in input order, of the committed rows; shorter than the input if a chunk failed.
+     */
+    int[] addComplaints(Collection<Complaint> complaints, int chunkSize);
+
+    /**
+     * @return Every complaint, newest first.
+     */
+    List<Complaint> getAllComplaints();
+
+    /**
+     * @return The complaint, or null if there is none with this ID.
+     */
+    Complaint getComplaintById(int complaintId);
+
+    /**
+     * @param after The last complaint of the previous page, or null for the first page.
+     * @return The next page in (complaint_date DESC, complaint_id DESC) order.
+     */
+    List<Complaint> getComplaintPage(Complaint after, int pageSize);
+
+    /**
+     * @return A lazily-consumed stream over all complaints, newest first.
+     */
+    Stream<Complaint> streamAllComplaints(int pageSize);
+
+    /**
+     * @return At most pageSize complaints with an ID above afterId, in ID order.
+     */
+    List<Complaint> getComplaintsAfterId(int afterId, int pageSize);
+
+    /**
+     * @return A lazily-consumed stream over all complaints in ID order.
+     */
+    Stream<Complaint> streamComplaintsById(int pageSize);
+
+    boolean updateComplaintStatus(int complaintId, String newStatus);
+
+    /**
+     * Updates many statuses, committing every chunkSize rows.
+     * @return The affected row count per input pair, for the committed chunks.
+     */
+    int[] updateComplaintStatuses(int[] complaintIds, String[] statuses, int chunkSize);
+
+    /**
+     * Sets the status of many complaints, all in one transaction. Complaints that no longer
+     * exist or already have the status are left alone.
+     * @return The number of complaints changed, or -1 if the transaction failed (and none was).
+     */
+    int updateStatusByIds(int[] complaintIds, String newStatus);
+
+    /**
+     * Sets the status of every complaint the filter matches, all in one transaction.
+     * @return The number of complaints changed, or -1 if the transaction failed (and none was).
+     */
+    int updateStatusWhere(ComplaintFilter filter, String newStatus);
+
+    /**
+     * @return The number of complaints the filter matches, or -1 on error.
+     */
+    int countComplaints(ComplaintFilter filter);
+
+    /**
+     * Moves complaints that are still 'Open' to other officers, all in one transaction.
+     * Complaints that no longer exist or are no longer 'Open' are left alone.
+     * @param officerIds The new officer of each complaint (same length as complaintIds).
+     * @return The IDs of the complaints moved, or null if the transaction failed.
+     */
+    int[] reassignOpenComplaints(int[] complaintIds, int[] officerIds);
+
+    /**
+     * Deletes a complaint together with its evidence.
+     */
+    boolean deleteComplaint(int complaintId);
+}
@@ -1,27 +1,51 @@
 package com.ccrms.dao;
 
+import com.ccrms.events.ChangeEvent;
+import com.ccrms.events.ChangeEventBus;
 import com.ccrms.models.Criminal;
 import com.ccrms.util.DatabaseConnector;
+import com.ccrms.util.StatementRegistry;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for the Criminal model.
  * Manages all database operations related to criminals.
  */
-public class CriminalDAO {
+public class CriminalDAO implements CriminalRepository {
+
+    // SQL used by this DAO (package-private so QueryPlanCheck can EXPLAIN it)
+    // Explicit column list in mapRowToCriminal() order, so rows are read by position
+    static final String COLUMNS = "criminal_id, name, crime_history, status";
+    static final String INSERT_SQL = StatementRegistry.register("CriminalDAO.addCriminal", "INSERT INTO criminals (name, crime_history, status) VALUES (?, ?, ?)");
+    static final String SELECT_ALL_SQL = StatementRegistry.register("CriminalDAO.getAllCriminals", "SELECT " + COLUMNS + " FROM criminals ORDER BY name");
+    static final String PAGE_BY_ID_SQL = StatementRegistry.register("CriminalDAO.getCriminalsAfterId", "SELECT " + COLUMNS + " FROM criminals WHERE criminal_id > ? ORDER BY criminal_id LIMIT ?");
+    static final String SELECT_BY_ID_SQL = StatementRegistry.register("CriminalDAO.getCriminalById", "SELECT " + COLUMNS + " FROM criminals WHERE criminal_id = ?");
+    static final String SELECT_FOR_COMPLAINT_SQL = StatementRegistry.register("CriminalDAO.getCriminalForComplaint", "SELECT cr.criminal_id, cr.name, cr.crime_history, cr.status FROM criminals cr JOIN complaints c ON c.criminal_id = cr.criminal_id WHERE c.complaint_id = ?");
+    static final String UNLINK_COMPLAINTS_SQL = StatementRegistry.register("CriminalDAO.deleteCriminal (unlink)", "UPDATE complaints SET criminal_id = NULL WHERE criminal_id = ?");
+    static final String DELETE_SQL = StatementRegistry.register("CriminalDAO.deleteCriminal", "DELETE FROM criminals WHERE criminal_id = ?");
+
+    // Metrics and JFR events per operation (see DaoMetrics)
+    private static final DaoMetrics.Operation ADD_CRIMINAL = DaoMetrics.operation("CriminalDAO.addCriminal");
+    private static final DaoMetrics.Operation GET_ALL_CRIMINALS = DaoMetrics.operation("CriminalDAO.getAllCriminals");
+    private static final DaoMetrics.Operation GET_CRIMINALS_AFTER_ID = DaoMetrics.operation("CriminalDAO.getCriminalsAfterId");
+    private static final DaoMetrics.Operation GET_CRIMINAL_BY_ID = DaoMetrics.operation("CriminalDAO.getCriminalById");
+    private static final DaoMetrics.Operation GET_CRIMINAL_FOR_COMPLAINT = DaoMetrics.operation("CriminalDAO.getCriminalForComplaint");
+    private static final DaoMetrics.Operation DELETE_CRIMINAL = DaoMetrics.operation("CriminalDAO.deleteCriminal");
 
     /**
      * Adds a new criminal to the database.
      * @param criminal The Criminal object to add.
      * @return The generated ID of the new criminal, or -1 if the operation fails.
      */
+    @Override
     public int addCriminal(Criminal criminal) {
-        String sql = "INSERT INTO criminals (name, crime_history, status) VALUES (?, ?, ?)";
+        DaoCallEvent call = ADD_CRIMINAL.begin();
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, criminal.getName());
             pstmt.setString(2, criminal.getCrimeHistory());
@@ -32,12 +56,17 @@ public class CriminalDAO {
             if (affectedRows > 0) {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
-                        return generatedKeys.getInt(1); // Return the new criminal_id
+                        criminal.setCriminalId(generatedKeys.getInt(1));
+                        ChangeEventBus.publish(ChangeEvent.criminalAdded(criminal));
+                        return criminal.getCriminalId(); // Return the new criminal_id
                     }
                 }
             }
         } catch (SQLException e) {
+            call.fail(e);
             System.err.println("SQL Error adding criminal: " + e.getMessage());
+        } finally {
+            call.finish();
         }
         return -1; // Return -1 to indicate failure
     }
@@ -46,51 +75,167 @@ public class CriminalDAO {
      * Retrieves all criminals from the database.
      * @return A List of all Criminal objects.
      */
+    @Override
     public List<Criminal> getAllCriminals() {
+        DaoCallEvent call = GET_ALL_CRIMINALS.begin();
         List<Criminal> criminals = new ArrayList<>();
-        String sql = "SELECT * FROM criminals ORDER BY name";
         try (Connection conn = DatabaseConnector.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
                 criminals.add(mapRowToCriminal(rs));
             }
         } catch (SQLException e) {
+            call.fail(e);
             System.err.println("SQL Error retrieving all criminals: " + e.getMessage());
+        } finally {
+            call.finish();
         }
         return criminals;
     }
 
+    /**
+     * Retrieves one page of criminals in ascending ID order, using keyset pagination.
+     * @param afterId The last ID of the previous page, or 0 for the first page.
+     * @param pageSize The maximum number of criminals to return.
+     * @return A List of at most pageSize Criminal objects.
+     */
+    @Override
+    public List<Criminal> getCriminalsAfterId(int afterId, int pageSize) {
+        try {
+            return fetchCriminalsAfterId(afterId, pageSize);
+        } catch (SQLException e) {
+            System.err.println("SQL Error retrieving criminals by ID: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * The throwing form of getCriminalsAfterId(), for streamCriminalsById().
+     */
+    private List<Criminal> fetchCriminalsAfterId(int afterId, int pageSize) throws SQLException {
+        DaoCallEvent call = GET_CRIMINALS_AFTER_ID.begin();
+        List<Criminal> criminals = new ArrayList<>(pageSize);
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(PAGE_BY_ID_SQL)) {
+
+            pstmt.setInt(1, afterId);
+            pstmt.setInt(2, pageSize);
+            pstmt.setFetchSize(pageSize);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    criminals.add(mapRowToCriminal(rs));
+                }
+            }
+        } catch (SQLException e) {
+            call.fail(e);
+            throw e;
+        } finally {
+            call.finish();
+        }
+        return criminals;
+    }
+
+    /**
+     * Returns a lazily-consumed stream over all criminals in ascending ID order.
+     * @param pageSize The number of rows fetched per round trip.
+     * @return A sequential Stream of Criminal objects.
+     */
+    @Override
+    public Stream<Criminal> streamCriminalsById(int pageSize) {
+        return KeysetStreams.stream(pageSize,
+                after -> fetchCriminalsAfterId(after == null ? 0 : after.getCriminalId(), pageSize));
+    }
+
+    /**
+     * Retrieves a single criminal by ID.
+     * @param criminalId The ID of the criminal.
+     * @return The Criminal, or null if it does not exist.
+     */
+    @Override
+    public Criminal getCriminalById(int criminalId) {
+        DaoCallEvent call = GET_CRIMINAL_BY_ID.begin();
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
+
+            pstmt.setInt(1, criminalId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapRowToCriminal(rs);
+                }
+            }
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error retrieving criminal: " + e.getMessage());
+        } finally {
+            call.finish();
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the criminal linked to a complaint, without loading the complaint first.
+     * @param complaintId The ID of the complaint.
+     * @return The linked Criminal, or null if the complaint has none.
+     */
+    @Override
+    public Criminal getCriminalForComplaint(int complaintId) {
+        DaoCallEvent call = GET_CRIMINAL_FOR_COMPLAINT.begin();
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_FOR_COMPLAINT_SQL)) {
+
+            pstmt.setInt(1, complaintId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapRowToCriminal(rs);
+                }
+            }
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error retrieving criminal for complaint: " + e.getMessage());
+        } finally {
+            call.finish();
+        }
+        return null;
+    }
+
     /**
      * Deletes a criminal from the database.
      * Before deletion, it updates associated complaints to set criminal_id to NULL.
      * @param criminalId The ID of the criminal to delete.
      * @return true if the deletion was successful, false otherwise.
      */
+    @Override
     public boolean deleteCriminal(int criminalId) {
-        String updateComplaintsSql = "UPDATE complaints SET criminal_id = NULL WHERE criminal_id = ?";
-        String deleteCriminalSql = "DELETE FROM criminals WHERE criminal_id = ?";
+        DaoCallEvent call = DELETE_CRIMINAL.begin();
         Connection conn = null;
         try {
             conn = DatabaseConnector.getConnection();
             conn.setAutoCommit(false); // Start transaction
 
             // First, update associated complaints
-            try (PreparedStatement pstmtUpdate = conn.prepareStatement(updateComplaintsSql)) {
+            try (PreparedStatement pstmtUpdate = conn.prepareStatement(UNLINK_COMPLAINTS_SQL)) {
                 pstmtUpdate.setInt(1, criminalId);
                 pstmtUpdate.executeUpdate();
             }
 
             // Then, delete the criminal
-            try (PreparedStatement pstmtDelete = conn.prepareStatement(deleteCriminalSql)) {
+            try (PreparedStatement pstmtDelete = conn.prepareStatement(DELETE_SQL)) {
                 pstmtDelete.setInt(1, criminalId);
                 int affectedRows = pstmtDelete.executeUpdate();
                 
                 conn.commit(); // Commit transaction
+                if (affectedRows > 0) {
+                    ChangeEventBus.publish(ChangeEvent.criminalDeleted(criminalId));
+                }
                 return affectedRows > 0;
             }
         } catch (SQLException e) {
+            call.fail(e);
             System.err.println("SQL Error deleting criminal: " + e.getMessage());
             if (conn != null) {
                 try {
@@ -109,6 +254,7 @@ public class CriminalDAO {
                     System.err.println("SQL Error closing connection: " + e.getMessage());
                 }
             }
+            call.finish();
         }
     }
 
@@ -118,12 +264,13 @@ public class CriminalDAO {
      * @return A populated Criminal object.
      * @throws SQLException if a column is not found.
      */
-    private Criminal mapRowToCriminal(ResultSet rs) throws SQLException {
+    static Criminal mapRowToCriminal(ResultSet rs) throws SQLException {
+        // Columns by position (see COLUMNS)
         Criminal criminal = new Criminal();
-        criminal.setCriminalId(rs.getInt("criminal_id"));
-        criminal.setName(rs.getString("name"));
-        criminal.setCrimeHistory(rs.getString("crime_history"));
-        criminal.setStatus(rs.getString("status"));
+        criminal.setCriminalId(rs.getInt(1));
+        criminal.setName(rs.getString(2));
+        criminal.setCrimeHistory(rs.getString(3));
+        criminal.setStatus(rs.getString(4));
         return criminal;
     }
 }
@@ -0,0 +1,49 @@
+package com.ccrms.dao;
+
+import com.ccrms.models.Criminal;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Storage operations for criminals, implemented by {@link CriminalDAO} (MySQL) and by the
+ * embedded store. Streams throw {@link DataAccessException} if a page cannot be read.
+ */
+public interface CriminalRepository {
+
+    /**
+     * Adds a criminal and writes the generated ID back into it.
+     * @return The generated ID, or -1 on failure.
+     */
+    int addCriminal(Criminal criminal);
+
+    /**
+     * @return Every criminal, ordered by name.
+     */
+    List<Criminal> getAllCriminals();
+
+    /**
+     * @return At most pageSize criminals with an ID above afterId, in ID order.
+     */
+    List<Criminal> getCriminalsAfterId(int afterId, int pageSize);
+
+    /**
+     * @return A lazily-consumed stream over all criminals in ID order.
+     */
+    Stream<Criminal> streamCriminalsById(int pageSize);
+
+    /**
+     * @return The criminal, or null if there is none with this ID.
+     */
+    Criminal getCriminalById(int criminalId);
+
+    /**
+     * @return The criminal linked to the complaint, or null if there is none.
+     */
+    Criminal getCriminalForComplaint(int complaintId);
+
+    /**
+     * Deletes a criminal after unlinking it from its complaints.
+     */
+    boolean deleteCriminal(int criminalId);
+}
@@ -0,0 +1,415 @@
+package com.ccrms.dao;
+
+import com.ccrms.models.Complaint;
+import com.ccrms.models.Criminal;
+import com.ccrms.models.Evidence;
+import com.ccrms.util.DatabaseConnector;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Microbenchmarks for the DAO hot paths: row mapping, model rendering and statement
+ * prepare/execute cycles.
+ *
+ * Every benchmark reports throughput (ops/s, median of several timed rounds after a warm-up)
+ * and allocation (bytes/op, from the per-thread allocation counter). Row mapping runs against
+ * an in-memory ResultSet, which isolates the mapping code from the driver, and, when a database
+ * is reachable, against a real driver ResultSet. The label-based, boxing variants the DAOs used
+ * to have are kept as reference rows so the gap stays visible.
+ *
+ * Results can be saved and later compared; the comparison fails when throughput drops or
+ * allocation of a non-reference benchmark grows by more than the tolerance.
+ *
+ * Usage (against a test database, never production):
+ *   java -cp bin:lib/* com.ccrms.dao.DaoBenchmark [--no-db] [--rounds N] [--round-millis N]
+ *        [--save results.properties] [--compare results.properties [--tolerance PCT]]
+ * Exits with status 1 if a comparison regresses.
+ */
+public class DaoBenchmark {
+
+    private static final int DEFAULT_ROUNDS = 5;
+    private static final int DEFAULT_ROUND_MILLIS = 1000;
+    private static final double DEFAULT_TOLERANCE_PERCENT = 10;
+
+    private static final String[] COMPLAINT_LABELS = {"complaint_id", "victim_name", "crime_type", "complaint_date",
+            "description", "status", "assigned_officer_id", "criminal_id"};
+    private static final String[] CRIMINAL_LABELS = {"criminal_id", "name", "crime_history", "status"};
+    private static final String[] EVIDENCE_LABELS = {"evidence_id", "complaint_id", "evidence_type", "details"};
+
+    /**
+     * One benchmarked operation. The returned value is consumed so the JIT cannot drop the work.
+     */
+    private interface Operation {
+        Object run() throws Exception;
+    }
+
+    /**
+     * The measurements of one benchmark.
+     */
+    private static final class Result {
+        final String name;
+        final double opsPerSecond;
+        final double bytesPerOp;
+
+        Result(String name, double opsPerSecond, double bytesPerOp) {
+            this.name = name;
+            this.opsPerSecond = opsPerSecond;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+
+    private static int sink; // Consumes benchmark results
+
+    private final int rounds;
+    private final int roundMillis;
+    private final List<Result> results = new ArrayList<>();
+
+    private DaoBenchmark(int rounds, int roundMillis) {
+        this.rounds = rounds;
+        this.roundMillis = roundMillis;
+    }
+
+    public static void main(String[] args) {
+        boolean useDatabase = true;
+        int rounds = DEFAULT_ROUNDS;
+        int roundMillis = DEFAULT_ROUND_MILLIS;
+        double tolerance = DEFAULT_TOLERANCE_PERCENT;
+        Path saveTo = null;
+        Path compareTo = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--no-db":
+                    useDatabase = false;
+                    break;
+                case "--rounds":
+                    rounds = Integer.parseInt(args[++i]);
+                    break;
+                case "--round-millis":
+                    roundMillis = Integer.parseInt(args[++i]);
+                    break;
+                case "--save":
+                    saveTo = Paths.get(args[++i]);
+                    break;
+                case "--compare":
+                    compareTo = Paths.get(args[++i]);
+                    break;
+                case "--tolerance":
+                    tolerance = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        DaoBenchmark benchmark = new DaoBenchmark(rounds, roundMillis);
+        try {
+            benchmark.runInMemory();
+            if (useDatabase) {
+                benchmark.runAgainstDatabase();
+            }
+        } catch (Exception e) {
+            System.err.println("Benchmark failed: " + e);
+            System.exit(2);
+        } finally {
+            DatabaseConnector.closeConnection();
+        }
+
+        try {
+            if (saveTo != null) {
+                benchmark.save(saveTo);
+                System.out.println("Saved results to " + saveTo);
+            }
+            if (compareTo != null && benchmark.compare(compareTo, tolerance) > 0) {
+                System.exit(1);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read or write results: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    // --- Benchmarks ---
+
+    private void runInMemory() throws Exception {
+        ResultSet complaintRow = inMemoryRow(COMPLAINT_LABELS, new Object[] {42, "Alice Smith", "Phishing",
+                Date.valueOf("2025-07-15"), "Received a suspicious email asking for bank details.", "Open", 2, 1234});
+        ResultSet criminalRow = inMemoryRow(CRIMINAL_LABELS, new Object[] {1234, "John Doe",
+                "Previous phishing attempt in 2022.", "Arrested"});
+        ResultSet evidenceRow = inMemoryRow(EVIDENCE_LABELS, new Object[] {77, 42, "Email ID", "scammer@fakebank.com"});
+
+        measure("mapRowToComplaint [memory]", () -> ComplaintDAO.mapRowToComplaint(complaintRow));
+        measure("mapRowToComplaint by label [memory, reference]", () -> complaintByLabel(complaintRow));
+        measure("mapRowToCriminal [memory]", () -> CriminalDAO.mapRowToCriminal(criminalRow));
+        measure("mapRowToCriminal by label [memory, reference]", () -> criminalByLabel(criminalRow));
+        measure("mapRowToEvidence [memory]", () -> EvidenceDAO.mapRowToEvidence(evidenceRow));
+        measure("mapRowToEvidence by label [memory, reference]", () -> evidenceByLabel(evidenceRow));
+
+        Complaint complaint = ComplaintDAO.mapRowToComplaint(complaintRow);
+        measure("Complaint.toString", complaint::toString);
+        measure("Complaint.toString via String.format [reference]", () -> formatComplaint(complaint));
+    }
+
+    private void runAgainstDatabase() throws Exception {
+        Connection conn;
+        try {
+            conn = DatabaseConnector.getConnection();
+        } catch (SQLException e) {
+            System.out.println("Database not reachable, skipping database benchmarks: " + e.getMessage());
+            return;
+        }
+        try {
+            int complaintId = firstId(conn, "SELECT MIN(complaint_id) FROM complaints");
+            if (complaintId <= 0) {
+                System.out.println("The complaints table is empty, skipping database benchmarks.");
+                return;
+            }
+
+            // Row mapping on a real driver ResultSet: one row, re-read in place
+            try (PreparedStatement pstmt = conn.prepareStatement(ComplaintDAO.SELECT_BY_ID_SQL,
+                    ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setInt(1, complaintId);
+                try (ResultSet tracked = pstmt.executeQuery()) {
+                    tracked.next();
+                    ResultSet rs = tracked.unwrap(ResultSet.class); // The driver's own ResultSet
+                    measure("mapRowToComplaint [driver]", () -> ComplaintDAO.mapRowToComplaint(rs));
+                    measure("mapRowToComplaint by label [driver, reference]", () -> complaintByLabel(rs));
+                    measure("mapRowToComplaint [driver, through statement tracking]", () -> ComplaintDAO.mapRowToComplaint(tracked));
+                }
+            }
+
+            measure("prepare (pooled, cached) + execute + close SELECT_BY_ID", () -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(ComplaintDAO.SELECT_BY_ID_SQL)) {
+                    pstmt.setInt(1, complaintId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next() ? ComplaintDAO.mapRowToComplaint(rs) : null;
+                    }
+                }
+            });
+            try (PreparedStatement pstmt = conn.prepareStatement(ComplaintDAO.SELECT_BY_ID_SQL)) {
+                measure("execute on a reused statement SELECT_BY_ID", () -> {
+                    pstmt.setInt(1, complaintId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next() ? ComplaintDAO.mapRowToComplaint(rs) : null;
+                    }
+                });
+            }
+            ComplaintDAO complaintDAO = new ComplaintDAO();
+            measure("ComplaintDAO.getComplaintById (borrow + prepare + execute)",
+                    () -> complaintDAO.getComplaintById(complaintId));
+            measure("ComplaintDAO.getComplaintPage(100)", () -> complaintDAO.getComplaintPage(null, 100));
+        } finally {
+            conn.close();
+        }
+    }
+
+    private static int firstId(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // --- Reference implementations (the previous DAO code) ---
+
+    private static Complaint complaintByLabel(ResultSet rs) throws SQLException {
+        Complaint complaint = new Complaint();
+        complaint.setComplaintId(rs.getInt("complaint_id"));
+        complaint.setVictimName(rs.getString("victim_name"));
+        complaint.setCrimeType(rs.getString("crime_type"));
+        complaint.setComplaintDate(rs.getDate("complaint_date"));
+        complaint.setDescription(rs.getString("description"));
+        complaint.setStatus(rs.getString("status"));
+        complaint.setAssignedOfficerId(rs.getInt("assigned_officer_id"));
+        complaint.setCriminalId((Integer) rs.getObject("criminal_id"));
+        return complaint;
+    }
+
+    private static Criminal criminalByLabel(ResultSet rs) throws SQLException {
+        Criminal criminal = new Criminal();
+        criminal.setCriminalId(rs.getInt("criminal_id"));
+        criminal.setName(rs.getString("name"));
+        criminal.setCrimeHistory(rs.getString("crime_history"));
+        criminal.setStatus(rs.getString("status"));
+        return criminal;
+    }
+
+    private static Evidence evidenceByLabel(ResultSet rs) throws SQLException {
+        Evidence evidence = new Evidence();
+        evidence.setEvidenceId(rs.getInt("evidence_id"));
+        evidence.setComplaintId(rs.getInt("complaint_id"));
+        evidence.setEvidenceType(rs.getString("evidence_type"));
+        evidence.setDetails(rs.getString("details"));
+        return evidence;
+    }
+
+    private static String formatComplaint(Complaint c) {
+        return String.format(
+            "Complaint [ID=%d, Type=%s, Victim=%s, Date=%s, Status=%s]\n  Description: %s\n  OfficerID: %d, CriminalID: %s",
+            c.getComplaintId(), c.getCrimeType(), c.getVictimName(), c.getComplaintDate(), c.getStatus(),
+            c.getDescription(), c.getAssignedOfficerId(),
+            (c.getCriminalId() == null || c.getCriminalId() == 0) ? "N/A" : c.getCriminalId().toString());
+    }
+
+    // --- Harness ---
+
+    /**
+     * Warms the operation up for one round, then runs the timed rounds.
+     * Throughput is the median round; allocation is averaged over all timed operations.
+     */
+    private void measure(String name, Operation operation) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        runFor(operation, roundMillis); // Warm-up
+
+        double[] throughput = new double[rounds];
+        long totalOps = 0;
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            long ops = runFor(operation, roundMillis);
+            throughput[round] = ops / ((System.nanoTime() - start) / 1e9);
+            totalOps += ops;
+        }
+        double bytesPerOp = (threads.getThreadAllocatedBytes(threadId) - bytesBefore) / (double) totalOps;
+        Arrays.sort(throughput);
+
+        Result result = new Result(name, throughput[rounds / 2], bytesPerOp);
+        results.add(result);
+        System.out.printf("%-62s %14.0f ops/s %10.1f B/op%n", name, result.opsPerSecond, result.bytesPerOp);
+    }
+
+    /**
+     * Runs the operation in batches until the time is up.
+     * @return The number of operations run.
+     */
+    private static long runFor(Operation operation, int millis) throws Exception {
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        long ops = 0;
+        int batch = 1;
+        int hash = 0;
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < batch; i++) {
+                Object value = operation.run();
+                hash += value == null ? 0 : System.identityHashCode(value);
+            }
+            ops += batch;
+            batch = Math.min(batch * 2, 1024);
+        }
+        sink += hash;
+        return ops;
+    }
+
+    private void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        for (Result result : results) {
+            properties.setProperty(result.name + ".opsPerSecond", String.valueOf(result.opsPerSecond));
+            properties.setProperty(result.name + ".bytesPerOp", String.valueOf(result.bytesPerOp));
+        }
+        try (OutputStream out = Files.newOutputStream(file)) {
+            properties.store(out, "DaoBenchmark results");
+        }
+    }
+
+    /**
+     * Compares the results with a saved run.
+     * @return The number of benchmarks that regressed.
+     */
+    private int compare(Path file, double tolerancePercent) throws IOException {
+        Properties baseline = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            baseline.load(in);
+        }
+        double tolerance = tolerancePercent / 100.0;
+        int regressions = 0;
+        System.out.println("\nComparison with " + file + " (tolerance " + tolerancePercent + "%):");
+        for (Result result : results) {
+            String ops = baseline.getProperty(result.name + ".opsPerSecond");
+            String bytes = baseline.getProperty(result.name + ".bytesPerOp");
+            if (ops == null || bytes == null) {
+                System.out.println("NEW   " + result.name);
+                continue;
+            }
+            double baselineOps = Double.parseDouble(ops);
+            double baselineBytes = Double.parseDouble(bytes);
+            List<String> problems = new ArrayList<>();
+            if (result.opsPerSecond < baselineOps * (1 - tolerance)) {
+                problems.add(String.format(Locale.ROOT, "throughput %.0f -> %.0f ops/s", baselineOps, result.opsPerSecond));
+            }
+            // Allow a few bytes of noise on allocation-free paths
+            if (result.bytesPerOp > baselineBytes * (1 + tolerance) + 8) {
+                problems.add(String.format(Locale.ROOT, "allocation %.1f -> %.1f B/op", baselineBytes, result.bytesPerOp));
+            }
+            if (problems.isEmpty()) {
+                System.out.println("OK    " + result.name);
+            } else if (result.name.contains("reference")) {
+                // Reference rows document the old code; they are reported but never fail the run
+                System.out.println("INFO  " + result.name + ": " + String.join(", ", problems));
+            } else {
+                regressions++;
+                System.out.println("FAIL  " + result.name + ": " + String.join(", ", problems));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * A read-only, single-row ResultSet over in-memory values. Labels are resolved
+     * case-insensitively, as the driver does.
+     */
+    private static ResultSet inMemoryRow(String[] labels, Object[] values) {
+        Map<String, Integer> indexByLabel = new HashMap<>();
+        for (int i = 0; i < labels.length; i++) {
+            indexByLabel.put(labels[i], i + 1);
+        }
+        boolean[] lastWasNull = new boolean[1];
+        return (ResultSet) Proxy.newProxyInstance(DaoBenchmark.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+                (proxy, method, args) -> {
+                    String methodName = method.getName();
+                    if (methodName.equals("findColumn")) {
+                        return column(indexByLabel, (String) args[0]);
+                    }
+                    if (methodName.equals("wasNull")) {
+                        return lastWasNull[0];
+                    }
+                    if (methodName.startsWith("get") && args != null && args.length == 1) {
+                        int index = args[0] instanceof String ? column(indexByLabel, (String) args[0]) : (Integer) args[0];
+                        Object value = values[index - 1];
+                        lastWasNull[0] = value == null;
+                        if (methodName.equals("getInt")) {
+                            return value == null ? 0 : ((Number) value).intValue();
+                        }
+                        return value;
+                    }
+                    throw new UnsupportedOperationException(methodName);
+                });
+    }
+
+    private static int column(Map<String, Integer> indexByLabel, String label) throws SQLException {
+        Integer index = indexByLabel.get(label.toLowerCase(Locale.ROOT));
+        if (index == null) {
+            throw new SQLException("Column '" + label + "' not found.");
+        }
+        return index;
+    }
+}
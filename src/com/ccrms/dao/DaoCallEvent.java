@@ -0,0 +1,60 @@
+package com.ccrms.dao;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.sql.SQLException;
+
+/**
+ * One DAO call, timed for {@link DaoMetrics} and emitted as a JDK Flight Recorder event.
+ * Start a recording with e.g. -XX:StartFlightRecording=filename=ccrms.jfr and look for
+ * "CCRMS / Database / DAO Call" in JDK Mission Control, or use
+ * 'jfr print --events com.ccrms.DaoCall ccrms.jfr'.
+ */
+@Name("com.ccrms.DaoCall")
+@Label("DAO Call")
+@Category({"CCRMS", "Database"})
+@Description("A DAO operation, from borrowing a connection to returning it")
+@StackTrace(false)
+class DaoCallEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Failed")
+    boolean failed;
+
+    @Label("Error")
+    String error;
+
+    private final transient DaoMetrics.Operation metrics;
+    private final transient long startNanos = System.nanoTime();
+
+    DaoCallEvent(DaoMetrics.Operation metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Marks the call as failed.
+     */
+    void fail(SQLException e) {
+        failed = true;
+        error = e.getSQLState() == null ? e.getMessage() : "[" + e.getSQLState() + "] " + e.getMessage();
+    }
+
+    /**
+     * Ends the call: records it in the metrics and commits the event if a recording wants it.
+     */
+    void finish() {
+        end();
+        metrics.record(System.nanoTime() - startNanos, failed);
+        if (shouldCommit()) {
+            operation = metrics.name;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.ccrms.dao;
+
+import com.ccrms.util.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation metrics for the DAOs: call count, failure count and a latency histogram.
+ *
+ * Each DAO declares its operations once and brackets every call:
+ * <pre>
+ *     DaoCallEvent call = GET_COMPLAINT_BY_ID.begin();
+ *     try (...) {
+ *         ...
+ *     } catch (SQLException e) {
+ *         call.fail(e);
+ *         ...
+ *     } finally {
+ *         call.finish();
+ *     }
+ * </pre>
+ * The call object is also a JDK Flight Recorder event, so a recording shows every DAO
+ * call with its duration and error. Outside a recording only the counters are updated.
+ */
+public class DaoMetrics {
+
+    private static final List<Operation> OPERATIONS = new CopyOnWriteArrayList<>();
+
+    private DaoMetrics() {
+    }
+
+    /**
+     * Declares an operation. Called once per DAO method, from a static initializer.
+     * @param name The operation name, e.g. "ComplaintDAO.getComplaintById".
+     */
+    static Operation operation(String name) {
+        Operation operation = new Operation(name);
+        OPERATIONS.add(operation);
+        return operation;
+    }
+
+    /**
+     * @return The statistics of every declared operation, in declaration order.
+     */
+    public static List<Stats> getStats() {
+        List<Stats> stats = new ArrayList<>(OPERATIONS.size());
+        for (Operation operation : OPERATIONS) {
+            stats.add(new Stats(operation.name, operation.latency.snapshot(), operation.failures.sum()));
+        }
+        return stats;
+    }
+
+    /**
+     * One DAO operation and its counters.
+     */
+    static final class Operation {
+        final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder failures = new LongAdder();
+
+        private Operation(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Starts timing one call. The caller must call {@link DaoCallEvent#finish()} exactly once.
+         */
+        DaoCallEvent begin() {
+            DaoCallEvent call = new DaoCallEvent(this);
+            call.begin();
+            return call;
+        }
+
+        void record(long nanos, boolean failed) {
+            latency.record(nanos);
+            if (failed) {
+                failures.increment();
+            }
+        }
+    }
+
+    /**
+     * Immutable snapshot of one operation's counters.
+     */
+    public static class Stats {
+        private final String name;
+        private final LatencyHistogram.Snapshot latency;
+        private final long failures;
+
+        Stats(String name, LatencyHistogram.Snapshot latency, long failures) {
+            this.name = name;
+            this.latency = latency;
+            this.failures = failures;
+        }
+
+        public String getName() { return name; }
+        public LatencyHistogram.Snapshot getLatency() { return latency; }
+        public long getCalls() { return latency.getCount(); }
+        public long getFailures() { return failures; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d calls, %d failures, p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                    name, getCalls(), failures, latency.getPercentileNanos(50) / 1_000_000.0,
+                    latency.getPercentileNanos(99) / 1_000_000.0, latency.getMaxNanos() / 1_000_000.0);
+        }
+    }
+}
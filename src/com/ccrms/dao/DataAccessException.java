@@ -0,0 +1,18 @@
+package com.ccrms.dao;
+
+import java.sql.SQLException;
+
+/**
+ * Signals a database error where a checked exception cannot be thrown, such as while a
+ * {@link KeysetStreams} stream fetches its next page. Unlike the DAO methods, which report
+ * an error and return an empty result, a stream must not end early as if it had read
+ * everything.
+ */
+public class DataAccessException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DataAccessException(String message, SQLException cause) {
+        super(message + ": " + cause.getMessage(), cause);
+    }
+}
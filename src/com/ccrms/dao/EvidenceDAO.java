@@ -1,41 +1,182 @@
 package com.ccrms.dao;
 
+import com.ccrms.events.ChangeEvent;
+import com.ccrms.events.ChangeEventBus;
+import com.ccrms.index.IndicatorNormalizer;
+import com.ccrms.index.IpAddress;
+import com.ccrms.index.IpRange;
 import com.ccrms.models.Evidence;
 import com.ccrms.util.DatabaseConnector;
+import com.ccrms.util.StatementRegistry;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for the Evidence model.
  * Manages all database operations for evidence records.
  */
-public class EvidenceDAO {
+public class EvidenceDAO implements EvidenceRepository {
+
+    // SQL used by this DAO (package-private so QueryPlanCheck can EXPLAIN it)
+    // Explicit column list in mapRowToEvidence() order, so rows are read by position
+    static final String COLUMNS = "evidence_id, complaint_id, evidence_type, details";
+    static final String INSERT_SQL = StatementRegistry.register("EvidenceDAO.addEvidence(Batch)", "INSERT INTO evidence (complaint_id, evidence_type, details, ip_address) VALUES (?, ?, ?, ?)");
+    static final String SELECT_FOR_COMPLAINT_SQL = StatementRegistry.register("EvidenceDAO.getEvidenceForComplaint", "SELECT " + COLUMNS + " FROM evidence WHERE complaint_id = ?");
+    static final String SELECT_BY_ID_SQL = StatementRegistry.register("EvidenceDAO.deleteEvidence (read)", "SELECT " + COLUMNS + " FROM evidence WHERE evidence_id = ?");
+    static final String PAGE_BY_ID_SQL = StatementRegistry.register("EvidenceDAO.getEvidenceAfterId", "SELECT " + COLUMNS + " FROM evidence WHERE evidence_id > ? ORDER BY evidence_id LIMIT ?");
+    static final String DELETE_SQL = StatementRegistry.register("EvidenceDAO.deleteEvidence", "DELETE FROM evidence WHERE evidence_id = ?");
+    static final String SELECT_BY_IP_RANGE_SQL = StatementRegistry.register("EvidenceDAO.findEvidenceByIpRange", "SELECT " + COLUMNS + " FROM evidence WHERE ip_address BETWEEN ? AND ? ORDER BY ip_address");
+    static final String UPDATE_IP_ADDRESS_SQL = StatementRegistry.register("EvidenceDAO.backfillIpAddresses", "UPDATE evidence SET ip_address = ? WHERE evidence_id = ?");
+    static final String INSERT_INDICATOR_SQL = StatementRegistry.register("EvidenceDAO.addEvidence(Batch) (indicator)", "INSERT INTO evidence_indicators (evidence_id, complaint_id, indicator_hash, indicator_key) VALUES (?, ?, ?, ?)");
+    static final String FIND_BY_INDICATOR_SQL = StatementRegistry.register("EvidenceDAO.findComplaintIdsByIndicator", "SELECT DISTINCT complaint_id FROM evidence_indicators WHERE indicator_hash = ? ORDER BY complaint_id");
+    static final String SELECT_MISSING_INDICATORS_SQL = StatementRegistry.register("EvidenceDAO.backfillIndicators",
+            "SELECT e.evidence_id, e.complaint_id, e.evidence_type, e.details FROM evidence e "
+            + "LEFT JOIN evidence_indicators i ON i.evidence_id = e.evidence_id "
+            + "WHERE e.evidence_id > ? AND i.evidence_id IS NULL ORDER BY e.evidence_id LIMIT ?");
+
+    // Metrics and JFR events per operation (see DaoMetrics)
+    private static final DaoMetrics.Operation ADD_EVIDENCE = DaoMetrics.operation("EvidenceDAO.addEvidence");
+    private static final DaoMetrics.Operation ADD_EVIDENCE_BATCH = DaoMetrics.operation("EvidenceDAO.addEvidenceBatch");
+    private static final DaoMetrics.Operation GET_EVIDENCE_FOR_COMPLAINT = DaoMetrics.operation("EvidenceDAO.getEvidenceForComplaint");
+    private static final DaoMetrics.Operation DELETE_EVIDENCE = DaoMetrics.operation("EvidenceDAO.deleteEvidence");
+    private static final DaoMetrics.Operation FIND_COMPLAINT_IDS_BY_INDICATOR = DaoMetrics.operation("EvidenceDAO.findComplaintIdsByIndicator");
+    private static final DaoMetrics.Operation FIND_EVIDENCE_BY_IP_RANGE = DaoMetrics.operation("EvidenceDAO.findEvidenceByIpRange");
+    private static final DaoMetrics.Operation GET_EVIDENCE_AFTER_ID = DaoMetrics.operation("EvidenceDAO.getEvidenceAfterId");
+
+    /** Default number of rows sent per JDBC batch and committed per transaction. */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
 
     /**
-     * Adds a new piece of evidence to the database for a specific complaint.
+     * Adds a new piece of evidence to the database for a specific complaint,
+     * together with its normalized indicator. The generated ID is written back into the object.
      * @param evidence The Evidence object to add.
      * @return true if the evidence was added successfully, false otherwise.
      */
+    @Override
     public boolean addEvidence(Evidence evidence) {
-        String sql = "INSERT INTO evidence (complaint_id, evidence_type, details) VALUES (?, ?, ?)";
-        try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, evidence.getComplaintId());
-            pstmt.setString(2, evidence.getEvidenceType());
-            pstmt.setString(3, evidence.getDetails());
+        DaoCallEvent call = ADD_EVIDENCE.begin();
+        Connection conn = null;
+        try {
+            conn = DatabaseConnector.getConnection();
+            conn.setAutoCommit(false); // Evidence and its indicator row are written together
 
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement pstmtIndicator = conn.prepareStatement(INSERT_INDICATOR_SQL)) {
+                insertChunk(pstmt, pstmtIndicator, Collections.singletonList(evidence));
+            }
+            conn.commit();
+            ChangeEventBus.publish(ChangeEvent.evidenceAdded(evidence));
+            return true;
         } catch (SQLException e) {
+            call.fail(e);
             System.err.println("SQL Error adding evidence: " + e.getMessage());
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback on error
+                } catch (SQLException ex) {
+                    System.err.println("SQL Error on rollback: " + ex.getMessage());
+                }
+            }
             return false;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    System.err.println("SQL Error closing connection: " + e.getMessage());
+                }
+            }
+            call.finish();
+        }
+    }
+
+    /**
+     * Adds many evidence records using JDBC batching, with the default chunk size.
+     * @see #addEvidenceBatch(Collection, int)
+     */
+    @Override
+    public int[] addEvidenceBatch(Collection<Evidence> evidenceList) {
+        return addEvidenceBatch(evidenceList, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Adds many evidence records using JDBC batching on a single connection.
+     * Rows are sent and committed in chunks of chunkSize, so a failure only rolls back
+     * the chunk in progress; earlier chunks stay committed.
+     * The generated evidence IDs are written back into the Evidence objects.
+     * @param evidenceList The evidence records to insert, in order.
+     * @param chunkSize The number of rows per batch and per transaction.
+     * @return The generated IDs, in input order, for every row that was committed.
+     *         The array is shorter than the input if a chunk failed.
+     */
+    @Override
+    public int[] addEvidenceBatch(Collection<Evidence> evidenceList, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
         }
+        DaoCallEvent call = ADD_EVIDENCE_BATCH.begin();
+        int[] generatedIds = new int[evidenceList.size()];
+        int committed = 0;
+        Connection conn = null;
+        try {
+            conn = DatabaseConnector.getConnection();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement pstmtIndicator = conn.prepareStatement(INSERT_INDICATOR_SQL)) {
+                List<Evidence> chunk = new ArrayList<>(Math.min(chunkSize, evidenceList.size()));
+                Iterator<Evidence> iterator = evidenceList.iterator();
+                while (iterator.hasNext()) {
+                    chunk.add(iterator.next());
+
+                    if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                        insertChunk(pstmt, pstmtIndicator, chunk);
+                        conn.commit(); // Commit this chunk
+                        List<ChangeEvent> events = new ArrayList<>(chunk.size());
+                        for (Evidence inserted : chunk) {
+                            generatedIds[committed++] = inserted.getEvidenceId();
+                            events.add(ChangeEvent.evidenceAdded(inserted));
+                        }
+                        ChangeEventBus.publish(events);
+                        chunk.clear();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error adding evidence in batch: " + e.getMessage());
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback the chunk in progress
+                } catch (SQLException ex) {
+                    System.err.println("SQL Error on rollback: " + ex.getMessage());
+                }
+            }
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    System.err.println("SQL Error closing connection: " + e.getMessage());
+                }
+            }
+            call.finish();
+        }
+        return committed == generatedIds.length ? generatedIds : Arrays.copyOf(generatedIds, committed);
     }
 
     /**
@@ -43,11 +184,12 @@ public class EvidenceDAO {
      * @param complaintId The ID of the complaint.
      * @return A List of Evidence objects related to the complaint.
      */
+    @Override
     public List<Evidence> getEvidenceForComplaint(int complaintId) {
+        DaoCallEvent call = GET_EVIDENCE_FOR_COMPLAINT.begin();
         List<Evidence> evidenceList = new ArrayList<>();
-        String sql = "SELECT * FROM evidence WHERE complaint_id = ?";
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_FOR_COMPLAINT_SQL)) {
 
             pstmt.setInt(1, complaintId);
 
@@ -57,7 +199,10 @@ public class EvidenceDAO {
                 }
             }
         } catch (SQLException e) {
+            call.fail(e);
             System.err.println("SQL Error retrieving evidence: " + e.getMessage());
+        } finally {
+            call.finish();
         }
         return evidenceList;
     }
@@ -67,18 +212,315 @@ public class EvidenceDAO {
      * @param evidenceId The ID of the evidence to delete.
      * @return true if the deletion was successful, false otherwise.
      */
+    @Override
     public boolean deleteEvidence(int evidenceId) {
-        String sql = "DELETE FROM evidence WHERE evidence_id = ?";
-        try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        DaoCallEvent call = DELETE_EVIDENCE.begin();
+        Connection conn = null;
+        try {
+            conn = DatabaseConnector.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+
+            // Read the row first so the in-memory indexes know what to drop
+            Evidence evidence = null;
+            try (PreparedStatement pstmtSelect = conn.prepareStatement(SELECT_BY_ID_SQL)) {
+                pstmtSelect.setInt(1, evidenceId);
+                try (ResultSet rs = pstmtSelect.executeQuery()) {
+                    if (rs.next()) {
+                        evidence = mapRowToEvidence(rs);
+                    }
+                }
+            }
+            if (evidence == null) {
+                return false;
+            }
 
-            pstmt.setInt(1, evidenceId);
+            // The evidence_indicators row is removed by ON DELETE CASCADE
+            try (PreparedStatement pstmt = conn.prepareStatement(DELETE_SQL)) {
+                pstmt.setInt(1, evidenceId);
+                int affectedRows = pstmt.executeUpdate();
 
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
+                conn.commit(); // Commit transaction
+                if (affectedRows > 0) {
+                    ChangeEventBus.publish(ChangeEvent.evidenceDeleted(evidence));
+                }
+                return affectedRows > 0;
+            }
         } catch (SQLException e) {
+            call.fail(e);
             System.err.println("SQL Error deleting evidence: " + e.getMessage());
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback on error
+                } catch (SQLException ex) {
+                    System.err.println("SQL Error on rollback: " + ex.getMessage());
+                }
+            }
             return false;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    System.err.println("SQL Error closing connection: " + e.getMessage());
+                }
+            }
+            call.finish();
+        }
+    }
+
+    /**
+     * Finds the complaints whose evidence contains the given indicator, using the hashed
+     * evidence_indicators lookup table instead of scanning evidence.details.
+     * @param evidenceType The evidence type (used to classify values that are not self-describing).
+     * @param details The value to look for, e.g. 'scammer@fakebank.com'.
+     * @return The distinct complaint IDs in ascending order.
+     */
+    @Override
+    public List<Integer> findComplaintIdsByIndicator(String evidenceType, String details) {
+        List<Integer> complaintIds = new ArrayList<>();
+        String key = IndicatorNormalizer.normalize(evidenceType, details);
+        if (key == null) {
+            return complaintIds;
+        }
+        DaoCallEvent call = FIND_COMPLAINT_IDS_BY_INDICATOR.begin();
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(FIND_BY_INDICATOR_SQL)) {
+
+            pstmt.setLong(1, IndicatorNormalizer.hash(key));
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    complaintIds.add(rs.getInt(1));
+                }
+            }
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error finding complaints by indicator: " + e.getMessage());
+        } finally {
+            call.finish();
+        }
+        return complaintIds;
+    }
+
+    /**
+     * Finds the evidence whose details are an IP address inside the range, using the
+     * indexed numeric ip_address column (a single index range scan).
+     * @param range The range, e.g. IpRange.parse("203.0.113.0/24").
+     * @return The matching evidence in address order.
+     */
+    @Override
+    public List<Evidence> findEvidenceByIpRange(IpRange range) {
+        DaoCallEvent call = FIND_EVIDENCE_BY_IP_RANGE.begin();
+        List<Evidence> evidenceList = new ArrayList<>();
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_IP_RANGE_SQL)) {
+
+            pstmt.setBytes(1, range.getStart());
+            pstmt.setBytes(2, range.getEnd());
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    evidenceList.add(mapRowToEvidence(rs));
+                }
+            }
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error finding evidence by IP range: " + e.getMessage());
+        } finally {
+            call.finish();
+        }
+        return evidenceList;
+    }
+
+    /**
+     * Retrieves one page of evidence in ascending ID order, using keyset pagination.
+     * @param afterId The last ID of the previous page, or 0 for the first page.
+     * @param pageSize The maximum number of rows to return.
+     * @return A List of at most pageSize Evidence objects.
+     */
+    @Override
+    public List<Evidence> getEvidenceAfterId(int afterId, int pageSize) {
+        try {
+            return fetchEvidenceAfterId(afterId, pageSize);
+        } catch (SQLException e) {
+            System.err.println("SQL Error retrieving evidence by ID: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * The throwing form of getEvidenceAfterId(), for streamEvidenceById().
+     */
+    private List<Evidence> fetchEvidenceAfterId(int afterId, int pageSize) throws SQLException {
+        DaoCallEvent call = GET_EVIDENCE_AFTER_ID.begin();
+        List<Evidence> evidenceList = new ArrayList<>(pageSize);
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(PAGE_BY_ID_SQL)) {
+
+            pstmt.setInt(1, afterId);
+            pstmt.setInt(2, pageSize);
+            pstmt.setFetchSize(pageSize);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    evidenceList.add(mapRowToEvidence(rs));
+                }
+            }
+        } catch (SQLException e) {
+            call.fail(e);
+            throw e;
+        } finally {
+            call.finish();
+        }
+        return evidenceList;
+    }
+
+    /**
+     * Returns a lazily-consumed stream over all evidence in ascending ID order.
+     * @param pageSize The number of rows fetched per round trip.
+     * @return A sequential Stream of Evidence objects.
+     */
+    @Override
+    public Stream<Evidence> streamEvidenceById(int pageSize) {
+        return KeysetStreams.stream(pageSize,
+                after -> fetchEvidenceAfterId(after == null ? 0 : after.getEvidenceId(), pageSize));
+    }
+
+    /**
+     * Fills evidence_indicators for evidence rows that have no indicator yet
+     * (e.g. rows written before the table existed). Safe to run repeatedly.
+     * @param conn The connection to use; the caller manages the transaction.
+     * @return The number of indicator rows written.
+     * @throws SQLException if a database access error occurs.
+     */
+    public static int backfillIndicators(Connection conn) throws SQLException {
+        int written = 0;
+        int lastId = 0;
+        try (PreparedStatement pstmtSelect = conn.prepareStatement(SELECT_MISSING_INDICATORS_SQL);
+             PreparedStatement pstmtInsert = conn.prepareStatement(INSERT_INDICATOR_SQL)) {
+            while (true) {
+                pstmtSelect.setInt(1, lastId);
+                pstmtSelect.setInt(2, DEFAULT_BATCH_SIZE);
+                int rows = 0;
+                try (ResultSet rs = pstmtSelect.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        lastId = rs.getInt("evidence_id");
+                        if (bindIndicator(pstmtInsert, lastId, rs.getInt("complaint_id"),
+                                rs.getString("evidence_type"), rs.getString("details"))) {
+                            pstmtInsert.addBatch();
+                            written++;
+                        }
+                    }
+                }
+                pstmtInsert.executeBatch();
+                if (rows < DEFAULT_BATCH_SIZE) {
+                    return written;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills the numeric ip_address column for existing evidence whose details are an IP address.
+     * @param conn The connection to use; the caller manages the transaction.
+     * @return The number of rows updated.
+     * @throws SQLException if a database access error occurs.
+     */
+    public static int backfillIpAddresses(Connection conn) throws SQLException {
+        int updated = 0;
+        int lastId = 0;
+        try (PreparedStatement pstmtSelect = conn.prepareStatement(PAGE_BY_ID_SQL);
+             PreparedStatement pstmtUpdate = conn.prepareStatement(UPDATE_IP_ADDRESS_SQL)) {
+            while (true) {
+                pstmtSelect.setInt(1, lastId);
+                pstmtSelect.setInt(2, DEFAULT_BATCH_SIZE);
+                int rows = 0;
+                try (ResultSet rs = pstmtSelect.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        lastId = rs.getInt("evidence_id");
+                        byte[] ipAddress = IpAddress.parseKey(rs.getString("details"));
+                        if (ipAddress != null) {
+                            pstmtUpdate.setBytes(1, ipAddress);
+                            pstmtUpdate.setInt(2, lastId);
+                            pstmtUpdate.addBatch();
+                            updated++;
+                        }
+                    }
+                }
+                pstmtUpdate.executeBatch();
+                if (rows < DEFAULT_BATCH_SIZE) {
+                    return updated;
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts a chunk of evidence plus their indicator rows, and writes the generated IDs back.
+     * The caller owns the transaction.
+     */
+    private void insertChunk(PreparedStatement pstmt, PreparedStatement pstmtIndicator, List<Evidence> chunk) throws SQLException {
+        for (Evidence evidence : chunk) {
+            bindEvidence(pstmt, evidence);
+            pstmt.addBatch();
+        }
+        pstmt.executeBatch();
+        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+            for (Evidence inserted : chunk) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("Driver returned fewer generated keys than rows inserted.");
+                }
+                inserted.setEvidenceId(generatedKeys.getInt(1));
+            }
+        }
+        boolean anyIndicator = false;
+        for (Evidence inserted : chunk) {
+            if (bindIndicator(pstmtIndicator, inserted.getEvidenceId(), inserted.getComplaintId(),
+                    inserted.getEvidenceType(), inserted.getDetails())) {
+                pstmtIndicator.addBatch();
+                anyIndicator = true;
+            }
+        }
+        if (anyIndicator) {
+            pstmtIndicator.executeBatch();
+        }
+    }
+
+    /**
+     * Binds an evidence_indicators row.
+     * @return false if the details do not yield an indicator (nothing was bound).
+     */
+    private static boolean bindIndicator(PreparedStatement pstmt, int evidenceId, int complaintId,
+                                         String evidenceType, String details) throws SQLException {
+        String key = IndicatorNormalizer.normalize(evidenceType, details);
+        if (key == null) {
+            return false;
+        }
+        pstmt.setInt(1, evidenceId);
+        pstmt.setInt(2, complaintId);
+        pstmt.setLong(3, IndicatorNormalizer.hash(key));
+        pstmt.setString(4, key.length() > 255 ? key.substring(0, 255) : key);
+        return true;
+    }
+
+    /**
+     * Helper method to bind an Evidence record's columns to an INSERT statement.
+     * @param pstmt The statement with the 3 insert parameters.
+     * @param evidence The evidence to bind.
+     * @throws SQLException if a parameter cannot be set.
+     */
+    private void bindEvidence(PreparedStatement pstmt, Evidence evidence) throws SQLException {
+        pstmt.setInt(1, evidence.getComplaintId());
+        pstmt.setString(2, evidence.getEvidenceType());
+        pstmt.setString(3, evidence.getDetails());
+        byte[] ipAddress = IpAddress.parseKey(evidence.getDetails());
+        if (ipAddress != null) {
+            pstmt.setBytes(4, ipAddress);
+        } else {
+            pstmt.setNull(4, Types.VARBINARY);
         }
     }
 
@@ -88,12 +530,13 @@ public class EvidenceDAO {
      * @return A populated Evidence object.
      * @throws SQLException if a column is not found.
      */
-    private Evidence mapRowToEvidence(ResultSet rs) throws SQLException {
+    static Evidence mapRowToEvidence(ResultSet rs) throws SQLException {
+        // Columns by position (see COLUMNS)
         Evidence evidence = new Evidence();
-        evidence.setEvidenceId(rs.getInt("evidence_id"));
-        evidence.setComplaintId(rs.getInt("complaint_id"));
-        evidence.setEvidenceType(rs.getString("evidence_type"));
-        evidence.setDetails(rs.getString("details"));
+        evidence.setEvidenceId(rs.getInt(1));
+        evidence.setComplaintId(rs.getInt(2));
+        evidence.setEvidenceType(rs.getString(3));
+        evidence.setDetails(rs.getString(4));
         return evidence;
     }
 }
@@ -0,0 +1,56 @@
+package com.ccrms.dao;
+
+import com.ccrms.index.IpRange;
+import com.ccrms.models.Evidence;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Storage operations for evidence, implemented by {@link EvidenceDAO} (MySQL) and by the
+ * embedded store. Streams throw {@link DataAccessException} if a page cannot be read.
+ */
+public interface EvidenceRepository {
+
+    /**
+     * Adds evidence and writes the generated ID back into it.
+     */
+    boolean addEvidence(Evidence evidence);
+
+    /**
+     * Adds many pieces of evidence in chunks of the default batch size.
+     */
+    int[] addEvidenceBatch(Collection<Evidence> evidenceList);
+
+    /**
+     * Adds many pieces of evidence, committing every chunkSize rows.
+     * @return The generated IDs, in input order, of the committed rows; shorter than the input if a chunk failed.
+     */
+    int[] addEvidenceBatch(Collection<Evidence> evidenceList, int chunkSize);
+
+    List<Evidence> getEvidenceForComplaint(int complaintId);
+
+    boolean deleteEvidence(int evidenceId);
+
+    /**
+     * @return The distinct IDs, in ascending order, of the complaints whose evidence contains
+     *         the indicator (normalized as by IndicatorNormalizer).
+     */
+    List<Integer> findComplaintIdsByIndicator(String evidenceType, String details);
+
+    /**
+     * @return The evidence whose details are an IP address inside the range, in address order.
+     */
+    List<Evidence> findEvidenceByIpRange(IpRange range);
+
+    /**
+     * @return At most pageSize pieces of evidence with an ID above afterId, in ID order.
+     */
+    List<Evidence> getEvidenceAfterId(int afterId, int pageSize);
+
+    /**
+     * @return A lazily-consumed stream over all evidence in ID order.
+     */
+    Stream<Evidence> streamEvidenceById(int pageSize);
+}
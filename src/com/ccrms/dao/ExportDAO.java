@@ -0,0 +1,129 @@
+package com.ccrms.dao;
+
+import com.ccrms.models.Complaint;
+import com.ccrms.models.Criminal;
+import com.ccrms.models.Evidence;
+import com.ccrms.util.DatabaseConnector;
+import com.ccrms.util.StatementRegistry;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Data Access Object for bulk exports.
+ * Rows are read from a forward-only, read-only ResultSet that the MySQL driver
+ * streams row by row, so memory use does not depend on the size of the tables.
+ * With the embedded store the complaints are read page by page in ID order instead.
+ */
+public class ExportDAO {
+
+    // SQL used by this DAO (package-private so QueryPlanCheck can EXPLAIN it)
+    static final String EXPORT_SQL = StatementRegistry.register("ExportDAO.exportComplaintsWithEvidence",
+            "SELECT c.complaint_id, c.victim_name, c.crime_type, c.complaint_date, c.description, c.status, "
+            + "c.assigned_officer_id, c.criminal_id, cr.name, e.evidence_id, e.evidence_type, e.details "
+            + "FROM complaints c "
+            + "LEFT JOIN criminals cr ON cr.criminal_id = c.criminal_id "
+            + "LEFT JOIN evidence e ON e.complaint_id = c.complaint_id "
+            + "ORDER BY c.complaint_id, e.evidence_id");
+
+    /**
+     * Receives the rows of a complaint/evidence export.
+     */
+    public interface RowHandler {
+        /**
+         * Called once per joined row. Rows arrive ordered by complaint ID, then evidence ID.
+         * The same Complaint instance is passed for all rows that belong to one complaint.
+         * @param complaint The complaint of this row.
+         * @param criminalName The linked criminal's name, or null.
+         * @param evidence The evidence of this row, or null if the complaint has none.
+         * @throws IOException if the handler cannot write the row.
+         */
+        void handle(Complaint complaint, String criminalName, Evidence evidence) throws IOException;
+    }
+
+    /**
+     * Streams every complaint joined with its criminal's name and its evidence rows.
+     * @param handler The handler that receives each row.
+     * @return The number of rows delivered, or -1 if a database error occurred.
+     * @throws IOException if the handler fails.
+     */
+    public long exportComplaintsWithEvidence(RowHandler handler) throws IOException {
+        if (Repositories.isEmbedded()) {
+            return exportFromRepositories(handler);
+        }
+        long rows = 0;
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            // Integer.MIN_VALUE tells MySQL Connector/J to stream rows instead of buffering the result
+            pstmt.setFetchSize(Integer.MIN_VALUE);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Complaint complaint = null;
+                String criminalName = null;
+                while (rs.next()) {
+                    int complaintId = rs.getInt(1);
+                    if (complaint == null || complaint.getComplaintId() != complaintId) {
+                        complaint = new Complaint();
+                        complaint.setComplaintId(complaintId);
+                        complaint.setVictimName(rs.getString(2));
+                        complaint.setCrimeType(rs.getString(3));
+                        complaint.setComplaintDate(rs.getDate(4));
+                        complaint.setDescription(rs.getString(5));
+                        complaint.setStatus(rs.getString(6));
+                        complaint.setAssignedOfficerId(rs.getInt(7));
+                        int criminalId = rs.getInt(8);
+                        complaint.setCriminalId(rs.wasNull() ? null : criminalId);
+                        criminalName = rs.getString(9);
+                    }
+
+                    Evidence evidence = null;
+                    int evidenceId = rs.getInt(10);
+                    if (!rs.wasNull()) {
+                        evidence = new Evidence(evidenceId, complaintId, rs.getString(11), rs.getString(12));
+                    }
+                    handler.handle(complaint, criminalName, evidence);
+                    rows++;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL Error exporting complaints: " + e.getMessage());
+            return -1;
+        }
+        return rows;
+    }
+
+    /**
+     * The same export over the repositories, for the embedded store.
+     */
+    private long exportFromRepositories(RowHandler handler) throws IOException {
+        ComplaintRepository complaints = Repositories.complaints();
+        CriminalRepository criminals = Repositories.criminals();
+        EvidenceRepository evidence = Repositories.evidence();
+        long rows = 0;
+        int afterId = 0;
+        List<Complaint> page;
+        do {
+            page = complaints.getComplaintsAfterId(afterId, ComplaintDAO.DEFAULT_PAGE_SIZE);
+            for (Complaint complaint : page) {
+                Criminal criminal = complaint.getCriminalId() == null ? null : criminals.getCriminalById(complaint.getCriminalId());
+                String criminalName = criminal == null ? null : criminal.getName();
+                List<Evidence> evidenceList = evidence.getEvidenceForComplaint(complaint.getComplaintId());
+                if (evidenceList.isEmpty()) {
+                    handler.handle(complaint, criminalName, null);
+                    rows++;
+                }
+                for (Evidence item : evidenceList) {
+                    handler.handle(complaint, criminalName, item);
+                    rows++;
+                }
+                afterId = complaint.getComplaintId();
+            }
+        } while (page.size() == ComplaintDAO.DEFAULT_PAGE_SIZE);
+        return rows;
+    }
+}
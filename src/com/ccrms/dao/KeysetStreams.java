@@ -0,0 +1,79 @@
+package com.ccrms.dao;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Helper that turns a keyset page query into a lazily-consumed stream.
+ * Only one page is held in memory at a time, and a connection is only held
+ * while a page is being fetched.
+ *
+ * A page that cannot be read ends the stream with a {@link DataAccessException} rather
+ * than as a short page, so a consumer never mistakes an error for the end of the data.
+ */
+public final class KeysetStreams {
+
+    private KeysetStreams() {
+    }
+
+    /**
+     * Fetches the page following a row.
+     */
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        List<T> fetch(T after) throws SQLException;
+    }
+
+    /**
+     * @param pageSize The page size the fetcher uses; a shorter page marks the end.
+     * @param fetcher Fetches the page following the given row (null for the first page).
+     * @return A sequential, ordered stream over all pages. Its terminal operation throws
+     *         DataAccessException if a page cannot be fetched.
+     */
+    public static <T> Stream<T> stream(int pageSize, PageFetcher<T> fetcher) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        Iterator<T> iterator = new Iterator<T>() {
+            private List<T> page = fetch(fetcher, null);
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                if (position < page.size()) {
+                    return true;
+                }
+                if (page.size() < pageSize) {
+                    return false; // A short page means the end has been reached
+                }
+                page = fetch(fetcher, page.get(page.size() - 1));
+                position = 0;
+                return !page.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(position++);
+            }
+        };
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private static <T> List<T> fetch(PageFetcher<T> fetcher, T after) {
+        try {
+            return fetcher.fetch(after);
+        } catch (SQLException e) {
+            throw new DataAccessException("Could not fetch the next page", e);
+        }
+    }
+}
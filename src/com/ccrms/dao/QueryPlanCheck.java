@@ -0,0 +1,303 @@
+package com.ccrms.dao;
+
+import com.ccrms.index.IpRange;
+import com.ccrms.util.DatabaseConnector;
+import com.ccrms.util.SchemaMigrator;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Query plan regression check.
+ *
+ * Runs EXPLAIN on every SQL statement the DAOs issue (except plain single-row INSERTs)
+ * and fails when a statement would do a full table scan or a filesort that it is not
+ * explicitly allowed to do. Optionally seeds a large synthetic dataset first, since the
+ * optimizer happily scans small tables.
+ *
+ * Usage (run against a dedicated test database, never production):
+ *   java -cp bin:lib/* com.ccrms.dao.QueryPlanCheck [--seed N]
+ * Exits with status 1 if any statement regresses.
+ */
+public class QueryPlanCheck {
+
+    // Tables with fewer estimated rows than this may be scanned freely
+    private static final long SMALL_TABLE_ROWS = 1000;
+
+    /**
+     * One statement to check, with sample parameters and the plan features it may use.
+     */
+    private static final class Check {
+        final String name;
+        final String sql;
+        final Object[] params;
+        final boolean allowFullScan;
+        final boolean allowFilesort;
+
+        Check(String name, String sql, boolean allowFullScan, boolean allowFilesort, Object... params) {
+            this.name = name;
+            this.sql = sql;
+            this.params = params;
+            this.allowFullScan = allowFullScan;
+            this.allowFilesort = allowFilesort;
+        }
+    }
+
+    /**
+     * @return Every DAO statement worth checking.
+     */
+    static List<Check> checks() {
+        Date sampleDate = Date.valueOf("2025-01-01");
+        List<Check> checks = new ArrayList<>(Arrays.asList(
+            // Whole-table listings: scanning is inherent, kept for API compatibility
+            new Check("ComplaintDAO.getAllComplaints", ComplaintDAO.SELECT_ALL_SQL, true, true),
+            new Check("ComplaintDAO.getComplaintById", ComplaintDAO.SELECT_BY_ID_SQL, false, false, 1),
+            new Check("ComplaintDAO.getComplaintPage (first)", ComplaintDAO.FIRST_PAGE_SQL, false, false, 100),
+            new Check("ComplaintDAO.getComplaintPage (next)", ComplaintDAO.NEXT_PAGE_SQL, false, false,
+                    sampleDate, sampleDate, 1_000_000, 100),
+            new Check("ComplaintDAO.getComplaintsAfterId", ComplaintDAO.PAGE_BY_ID_SQL, false, false, 1000, 100),
+            new Check("ComplaintDAO.updateComplaintStatus", ComplaintDAO.UPDATE_STATUS_SQL, false, false, "Closed", 1),
+            new Check("ComplaintDAO.reassignOpenComplaints (lock)", ComplaintDAO.LOCK_OPEN_SQL, false, false, ids(ComplaintDAO.ID_CHUNK_SIZE)),
+            new Check("ComplaintDAO.updateStatusByIds (lock)", ComplaintDAO.LOCK_FOR_STATUS_SQL, false, false,
+                    append(ids(ComplaintDAO.ID_CHUNK_SIZE), "Closed")),
+            new Check("ComplaintDAO.updateStatusByIds", ComplaintDAO.BULK_STATUS_SQL, false, false,
+                    append(append(new Object[] {"Closed"}, ids(ComplaintDAO.ID_CHUNK_SIZE)), "Closed")),
+            new Check("ComplaintDAO.deleteComplaint (evidence)", ComplaintDAO.DELETE_EVIDENCE_SQL, false, false, 1),
+            new Check("ComplaintDAO.deleteComplaint", ComplaintDAO.DELETE_SQL, false, false, 1),
+
+            new Check("CriminalDAO.getAllCriminals", CriminalDAO.SELECT_ALL_SQL, true, true),
+            new Check("CriminalDAO.getCriminalsAfterId", CriminalDAO.PAGE_BY_ID_SQL, false, false, 1000, 100),
+            new Check("CriminalDAO.getCriminalById", CriminalDAO.SELECT_BY_ID_SQL, false, false, 1),
+            new Check("CriminalDAO.getCriminalForComplaint", CriminalDAO.SELECT_FOR_COMPLAINT_SQL, false, false, 1),
+            new Check("CriminalDAO.deleteCriminal (unlink)", CriminalDAO.UNLINK_COMPLAINTS_SQL, false, false, 1),
+            new Check("CriminalDAO.deleteCriminal", CriminalDAO.DELETE_SQL, false, false, 1),
+
+            new Check("EvidenceDAO.getEvidenceForComplaint", EvidenceDAO.SELECT_FOR_COMPLAINT_SQL, false, false, 1),
+            new Check("EvidenceDAO.getEvidenceAfterId", EvidenceDAO.PAGE_BY_ID_SQL, false, false, 1000, 100),
+            new Check("EvidenceDAO.deleteEvidence (read)", EvidenceDAO.SELECT_BY_ID_SQL, false, false, 1),
+            new Check("EvidenceDAO.deleteEvidence", EvidenceDAO.DELETE_SQL, false, false, 1),
+            new Check("EvidenceDAO.findEvidenceByIpRange", EvidenceDAO.SELECT_BY_IP_RANGE_SQL, false, false,
+                    IpRange.parse("203.0.113.0/24").getStart(), IpRange.parse("203.0.113.0/24").getEnd()),
+            new Check("EvidenceDAO.findComplaintIdsByIndicator", EvidenceDAO.FIND_BY_INDICATOR_SQL, false, false, 1L),
+
+            new Check("UserDAO.findByUsername", UserDAO.SELECT_BY_USERNAME_SQL, false, false, "admin"),
+            new Check("UserDAO.findById", UserDAO.SELECT_BY_ID_SQL, false, false, 1),
+            // A handful of users, so scanning them is fine
+            new Check("UserDAO.getUsersByRole", UserDAO.SELECT_BY_ROLE_SQL, true, true, "Officer"),
+            new Check("UserDAO.updatePassword", UserDAO.UPDATE_PASSWORD_SQL, false, false, "hashed_x", 1),
+            new Check("UserDAO.updateRole", UserDAO.UPDATE_ROLE_SQL, false, false, "Officer", 1),
+
+            // A full export reads every complaint, but must come out in primary key order without sorting
+            new Check("ExportDAO.exportComplaintsWithEvidence", ExportDAO.EXPORT_SQL, true, false)
+        ));
+
+        // Reports must be answered from covering indexes; grouping on computed values needs a sort
+        for (ReportDAO.Dimension dimension : ReportDAO.Dimension.values()) {
+            checks.add(new Check("ReportDAO.countBy(" + dimension + ")", ReportDAO.countSql(dimension),
+                    false, isComputed(dimension)));
+        }
+        ReportDAO.Dimension[][] crossTabs = {
+            {ReportDAO.Dimension.CRIME_TYPE, ReportDAO.Dimension.STATUS},
+            {ReportDAO.Dimension.OFFICER, ReportDAO.Dimension.STATUS},
+            {ReportDAO.Dimension.MONTH, ReportDAO.Dimension.CRIME_TYPE}
+        };
+        for (ReportDAO.Dimension[] pair : crossTabs) {
+            checks.add(new Check("ReportDAO.crossTab(" + pair[0] + ", " + pair[1] + ")",
+                    ReportDAO.crossTabSql(pair[0], pair[1]), false, isComputed(pair[0]) || isComputed(pair[1])));
+        }
+
+        // Bulk status changes select by the leading columns of a complaints index
+        ComplaintFilter[] filters = {
+            new ComplaintFilter().status("Open").to(LocalDate.of(2024, 12, 31)),
+            new ComplaintFilter().crimeType("Phishing").status("Open"),
+            new ComplaintFilter().officer(2).status("Under Investigation")
+        };
+        for (ComplaintFilter filter : filters) {
+            checks.add(new Check("ComplaintDAO.updateStatusWhere (lock: " + filter + ")", ComplaintDAO.lockWhereSql(filter),
+                    false, false, append(new Object[] {"Closed"}, filter.values().toArray())));
+            checks.add(new Check("ComplaintDAO.countComplaints (" + filter + ")", ComplaintDAO.countWhereSql(filter),
+                    false, false, filter.values().toArray()));
+        }
+        return checks;
+    }
+
+    /**
+     * @return The IDs 1..count, as parameters of an IN list.
+     */
+    private static Object[] ids(int count) {
+        Object[] ids = new Object[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i + 1;
+        }
+        return ids;
+    }
+
+    private static Object[] append(Object[] params, Object... more) {
+        Object[] all = Arrays.copyOf(params, params.length + more.length);
+        System.arraycopy(more, 0, all, params.length, more.length);
+        return all;
+    }
+
+    private static boolean isComputed(ReportDAO.Dimension dimension) {
+        return dimension == ReportDAO.Dimension.OFFICER || dimension == ReportDAO.Dimension.MONTH;
+    }
+
+    public static void main(String[] args) {
+        int seedRows = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--seed") && i + 1 < args.length) {
+                seedRows = Integer.parseInt(args[++i]);
+            }
+        }
+
+        int failures;
+        try {
+            if (SchemaMigrator.migrate() < 0) {
+                System.exit(2);
+            }
+            if (seedRows > 0) {
+                seed(seedRows);
+            }
+            failures = run();
+        } catch (SQLException e) {
+            System.err.println("SQL Error running the query plan check: " + e.getMessage());
+            failures = -1;
+        } finally {
+            DatabaseConnector.closeConnection();
+        }
+
+        if (failures != 0) {
+            System.out.println(failures < 0 ? "Query plan check aborted." : failures + " statement(s) regressed.");
+            System.exit(1);
+        }
+        System.out.println("All query plans OK.");
+    }
+
+    /**
+     * EXPLAINs every statement and prints a line per check.
+     * @return The number of failing statements.
+     */
+    static int run() throws SQLException {
+        int failures = 0;
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            for (Check check : checks()) {
+                List<String> problems = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + check.sql)) {
+                    for (int i = 0; i < check.params.length; i++) {
+                        pstmt.setObject(i + 1, check.params[i]);
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            String table = rs.getString("table");
+                            String type = rs.getString("type");
+                            long rows = rs.getLong("rows");
+                            String extra = rs.getString("Extra");
+                            if ("ALL".equals(type) && rows >= SMALL_TABLE_ROWS && !check.allowFullScan) {
+                                problems.add("full scan of " + table + " (~" + rows + " rows)");
+                            }
+                            if (extra != null && extra.contains("Using filesort") && !check.allowFilesort) {
+                                problems.add("filesort on " + table);
+                            }
+                        }
+                    }
+                }
+                if (problems.isEmpty()) {
+                    System.out.println("OK    " + check.name);
+                } else {
+                    failures++;
+                    System.out.println("FAIL  " + check.name + ": " + String.join(", ", problems));
+                }
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Inserts a synthetic dataset of the given size and refreshes table statistics.
+     */
+    private static void seed(int complaintCount) throws SQLException {
+        System.out.println("Seeding " + complaintCount + " synthetic complaints...");
+        String[] crimeTypes = {"Phishing", "Hacking", "Identity Theft", "Ransomware", "Online Fraud", "Cyberstalking"};
+        String[] statuses = {"Open", "Under Investigation", "Closed"};
+        Random random = new Random(42);
+
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            List<Integer> officerIds = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT user_id FROM users")) {
+                while (rs.next()) {
+                    officerIds.add(rs.getInt(1));
+                }
+            }
+            if (officerIds.isEmpty()) {
+                throw new SQLException("The users table is empty; load schema.sql first.");
+            }
+
+            conn.setAutoCommit(false);
+            int criminalCount = Math.max(1, complaintCount / 10);
+            int firstCriminalId;
+            try (PreparedStatement pstmt = conn.prepareStatement(CriminalDAO.INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                firstCriminalId = -1;
+                for (int i = 0; i < criminalCount; i++) {
+                    pstmt.setString(1, "Synthetic Criminal " + i);
+                    pstmt.setString(2, "Generated for plan checks.");
+                    pstmt.setString(3, "Under Investigation");
+                    pstmt.addBatch();
+                    if ((i + 1) % ComplaintDAO.DEFAULT_BATCH_SIZE == 0 || i + 1 == criminalCount) {
+                        pstmt.executeBatch();
+                        try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                            if (firstCriminalId < 0 && keys.next()) {
+                                firstCriminalId = keys.getInt(1);
+                            }
+                        }
+                        conn.commit();
+                    }
+                }
+            }
+
+            long baseDay = Date.valueOf("2020-01-01").getTime();
+            try (PreparedStatement pstmt = conn.prepareStatement(ComplaintDAO.INSERT_SQL)) {
+                for (int i = 0; i < complaintCount; i++) {
+                    pstmt.setString(1, "Synthetic Victim " + i);
+                    pstmt.setString(2, crimeTypes[random.nextInt(crimeTypes.length)]);
+                    pstmt.setDate(3, new Date(baseDay + random.nextInt(6 * 365) * 86_400_000L));
+                    pstmt.setString(4, "Generated for plan checks.");
+                    pstmt.setString(5, statuses[random.nextInt(statuses.length)]);
+                    pstmt.setInt(6, officerIds.get(random.nextInt(officerIds.size())));
+                    if (random.nextInt(3) == 0) {
+                        pstmt.setInt(7, firstCriminalId + random.nextInt(criminalCount));
+                    } else {
+                        pstmt.setNull(7, java.sql.Types.INTEGER);
+                    }
+                    pstmt.addBatch();
+                    if ((i + 1) % ComplaintDAO.DEFAULT_BATCH_SIZE == 0 || i + 1 == complaintCount) {
+                        pstmt.executeBatch();
+                        conn.commit();
+                    }
+                }
+            }
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("INSERT INTO evidence (complaint_id, evidence_type, details) "
+                        + "SELECT complaint_id, 'Email ID', CONCAT('suspect', complaint_id, '@example.com') FROM complaints");
+                stmt.executeUpdate("INSERT INTO evidence (complaint_id, evidence_type, details, ip_address) "
+                        + "SELECT complaint_id, 'IP Address', ip, INET6_ATON(CONCAT('::ffff:', ip)) FROM ("
+                        + "SELECT complaint_id, CONCAT_WS('.', 10, (complaint_id >> 16) & 255, (complaint_id >> 8) & 255, complaint_id & 255) AS ip "
+                        + "FROM complaints) t");
+                EvidenceDAO.backfillIndicators(conn);
+                conn.commit();
+                conn.setAutoCommit(true);
+                stmt.execute("ANALYZE TABLE users, criminals, complaints, evidence");
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.ccrms.dao;
+
+import com.ccrms.models.Complaint;
+import com.ccrms.models.User;
+import com.ccrms.util.DatabaseConnector;
+import com.ccrms.util.StatementRegistry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Data Access Object for complaint reports.
+ * All aggregation happens in the database with GROUP BY queries, so only the
+ * small aggregate result is transferred, in a single round trip per report.
+ * With the embedded store (see {@link Repositories}) the same reports are counted
+ * in one pass over the complaints instead.
+ */
+public class ReportDAO {
+
+    /**
+     * The attributes a report can be grouped by.
+     */
+    public enum Dimension {
+        STATUS("Status", "c.status", false),
+        CRIME_TYPE("Crime Type", "c.crime_type", false),
+        OFFICER("Officer", "COALESCE(u.username, 'Unassigned')", true),
+        MONTH("Month", "DATE_FORMAT(c.complaint_date, '%Y-%m')", false);
+
+        private final String label;
+        private final String expression;
+        private final boolean needsUserJoin;
+
+        Dimension(String label, String expression, boolean needsUserJoin) {
+            this.label = label;
+            this.expression = expression;
+            this.needsUserJoin = needsUserJoin;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Counts complaints grouped by a single dimension.
+     * @param dimension The dimension to group by.
+     * @return An ordered map of group value to complaint count; empty on error.
+     */
+    public Map<String, Long> countBy(Dimension dimension) {
+        if (Repositories.isEmbedded()) {
+            Map<String, Long> counts = new TreeMap<>();
+            GroupKeys keys = new GroupKeys();
+            Repositories.complaints().streamComplaintsById(ComplaintDAO.DEFAULT_PAGE_SIZE)
+                    .forEach(complaint -> counts.merge(keys.of(dimension, complaint), 1L, Long::sum));
+            return new LinkedHashMap<>(counts);
+        }
+        Map<String, Long> counts = new LinkedHashMap<>();
+        String sql = StatementRegistry.register("ReportDAO.countBy(" + dimension + ")", countSql(dimension));
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                counts.put(rs.getString(1), rs.getLong(2));
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL Error generating " + dimension.label + " report: " + e.getMessage());
+        }
+        return counts;
+    }
+
+    /**
+     * Counts complaints grouped by two dimensions at once (a cross-tabulation).
+     * @param rows The dimension used for the rows of the table.
+     * @param columns The dimension used for the columns of the table.
+     * @return An ordered map of row value to (column value to count); empty on error.
+     */
+    public Map<String, Map<String, Long>> crossTab(Dimension rows, Dimension columns) {
+        if (Repositories.isEmbedded()) {
+            Map<String, Map<String, Long>> table = new TreeMap<>();
+            GroupKeys keys = new GroupKeys();
+            Repositories.complaints().streamComplaintsById(ComplaintDAO.DEFAULT_PAGE_SIZE)
+                    .forEach(complaint -> table.computeIfAbsent(keys.of(rows, complaint), k -> new TreeMap<>())
+                            .merge(keys.of(columns, complaint), 1L, Long::sum));
+            return new LinkedHashMap<>(table);
+        }
+        Map<String, Map<String, Long>> table = new LinkedHashMap<>();
+        String sql = StatementRegistry.register("ReportDAO.crossTab(" + rows + ", " + columns + ")", crossTabSql(rows, columns));
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                table.computeIfAbsent(rs.getString(1), k -> new LinkedHashMap<>())
+                     .put(rs.getString(2), rs.getLong(3));
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL Error generating " + rows.label + " x " + columns.label + " report: " + e.getMessage());
+        }
+        return table;
+    }
+
+    /**
+     * Builds the single-dimension report query (package-private so QueryPlanCheck can EXPLAIN it).
+     */
+    static String countSql(Dimension dimension) {
+        return "SELECT " + dimension.expression + " AS group_key, COUNT(*) AS total"
+                + fromClause(dimension.needsUserJoin)
+                + " GROUP BY group_key ORDER BY group_key";
+    }
+
+    /**
+     * Builds the cross-tab report query (package-private so QueryPlanCheck can EXPLAIN it).
+     */
+    static String crossTabSql(Dimension rows, Dimension columns) {
+        return "SELECT " + rows.expression + " AS row_key, " + columns.expression + " AS column_key, COUNT(*) AS total"
+                + fromClause(rows.needsUserJoin || columns.needsUserJoin)
+                + " GROUP BY row_key, column_key ORDER BY row_key, column_key";
+    }
+
+    /**
+     * Evaluates the dimension expressions in memory, for the embedded store.
+     * Officer names are looked up once per report.
+     */
+    private static final class GroupKeys {
+        private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+        private final Map<Integer, String> officerNames = new HashMap<>();
+
+        String of(Dimension dimension, Complaint complaint) {
+            switch (dimension) {
+                case STATUS:
+                    return complaint.getStatus();
+                case CRIME_TYPE:
+                    return complaint.getCrimeType();
+                case OFFICER:
+                    return officerNames.computeIfAbsent(complaint.getAssignedOfficerId(), officerId -> {
+                        User officer = Repositories.users().findById(officerId);
+                        return officer == null ? "Unassigned" : officer.getUsername();
+                    });
+                case MONTH:
+                    return complaint.getComplaintDate().toLocalDate().format(MONTH);
+                default:
+                    throw new IllegalArgumentException("Unknown dimension " + dimension);
+            }
+        }
+    }
+
+    private static String fromClause(boolean joinUsers) {
+        return joinUsers
+                ? " FROM complaints c LEFT JOIN users u ON u.user_id = c.assigned_officer_id"
+                : " FROM complaints c";
+    }
+}
@@ -0,0 +1,106 @@
+package com.ccrms.dao;
+
+import com.ccrms.store.EmbeddedStore;
+import com.ccrms.store.StoreException;
+import com.ccrms.util.DatabaseConnector;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Chooses the storage backend once, at startup, and hands out its repositories.
+ *
+ * By default the MySQL DAOs are used. Starting the application with
+ * -Dccrms.store=&lt;directory&gt; uses the embedded store in that directory instead
+ * (see {@link EmbeddedStore}), so the system runs without a database server.
+ */
+public final class Repositories {
+
+    public static final String STORE_PROPERTY = "ccrms.store";
+
+    private static boolean initialized = false;
+    private static EmbeddedStore store = null;
+    private static ComplaintRepository complaints;
+    private static CriminalRepository criminals;
+    private static EvidenceRepository evidence;
+    private static UserRepository users;
+
+    private Repositories() {
+    }
+
+    public static ComplaintRepository complaints() {
+        init();
+        return complaints;
+    }
+
+    public static CriminalRepository criminals() {
+        init();
+        return criminals;
+    }
+
+    public static EvidenceRepository evidence() {
+        init();
+        return evidence;
+    }
+
+    public static UserRepository users() {
+        init();
+        return users;
+    }
+
+    /**
+     * @return true if the embedded store is in use instead of MySQL.
+     */
+    public static boolean isEmbedded() {
+        init();
+        return store != null;
+    }
+
+    /**
+     * @return The embedded store, or null when MySQL is in use.
+     */
+    public static EmbeddedStore getEmbeddedStore() {
+        init();
+        return store;
+    }
+
+    /**
+     * @return How many storage operations are worth running at once: the connection pool size
+     *         for MySQL, the number of processors for the embedded store.
+     */
+    public static int getMaxConcurrency() {
+        return isEmbedded() ? Runtime.getRuntime().availableProcessors() : DatabaseConnector.getMaxPoolSize();
+    }
+
+    private static synchronized void init() {
+        if (initialized) {
+            return;
+        }
+        String directory = System.getProperty(STORE_PROPERTY, "mysql");
+        if (directory.isEmpty() || directory.equalsIgnoreCase("mysql")) {
+            complaints = new ComplaintDAO();
+            criminals = new CriminalDAO();
+            evidence = new EvidenceDAO();
+            users = new UserDAO();
+        } else {
+            try {
+                store = EmbeddedStore.open(Paths.get(directory));
+            } catch (StoreException e) {
+                System.err.println("FATAL: Cannot open the embedded store: " + e.getMessage());
+                throw new IllegalStateException("Cannot open the embedded store in " + directory, e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    System.err.println("Store Error closing the embedded store: " + e.getMessage());
+                }
+            }, "ccrms-store-close"));
+            complaints = store.complaints();
+            criminals = store.criminals();
+            evidence = store.evidence();
+            users = store.users();
+        }
+        initialized = true;
+    }
+}
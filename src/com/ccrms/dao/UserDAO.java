@@ -2,17 +2,36 @@ package com.ccrms.dao;
 
 import com.ccrms.models.User;
 import com.ccrms.util.DatabaseConnector;
+import com.ccrms.util.StatementRegistry;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Data Access Object for the User model.
  * Handles all database operations related to Users.
  */
-public class UserDAO {
+public class UserDAO implements UserRepository {
+
+    // SQL used by this DAO (package-private so QueryPlanCheck can EXPLAIN it)
+    // Explicit column list in mapRowToUser() order, so rows are read by position
+    static final String COLUMNS = "user_id, username, password_hash, role";
+    static final String SELECT_BY_USERNAME_SQL = StatementRegistry.register("UserDAO.findByUsername", "SELECT " + COLUMNS + " FROM users WHERE username = ?");
+    static final String SELECT_BY_ID_SQL = StatementRegistry.register("UserDAO.findById", "SELECT " + COLUMNS + " FROM users WHERE user_id = ?");
+    static final String SELECT_BY_ROLE_SQL = StatementRegistry.register("UserDAO.getUsersByRole", "SELECT " + COLUMNS + " FROM users WHERE role = ? ORDER BY user_id");
+    static final String UPDATE_PASSWORD_SQL = StatementRegistry.register("UserDAO.updatePassword", "UPDATE users SET password_hash = ? WHERE user_id = ?");
+    static final String UPDATE_ROLE_SQL = StatementRegistry.register("UserDAO.updateRole", "UPDATE users SET role = ? WHERE user_id = ?");
+
+    // Metrics and JFR events per operation (see DaoMetrics)
+    private static final DaoMetrics.Operation FIND_BY_USERNAME = DaoMetrics.operation("UserDAO.findByUsername");
+    private static final DaoMetrics.Operation FIND_BY_ID = DaoMetrics.operation("UserDAO.findById");
+    private static final DaoMetrics.Operation GET_USERS_BY_ROLE = DaoMetrics.operation("UserDAO.getUsersByRole");
+    private static final DaoMetrics.Operation UPDATE_PASSWORD = DaoMetrics.operation("UserDAO.updatePassword");
+    private static final DaoMetrics.Operation UPDATE_ROLE = DaoMetrics.operation("UserDAO.updateRole");
 
     /**
      * Finds a user by their username. This is a key part of the login process.
@@ -21,30 +40,153 @@ public class UserDAO {
      * @param username The username to search for.
      * @return A User object if a user with the given username is found, otherwise null.
      */
+    @Override
     public User findByUsername(String username) {
-        String sql = "SELECT * FROM users WHERE username = ?";
+        DaoCallEvent call = FIND_BY_USERNAME.begin();
         User user = null;
 
         // Using try-with-resources to ensure the connection is closed automatically
         try (Connection conn = DatabaseConnector.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_USERNAME_SQL)) {
 
             pstmt.setString(1, username);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    user = new User();
-                    user.setUserId(rs.getInt("user_id"));
-                    user.setUsername(rs.getString("username"));
-                    user.setPasswordHash(rs.getString("password_hash"));
-                    user.setRole(rs.getString("role"));
+                    user = mapRowToUser(rs);
                 }
             }
         } catch (SQLException e) {
+            call.fail(e);
             System.err.println("SQL Error: " + e.getMessage());
             // In a more robust application, this would be handled by a logging framework
             // and might throw a custom DataAccessException.
+        } finally {
+            call.finish();
+        }
+        return user;
+    }
+
+    /**
+     * Finds a user by their ID, e.g. to show the name of a complaint's assigned officer.
+     *
+     * @param userId The ID to search for.
+     * @return A User object if found, otherwise null.
+     */
+    @Override
+    public User findById(int userId) {
+        DaoCallEvent call = FIND_BY_ID.begin();
+        User user = null;
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
+
+            pstmt.setInt(1, userId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    user = mapRowToUser(rs);
+                }
+            }
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error finding user by ID: " + e.getMessage());
+        } finally {
+            call.finish();
+        }
+        return user;
+    }
+
+    /**
+     * Lists the users with a role, e.g. the officers complaints can be assigned to.
+     *
+     * @param role The role ('Admin' or 'Officer').
+     * @return The users in ID order; empty if there are none or an error occurred.
+     */
+    @Override
+    public List<User> getUsersByRole(String role) {
+        DaoCallEvent call = GET_USERS_BY_ROLE.begin();
+        List<User> users = new ArrayList<>();
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ROLE_SQL)) {
+
+            pstmt.setString(1, role);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    users.add(mapRowToUser(rs));
+                }
+            }
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error listing users by role: " + e.getMessage());
+        } finally {
+            call.finish();
+        }
+        return users;
+    }
+
+    /**
+     * Changes a user's password.
+     *
+     * @param userId The ID of the user.
+     * @param newPasswordHash The new password hash (see PasswordUtil.hashPassword).
+     * @return true if the user was updated, false otherwise.
+     */
+    @Override
+    public boolean updatePassword(int userId, String newPasswordHash) {
+        DaoCallEvent call = UPDATE_PASSWORD.begin();
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_PASSWORD_SQL)) {
+
+            pstmt.setString(1, newPasswordHash);
+            pstmt.setInt(2, userId);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error updating password: " + e.getMessage());
+            return false;
+        } finally {
+            call.finish();
         }
+    }
+
+    /**
+     * Changes a user's role.
+     *
+     * @param userId The ID of the user.
+     * @param newRole The new role ('Admin' or 'Officer').
+     * @return true if the user was updated, false otherwise.
+     */
+    @Override
+    public boolean updateRole(int userId, String newRole) {
+        DaoCallEvent call = UPDATE_ROLE.begin();
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_ROLE_SQL)) {
+
+            pstmt.setString(1, newRole);
+            pstmt.setInt(2, userId);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            call.fail(e);
+            System.err.println("SQL Error updating role: " + e.getMessage());
+            return false;
+        } finally {
+            call.finish();
+        }
+    }
+
+    /**
+     * Helper method to map a ResultSet row to a User object.
+     * @param rs The ResultSet to map.
+     * @return A populated User object.
+     * @throws SQLException if a column is not found.
+     */
+    private User mapRowToUser(ResultSet rs) throws SQLException {
+        User user = new User();
+        user.setUserId(rs.getInt(1));
+        user.setUsername(rs.getString(2));
+        user.setPasswordHash(rs.getString(3));
+        user.setRole(rs.getString(4));
         return user;
     }
 }
@@ -0,0 +1,31 @@
+package com.ccrms.dao;
+
+import com.ccrms.models.User;
+
+import java.util.List;
+
+/**
+ * Storage operations for users, implemented by {@link UserDAO} (MySQL) and by the
+ * embedded store.
+ */
+public interface UserRepository {
+
+    /**
+     * @return The user including the password hash, or null if there is none with this name.
+     */
+    User findByUsername(String username);
+
+    /**
+     * @return The user including the password hash, or null if there is none with this ID.
+     */
+    User findById(int userId);
+
+    /**
+     * @return The users with this role ('Admin' or 'Officer'), in ID order.
+     */
+    List<User> getUsersByRole(String role);
+
+    boolean updatePassword(int userId, String newPasswordHash);
+
+    boolean updateRole(int userId, String newRole);
+}
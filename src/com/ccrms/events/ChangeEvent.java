@@ -0,0 +1,167 @@
+package com.ccrms.events;
+
+import com.ccrms.models.Complaint;
+import com.ccrms.models.Criminal;
+import com.ccrms.models.Evidence;
+
+/**
+ * One committed change to a complaint, criminal or evidence row.
+ *
+ * The DAOs create events with the factory methods and hand them to {@link ChangeEventBus},
+ * which stamps them with a sequence number and the publishing time. An added row carries
+ * the model as written (with its generated ID); a deleted evidence row carries the model
+ * as it was, so subscribers can undo what they derived from it. The models are shared by
+ * every subscriber and must not be modified.
+ */
+public final class ChangeEvent {
+
+    /**
+     * The kind of row that changed.
+     */
+    public enum Entity {
+        COMPLAINT, CRIMINAL, EVIDENCE
+    }
+
+    /**
+     * What happened to it.
+     */
+    public enum Action {
+        ADDED, STATUS_CHANGED, DELETED, REASSIGNED // Journaled by ordinal: append only
+    }
+
+    private final long sequence;
+    private final long timestampMillis;
+    private final Entity entity;
+    private final Action action;
+    private final int id;
+    private final Object row;
+    private final String status;
+    private final int officerId;
+
+    /**
+     * @param sequence The position in the stream, or 0 for an event not yet published.
+     * @param row The complaint, criminal or evidence, where the action carries one.
+     * @param status The new status of a STATUS_CHANGED event.
+     * @param officerId The new officer of a REASSIGNED event.
+     */
+    public ChangeEvent(long sequence, long timestampMillis, Entity entity, Action action, int id, Object row, String status, int officerId) {
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.entity = entity;
+        this.action = action;
+        this.id = id;
+        this.row = row;
+        this.status = status;
+        this.officerId = officerId;
+    }
+
+    public static ChangeEvent complaintAdded(Complaint complaint) {
+        return new ChangeEvent(0, 0, Entity.COMPLAINT, Action.ADDED, complaint.getComplaintId(), complaint, null, 0);
+    }
+
+    public static ChangeEvent complaintStatusChanged(int complaintId, String status) {
+        return new ChangeEvent(0, 0, Entity.COMPLAINT, Action.STATUS_CHANGED, complaintId, null, status, 0);
+    }
+
+    public static ChangeEvent complaintReassigned(int complaintId, int officerId) {
+        return new ChangeEvent(0, 0, Entity.COMPLAINT, Action.REASSIGNED, complaintId, null, null, officerId);
+    }
+
+    public static ChangeEvent complaintDeleted(int complaintId) {
+        return new ChangeEvent(0, 0, Entity.COMPLAINT, Action.DELETED, complaintId, null, null, 0);
+    }
+
+    public static ChangeEvent criminalAdded(Criminal criminal) {
+        return new ChangeEvent(0, 0, Entity.CRIMINAL, Action.ADDED, criminal.getCriminalId(), criminal, null, 0);
+    }
+
+    public static ChangeEvent criminalDeleted(int criminalId) {
+        return new ChangeEvent(0, 0, Entity.CRIMINAL, Action.DELETED, criminalId, null, null, 0);
+    }
+
+    public static ChangeEvent evidenceAdded(Evidence evidence) {
+        return new ChangeEvent(0, 0, Entity.EVIDENCE, Action.ADDED, evidence.getEvidenceId(), evidence, null, 0);
+    }
+
+    public static ChangeEvent evidenceDeleted(Evidence evidence) {
+        return new ChangeEvent(0, 0, Entity.EVIDENCE, Action.DELETED, evidence.getEvidenceId(), evidence, null, 0);
+    }
+
+    /**
+     * @return A copy of this event at a position in the stream.
+     */
+    ChangeEvent withSequence(long sequence, long timestampMillis) {
+        return new ChangeEvent(sequence, timestampMillis, entity, action, id, row, status, officerId);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public Entity getEntity() {
+        return entity;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * @return The ID of the complaint, criminal or evidence row.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return The added complaint, or null for other events.
+     */
+    public Complaint getComplaint() {
+        return entity == Entity.COMPLAINT ? (Complaint) row : null;
+    }
+
+    /**
+     * @return The added criminal, or null for other events.
+     */
+    public Criminal getCriminal() {
+        return entity == Entity.CRIMINAL ? (Criminal) row : null;
+    }
+
+    /**
+     * @return The added or deleted evidence, or null for other events.
+     */
+    public Evidence getEvidence() {
+        return entity == Entity.EVIDENCE ? (Evidence) row : null;
+    }
+
+    /**
+     * @return The new status of a STATUS_CHANGED event, or null.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * @return The new officer of a REASSIGNED event, or 0.
+     */
+    public int getOfficerId() {
+        return officerId;
+    }
+
+    /**
+     * @return The entity and ID in one value, for grouping the events of a row.
+     */
+    long rowKey() {
+        return ((long) entity.ordinal() << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + entity + " " + id + " " + action + (status == null ? "" : " -> " + status)
+                + (action == Action.REASSIGNED ? " -> officer " + officerId : "");
+    }
+}
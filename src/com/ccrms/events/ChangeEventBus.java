@@ -0,0 +1,448 @@
+package com.ccrms.events;
+
+import com.ccrms.store.ChangeJournal;
+import com.ccrms.store.StoreException;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The in-process stream of committed changes.
+ *
+ * The DAO write paths publish an event per changed row after their transaction commits,
+ * one call per committed chunk. Publishing stamps the events with consecutive sequence
+ * numbers under a short lock, which also appends them to the journal and to every queue in
+ * that order, so all subscribers see the events in sequence order. Nobody's listener runs
+ * under that lock:
+ * <ul>
+ *   <li>inline listeners ({@link #subscribeInline}) are handed the batches through an ordered
+ *       backlog. A publisher applies the backlog up to its own events and returns, so what
+ *       the listeners derive is current by the time the DAO call returns; batches of
+ *       concurrent publishers are applied by whichever of them gets there first, in sequence
+ *       order. The in-memory indexes use this.</li>
+ *   <li>a subscription ({@link #subscribe}) gets its own lock-free queue and delivery thread.
+ *       The thread drains whatever has queued up, up to {@link #MAX_BATCH} events, and hands it
+ *       over as one batch, so a burst of writes costs a subscriber few calls. A coalescing
+ *       subscription also sees only the net effect of each batch: superseded status changes
+ *       and reassignments are dropped, and a row added and deleted within the batch disappears entirely.</li>
+ * </ul>
+ * A subscription that falls more than its capacity behind loses events rather than slowing
+ * down writers, and is told so through {@link ChangeListener#onEventsLost}.
+ *
+ * Sequence order is publish order, which is not necessarily the order in which the database
+ * committed the transactions: events are published after the commit, so a writer that
+ * commits first can still lose the race to publish, even against a later change to the same
+ * row. A subscriber that must know a row's committed state re-reads the row.
+ *
+ * Starting the application with -Dccrms.events.journal=&lt;file&gt; also appends every event
+ * to a {@link ChangeJournal}. Sequence numbers then continue across restarts, and a
+ * subscription can start from any earlier sequence number: it replays the journal up to
+ * the moment it subscribed and continues with live events, without gaps or duplicates.
+ */
+public final class ChangeEventBus {
+
+    public static final String JOURNAL_PROPERTY = "ccrms.events.journal";
+
+    /** Events handed to a subscription in one call, at most. */
+    public static final int MAX_BATCH = 1024;
+
+    /** Events a subscription may fall behind by default before it loses some. */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final Object sequenceLock = new Object();
+    private static long lastSequence; // Guarded by sequenceLock
+    private static final ChangeJournal journal = openJournal();
+
+    private static final CopyOnWriteArrayList<ChangeListener> inlineListeners = new CopyOnWriteArrayList<>();
+    private static final ConcurrentLinkedQueue<List<ChangeEvent>> inlineBacklog = new ConcurrentLinkedQueue<>(); // In sequence order
+    private static final ReentrantLock inlineDelivery = new ReentrantLock();
+    private static volatile long inlineDeliveredThrough; // Written under inlineDelivery
+    private static final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private static final AtomicLong published = new AtomicLong();
+
+    private ChangeEventBus() {
+    }
+
+    // --- Publishing, called by the DAOs after a successful commit ---
+
+    public static void publish(ChangeEvent event) {
+        publish(Collections.singletonList(event));
+    }
+
+    /**
+     * Publishes the changes of one transaction, in the order they were made.
+     */
+    public static void publish(List<ChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<ChangeEvent> stamped = new ArrayList<>(events.size());
+        long now = System.currentTimeMillis();
+        synchronized (sequenceLock) {
+            for (ChangeEvent event : events) {
+                stamped.add(event.withSequence(++lastSequence, now));
+            }
+            stamped = Collections.unmodifiableList(stamped);
+            if (journal != null) {
+                try {
+                    journal.append(stamped);
+                } catch (StoreException e) {
+                    System.err.println("Event Error writing the change journal: " + e.getMessage());
+                }
+            }
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(stamped);
+            }
+            inlineBacklog.add(stamped);
+        }
+        published.addAndGet(stamped.size());
+        deliverInline(stamped.get(stamped.size() - 1).getSequence());
+    }
+
+    /**
+     * Applies the inline backlog through the given sequence number, unless another publisher
+     * already has. The batch holding it was queued before this is called, so it is in the
+     * backlog until delivered.
+     */
+    private static void deliverInline(long through) {
+        if (inlineDeliveredThrough >= through) {
+            return;
+        }
+        inlineDelivery.lock();
+        try {
+            while (inlineDeliveredThrough < through) {
+                List<ChangeEvent> batch = inlineBacklog.poll();
+                for (ChangeListener listener : inlineListeners) {
+                    deliver("inline listener", listener, batch);
+                }
+                inlineDeliveredThrough = batch.get(batch.size() - 1).getSequence();
+            }
+        } finally {
+            inlineDelivery.unlock();
+        }
+    }
+
+    // --- Subscribing ---
+
+    /**
+     * Delivers every future event to the listener before the publishing DAO call returns, in
+     * sequence order, on one of the publishing threads. Publishers wait for the listener, so
+     * it must be quick and must not call back into the DAOs or publish.
+     */
+    public static void subscribeInline(ChangeListener listener) {
+        inlineListeners.add(listener);
+    }
+
+    /**
+     * Delivers future events to the listener on a thread of its own.
+     * @param name Names the delivery thread and the subscription in statistics.
+     * @param coalesce Deliver only the net effect of each batch.
+     */
+    public static Subscription subscribe(String name, ChangeListener listener, boolean coalesce) {
+        return start(new Subscription(name, listener, coalesce, DEFAULT_CAPACITY), -1);
+    }
+
+    /**
+     * Replays the journaled events after a sequence number to the listener, then continues
+     * with live events, on a thread of its own.
+     * @param afterSequence The last sequence number the listener has already seen, 0 for all.
+     * @throws IllegalStateException if no journal is configured.
+     */
+    public static Subscription subscribe(String name, ChangeListener listener, boolean coalesce, long afterSequence) {
+        if (journal == null) {
+            throw new IllegalStateException("Replay needs a change journal; start with -D" + JOURNAL_PROPERTY + "=<file>");
+        }
+        return start(new Subscription(name, listener, coalesce, DEFAULT_CAPACITY), afterSequence);
+    }
+
+    private static Subscription start(Subscription subscription, long replayAfter) {
+        synchronized (sequenceLock) {
+            // Everything up to lastSequence is in the journal, everything after goes to the queue
+            subscriptions.add(subscription);
+            subscription.replayThrough = lastSequence;
+        }
+        subscription.replayAfter = replayAfter;
+        Thread thread = new Thread(subscription::run, "ccrms-events-" + subscription.name);
+        thread.setDaemon(true);
+        subscription.thread = thread;
+        thread.start();
+        return subscription;
+    }
+
+    // --- Statistics ---
+
+    /**
+     * @return The sequence number of the last published event; with a journal this counts
+     *         from the first event ever journaled, otherwise from the start of this process.
+     */
+    public static long getLastSequence() {
+        synchronized (sequenceLock) {
+            return lastSequence;
+        }
+    }
+
+    /**
+     * @return The number of events published by this process.
+     */
+    public static long getPublished() {
+        return published.get();
+    }
+
+    /**
+     * @return The journal, or null if none is configured.
+     */
+    public static ChangeJournal getJournal() {
+        return journal;
+    }
+
+    public static List<Subscription> getSubscriptions() {
+        return new ArrayList<>(subscriptions);
+    }
+
+    private static ChangeJournal openJournal() {
+        String file = System.getProperty(JOURNAL_PROPERTY, "");
+        if (file.isEmpty()) {
+            return null;
+        }
+        try {
+            ChangeJournal opened = ChangeJournal.open(Paths.get(file));
+            lastSequence = opened.getLastSequence();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    opened.close();
+                } catch (IOException e) {
+                    System.err.println("Event Error closing the change journal: " + e.getMessage());
+                }
+            }, "ccrms-journal-close"));
+            return opened;
+        } catch (StoreException e) {
+            System.err.println("Event Error: cannot open the change journal, continuing without it: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void deliver(String name, ChangeListener listener, List<ChangeEvent> events) {
+        try {
+            listener.onChanges(events);
+        } catch (RuntimeException e) {
+            // One faulty subscriber must not fail the write or starve the others
+            System.err.println("Event Error in " + name + ": " + e);
+        }
+    }
+
+    /**
+     * @return The net effect of a batch: a status change or reassignment followed by another
+     *         one, or by a deletion, of the same row is dropped, and so is every event of a row that is
+     *         added and then deleted within the batch.
+     */
+    static List<ChangeEvent> coalesce(List<ChangeEvent> batch) {
+        boolean[] dropped = new boolean[batch.size()];
+        Set<Long> superseded = new HashSet<>(); // Row key and update action
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            ChangeEvent event = batch.get(i);
+            long key = event.rowKey() * 4;
+            if (event.getAction() == ChangeEvent.Action.STATUS_CHANGED || event.getAction() == ChangeEvent.Action.REASSIGNED) {
+                dropped[i] = !superseded.add(key + event.getAction().ordinal());
+            } else if (event.getAction() == ChangeEvent.Action.DELETED) {
+                superseded.add(key + ChangeEvent.Action.STATUS_CHANGED.ordinal());
+                superseded.add(key + ChangeEvent.Action.REASSIGNED.ordinal());
+            }
+        }
+        Map<Long, Integer> addedAt = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            ChangeEvent event = batch.get(i);
+            if (event.getAction() == ChangeEvent.Action.ADDED) {
+                addedAt.put(event.rowKey(), i);
+            } else if (event.getAction() == ChangeEvent.Action.DELETED) {
+                Integer added = addedAt.remove(event.rowKey());
+                if (added != null) {
+                    for (int j = added; j <= i; j++) {
+                        if (batch.get(j).rowKey() == event.rowKey()) {
+                            dropped[j] = true;
+                        }
+                    }
+                }
+            }
+        }
+        List<ChangeEvent> net = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (!dropped[i]) {
+                net.add(batch.get(i));
+            }
+        }
+        return net;
+    }
+
+    /**
+     * A listener with its own queue and delivery thread.
+     */
+    public static final class Subscription {
+        private final String name;
+        private final ChangeListener listener;
+        private final boolean coalesce;
+        private final int capacity;
+
+        // Written by publishers, read by the delivery thread
+        private final ConcurrentLinkedQueue<ChangeEvent> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicLong lost = new AtomicLong();
+
+        // Written only by the delivery thread
+        private volatile long delivered = 0;
+        private volatile long coalesced = 0;
+        private volatile long batches = 0;
+        private volatile long lastDeliveredSequence = 0;
+        private volatile long totalLost = 0;
+
+        private volatile boolean open = true;
+        private volatile Thread thread;
+        private long replayAfter;
+        private long replayThrough;
+
+        private Subscription(String name, ChangeListener listener, boolean coalesce, int capacity) {
+            this.name = name;
+            this.listener = listener;
+            this.coalesce = coalesce;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Queues a published batch, or drops it if the subscriber is too far behind.
+         */
+        private void offer(List<ChangeEvent> events) {
+            if (pending.get() + events.size() > capacity) {
+                lost.addAndGet(events.size());
+            } else {
+                queue.addAll(events);
+                pending.addAndGet(events.size());
+            }
+            LockSupport.unpark(thread);
+        }
+
+        private void run() {
+            List<ChangeEvent> batch = new ArrayList<>(MAX_BATCH);
+            if (replayAfter >= 0) {
+                try {
+                    journal.replay(replayAfter, replayThrough, event -> {
+                        batch.add(event);
+                        if (batch.size() == MAX_BATCH) {
+                            deliverBatch(batch);
+                        }
+                    });
+                } catch (StoreException e) {
+                    System.err.println("Event Error replaying the change journal to " + name + ": " + e.getMessage());
+                }
+                if (!batch.isEmpty()) {
+                    deliverBatch(batch);
+                }
+            }
+            while (open) {
+                long missed = lost.getAndSet(0);
+                if (missed > 0) {
+                    totalLost += missed;
+                    try {
+                        listener.onEventsLost(missed);
+                    } catch (RuntimeException e) {
+                        System.err.println("Event Error in subscriber " + name + ": " + e);
+                    }
+                }
+                ChangeEvent event;
+                while (batch.size() < MAX_BATCH && (event = queue.poll()) != null) {
+                    batch.add(event);
+                }
+                if (batch.isEmpty()) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                pending.addAndGet(-batch.size());
+                deliverBatch(batch);
+            }
+        }
+
+        private void deliverBatch(List<ChangeEvent> batch) {
+            List<ChangeEvent> events = coalesce ? coalesce(batch) : new ArrayList<>(batch);
+            if (!events.isEmpty()) {
+                deliver("subscriber " + name, listener, Collections.unmodifiableList(events));
+            }
+            lastDeliveredSequence = batch.get(batch.size() - 1).getSequence();
+            delivered += batch.size();
+            coalesced += batch.size() - events.size();
+            batches++;
+            batch.clear();
+        }
+
+        /**
+         * Stops delivery; events still queued are discarded.
+         */
+        public void close() {
+            open = false;
+            subscriptions.remove(this);
+            LockSupport.unpark(thread);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The events queued but not yet delivered.
+         */
+        public int getPending() {
+            return pending.get();
+        }
+
+        /**
+         * @return The events handled so far, including those coalesced away.
+         */
+        public long getDelivered() {
+            return delivered;
+        }
+
+        /**
+         * @return The events that coalescing removed before delivery.
+         */
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        /**
+         * @return The number of listener calls the delivered events took.
+         */
+        public long getBatches() {
+            return batches;
+        }
+
+        /**
+         * @return The sequence number of the last event handled, for resuming from the journal.
+         */
+        public long getLastDeliveredSequence() {
+            return lastDeliveredSequence;
+        }
+
+        /**
+         * @return The events dropped because the subscriber was too far behind.
+         */
+        public long getLost() {
+            return totalLost + lost.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d delivered in %d batches, %d coalesced away, %d pending, %d lost",
+                    name, delivered, batches, coalesced, pending.get(), getLost());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ccrms.events;
+
+import java.util.List;
+
+/**
+ * Receives committed changes from {@link ChangeEventBus}, a batch at a time.
+ */
+public interface ChangeListener {
+
+    /**
+     * @param events One or more events in sequence order. Never empty.
+     */
+    void onChanges(List<ChangeEvent> events);
+
+    /**
+     * Called when events were dropped because this subscriber fell too far behind. What it
+     * derived from the stream is incomplete from here on and should be rebuilt.
+     * @param count The number of events dropped since the last call.
+     */
+    default void onEventsLost(long count) {
+    }
+}
@@ -0,0 +1,242 @@
+package com.ccrms.events;
+
+import com.ccrms.models.Complaint;
+import com.ccrms.store.ChangeJournal;
+import com.ccrms.store.StoreException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Check of the change-event bus; needs no MySQL server.
+ *
+ * Publishes synthetic events from several threads into a scratch journal, then checks that
+ * coalescing keeps the net effect of a batch, that inline listeners and subscriptions see
+ * every event once and in sequence order, that a coalescing subscription ends in the same
+ * state as the events, and that a replaying subscription continues from the journal into
+ * the live stream without gaps or duplicates, also from a copy of the journal as a restart
+ * would find it.
+ *
+ * Usage:
+ *   java -cp bin com.ccrms.events.EventBusCheck [--events N]
+ * Uses its own temporary journal, whatever -Dccrms.events.journal says. Exits with status 1
+ * if any check fails.
+ */
+public class EventBusCheck {
+
+    private static final int THREADS = 8;
+    private static final long DELIVERY_TIMEOUT_MS = 30_000;
+
+    private int failures = 0;
+
+    public static void main(String[] args) {
+        int events = 100_000;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--events") && i + 1 < args.length) {
+                events = Integer.parseInt(args[++i]);
+            }
+        }
+
+        EventBusCheck check = new EventBusCheck();
+        try {
+            Path journal = Files.createTempFile("ccrms-events-check", ".journal");
+            Files.delete(journal); // The bus creates it
+            journal.toFile().deleteOnExit();
+            System.setProperty(ChangeEventBus.JOURNAL_PROPERTY, journal.toString()); // Before the bus is initialized
+            check.run(journal, events);
+        } catch (IOException | StoreException e) {
+            System.err.println("Event Error running the event bus check: " + e.getMessage());
+            check.failures = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            check.failures = -1;
+        }
+
+        if (check.failures != 0) {
+            System.out.println(check.failures < 0 ? "Event bus check aborted." : check.failures + " check(s) failed.");
+            System.exit(1);
+        }
+        System.out.println("All event bus checks OK.");
+    }
+
+    private void run(Path journalPath, int events) throws IOException, StoreException, InterruptedException {
+        checkCoalesce();
+        if (ChangeEventBus.getJournal() == null) {
+            throw new StoreException("The scratch journal could not be opened: " + journalPath);
+        }
+
+        List<ChangeEvent> inline = Collections.synchronizedList(new ArrayList<>());
+        ChangeEventBus.subscribeInline(inline::addAll);
+        List<ChangeEvent> queued = Collections.synchronizedList(new ArrayList<>());
+        ChangeEventBus.Subscription raw = ChangeEventBus.subscribe("check-raw", queued::addAll, false);
+        Map<Integer, String> netStatus = new HashMap<>();
+        ChangeEventBus.Subscription net = ChangeEventBus.subscribe("check-net", batch -> {
+            synchronized (netStatus) {
+                for (ChangeEvent event : batch) {
+                    netStatus.put(event.getId(), event.getStatus());
+                }
+            }
+        }, true);
+
+        // Many status changes on few complaints, so the coalescing subscriber has something to drop
+        int half = events / 2;
+        publishConcurrently(half);
+        long middle = ChangeEventBus.getLastSequence();
+        check("inline listeners see every event in order", contiguous(inline, 0, middle), describe(inline, middle));
+
+        // A subscriber that starts from the journal while the writers keep going
+        List<ChangeEvent> replayed = Collections.synchronizedList(new ArrayList<>());
+        long replayFrom = middle / 3;
+        Thread writers = new Thread(() -> publishConcurrently(events - half));
+        writers.start();
+        ChangeEventBus.Subscription replay = ChangeEventBus.subscribe("check-replay", replayed::addAll, false, replayFrom);
+        writers.join();
+        long last = ChangeEventBus.getLastSequence();
+
+        check("all events published", last == events, "last sequence " + last + ", expected " + events);
+        check("inline listeners see every later event in order", contiguous(inline, 0, last), describe(inline, last));
+        check("subscription delivery finished", waitFor(() -> raw.getDelivered() == last && replay.getLastDeliveredSequence() == last
+                && net.getDelivered() == last), raw + "; " + replay + "; " + net);
+        check("subscription sees every event in order", contiguous(queued, 0, last), describe(queued, last));
+        check("replay continues into the live stream", contiguous(replayed, replayFrom, last), describe(replayed, last));
+        check("nothing lost", raw.getLost() == 0 && replay.getLost() == 0 && net.getLost() == 0, raw + "; " + replay + "; " + net);
+
+        Map<Integer, String> expectedStatus = new HashMap<>();
+        for (ChangeEvent event : queued) {
+            expectedStatus.put(event.getId(), event.getStatus());
+        }
+        synchronized (netStatus) {
+            check("coalescing subscription ends in the same state", netStatus.equals(expectedStatus),
+                    netStatus.size() + " complaints, expected " + expectedStatus.size());
+        }
+        System.out.println("      (" + net.getCoalesced() + " of " + net.getDelivered() + " events coalesced away in "
+                + net.getBatches() + " batches)");
+
+        // What a restart finds: the journal as it is on disk
+        Path copy = Files.createTempFile("ccrms-events-check", ".copy");
+        copy.toFile().deleteOnExit();
+        Files.copy(journalPath, copy, StandardCopyOption.REPLACE_EXISTING);
+        try (ChangeJournal reopened = ChangeJournal.open(copy)) {
+            check("journal keeps every event", reopened.getLastSequence() == last && reopened.getEventCount() == last,
+                    reopened.getEventCount() + " events through " + reopened.getLastSequence());
+            List<ChangeEvent> fromDisk = new ArrayList<>();
+            reopened.replay(replayFrom, last, fromDisk::add);
+            boolean same = fromDisk.size() == replayed.size();
+            for (int i = 0; same && i < fromDisk.size(); i++) {
+                ChangeEvent a = fromDisk.get(i);
+                ChangeEvent b = replayed.get(i);
+                same = a.getSequence() == b.getSequence() && a.getId() == b.getId() && a.getStatus().equals(b.getStatus());
+            }
+            check("reopened journal replays the same events", same, fromDisk.size() + " events, expected " + replayed.size());
+        }
+        raw.close();
+        net.close();
+        replay.close();
+    }
+
+    /**
+     * Checks the net effect rules on one hand-made batch.
+     */
+    private void checkCoalesce() {
+        Complaint added = new Complaint();
+        added.setComplaintId(2);
+        List<ChangeEvent> batch = List.of(
+                ChangeEvent.complaintStatusChanged(1, "Under Investigation"),
+                ChangeEvent.complaintReassigned(1, 7),
+                ChangeEvent.complaintStatusChanged(1, "Closed"),       // Supersedes the first status change
+                ChangeEvent.complaintAdded(added),
+                ChangeEvent.complaintStatusChanged(2, "Closed"),
+                ChangeEvent.complaintDeleted(2),                       // Added and deleted: all three go
+                ChangeEvent.complaintReassigned(3, 8),
+                ChangeEvent.complaintDeleted(3));                      // Supersedes the reassignment
+        List<String> net = new ArrayList<>();
+        for (ChangeEvent event : ChangeEventBus.coalesce(batch)) {
+            net.add(event.getAction() + " " + event.getId() + (event.getStatus() == null ? "" : " " + event.getStatus()));
+        }
+        List<String> expected = List.of("REASSIGNED 1", "STATUS_CHANGED 1 Closed", "DELETED 3");
+        check("coalescing keeps the net effect", net.equals(expected), net + ", expected " + expected);
+    }
+
+    private static void publishConcurrently(int events) {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                String[] statuses = {"Open", "Under Investigation", "Closed"};
+                for (int i = thread; i < events; i += THREADS) {
+                    // Two events per call, like a chunked DAO write
+                    if (i + THREADS < events) {
+                        ChangeEventBus.publish(List.of(
+                                ChangeEvent.complaintStatusChanged(i % 50, statuses[i % 3]),
+                                ChangeEvent.complaintStatusChanged((i + THREADS) % 50, statuses[(i + THREADS) % 3])));
+                        i += THREADS;
+                    } else {
+                        ChangeEventBus.publish(ChangeEvent.complaintStatusChanged(i % 50, statuses[i % 3]));
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return Whether the events are exactly the sequence numbers after..through, in order.
+     */
+    private static boolean contiguous(List<ChangeEvent> events, long after, long through) {
+        synchronized (events) {
+            if (events.size() != through - after) {
+                return false;
+            }
+            long expected = after;
+            for (ChangeEvent event : events) {
+                if (event.getSequence() != ++expected) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static String describe(List<ChangeEvent> events, long through) {
+        synchronized (events) {
+            return events.size() + " events" + (events.isEmpty() ? "" : " from " + events.get(0).getSequence()
+                    + " to " + events.get(events.size() - 1).getSequence()) + ", last published " + through;
+        }
+    }
+
+    private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private void check(String name, boolean ok, String detail) {
+        if (ok) {
+            System.out.println("OK    " + name);
+        } else {
+            failures++;
+            System.out.println("FAIL  " + name + ": " + detail);
+        }
+    }
+}
@@ -0,0 +1,554 @@
+package com.ccrms.index;
+
+import com.ccrms.dao.ComplaintRepository;
+import com.ccrms.models.Complaint;
+import com.ccrms.models.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chooses the officer for a new complaint by workload, and evens out existing workloads.
+ *
+ * An officer's load is the number of their complaints that are not 'Closed', plus the
+ * assignments handed out but not committed yet. The loads live in an indexed heap, so the
+ * least loaded officer is read in O(1) and a changed load is re-sorted in O(log n); the
+ * counts follow the committed changes (new complaints, status changes, reassignments and
+ * deletions) through {@link Indexes}.
+ *
+ * With a specialty weight above 0 (-Dccrms.assignment.specialtyWeight=2, or
+ * {@link #setSpecialtyWeight}), a complaint of a known crime type goes to the officer with
+ * the smallest load - weight * share, where share is the fraction of the officer's complaints
+ * (of any status) that have this crime type: a weight of 2 lets a pure specialist carry two
+ * more cases than a generalist before losing the complaint. There is one heap per crime type
+ * for this, so a changed load costs O(types * log n).
+ *
+ * Only users with the 'Officer' role take assignments; the list is read when the indexes
+ * load.
+ */
+public class AssignmentScheduler {
+
+    public static final String SPECIALTY_PROPERTY = "ccrms.assignment.specialtyWeight";
+
+    private static final byte OPEN = 0;          // Not started: may be moved by a rebalance
+    private static final byte INVESTIGATING = 1; // Any other active status
+    private static final byte CLOSED = 2;
+    private static final byte FREE = 3;          // A row of a deleted complaint, for reuse
+
+    /**
+     * The current load of an officer.
+     */
+    public static final class Workload {
+        private final int officerId;
+        private final String username;
+        private final int activeCases;
+        private final int openCases;
+        private final int pendingAssignments;
+        private final String specialty;
+
+        Workload(int officerId, String username, int activeCases, int openCases, int pendingAssignments, String specialty) {
+            this.officerId = officerId;
+            this.username = username;
+            this.activeCases = activeCases;
+            this.openCases = openCases;
+            this.pendingAssignments = pendingAssignments;
+            this.specialty = specialty;
+        }
+
+        public int getOfficerId() {
+            return officerId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        /**
+         * @return The complaints that are not 'Closed'.
+         */
+        public int getActiveCases() {
+            return activeCases;
+        }
+
+        /**
+         * @return The active complaints still 'Open', i.e. not under investigation yet.
+         */
+        public int getOpenCases() {
+            return openCases;
+        }
+
+        /**
+         * @return Assignments handed out whose complaints are not committed yet.
+         */
+        public int getPendingAssignments() {
+            return pendingAssignments;
+        }
+
+        /**
+         * @return The officer's most frequent crime type, or null if they have no complaints.
+         */
+        public String getSpecialty() {
+            return specialty;
+        }
+    }
+
+    /**
+     * The moves that even out the loads, computed by {@link #planRebalance()}.
+     */
+    public static final class RebalancePlan {
+        private final int[] complaintIds;
+        private final int[] officerIds;
+        private final int spreadBefore;
+        private final int spreadAfter;
+
+        RebalancePlan(int[] complaintIds, int[] officerIds, int spreadBefore, int spreadAfter) {
+            this.complaintIds = complaintIds;
+            this.officerIds = officerIds;
+            this.spreadBefore = spreadBefore;
+            this.spreadAfter = spreadAfter;
+        }
+
+        public int getMoveCount() {
+            return complaintIds.length;
+        }
+
+        public int[] getComplaintIds() {
+            return complaintIds;
+        }
+
+        /**
+         * @return The new officer of each complaint, parallel to {@link #getComplaintIds()}.
+         */
+        public int[] getOfficerIds() {
+            return officerIds;
+        }
+
+        /**
+         * @return The difference between the highest and lowest load before the moves.
+         */
+        public int getSpreadBefore() {
+            return spreadBefore;
+        }
+
+        public int getSpreadAfter() {
+            return spreadAfter;
+        }
+    }
+
+    // Officers by slot
+    private final Map<Integer, Integer> slotByOfficer = new HashMap<>();
+    private int[] officerIds = new int[0];
+    private String[] usernames = new String[0];
+    private int[] active = new int[0];
+    private int[] open = new int[0];
+    private int[] reserved = new int[0];
+    private int[] experience = new int[0];
+
+    // Crime types, and per crime type the complaints of each officer slot
+    private final Map<String, Integer> crimeTypeCodes = new HashMap<>();
+    private final List<String> crimeTypeNames = new ArrayList<>();
+    private final List<int[]> experienceByType = new ArrayList<>();
+
+    private OfficerHeap byLoad = new OfficerHeap(0);
+    private final List<OfficerHeap> byTypedLoad = new ArrayList<>();
+    private double specialtyWeight = Double.parseDouble(System.getProperty(SPECIALTY_PROPERTY, "0"));
+
+    // Per complaint: its row in the parallel arrays below
+    private final LongIntHashMap rowByComplaint = new LongIntHashMap(1024);
+    private int[] rowComplaintIds = new int[1024];
+    private int[] rowSlots = new int[1024];      // -1 if not assigned to an officer
+    private int[] rowCrimeTypes = new int[1024];
+    private byte[] rowStates = new byte[1024];
+    private int rowCount = 0;
+    private final IntList freeRows = new IntList();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // --- Maintenance, called through Indexes ---
+
+    /**
+     * Replaces the officers. Must be called before any complaint is added.
+     */
+    void officersLoaded(List<User> officers) {
+        lock.writeLock().lock();
+        try {
+            int count = officers.size();
+            slotByOfficer.clear();
+            officerIds = new int[count];
+            usernames = new String[count];
+            for (int slot = 0; slot < count; slot++) {
+                officerIds[slot] = officers.get(slot).getUserId();
+                usernames[slot] = officers.get(slot).getUsername();
+                slotByOfficer.put(officerIds[slot], slot);
+            }
+            active = new int[count];
+            open = new int[count];
+            reserved = new int[count];
+            experience = new int[count];
+            for (int i = 0; i < experienceByType.size(); i++) {
+                experienceByType.set(i, new int[count]);
+            }
+            rebuildHeaps();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void complaintAdded(Complaint complaint) {
+        lock.writeLock().lock();
+        try {
+            if (rowByComplaint.get(complaint.getComplaintId()) >= 0) {
+                return; // Already counted (seen by the load and by an event)
+            }
+            int row;
+            if (!freeRows.isEmpty()) {
+                row = freeRows.removeLast();
+            } else {
+                if (rowCount == rowSlots.length) {
+                    int capacity = rowCount * 2;
+                    rowComplaintIds = Arrays.copyOf(rowComplaintIds, capacity);
+                    rowSlots = Arrays.copyOf(rowSlots, capacity);
+                    rowCrimeTypes = Arrays.copyOf(rowCrimeTypes, capacity);
+                    rowStates = Arrays.copyOf(rowStates, capacity);
+                }
+                row = rowCount++;
+            }
+            rowByComplaint.put(complaint.getComplaintId(), row);
+            rowComplaintIds[row] = complaint.getComplaintId();
+            rowSlots[row] = slotByOfficer.getOrDefault(complaint.getAssignedOfficerId(), -1);
+            rowCrimeTypes[row] = crimeTypeCode(complaint.getCrimeType());
+            rowStates[row] = state(complaint.getStatus());
+            int slot = rowSlots[row];
+            if (slot >= 0 && reserved[slot] > 0 && rowStates[row] != CLOSED) {
+                reserved[slot]--; // Most likely the assignment handed out for this complaint
+            }
+            count(row, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void statusChanged(int complaintId, String status) {
+        lock.writeLock().lock();
+        try {
+            int row = rowByComplaint.get(complaintId);
+            if (row < 0) {
+                return;
+            }
+            count(row, -1);
+            rowStates[row] = state(status);
+            count(row, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void reassigned(int complaintId, int officerId) {
+        lock.writeLock().lock();
+        try {
+            int row = rowByComplaint.get(complaintId);
+            if (row < 0) {
+                return;
+            }
+            count(row, -1);
+            rowSlots[row] = slotByOfficer.getOrDefault(officerId, -1);
+            count(row, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void complaintDeleted(int complaintId) {
+        lock.writeLock().lock();
+        try {
+            int row = rowByComplaint.remove(complaintId);
+            if (row < 0) {
+                return;
+            }
+            count(row, -1);
+            rowStates[row] = FREE;
+            freeRows.add(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds delta to the counts of the complaint's officer and re-sorts them. Requires the write lock.
+     */
+    private void count(int row, int delta) {
+        int slot = rowSlots[row];
+        if (slot < 0) {
+            return;
+        }
+        experience[slot] += delta;
+        experienceByType.get(rowCrimeTypes[row])[slot] += delta;
+        if (rowStates[row] != CLOSED) {
+            active[slot] += delta;
+        }
+        if (rowStates[row] == OPEN) {
+            open[slot] += delta;
+        }
+        reheap(slot);
+    }
+
+    private static byte state(String status) {
+        // Case-insensitive, as the database compares status = 'Open' when locking and reassigning
+        return "Open".equalsIgnoreCase(status) ? OPEN : "Closed".equalsIgnoreCase(status) ? CLOSED : INVESTIGATING;
+    }
+
+    private int crimeTypeCode(String crimeType) {
+        Integer code = crimeTypeCodes.get(crimeType);
+        if (code == null) {
+            code = crimeTypeNames.size();
+            crimeTypeCodes.put(crimeType, code);
+            crimeTypeNames.add(crimeType);
+            experienceByType.add(new int[officerIds.length]);
+            if (specialtyWeight > 0) {
+                byTypedLoad.add(buildHeap(code));
+            }
+        }
+        return code;
+    }
+
+    // --- Heaps ---
+
+    private int load(int slot) {
+        return active[slot] + reserved[slot];
+    }
+
+    private double typedLoad(int slot, int crimeType) {
+        double share = experience[slot] == 0 ? 0 : (double) experienceByType.get(crimeType)[slot] / experience[slot];
+        return load(slot) - specialtyWeight * share;
+    }
+
+    private void reheap(int slot) {
+        byLoad.set(slot, load(slot));
+        for (int crimeType = 0; crimeType < byTypedLoad.size(); crimeType++) {
+            byTypedLoad.get(crimeType).set(slot, typedLoad(slot, crimeType));
+        }
+    }
+
+    private OfficerHeap buildHeap(int crimeType) {
+        OfficerHeap heap = new OfficerHeap(officerIds.length);
+        for (int slot = 0; slot < officerIds.length; slot++) {
+            heap.set(slot, crimeType < 0 ? load(slot) : typedLoad(slot, crimeType));
+        }
+        return heap;
+    }
+
+    private void rebuildHeaps() {
+        byLoad = buildHeap(-1);
+        byTypedLoad.clear();
+        if (specialtyWeight > 0) {
+            for (int crimeType = 0; crimeType < crimeTypeNames.size(); crimeType++) {
+                byTypedLoad.add(buildHeap(crimeType));
+            }
+        }
+    }
+
+    // --- Assignment ---
+
+    /**
+     * Picks the officer for a new complaint and counts the assignment at once, so the next
+     * call already sees it. Call {@link #release} if the complaint is not saved after all.
+     * @return The officer's user ID, or -1 if there are no officers.
+     */
+    public int assign(String crimeType) {
+        lock.writeLock().lock();
+        try {
+            if (officerIds.length == 0) {
+                return -1;
+            }
+            Integer code = crimeTypeCodes.get(crimeType);
+            int slot = code != null && specialtyWeight > 0 ? byTypedLoad.get(code).peek() : byLoad.peek();
+            reserved[slot]++;
+            reheap(slot);
+            return officerIds[slot];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Takes back an assignment from {@link #assign} whose complaint was not saved.
+     */
+    public void release(int officerId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByOfficer.get(officerId);
+            if (slot != null && reserved[slot] > 0) {
+                reserved[slot]--;
+                reheap(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public double getSpecialtyWeight() {
+        lock.readLock().lock();
+        try {
+            return specialtyWeight;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param weight How many cases a pure specialist may carry beyond a generalist; 0 ignores crime types.
+     */
+    public void setSpecialtyWeight(double weight) {
+        if (weight < 0 || Double.isNaN(weight)) {
+            throw new IllegalArgumentException("The specialty weight must not be negative");
+        }
+        lock.writeLock().lock();
+        try {
+            specialtyWeight = weight;
+            rebuildHeaps();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Every officer's load, least loaded first.
+     */
+    public List<Workload> getWorkloads() {
+        lock.readLock().lock();
+        try {
+            List<Workload> workloads = new ArrayList<>(officerIds.length);
+            for (int slot = 0; slot < officerIds.length; slot++) {
+                int best = -1;
+                for (int crimeType = 0; crimeType < crimeTypeNames.size(); crimeType++) {
+                    int cases = experienceByType.get(crimeType)[slot];
+                    if (cases > 0 && (best < 0 || cases > experienceByType.get(best)[slot])) {
+                        best = crimeType;
+                    }
+                }
+                workloads.add(new Workload(officerIds[slot], usernames[slot], active[slot], open[slot], reserved[slot],
+                        best < 0 ? null : crimeTypeNames.get(best)));
+            }
+            workloads.sort((a, b) -> a.getActiveCases() + a.getPendingAssignments() != b.getActiveCases() + b.getPendingAssignments()
+                    ? Integer.compare(a.getActiveCases() + a.getPendingAssignments(), b.getActiveCases() + b.getPendingAssignments())
+                    : Integer.compare(a.getOfficerId(), b.getOfficerId()));
+            return workloads;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Rebalancing ---
+
+    /**
+     * Works out which 'Open' complaints to move so that no officer's load exceeds another's by
+     * more than one, or as close to that as the 'Open' complaints allow. Complaints under
+     * investigation stay with their officer. Each move takes a complaint from the most loaded
+     * officer to the least loaded one; with a specialty weight, the complaint moved is the one
+     * whose crime type the receiving officer handles most.
+     */
+    public RebalancePlan planRebalance() {
+        lock.readLock().lock();
+        try {
+            int officers = officerIds.length;
+            int[] loads = new int[officers];
+            IntList[] movable = new IntList[officers];
+            for (int slot = 0; slot < officers; slot++) {
+                loads[slot] = load(slot);
+                movable[slot] = new IntList();
+            }
+            for (int row = 0; row < rowCount; row++) {
+                if (rowStates[row] == OPEN && rowSlots[row] >= 0) {
+                    movable[rowSlots[row]].add(row);
+                }
+            }
+
+            OfficerHeap donors = new OfficerHeap(officers);   // Most loaded first, with something to move
+            OfficerHeap receivers = new OfficerHeap(officers); // Least loaded first
+            for (int slot = 0; slot < officers; slot++) {
+                receivers.set(slot, loads[slot]);
+                if (!movable[slot].isEmpty()) {
+                    donors.set(slot, -loads[slot]);
+                }
+            }
+            int spreadBefore = spread(loads);
+            IntList complaintIds = new IntList();
+            IntList newOfficerIds = new IntList();
+            while (donors.size() > 0) {
+                int from = donors.peek();
+                int to = receivers.peek();
+                if (loads[from] - loads[to] <= 1) {
+                    break;
+                }
+                int row = takeMovable(movable[from], to);
+                complaintIds.add(rowComplaintIds[row]);
+                newOfficerIds.add(officerIds[to]);
+                loads[from]--;
+                loads[to]++;
+                receivers.set(from, loads[from]);
+                receivers.set(to, loads[to]);
+                if (movable[from].isEmpty()) {
+                    donors.remove(from);
+                } else {
+                    donors.set(from, -loads[from]);
+                }
+                if (donors.contains(to)) {
+                    donors.set(to, -loads[to]);
+                }
+            }
+            return new RebalancePlan(complaintIds.toArray(), newOfficerIds.toArray(), spreadBefore, spread(loads));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes and returns one of the rows: the one whose crime type the receiving officer
+     * handles most when crime types are weighted, otherwise the newest. Requires the lock.
+     */
+    private int takeMovable(IntList rows, int receiver) {
+        int chosen = rows.size() - 1;
+        if (specialtyWeight > 0) {
+            int bestCases = -1;
+            for (int i = rows.size() - 1; i >= 0; i--) {
+                int cases = experienceByType.get(rowCrimeTypes[rows.get(i)])[receiver];
+                if (cases > bestCases) {
+                    bestCases = cases;
+                    chosen = i;
+                }
+            }
+        }
+        int row = rows.get(chosen);
+        rows.set(chosen, rows.get(rows.size() - 1));
+        rows.removeLast();
+        return row;
+    }
+
+    private static int spread(int[] loads) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int load : loads) {
+            min = Math.min(min, load);
+            max = Math.max(max, load);
+        }
+        return loads.length == 0 ? 0 : max - min;
+    }
+
+    /**
+     * Plans a rebalance and carries it out in one transaction. The counts here follow the
+     * committed moves through the change events.
+     * @return The number of complaints moved, or -1 if the update failed.
+     */
+    public int rebalance(ComplaintRepository complaints) {
+        RebalancePlan plan = planRebalance();
+        if (plan.getMoveCount() == 0) {
+            return 0;
+        }
+        int[] moved = complaints.reassignOpenComplaints(plan.getComplaintIds(), plan.getOfficerIds());
+        return moved == null ? -1 : moved.length;
+    }
+}
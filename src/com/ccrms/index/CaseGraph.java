@@ -0,0 +1,441 @@
+package com.ccrms.index;
+
+import com.ccrms.models.Complaint;
+import com.ccrms.models.Evidence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Case-linkage graph: complaints are linked when they name the same criminal or their
+ * evidence contains the same indicator (see {@link IndicatorNormalizer}).
+ *
+ * The graph is bipartite, complaint nodes on one side and criminal / indicator nodes on the
+ * other, so an indicator shared by m complaints costs m edges instead of m^2. Adjacency is
+ * stored as singly linked edge lists in primitive arrays (a "forward star"): each undirected
+ * edge is a pair of half-edges at indexes 2p and 2p+1, 8 bytes per half-edge, with no
+ * per-node or per-edge objects. A pair of nodes has at most one edge; an edge to an indicator
+ * counts the evidence rows behind it and goes away with the last of them. The linked evidence
+ * IDs are tracked, so a row seen both by the load and by a change hook counts once.
+ *
+ * Connected components are maintained incrementally with a union-find as edges arrive.
+ * Removals cannot be undone in a union-find, so they only mark the components stale; the
+ * next query that needs them recomputes them from the adjacency arrays in one O(V + E) pass,
+ * without touching the database.
+ */
+public class CaseGraph {
+
+    private static final byte COMPLAINT = 0;
+    private static final byte CRIMINAL = 1;
+    private static final byte INDICATOR = 2;
+    private static final byte REMOVED = 3;
+
+    private static final int NONE = -1;
+
+    /**
+     * A connected cluster of complaints and the criminals and indicators linking them.
+     */
+    public static final class Ring {
+        private final int[] complaintIds;
+        private final int[] criminalIds;
+        private final int sharedIndicators;
+
+        Ring(int[] complaintIds, int[] criminalIds, int sharedIndicators) {
+            this.complaintIds = complaintIds;
+            this.criminalIds = criminalIds;
+            this.sharedIndicators = sharedIndicators;
+        }
+
+        /**
+         * @return The complaint IDs in ascending order.
+         */
+        public int[] getComplaintIds() {
+            return complaintIds;
+        }
+
+        /**
+         * @return The IDs of the criminals named by the complaints, ascending.
+         */
+        public int[] getCriminalIds() {
+            return criminalIds;
+        }
+
+        /**
+         * @return The number of indicators that appear in more than one complaint of the ring.
+         */
+        public int getSharedIndicators() {
+            return sharedIndicators;
+        }
+    }
+
+    // Node lookup by kind; the key is the complaint ID, criminal ID or indicator hash
+    private final LongIntHashMap complaintNodes = new LongIntHashMap(1024);
+    private final LongIntHashMap criminalNodes = new LongIntHashMap(256);
+    private final LongIntHashMap indicatorNodes = new LongIntHashMap(1024);
+
+    // Per node
+    private byte[] kinds = new byte[1024];
+    private long[] keys = new long[1024];
+    private int[] firstEdge = new int[1024];
+    private int nodeCount;
+
+    // Per half-edge; target is NONE once the edge is removed
+    private int[] target = new int[2048];
+    private int[] nextEdge = new int[2048];
+    private int halfEdges;
+    private int removedHalfEdges;
+
+    // Per undirected edge (half-edge / 2): the number of evidence rows it stands for
+    private int[] multiplicity = new int[1024];
+
+    // Evidence IDs that contribute to an edge
+    private final LongIntHashMap linkedEvidence = new LongIntHashMap(1024);
+
+    private UnionFind components = new UnionFind(0);
+    private boolean componentsStale;
+
+    synchronized void complaintAdded(Complaint complaint) {
+        int node = node(complaintNodes, COMPLAINT, complaint.getComplaintId());
+        if (complaint.getCriminalId() != null) {
+            int criminal = node(criminalNodes, CRIMINAL, complaint.getCriminalId());
+            if (findEdge(node, criminal) == NONE) { // Else already linked (seen by the load and by a hook)
+                addEdge(node, criminal);
+            }
+        }
+    }
+
+    synchronized void complaintDeleted(int complaintId) {
+        removeNode(complaintNodes, complaintId);
+        compactIfSparse();
+    }
+
+    synchronized void criminalDeleted(int criminalId) {
+        removeNode(criminalNodes, criminalId); // Its complaints are unlinked from it
+        compactIfSparse();
+    }
+
+    synchronized void evidenceAdded(Evidence evidence) {
+        String key = IndicatorNormalizer.normalize(evidence.getEvidenceType(), evidence.getDetails());
+        if (key == null || linkedEvidence.get(evidence.getEvidenceId()) >= 0) {
+            return;
+        }
+        linkedEvidence.put(evidence.getEvidenceId(), 1);
+        int complaint = node(complaintNodes, COMPLAINT, evidence.getComplaintId());
+        int indicator = node(indicatorNodes, INDICATOR, IndicatorNormalizer.hash(key));
+        int e = findEdge(complaint, indicator);
+        if (e == NONE) {
+            addEdge(complaint, indicator);
+        } else {
+            multiplicity[e >> 1]++;
+        }
+    }
+
+    synchronized void evidenceDeleted(Evidence evidence) {
+        String key = IndicatorNormalizer.normalize(evidence.getEvidenceType(), evidence.getDetails());
+        if (key == null || linkedEvidence.remove(evidence.getEvidenceId()) < 0) {
+            return;
+        }
+        int complaint = complaintNodes.get(evidence.getComplaintId());
+        int indicator = indicatorNodes.get(IndicatorNormalizer.hash(key));
+        if (complaint < 0 || indicator < 0) {
+            return;
+        }
+        int e = findEdge(complaint, indicator);
+        if (e != NONE && --multiplicity[e >> 1] == 0) {
+            removeEdge(e); // The last evidence row with this indicator on the complaint
+            compactIfSparse();
+        }
+    }
+
+    /**
+     * Finds every complaint connected to the given one, however indirectly.
+     * @param complaintId The complaint to start from.
+     * @return The complaint IDs of its cluster in ascending order (including itself),
+     *         or an empty array if the complaint is unknown.
+     */
+    public synchronized int[] clusterOf(int complaintId) {
+        if (complaintNodes.get(complaintId) < 0) {
+            return new int[0];
+        }
+        IntList all = new IntList();
+        all.add(complaintId);
+        for (int[] level : neighborhood(complaintId, Integer.MAX_VALUE)) {
+            for (int id : level) {
+                all.add(id);
+            }
+        }
+        all.sort();
+        return all.toArray();
+    }
+
+    /**
+     * Breadth-first search over complaint links: one hop is complaint -> shared criminal or
+     * indicator -> complaint.
+     * @param complaintId The complaint to start from.
+     * @param hops The maximum number of hops.
+     * @return The complaints at 1, 2, ... hops, one ascending array per distance
+     *         (the start complaint is not included).
+     */
+    public synchronized List<int[]> neighborhood(int complaintId, int hops) {
+        List<int[]> levels = new ArrayList<>();
+        int start = complaintNodes.get(complaintId);
+        if (start < 0) {
+            return levels;
+        }
+        BitSet visited = new BitSet(nodeCount);
+        visited.set(start);
+        IntList frontier = new IntList();
+        frontier.add(start);
+        for (int hop = 0; hop < hops && !frontier.isEmpty(); hop++) {
+            IntList nextFrontier = new IntList();
+            for (int i = 0; i < frontier.size(); i++) {
+                for (int e = firstEdge[frontier.get(i)]; e != NONE; e = nextEdge[e]) {
+                    int link = target[e];
+                    if (link == NONE || visited.get(link)) {
+                        continue;
+                    }
+                    visited.set(link);
+                    for (int f = firstEdge[link]; f != NONE; f = nextEdge[f]) {
+                        int complaint = target[f];
+                        if (complaint != NONE && !visited.get(complaint)) {
+                            visited.set(complaint);
+                            nextFrontier.add(complaint);
+                        }
+                    }
+                }
+            }
+            if (nextFrontier.isEmpty()) {
+                break;
+            }
+            int[] level = new int[nextFrontier.size()];
+            for (int i = 0; i < level.length; i++) {
+                level[i] = (int) keys[nextFrontier.get(i)];
+            }
+            Arrays.sort(level);
+            levels.add(level);
+            frontier = nextFrontier;
+        }
+        return levels;
+    }
+
+    /**
+     * Finds the largest clusters of linked complaints.
+     * @param limit The maximum number of rings to return.
+     * @param minComplaints The minimum number of complaints in a ring (at least 2 to be linked).
+     * @return The rings, largest first.
+     */
+    public synchronized List<Ring> largestRings(int limit, int minComplaints) {
+        ensureComponents();
+        int[] complaintsByRoot = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            if (kinds[node] == COMPLAINT) {
+                complaintsByRoot[components.find(node)]++;
+            }
+        }
+
+        // Keep the 'limit' largest roots in a min-heap ordered by size
+        PriorityQueue<int[]> top = new PriorityQueue<>((a, b) -> a[1] != b[1] ? Integer.compare(a[1], b[1]) : Integer.compare(b[0], a[0]));
+        for (int root = 0; root < nodeCount; root++) {
+            if (complaintsByRoot[root] >= Math.max(1, minComplaints)) {
+                top.add(new int[] { root, complaintsByRoot[root] });
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        int[] ringByRoot = new int[nodeCount];
+        Arrays.fill(ringByRoot, NONE);
+        int[][] selected = top.toArray(new int[0][]);
+        Arrays.sort(selected, (a, b) -> a[1] != b[1] ? Integer.compare(b[1], a[1]) : Integer.compare(a[0], b[0]));
+        IntList[] complaints = new IntList[selected.length];
+        IntList[] criminals = new IntList[selected.length];
+        int[] shared = new int[selected.length];
+        for (int i = 0; i < selected.length; i++) {
+            ringByRoot[selected[i][0]] = i;
+            complaints[i] = new IntList(selected[i][1]);
+            criminals[i] = new IntList();
+        }
+
+        // One pass over the nodes collects the members of the selected rings
+        for (int node = 0; node < nodeCount; node++) {
+            if (kinds[node] == REMOVED) {
+                continue;
+            }
+            int ring = ringByRoot[components.find(node)];
+            if (ring == NONE) {
+                continue;
+            }
+            if (kinds[node] == COMPLAINT) {
+                complaints[ring].add((int) keys[node]);
+            } else if (kinds[node] == CRIMINAL) {
+                criminals[ring].add((int) keys[node]);
+            } else if (linkedComplaints(node) > 1) {
+                shared[ring]++;
+            }
+        }
+
+        List<Ring> rings = new ArrayList<>(selected.length);
+        for (int i = 0; i < selected.length; i++) {
+            complaints[i].sort();
+            criminals[i].sort();
+            rings.add(new Ring(complaints[i].toArray(), criminals[i].toArray(), shared[i]));
+        }
+        return rings;
+    }
+
+    /**
+     * @return The number of complaints known to the graph.
+     */
+    public synchronized int complaintCount() {
+        return complaintNodes.size();
+    }
+
+    /**
+     * @return The number of live (undirected) edges.
+     */
+    public synchronized int edgeCount() {
+        return (halfEdges - removedHalfEdges) / 2;
+    }
+
+    // --- Internals; all callers hold the monitor ---
+
+    private int node(LongIntHashMap lookup, byte kind, long key) {
+        int node = lookup.get(key);
+        if (node >= 0) {
+            return node;
+        }
+        if (nodeCount == kinds.length) {
+            int capacity = nodeCount * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            firstEdge = Arrays.copyOf(firstEdge, capacity);
+        }
+        node = nodeCount++;
+        kinds[node] = kind;
+        keys[node] = key;
+        firstEdge[node] = NONE;
+        components.add();
+        lookup.put(key, node);
+        return node;
+    }
+
+    /**
+     * @return The live half-edge from one node to the other, or NONE.
+     */
+    private int findEdge(int from, int to) {
+        for (int e = firstEdge[from]; e != NONE; e = nextEdge[e]) {
+            if (target[e] == to) {
+                return e;
+            }
+        }
+        return NONE;
+    }
+
+    private void addEdge(int from, int to) {
+        if (halfEdges + 2 > target.length) {
+            int capacity = target.length * 2;
+            target = Arrays.copyOf(target, capacity);
+            nextEdge = Arrays.copyOf(nextEdge, capacity);
+            multiplicity = Arrays.copyOf(multiplicity, capacity / 2);
+        }
+        int e = halfEdges;
+        multiplicity[e >> 1] = 1;
+        target[e] = to;
+        nextEdge[e] = firstEdge[from];
+        firstEdge[from] = e;
+        target[e + 1] = from;
+        nextEdge[e + 1] = firstEdge[to];
+        firstEdge[to] = e + 1;
+        halfEdges += 2;
+        if (!componentsStale) {
+            components.union(from, to);
+        }
+    }
+
+    private void removeEdge(int e) {
+        target[e] = NONE;
+        target[e ^ 1] = NONE;
+        removedHalfEdges += 2;
+        componentsStale = true;
+    }
+
+    private void removeNode(LongIntHashMap lookup, long key) {
+        int node = lookup.remove(key);
+        if (node < 0) {
+            return;
+        }
+        for (int e = firstEdge[node]; e != NONE; e = nextEdge[e]) {
+            if (target[e] != NONE) {
+                removeEdge(e);
+            }
+        }
+        firstEdge[node] = NONE;
+        kinds[node] = REMOVED;
+    }
+
+    /**
+     * @return The number of distinct complaints linked to a criminal or indicator node;
+     *         a pair of nodes has at most one edge, so this is its live degree.
+     */
+    private int linkedComplaints(int node) {
+        int degree = 0;
+        for (int e = firstEdge[node]; e != NONE; e = nextEdge[e]) {
+            if (target[e] != NONE) {
+                degree++;
+            }
+        }
+        return degree;
+    }
+
+    /**
+     * Rebuilds the edge lists without the removed half-edges once they are the majority.
+     */
+    private void compactIfSparse() {
+        if (removedHalfEdges <= 1024 || removedHalfEdges * 2 <= halfEdges) {
+            return;
+        }
+        int[] oldTarget = target;
+        int[] oldMultiplicity = multiplicity;
+        int oldHalfEdges = halfEdges;
+        target = new int[Math.max(2048, (halfEdges - removedHalfEdges) * 2)];
+        nextEdge = new int[target.length];
+        multiplicity = new int[target.length / 2];
+        halfEdges = 0;
+        removedHalfEdges = 0;
+        Arrays.fill(firstEdge, 0, nodeCount, NONE);
+        boolean stale = componentsStale;
+        componentsStale = true; // Re-adding must not touch the union-find
+        for (int e = 0; e < oldHalfEdges; e += 2) {
+            if (oldTarget[e] != NONE) {
+                addEdge(oldTarget[e + 1], oldTarget[e]);
+                multiplicity[(halfEdges - 2) >> 1] = oldMultiplicity[e >> 1];
+            }
+        }
+        componentsStale = stale;
+    }
+
+    /**
+     * Recomputes the components after removals.
+     */
+    private void ensureComponents() {
+        if (!componentsStale) {
+            return;
+        }
+        components = new UnionFind(nodeCount);
+        for (int e = 0; e < halfEdges; e += 2) {
+            if (target[e] != NONE) {
+                components.union(target[e + 1], target[e]);
+            }
+        }
+        componentsStale = false;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Case Graph [complaints=" + complaintNodes.size() + ", criminals=" + criminalNodes.size()
+                + ", indicators=" + indicatorNodes.size() + ", edges=" + edgeCount() + "]";
+    }
+}
@@ -0,0 +1,371 @@
+package com.ccrms.index;
+
+import com.ccrms.models.Complaint;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Complaint counts rolled up per day, ISO week and month, by crime type and status.
+ *
+ * Every complaint adds one to a cell (period, crime type, status) of each granularity.
+ * The cells are backfilled when the indexes load and then kept current by the DAO write
+ * hooks: an added complaint increments its cells, a status change moves it between cells,
+ * a deletion decrements them. A trend query reads only the cells of the periods in its
+ * range, e.g. 12 months x (types x statuses), however many complaints there are.
+ *
+ * To move or remove a complaint without reading it back from the database, the rollup
+ * keeps each complaint's day, crime type and status in primitive arrays (12 bytes plus a
+ * hash slot per complaint).
+ */
+public class ComplaintRollup {
+
+    /**
+     * The length of a period.
+     */
+    public enum Granularity {
+        DAY("Day"), WEEK("Week"), MONTH("Month");
+
+        private final String label;
+
+        Granularity(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * How the counts of a period are split.
+     */
+    public enum Breakdown {
+        TOTAL, CRIME_TYPE, STATUS
+    }
+
+    /** Periods a single query may span, to keep an accidental daily query over decades small. */
+    public static final int MAX_PERIODS = 5_000;
+
+    /**
+     * The counts of a range of periods, oldest first; periods without complaints are zero.
+     */
+    public static final class Trend {
+        private final Granularity granularity;
+        private final List<String> periods;
+        private final List<String> groups;
+        private final long[][] counts;
+        private final int cellsRead;
+
+        Trend(Granularity granularity, List<String> periods, List<String> groups, long[][] counts, int cellsRead) {
+            this.granularity = granularity;
+            this.periods = periods;
+            this.groups = groups;
+            this.counts = counts;
+            this.cellsRead = cellsRead;
+        }
+
+        public Granularity getGranularity() {
+            return granularity;
+        }
+
+        /**
+         * @return The period labels: 2025-07-15, 2025-W29 or 2025-07.
+         */
+        public List<String> getPeriods() {
+            return periods;
+        }
+
+        /**
+         * @return The breakdown values (crime types or statuses in name order), or just "Total".
+         */
+        public List<String> getGroups() {
+            return groups;
+        }
+
+        public long getCount(int period, int group) {
+            return counts[period][group];
+        }
+
+        public long getPeriodTotal(int period) {
+            long total = 0;
+            for (long count : counts[period]) {
+                total += count;
+            }
+            return total;
+        }
+
+        /**
+         * @return The number of non-empty precomputed cells the query read.
+         */
+        public int getCellsRead() {
+            return cellsRead;
+        }
+    }
+
+    // Crime type and status dictionaries; codes are never reused
+    private final Map<String, Integer> crimeTypeCodes = new HashMap<>();
+    private final List<String> crimeTypeNames = new ArrayList<>();
+    // Statuses compare case-insensitively, as in the database's collation; the first spelling seen names the group
+    private final Map<String, Integer> statusCodes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final List<String> statusNames = new ArrayList<>();
+
+    // Per granularity: period -> cells[crime type][status]
+    private final EnumMap<Granularity, TreeMap<Integer, int[][]>> cells = new EnumMap<>(Granularity.class);
+
+    // Per complaint: its row in the parallel arrays below
+    private final LongIntHashMap rowByComplaint = new LongIntHashMap(1024);
+    private int[] rowDays = new int[1024];
+    private int[] rowCrimeTypes = new int[1024];
+    private int[] rowStatuses = new int[1024];
+    private int rowCount = 0;
+    private final IntList freeRows = new IntList();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ComplaintRollup() {
+        for (Granularity granularity : Granularity.values()) {
+            cells.put(granularity, new TreeMap<>());
+        }
+    }
+
+    // --- Maintenance, called through Indexes ---
+
+    void complaintAdded(Complaint complaint) {
+        if (complaint.getComplaintDate() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (rowByComplaint.get(complaint.getComplaintId()) >= 0) {
+                return; // Already counted (seen by the load and by a hook)
+            }
+            int row;
+            if (!freeRows.isEmpty()) {
+                row = freeRows.removeLast();
+            } else {
+                if (rowCount == rowDays.length) {
+                    int capacity = rowCount * 2;
+                    rowDays = Arrays.copyOf(rowDays, capacity);
+                    rowCrimeTypes = Arrays.copyOf(rowCrimeTypes, capacity);
+                    rowStatuses = Arrays.copyOf(rowStatuses, capacity);
+                }
+                row = rowCount++;
+            }
+            rowDays[row] = (int) complaint.getComplaintDate().toLocalDate().toEpochDay();
+            rowCrimeTypes[row] = code(crimeTypeCodes, crimeTypeNames, complaint.getCrimeType());
+            rowStatuses[row] = code(statusCodes, statusNames, complaint.getStatus());
+            rowByComplaint.put(complaint.getComplaintId(), row);
+            count(row, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void statusChanged(int complaintId, String status) {
+        lock.writeLock().lock();
+        try {
+            int row = rowByComplaint.get(complaintId);
+            if (row < 0) {
+                return;
+            }
+            int newStatus = code(statusCodes, statusNames, status);
+            if (rowStatuses[row] != newStatus) {
+                count(row, -1);
+                rowStatuses[row] = newStatus;
+                count(row, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void complaintDeleted(int complaintId) {
+        lock.writeLock().lock();
+        try {
+            int row = rowByComplaint.remove(complaintId);
+            if (row < 0) {
+                return;
+            }
+            count(row, -1);
+            freeRows.add(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds delta to the complaint's cell in every granularity. Requires the write lock.
+     */
+    private void count(int row, int delta) {
+        int crimeType = rowCrimeTypes[row];
+        int status = rowStatuses[row];
+        for (Granularity granularity : Granularity.values()) {
+            TreeMap<Integer, int[][]> periods = cells.get(granularity);
+            int period = period(granularity, rowDays[row]);
+            int[][] periodCells = periods.get(period);
+            if (periodCells == null) {
+                periodCells = new int[crimeTypeNames.size()][];
+                periods.put(period, periodCells);
+            } else if (periodCells.length <= crimeType) {
+                periodCells = Arrays.copyOf(periodCells, crimeTypeNames.size());
+                periods.put(period, periodCells);
+            }
+            int[] statusCells = periodCells[crimeType];
+            if (statusCells == null || statusCells.length <= status) {
+                statusCells = statusCells == null ? new int[statusNames.size()] : Arrays.copyOf(statusCells, statusNames.size());
+                periodCells[crimeType] = statusCells;
+            }
+            statusCells[status] += delta;
+        }
+    }
+
+    private static int code(Map<String, Integer> codes, List<String> names, String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = names.size();
+            codes.put(value, code);
+            names.add(value);
+        }
+        return code;
+    }
+
+    // --- Queries ---
+
+    /**
+     * Counts the complaints of each period from the one containing from to the one containing to.
+     * @param crimeType Only this crime type, or null for all.
+     * @param status Only this status, or null for all.
+     * @throws IllegalArgumentException if the range is reversed or spans more than MAX_PERIODS periods.
+     */
+    public Trend query(Granularity granularity, LocalDate from, LocalDate to, Breakdown breakdown,
+                       String crimeType, String status) {
+        int first = period(granularity, (int) from.toEpochDay());
+        int last = period(granularity, (int) to.toEpochDay());
+        if (last < first) {
+            throw new IllegalArgumentException("The range ends before it starts");
+        }
+        if (last - first >= MAX_PERIODS) {
+            throw new IllegalArgumentException("The range spans more than " + MAX_PERIODS + " "
+                    + granularity.getLabel().toLowerCase() + "s; choose a coarser granularity");
+        }
+
+        lock.readLock().lock();
+        try {
+            // -1 matches every code; a value never seen matches none
+            int crimeTypeFilter = crimeType == null ? -1 : crimeTypeCodes.getOrDefault(crimeType, Integer.MAX_VALUE);
+            int statusFilter = status == null ? -1 : statusCodes.getOrDefault(status, Integer.MAX_VALUE);
+
+            // Groups in name order, mapped from their codes
+            List<String> names = breakdown == Breakdown.CRIME_TYPE ? crimeTypeNames
+                    : breakdown == Breakdown.STATUS ? statusNames : List.of("Total");
+            TreeMap<String, Integer> sortedGroups = new TreeMap<>();
+            for (int code = 0; code < names.size(); code++) {
+                sortedGroups.put(names.get(code), code);
+            }
+            int[] columnOfCode = new int[names.size()];
+            List<String> groups = new ArrayList<>(sortedGroups.keySet());
+            int column = 0;
+            for (int code : sortedGroups.values()) {
+                columnOfCode[code] = column++;
+            }
+
+            List<String> periods = new ArrayList<>(last - first + 1);
+            for (int period = first; period <= last; period++) {
+                periods.add(label(granularity, period));
+            }
+            long[][] counts = new long[last - first + 1][groups.size()];
+            int cellsRead = 0;
+            for (Map.Entry<Integer, int[][]> entry : cells.get(granularity).subMap(first, true, last, true).entrySet()) {
+                long[] periodCounts = counts[entry.getKey() - first];
+                int[][] periodCells = entry.getValue();
+                for (int ct = 0; ct < periodCells.length; ct++) {
+                    if (periodCells[ct] == null || (crimeTypeFilter >= 0 && ct != crimeTypeFilter)) {
+                        continue;
+                    }
+                    int[] statusCells = periodCells[ct];
+                    for (int st = 0; st < statusCells.length; st++) {
+                        if (statusCells[st] == 0 || (statusFilter >= 0 && st != statusFilter)) {
+                            continue;
+                        }
+                        int group = breakdown == Breakdown.CRIME_TYPE ? columnOfCode[ct]
+                                : breakdown == Breakdown.STATUS ? columnOfCode[st] : 0;
+                        periodCounts[group] += statusCells[st];
+                        cellsRead++;
+                    }
+                }
+            }
+            return new Trend(granularity, periods, groups, counts, cellsRead);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of complaints counted.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowByComplaint.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The crime types seen so far, in name order.
+     */
+    public List<String> getCrimeTypes() {
+        lock.readLock().lock();
+        try {
+            List<String> names = new ArrayList<>(crimeTypeNames);
+            names.sort(null);
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Periods ---
+
+    /**
+     * @return The period index of an epoch day: the day itself, the ISO week (Monday-based)
+     *         or year * 12 + month - 1.
+     */
+    static int period(Granularity granularity, int epochDay) {
+        switch (granularity) {
+            case DAY:
+                return epochDay;
+            case WEEK:
+                return Math.floorDiv(epochDay + 3, 7); // Day 0 (1970-01-01) is a Thursday
+            case MONTH:
+                LocalDate date = LocalDate.ofEpochDay(epochDay);
+                return date.getYear() * 12 + date.getMonthValue() - 1;
+            default:
+                throw new IllegalArgumentException("Unknown granularity " + granularity);
+        }
+    }
+
+    static String label(Granularity granularity, int period) {
+        switch (granularity) {
+            case DAY:
+                return LocalDate.ofEpochDay(period).toString();
+            case WEEK:
+                LocalDate monday = LocalDate.ofEpochDay(period * 7L - 3);
+                return String.format("%d-W%02d", monday.get(IsoFields.WEEK_BASED_YEAR), monday.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH:
+                return String.format("%04d-%02d", Math.floorDiv(period, 12), Math.floorMod(period, 12) + 1);
+            default:
+                throw new IllegalArgumentException("Unknown granularity " + granularity);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.ccrms.index;
+
+import com.ccrms.dao.DataAccessException;
+import com.ccrms.dao.Repositories;
+import com.ccrms.events.ChangeEvent;
+import com.ccrms.events.ChangeEventBus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point to the in-memory indexes.
+ *
+ * The indexes are loaded from the database on first use (or in the background via
+ * {@link #warmUpAsync()}) and then follow the committed changes published on the
+ * {@link ChangeEventBus}. Changes that arrive while a load is in progress are queued and
+ * applied once it finishes, and changes made before any load are simply picked up by the
+ * load itself. A load that fails on a database error leaves the indexes empty and unloaded,
+ * so the next use loads them again.
+ */
+public final class Indexes {
+
+    private enum State { NOT_LOADED, LOADING, LOADED }
+
+    // Replaced by empty ones when a load fails (under the class lock)
+    private static SearchIndex search = new SearchIndex();
+    private static IndicatorIndex indicators = new IndicatorIndex();
+    private static IpRangeIndex ipRanges = new IpRangeIndex();
+    private static NameIndex names = new NameIndex();
+    private static CaseGraph caseGraph = new CaseGraph();
+    private static ComplaintRollup rollup = new ComplaintRollup();
+    private static AssignmentScheduler assignments = new AssignmentScheduler();
+
+    // Rows fetched per round trip while loading; tables are streamed in ID order
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    private static State state = State.NOT_LOADED;
+    private static final List<Runnable> pendingChanges = new ArrayList<>();
+
+    static {
+        // Inline, so a search right after a write already finds what was written
+        ChangeEventBus.subscribeInline(Indexes::changesCommitted);
+    }
+
+    private Indexes() {
+    }
+
+    /**
+     * @return The keyword search index, loading it first if necessary.
+     */
+    public static SearchIndex search() {
+        ensureLoaded();
+        return search;
+    }
+
+    /**
+     * @return The evidence indicator index, loading it first if necessary.
+     */
+    public static IndicatorIndex indicators() {
+        ensureLoaded();
+        return indicators;
+    }
+
+    /**
+     * @return The IP address range index, loading it first if necessary.
+     */
+    public static IpRangeIndex ipRanges() {
+        ensureLoaded();
+        return ipRanges;
+    }
+
+    /**
+     * @return The criminal name index, loading it first if necessary.
+     */
+    public static NameIndex names() {
+        ensureLoaded();
+        return names;
+    }
+
+    /**
+     * @return The case-linkage graph, loading it first if necessary.
+     */
+    public static CaseGraph caseGraph() {
+        ensureLoaded();
+        return caseGraph;
+    }
+
+    /**
+     * @return The per-period complaint counts, loading them first if necessary.
+     */
+    public static ComplaintRollup rollup() {
+        ensureLoaded();
+        return rollup;
+    }
+
+    /**
+     * @return The officer workloads, loading them first if necessary.
+     */
+    public static AssignmentScheduler assignments() {
+        ensureLoaded();
+        return assignments;
+    }
+
+    /**
+     * @return The officer workloads, or null while the indexes are not loaded; never waits
+     *         for a load, for callers that have a fallback.
+     */
+    public static AssignmentScheduler assignmentsIfLoaded() {
+        synchronized (Indexes.class) {
+            return state == State.LOADED ? assignments : null;
+        }
+    }
+
+    /**
+     * Starts loading the indexes on a background thread.
+     */
+    public static void warmUpAsync() {
+        Thread loader = new Thread(Indexes::ensureLoaded, "ccrms-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Loads the indexes if that has not happened yet, or waits for a load in progress.
+     */
+    public static void ensureLoaded() {
+        synchronized (Indexes.class) {
+            while (state == State.LOADING) {
+                try {
+                    Indexes.class.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (state == State.LOADED) {
+                return;
+            }
+            state = State.LOADING;
+        }
+
+        boolean loaded = false;
+        try {
+            assignments.officersLoaded(Repositories.users().getUsersByRole("Officer"));
+            // One pass over each table feeds every index built from it
+            Repositories.complaints().streamComplaintsById(LOAD_PAGE_SIZE).forEach(complaint -> {
+                search.complaintAdded(complaint);
+                caseGraph.complaintAdded(complaint);
+                rollup.complaintAdded(complaint);
+                assignments.complaintAdded(complaint);
+            });
+            Repositories.criminals().streamCriminalsById(LOAD_PAGE_SIZE).forEach(criminal -> {
+                search.criminalAdded(criminal);
+                names.criminalAdded(criminal);
+            });
+            Repositories.evidence().streamEvidenceById(LOAD_PAGE_SIZE).forEach(evidence -> {
+                indicators.evidenceAdded(evidence);
+                ipRanges.evidenceAdded(evidence);
+                caseGraph.evidenceAdded(evidence);
+            });
+            search.trim();
+            loaded = true;
+        } catch (DataAccessException e) {
+            System.err.println("Error loading the indexes (will retry on next use): " + e.getMessage());
+        } finally {
+            synchronized (Indexes.class) {
+                if (loaded) {
+                    for (Runnable change : pendingChanges) {
+                        change.run();
+                    }
+                    state = State.LOADED;
+                } else {
+                    // Start over next time rather than serve partial indexes; the queued changes are in the database
+                    reset();
+                    state = State.NOT_LOADED;
+                }
+                pendingChanges.clear();
+                Indexes.class.notifyAll();
+            }
+        }
+    }
+
+    private static void reset() {
+        search = new SearchIndex();
+        indicators = new IndicatorIndex();
+        ipRanges = new IpRangeIndex();
+        names = new NameIndex();
+        caseGraph = new CaseGraph();
+        rollup = new ComplaintRollup();
+        assignments = new AssignmentScheduler();
+    }
+
+    // --- Changes, delivered by the event bus on the committing thread ---
+
+    private static void changesCommitted(List<ChangeEvent> events) {
+        apply(() -> {
+            for (ChangeEvent event : events) {
+                switch (event.getEntity()) {
+                    case COMPLAINT:
+                        complaintChanged(event);
+                        break;
+                    case CRIMINAL:
+                        criminalChanged(event);
+                        break;
+                    case EVIDENCE:
+                        evidenceChanged(event);
+                        break;
+                }
+            }
+        });
+    }
+
+    private static void complaintChanged(ChangeEvent event) {
+        switch (event.getAction()) {
+            case ADDED:
+                search.complaintAdded(event.getComplaint());
+                caseGraph.complaintAdded(event.getComplaint());
+                rollup.complaintAdded(event.getComplaint());
+                assignments.complaintAdded(event.getComplaint());
+                break;
+            case STATUS_CHANGED:
+                rollup.statusChanged(event.getId(), event.getStatus());
+                assignments.statusChanged(event.getId(), event.getStatus());
+                break;
+            case REASSIGNED:
+                assignments.reassigned(event.getId(), event.getOfficerId());
+                break;
+            case DELETED:
+                search.complaintDeleted(event.getId());
+                caseGraph.complaintDeleted(event.getId());
+                rollup.complaintDeleted(event.getId());
+                assignments.complaintDeleted(event.getId());
+                break;
+        }
+    }
+
+    private static void criminalChanged(ChangeEvent event) {
+        if (event.getAction() == ChangeEvent.Action.ADDED) {
+            search.criminalAdded(event.getCriminal());
+            names.criminalAdded(event.getCriminal());
+        } else if (event.getAction() == ChangeEvent.Action.DELETED) {
+            search.criminalDeleted(event.getId());
+            names.criminalDeleted(event.getId());
+            caseGraph.criminalDeleted(event.getId());
+        }
+    }
+
+    private static void evidenceChanged(ChangeEvent event) {
+        if (event.getAction() == ChangeEvent.Action.ADDED) {
+            indicators.evidenceAdded(event.getEvidence());
+            ipRanges.evidenceAdded(event.getEvidence());
+            caseGraph.evidenceAdded(event.getEvidence());
+        } else if (event.getAction() == ChangeEvent.Action.DELETED) {
+            indicators.evidenceDeleted(event.getEvidence());
+            ipRanges.evidenceDeleted(event.getEvidence());
+            caseGraph.evidenceDeleted(event.getEvidence());
+        }
+    }
+
+    private static void apply(Runnable change) {
+        synchronized (Indexes.class) {
+            if (state == State.NOT_LOADED) {
+                return; // The eventual load reads the committed change from the database
+            }
+            if (state == State.LOADING) {
+                pendingChanges.add(change);
+                return;
+            }
+        }
+        change.run();
+    }
+}
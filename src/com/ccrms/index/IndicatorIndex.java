@@ -0,0 +1,138 @@
+package com.ccrms.index;
+
+import com.ccrms.models.Evidence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process mirror of the evidence_indicators table: maps each normalized indicator
+ * (see {@link IndicatorNormalizer}) to the complaints whose evidence contains it.
+ *
+ * Indicators are keyed by their 64-bit hash in a primitive {@link LongIntHashMap} whose
+ * values point at per-indicator lists of complaint IDs, so a lookup is O(1) plus the size
+ * of the answer. Each evidence row contributes one entry, so removing one of two evidence
+ * rows with the same indicator on a complaint keeps the complaint listed. The indexed
+ * evidence IDs are tracked, so a row seen both by the load and by a change hook counts once.
+ */
+public class IndicatorIndex {
+
+    private final LongIntHashMap slotByHash = new LongIntHashMap(1024);
+    private final List<IntList> complaintsBySlot = new ArrayList<>();
+    private final IntList freeSlots = new IntList();
+    private final LongIntHashMap slotByEvidence = new LongIntHashMap(1024);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void evidenceAdded(Evidence evidence) {
+        String key = IndicatorNormalizer.normalize(evidence.getEvidenceType(), evidence.getDetails());
+        if (key == null) {
+            return;
+        }
+        long hash = IndicatorNormalizer.hash(key);
+        lock.writeLock().lock();
+        try {
+            if (slotByEvidence.get(evidence.getEvidenceId()) >= 0) {
+                return; // Already indexed (seen by the load and by a hook)
+            }
+            int slot = slotByHash.get(hash);
+            if (slot < 0) {
+                if (freeSlots.isEmpty()) {
+                    slot = complaintsBySlot.size();
+                    complaintsBySlot.add(new IntList(2));
+                } else {
+                    slot = freeSlots.removeLast();
+                    complaintsBySlot.set(slot, new IntList(2));
+                }
+                slotByHash.put(hash, slot);
+            }
+            complaintsBySlot.get(slot).add(evidence.getComplaintId());
+            slotByEvidence.put(evidence.getEvidenceId(), slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void evidenceDeleted(Evidence evidence) {
+        String key = IndicatorNormalizer.normalize(evidence.getEvidenceType(), evidence.getDetails());
+        if (key == null) {
+            return;
+        }
+        long hash = IndicatorNormalizer.hash(key);
+        lock.writeLock().lock();
+        try {
+            int slot = slotByEvidence.remove(evidence.getEvidenceId());
+            if (slot < 0) {
+                return; // Never indexed, or already removed
+            }
+            IntList complaints = complaintsBySlot.get(slot);
+            complaints.removeValueUnordered(evidence.getComplaintId());
+            if (complaints.isEmpty()) {
+                slotByHash.remove(hash);
+                complaintsBySlot.set(slot, null);
+                freeSlots.add(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds all complaints with evidence matching the given value.
+     * @param evidenceType The evidence type (used to classify values that are not self-describing).
+     * @param details The raw value, e.g. 'Scammer@FakeBank.com '.
+     * @return The distinct complaint IDs in ascending order.
+     */
+    public int[] findComplaints(String evidenceType, String details) {
+        String key = IndicatorNormalizer.normalize(evidenceType, details);
+        return key == null ? new int[0] : findComplaintsByKey(key);
+    }
+
+    /**
+     * Finds all complaints containing the given normalized indicator key.
+     * @param key An indicator key from {@link IndicatorNormalizer#normalize}.
+     * @return The distinct complaint IDs in ascending order.
+     */
+    public int[] findComplaintsByKey(String key) {
+        long hash = IndicatorNormalizer.hash(key);
+        lock.readLock().lock();
+        try {
+            int slot = slotByHash.get(hash);
+            if (slot < 0) {
+                return new int[0];
+            }
+            return distinctSorted(complaintsBySlot.get(slot).toArray());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of distinct indicators.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotByHash.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int[] distinctSorted(int[] ids) {
+        Arrays.sort(ids);
+        int unique = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[unique++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, unique);
+    }
+
+    @Override
+    public String toString() {
+        return "Indicator Index [indicators=" + size() + "]";
+    }
+}
@@ -0,0 +1,101 @@
+package com.ccrms.index;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+/**
+ * Turns free-text evidence details into canonical indicators, so that the same email,
+ * IP address, phone number or URL written in different ways maps to the same key.
+ *
+ * An indicator key is "category:value", e.g. "email:scammer@fakebank.com".
+ * The category comes from the value itself where it is unambiguous (emails, IP literals,
+ * http(s) URLs)
+ * and otherwise from the evidence type.
+ */
+public final class IndicatorNormalizer {
+
+    private IndicatorNormalizer() {
+    }
+
+    /**
+     * @param evidenceType The evidence type, e.g. 'Email ID' or 'IP Address'.
+     * @param details The raw evidence details.
+     * @return The canonical indicator key, or null if the details are empty.
+     */
+    public static String normalize(String evidenceType, String details) {
+        if (details == null || details.trim().isEmpty()) {
+            return null;
+        }
+        String value = details.trim();
+        String type = evidenceType == null ? "" : evidenceType.toLowerCase(Locale.ROOT);
+
+        String lower = value.toLowerCase(Locale.ROOT);
+        if (lower.startsWith("mailto:")) {
+            lower = lower.substring(7);
+        }
+        if (lower.indexOf('@') > 0 && lower.indexOf(' ') < 0) {
+            return "email:" + lower;
+        }
+        byte[] address = IpAddress.parse(value);
+        if (address != null) {
+            return "ip:" + IpAddress.format(address);
+        }
+        if (type.contains("phone") || type.contains("mobile")) {
+            return "phone:" + normalizePhone(value);
+        }
+        if (lower.startsWith("http://") || lower.startsWith("https://") || type.contains("url") || type.contains("website") || type.contains("domain") || type.contains("link")) {
+            return "url:" + normalizeUrl(lower);
+        }
+        String category = type.isEmpty() ? "other" : type.replaceAll("[^a-z0-9]+", "_");
+        return category + ":" + lower.replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Keeps digits only, so '+1 (555) 010-2000' and '15550102000' match.
+     */
+    private static String normalizePhone(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isDigit(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String normalizeUrl(String lower) {
+        String url = lower;
+        int scheme = url.indexOf("://");
+        if (scheme >= 0) {
+            url = url.substring(scheme + 3);
+        }
+        if (url.startsWith("www.")) {
+            url = url.substring(4);
+        }
+        while (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        return url;
+    }
+
+    /**
+     * A stable 64-bit hash of an indicator key (the first 8 bytes of its SHA-256 digest).
+     * @param key An indicator key from {@link #normalize}.
+     * @return The hash.
+     */
+    public static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xFF);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
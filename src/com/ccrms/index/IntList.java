@@ -0,0 +1,118 @@
+package com.ccrms.index;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive ints, used by the in-memory indexes to avoid boxing.
+ */
+public class IntList {
+
+    private int[] values;
+    private int size = 0;
+
+    public IntList() {
+        this(8);
+    }
+
+    public IntList(int initialCapacity) {
+        values = new int[Math.max(1, initialCapacity)];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        values[size++] = value;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return values[index];
+    }
+
+    public void set(int index, int value) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Removes and returns the last element.
+     */
+    public int removeLast() {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException("List is empty");
+        }
+        return values[--size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Removes the first occurrence of a value by moving the last element into its slot.
+     * @return true if the value was found.
+     */
+    public boolean removeValueUnordered(int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                values[i] = values[--size];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean contains(int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sorts the elements in place.
+     */
+    public void sort() {
+        Arrays.sort(values, 0, size);
+    }
+
+    /**
+     * Searches a sorted list.
+     * @param value The value to find.
+     * @return The index of the value, or a negative number if absent (as {@link Arrays#binarySearch}).
+     */
+    public int binarySearch(int value) {
+        return Arrays.binarySearch(values, 0, size, value);
+    }
+
+    /**
+     * Releases unused capacity.
+     */
+    public void trim() {
+        if (values.length != size) {
+            values = Arrays.copyOf(values, Math.max(1, size));
+        }
+    }
+
+    /**
+     * @return A copy of the elements as an array.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,380 @@
+package com.ccrms.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory inverted index over one free-text field, keyed by record ID.
+ *
+ * Each term maps to a compressed {@link PostingList}. Queries are ranked with BM25 and
+ * support AND (all terms must match) and OR (any term may match) semantics. AND queries
+ * are driven by the rarest term and probe the other lists with exponential search, so
+ * they cost roughly O(rarest list * log(other lists)).
+ *
+ * Removed records are tombstoned and skipped at query time; their postings are purged
+ * when the record is re-indexed or once tombstones make up a sizeable fraction of the index.
+ * The index is safe for concurrent readers and writers.
+ */
+public class InvertedIndex {
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PURGE_RATIO = 0.2;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final BitSet present = new BitSet();
+    private final BitSet stale = new BitSet();
+    private int[] docLengths = new int[1024];
+    private int docCount = 0;
+    private int staleCount = 0;
+    private long totalLength = 0;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * A ranked search result.
+     */
+    public static final class Hit implements Comparable<Hit> {
+        private final int id;
+        private final double score;
+
+        Hit(int id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public int compareTo(Hit other) {
+            int byScore = Double.compare(score, other.score);
+            return byScore != 0 ? byScore : Integer.compare(other.id, id);
+        }
+    }
+
+    /**
+     * Adds a record to the index, replacing any previous version of it.
+     * @param id The record ID (must be positive).
+     * @param text The text to index; may be null.
+     */
+    public void index(int id, String text) {
+        List<String> terms = Tokenizer.tokenize(text);
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (present.get(id)) {
+                removeLocked(id);
+            }
+            if (stale.get(id)) {
+                purgeLocked(id);
+            }
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), k -> new PostingList()).add(id, entry.getValue());
+            }
+            if (id >= docLengths.length) {
+                docLengths = Arrays.copyOf(docLengths, Math.max(id + 1, docLengths.length * 2));
+            }
+            docLengths[id] = terms.size();
+            present.set(id);
+            docCount++;
+            totalLength += terms.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a record from the index.
+     * @param id The record ID.
+     * @return true if the record was indexed.
+     */
+    public boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (!present.get(id)) {
+                return false;
+            }
+            removeLocked(id);
+            if (staleCount > PURGE_RATIO * Math.max(docCount, 1000)) {
+                purgeAllLocked();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int id) {
+        present.clear(id);
+        stale.set(id);
+        staleCount++;
+        docCount--;
+        totalLength -= docLengths[id];
+        docLengths[id] = 0;
+    }
+
+    /**
+     * Removes one tombstoned ID from every posting list (used before re-indexing it).
+     */
+    private void purgeLocked(int id) {
+        Iterator<PostingList> iterator = postings.values().iterator();
+        while (iterator.hasNext()) {
+            PostingList list = iterator.next();
+            if (list.remove(id) && list.size() == 0) {
+                iterator.remove();
+            }
+        }
+        stale.clear(id);
+        staleCount--;
+    }
+
+    /**
+     * Rewrites every posting list without tombstoned IDs.
+     */
+    private void purgeAllLocked() {
+        Iterator<Map.Entry<String, PostingList>> iterator = postings.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, PostingList> entry = iterator.next();
+            PostingList list = entry.getValue();
+            int[] docs = new int[list.size()];
+            int[] freqs = new int[list.size()];
+            list.decode(docs, freqs);
+            PostingList rebuilt = new PostingList();
+            for (int i = 0; i < docs.length; i++) {
+                if (!stale.get(docs[i])) {
+                    rebuilt.add(docs[i], freqs[i]);
+                }
+            }
+            if (rebuilt.size() == 0) {
+                iterator.remove();
+            } else {
+                rebuilt.trim();
+                entry.setValue(rebuilt);
+            }
+        }
+        stale.clear();
+        staleCount = 0;
+    }
+
+    /**
+     * Searches the index.
+     * @param query Free text; it is tokenized the same way as indexed text.
+     * @param matchAll true for AND semantics, false for OR.
+     * @param limit The maximum number of hits to return.
+     * @return Hits ordered by descending relevance.
+     */
+    public List<Hit> search(String query, boolean matchAll, int limit) {
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<int[]> docLists = new ArrayList<>();
+            List<int[]> freqLists = new ArrayList<>();
+            List<Double> idfs = new ArrayList<>();
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    if (matchAll) {
+                        return Collections.emptyList();
+                    }
+                    continue;
+                }
+                int[] docs = new int[list.size()];
+                int[] freqs = new int[list.size()];
+                list.decode(docs, freqs);
+                docLists.add(docs);
+                freqLists.add(freqs);
+                idfs.add(Math.log(1 + (docCount - list.size() + 0.5) / (list.size() + 0.5)));
+            }
+            if (docLists.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            double averageLength = docCount == 0 ? 1.0 : Math.max(1.0, (double) totalLength / docCount);
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1);
+            if (matchAll) {
+                searchAll(docLists, freqLists, idfs, averageLength, top, limit);
+            } else {
+                searchAny(docLists, freqLists, idfs, averageLength, top, limit);
+            }
+
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(Collections.reverseOrder());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void searchAll(List<int[]> docLists, List<int[]> freqLists, List<Double> idfs,
+                           double averageLength, PriorityQueue<Hit> top, int limit) {
+        // Drive the intersection from the shortest list
+        Integer[] order = new Integer[docLists.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(docLists.get(a).length, docLists.get(b).length));
+        int[] positions = new int[order.length];
+        int[] driver = docLists.get(order[0]);
+        int[] driverFreqs = freqLists.get(order[0]);
+
+        outer:
+        for (int i = 0; i < driver.length; i++) {
+            int id = driver[i];
+            if (!present.get(id)) {
+                continue;
+            }
+            double score = termScore(driverFreqs[i], idfs.get(order[0]), id, averageLength);
+            for (int j = 1; j < order.length; j++) {
+                int[] docs = docLists.get(order[j]);
+                int position = gallop(docs, positions[j], id);
+                positions[j] = position;
+                if (position >= docs.length) {
+                    break outer; // No further matches possible
+                }
+                if (docs[position] != id) {
+                    continue outer;
+                }
+                score += termScore(freqLists.get(order[j])[position], idfs.get(order[j]), id, averageLength);
+            }
+            offer(top, new Hit(id, score), limit);
+        }
+    }
+
+    private void searchAny(List<int[]> docLists, List<int[]> freqLists, List<Double> idfs,
+                           double averageLength, PriorityQueue<Hit> top, int limit) {
+        int[] positions = new int[docLists.size()];
+        while (true) {
+            int min = Integer.MAX_VALUE;
+            for (int j = 0; j < positions.length; j++) {
+                int[] docs = docLists.get(j);
+                if (positions[j] < docs.length && docs[positions[j]] < min) {
+                    min = docs[positions[j]];
+                }
+            }
+            if (min == Integer.MAX_VALUE) {
+                return;
+            }
+            double score = 0;
+            for (int j = 0; j < positions.length; j++) {
+                int[] docs = docLists.get(j);
+                if (positions[j] < docs.length && docs[positions[j]] == min) {
+                    score += termScore(freqLists.get(j)[positions[j]], idfs.get(j), min, averageLength);
+                    positions[j]++;
+                }
+            }
+            if (present.get(min)) {
+                offer(top, new Hit(min, score), limit);
+            }
+        }
+    }
+
+    /**
+     * Exponential search: the first position at or after 'from' whose value is >= target.
+     */
+    private static int gallop(int[] docs, int from, int target) {
+        int bound = 1;
+        while (from + bound < docs.length && docs[from + bound] < target) {
+            bound <<= 1;
+        }
+        int low = from + (bound >> 1);
+        int high = Math.min(from + bound, docs.length - 1);
+        if (low >= docs.length) {
+            return docs.length;
+        }
+        int position = Arrays.binarySearch(docs, low, high + 1, target);
+        position = position >= 0 ? position : -position - 1;
+        return position;
+    }
+
+    private double termScore(int frequency, double idf, int id, double averageLength) {
+        int length = id < docLengths.length ? docLengths[id] : 0;
+        return idf * (frequency * (K1 + 1)) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private static void offer(PriorityQueue<Hit> top, Hit hit, int limit) {
+        if (top.size() < limit) {
+            top.add(hit);
+        } else if (hit.compareTo(top.peek()) > 0) {
+            top.poll();
+            top.add(hit);
+        }
+    }
+
+    /**
+     * @return The number of indexed records.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of distinct terms.
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The approximate number of bytes used by the encoded posting lists.
+     */
+    public long postingBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (PostingList list : postings.values()) {
+                bytes += list.encodedBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Releases spare capacity after a bulk load.
+     */
+    public void trim() {
+        lock.writeLock().lock();
+        try {
+            for (PostingList list : postings.values()) {
+                list.trim();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.ccrms.index;
+
+import java.util.Arrays;
+
+/**
+ * Parses and formats IPv4 and IPv6 address literals without any DNS lookups.
+ * Addresses are represented as 4- or 16-byte big-endian arrays.
+ *
+ * For storage and range queries both families share one 128-bit key space: an IPv4
+ * address is stored as its IPv4-mapped IPv6 form (::ffff:a.b.c.d), so unsigned byte
+ * order equals numeric order and IPv4 ranges stay contiguous.
+ */
+public final class IpAddress {
+
+    private IpAddress() {
+    }
+
+    /**
+     * Parses an address literal.
+     * Accepts dotted-quad IPv4, and IPv6 including '::' compression, an embedded IPv4 tail
+     * and an optional zone suffix ('%eth0', ignored). Surrounding brackets are stripped.
+     * @param text The literal.
+     * @return The address bytes (4 for IPv4, 16 for IPv6), or null if the text is not an address.
+     */
+    public static byte[] parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        String s = text.trim();
+        if (s.startsWith("[") && s.endsWith("]")) {
+            s = s.substring(1, s.length() - 1);
+        }
+        int zone = s.indexOf('%');
+        if (zone >= 0) {
+            s = s.substring(0, zone);
+        }
+        return s.indexOf(':') >= 0 ? parseIpv6(s) : parseIpv4(s);
+    }
+
+    private static byte[] parseIpv4(String s) {
+        byte[] bytes = new byte[4];
+        int part = 0;
+        int value = -1;
+        for (int i = 0; i <= s.length(); i++) {
+            char c = i < s.length() ? s.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return null;
+                }
+            } else if (c == '.') {
+                if (value < 0 || part == 4) {
+                    return null;
+                }
+                bytes[part++] = (byte) value;
+                value = -1;
+            } else {
+                return null;
+            }
+        }
+        return part == 4 ? bytes : null;
+    }
+
+    private static byte[] parseIpv6(String s) {
+        byte[] bytes = new byte[16];
+        int doubleColon = s.indexOf("::");
+        if (doubleColon >= 0 && s.indexOf("::", doubleColon + 1) >= 0) {
+            return null;
+        }
+        String head = doubleColon >= 0 ? s.substring(0, doubleColon) : s;
+        String tail = doubleColon >= 0 ? s.substring(doubleColon + 2) : "";
+
+        int[] headGroups = parseGroups(head);
+        int[] tailGroups = parseGroups(tail);
+        if (headGroups == null || tailGroups == null) {
+            return null;
+        }
+        int total = headGroups.length + tailGroups.length;
+        if (doubleColon < 0 ? total != 8 : total > 7) {
+            return null;
+        }
+        for (int i = 0; i < headGroups.length; i++) {
+            bytes[2 * i] = (byte) (headGroups[i] >> 8);
+            bytes[2 * i + 1] = (byte) headGroups[i];
+        }
+        int offset = 8 - tailGroups.length;
+        for (int i = 0; i < tailGroups.length; i++) {
+            bytes[2 * (offset + i)] = (byte) (tailGroups[i] >> 8);
+            bytes[2 * (offset + i) + 1] = (byte) tailGroups[i];
+        }
+        return bytes;
+    }
+
+    /**
+     * Parses colon-separated 16-bit groups; a trailing dotted IPv4 counts as two groups.
+     */
+    private static int[] parseGroups(String s) {
+        if (s.isEmpty()) {
+            return new int[0];
+        }
+        String[] parts = s.split(":", -1);
+        int ipv4Groups = parts[parts.length - 1].indexOf('.') >= 0 ? 1 : 0;
+        int[] groups = new int[parts.length + ipv4Groups];
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            if (i == parts.length - 1 && ipv4Groups == 1) {
+                byte[] v4 = parseIpv4(part);
+                if (v4 == null) {
+                    return null;
+                }
+                groups[i] = ((v4[0] & 0xFF) << 8) | (v4[1] & 0xFF);
+                groups[i + 1] = ((v4[2] & 0xFF) << 8) | (v4[3] & 0xFF);
+                break;
+            }
+            if (part.isEmpty() || part.length() > 4) {
+                return null;
+            }
+            int value = 0;
+            for (int j = 0; j < part.length(); j++) {
+                int digit = Character.digit(part.charAt(j), 16);
+                if (digit < 0) {
+                    return null;
+                }
+                value = (value << 4) | digit;
+            }
+            groups[i] = value;
+        }
+        return groups;
+    }
+
+    /**
+     * Formats an address in canonical form: dotted-quad for IPv4, RFC 5952 for IPv6
+     * (lower case, no leading zeros, longest run of zero groups compressed to '::').
+     * @param bytes A 4- or 16-byte address.
+     * @return The canonical text.
+     */
+    public static String format(byte[] bytes) {
+        if (bytes.length == 4) {
+            return (bytes[0] & 0xFF) + "." + (bytes[1] & 0xFF) + "." + (bytes[2] & 0xFF) + "." + (bytes[3] & 0xFF);
+        }
+        int[] groups = new int[8];
+        for (int i = 0; i < 8; i++) {
+            groups[i] = ((bytes[2 * i] & 0xFF) << 8) | (bytes[2 * i + 1] & 0xFF);
+        }
+        // Find the longest run of zero groups (length >= 2)
+        int bestStart = -1;
+        int bestLength = 1;
+        for (int i = 0; i < 8; ) {
+            if (groups[i] != 0) {
+                i++;
+                continue;
+            }
+            int j = i;
+            while (j < 8 && groups[j] == 0) {
+                j++;
+            }
+            if (j - i > bestLength) {
+                bestStart = i;
+                bestLength = j - i;
+            }
+            i = j;
+        }
+        StringBuilder sb = new StringBuilder(39);
+        for (int i = 0; i < 8; i++) {
+            if (i == bestStart) {
+                sb.append("::");
+                i += bestLength - 1;
+                continue;
+            }
+            if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ':') {
+                sb.append(':');
+            }
+            sb.append(Integer.toHexString(groups[i]));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses an address literal into its 16-byte storage key.
+     * @param text The literal.
+     * @return The key (IPv4 addresses are IPv4-mapped), or null if the text is not an address.
+     */
+    public static byte[] parseKey(String text) {
+        byte[] bytes = parse(text);
+        return bytes == null ? null : toKey(bytes);
+    }
+
+    /**
+     * @param bytes A 4- or 16-byte address.
+     * @return The 16-byte storage key; IPv4 addresses are IPv4-mapped.
+     */
+    public static byte[] toKey(byte[] bytes) {
+        if (bytes.length == 16) {
+            return bytes;
+        }
+        byte[] key = new byte[16];
+        key[10] = (byte) 0xFF;
+        key[11] = (byte) 0xFF;
+        System.arraycopy(bytes, 0, key, 12, 4);
+        return key;
+    }
+
+    /**
+     * @param key A 16-byte storage key.
+     * @return true if the key is an IPv4-mapped address.
+     */
+    public static boolean isIpv4Key(byte[] key) {
+        for (int i = 0; i < 10; i++) {
+            if (key[i] != 0) {
+                return false;
+            }
+        }
+        return key[10] == (byte) 0xFF && key[11] == (byte) 0xFF;
+    }
+
+    /**
+     * Formats a 16-byte storage key, as dotted-quad for IPv4-mapped keys.
+     * @param key A 16-byte storage key.
+     * @return The canonical text.
+     */
+    public static String formatKey(byte[] key) {
+        return format(isIpv4Key(key) ? Arrays.copyOfRange(key, 12, 16) : key);
+    }
+}
@@ -0,0 +1,162 @@
+package com.ccrms.index;
+
+import java.util.Arrays;
+
+/**
+ * An inclusive range of IP addresses in the shared 128-bit key space of {@link IpAddress}.
+ * Created from CIDR notation ('203.0.113.0/24', '2001:db8::/32'), an explicit range
+ * ('10.0.0.1-10.0.0.99') or a single address.
+ */
+public final class IpRange {
+
+    private final byte[] start;
+    private final byte[] end;
+    private final String label;
+
+    // The keys as unsigned (high, low) 64-bit halves, for comparisons in IpRangeIndex
+    final long startHi;
+    final long startLo;
+    final long endHi;
+    final long endLo;
+
+    private IpRange(byte[] start, byte[] end, String label) {
+        this.start = start;
+        this.end = end;
+        this.label = label;
+        this.startHi = high(start);
+        this.startLo = low(start);
+        this.endHi = high(end);
+        this.endLo = low(end);
+    }
+
+    /**
+     * Parses a CIDR block, an explicit 'first-last' range or a single address.
+     * @param text The range text.
+     * @return The range, or null if the text is not valid.
+     */
+    public static IpRange parse(String text) {
+        return parse(text, null);
+    }
+
+    /**
+     * Parses a range and attaches a label to it (e.g. the threat-feed entry it came from).
+     * @param text The range text.
+     * @param label A free-text label, or null.
+     * @return The range, or null if the text is not valid.
+     */
+    public static IpRange parse(String text, String label) {
+        if (text == null) {
+            return null;
+        }
+        String s = text.trim();
+        int slash = s.indexOf('/');
+        if (slash >= 0) {
+            byte[] address = IpAddress.parse(s.substring(0, slash));
+            int prefix;
+            try {
+                prefix = Integer.parseInt(s.substring(slash + 1).trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (address == null || prefix < 0 || prefix > address.length * 8) {
+                return null;
+            }
+            if (address.length == 4) {
+                prefix += 96; // Offset of the IPv4-mapped block
+            }
+            byte[] first = IpAddress.toKey(address).clone();
+            byte[] last = first.clone();
+            for (int bit = prefix; bit < 128; bit++) {
+                first[bit >> 3] &= (byte) ~(0x80 >>> (bit & 7));
+                last[bit >> 3] |= (byte) (0x80 >>> (bit & 7));
+            }
+            return new IpRange(first, last, label);
+        }
+
+        int dash = s.indexOf('-');
+        if (dash >= 0) {
+            byte[] first = IpAddress.parse(s.substring(0, dash));
+            byte[] last = IpAddress.parse(s.substring(dash + 1));
+            if (first == null || last == null || first.length != last.length) {
+                return null;
+            }
+            IpRange range = new IpRange(IpAddress.toKey(first), IpAddress.toKey(last), label);
+            return compare(range.startHi, range.startLo, range.endHi, range.endLo) <= 0 ? range : null;
+        }
+
+        byte[] address = IpAddress.parseKey(s);
+        return address == null ? null : new IpRange(address, address, label);
+    }
+
+    /**
+     * @return The first address of the range as a 16-byte key.
+     */
+    public byte[] getStart() {
+        return start.clone();
+    }
+
+    /**
+     * @return The last address of the range as a 16-byte key.
+     */
+    public byte[] getEnd() {
+        return end.clone();
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return true if the key lies within this range.
+     */
+    public boolean contains(byte[] key) {
+        long hi = high(key);
+        long lo = low(key);
+        return compare(hi, lo, startHi, startLo) >= 0 && compare(hi, lo, endHi, endLo) <= 0;
+    }
+
+    static long high(byte[] key) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (key[i] & 0xFF);
+        }
+        return value;
+    }
+
+    static long low(byte[] key) {
+        long value = 0;
+        for (int i = 8; i < 16; i++) {
+            value = (value << 8) | (key[i] & 0xFF);
+        }
+        return value;
+    }
+
+    static byte[] toKey(long hi, long lo) {
+        byte[] key = new byte[16];
+        for (int i = 7; i >= 0; i--) {
+            key[i] = (byte) hi;
+            hi >>>= 8;
+        }
+        for (int i = 15; i >= 8; i--) {
+            key[i] = (byte) lo;
+            lo >>>= 8;
+        }
+        return key;
+    }
+
+    /**
+     * Compares two 128-bit keys as unsigned numbers.
+     */
+    static int compare(long hiA, long loA, long hiB, long loB) {
+        int result = Long.compareUnsigned(hiA, hiB);
+        return result != 0 ? result : Long.compareUnsigned(loA, loB);
+    }
+
+    @Override
+    public String toString() {
+        String text = Arrays.equals(start, end)
+                ? IpAddress.formatKey(start)
+                : IpAddress.formatKey(start) + "-" + IpAddress.formatKey(end);
+        return label == null ? text : text + " (" + label + ")";
+    }
+}
@@ -0,0 +1,358 @@
+package com.ccrms.index;
+
+import com.ccrms.models.Evidence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index of all evidence whose details are an IP address, for CIDR and range queries.
+ *
+ * Addresses are kept as 128-bit keys (see {@link IpAddress}) split into two parallel
+ * long arrays sorted in unsigned order, with parallel int arrays for the evidence and
+ * complaint IDs. A range query is a binary search for its first address followed by a
+ * sequential scan, so it costs O(log n + matches).
+ *
+ * Changes are buffered and folded into the sorted arrays by the next query, with a single
+ * O(n + k log k) merge, so bulk imports and the initial load never shift the arrays per row.
+ * The indexed evidence IDs are tracked, so a row seen both by the load and by a change hook
+ * is buffered once.
+ */
+public class IpRangeIndex {
+
+    /**
+     * One indexed evidence row.
+     */
+    public static final class Match {
+        private final int evidenceId;
+        private final int complaintId;
+        private final byte[] address;
+
+        Match(int evidenceId, int complaintId, byte[] address) {
+            this.evidenceId = evidenceId;
+            this.complaintId = complaintId;
+            this.address = address;
+        }
+
+        public int getEvidenceId() {
+            return evidenceId;
+        }
+
+        public int getComplaintId() {
+            return complaintId;
+        }
+
+        /**
+         * @return The address in canonical text form.
+         */
+        public String getAddress() {
+            return IpAddress.formatKey(address);
+        }
+    }
+
+    /**
+     * An evidence row that falls inside one range of a threat feed.
+     */
+    public static final class FeedMatch {
+        private final IpRange range;
+        private final Match match;
+
+        FeedMatch(IpRange range, Match match) {
+            this.range = range;
+            this.match = match;
+        }
+
+        public IpRange getRange() {
+            return range;
+        }
+
+        public Match getMatch() {
+            return match;
+        }
+    }
+
+    // Sorted entries
+    private long[] keyHi = new long[0];
+    private long[] keyLo = new long[0];
+    private int[] evidenceIds = new int[0];
+    private int[] complaintIds = new int[0];
+    private int size;
+
+    // Buffered changes, applied by merge()
+    private long[] addedHi = new long[16];
+    private long[] addedLo = new long[16];
+    private int[] addedEvidenceIds = new int[16];
+    private int[] addedComplaintIds = new int[16];
+    private int addedCount;
+    private final IntList removedEvidenceIds = new IntList();
+
+    // Evidence IDs that are indexed or buffered for addition
+    private final LongIntHashMap indexedEvidence = new LongIntHashMap(1024);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void evidenceAdded(Evidence evidence) {
+        byte[] key = IpAddress.parseKey(evidence.getDetails());
+        if (key == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (indexedEvidence.get(evidence.getEvidenceId()) >= 0) {
+                return; // Already indexed (seen by the load and by a hook)
+            }
+            indexedEvidence.put(evidence.getEvidenceId(), 1);
+            if (addedCount == addedHi.length) {
+                int capacity = addedCount * 2;
+                addedHi = Arrays.copyOf(addedHi, capacity);
+                addedLo = Arrays.copyOf(addedLo, capacity);
+                addedEvidenceIds = Arrays.copyOf(addedEvidenceIds, capacity);
+                addedComplaintIds = Arrays.copyOf(addedComplaintIds, capacity);
+            }
+            addedHi[addedCount] = IpRange.high(key);
+            addedLo[addedCount] = IpRange.low(key);
+            addedEvidenceIds[addedCount] = evidence.getEvidenceId();
+            addedComplaintIds[addedCount] = evidence.getComplaintId();
+            addedCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void evidenceDeleted(Evidence evidence) {
+        lock.writeLock().lock();
+        try {
+            if (indexedEvidence.remove(evidence.getEvidenceId()) < 0) {
+                return; // Not an address, or already removed
+            }
+            removedEvidenceIds.add(evidence.getEvidenceId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds all evidence with an address inside the range.
+     * @param range The range, e.g. from {@link IpRange#parse(String)}.
+     * @return The matches in address order.
+     */
+    public List<Match> find(IpRange range) {
+        readLock();
+        try {
+            List<Match> matches = new ArrayList<>();
+            for (int i = lowerBound(range.startHi, range.startLo, 0); i < size && inside(i, range); i++) {
+                matches.add(matchAt(i));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the evidence with an address inside the range, without materializing matches.
+     * @param range The range.
+     * @return The number of matching evidence rows.
+     */
+    public int count(IpRange range) {
+        readLock();
+        try {
+            int first = lowerBound(range.startHi, range.startLo, 0);
+            int last = first;
+            while (last < size && inside(last, range)) {
+                last++;
+            }
+            return last - first;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Matches a whole threat feed against the index in one pass.
+     * The ranges are sorted by start address, so the search position only moves forward;
+     * each step gallops from the previous position instead of searching the whole array.
+     * Overlapping ranges each report their own matches.
+     * @param ranges The feed entries, in any order.
+     * @return The matches, ordered by range start and then address.
+     */
+    public List<FeedMatch> matchAll(List<IpRange> ranges) {
+        List<IpRange> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparing((IpRange r) -> r.startHi, Long::compareUnsigned)
+                .thenComparing(r -> r.startLo, Long::compareUnsigned));
+
+        readLock();
+        try {
+            List<FeedMatch> matches = new ArrayList<>();
+            int position = 0;
+            for (IpRange range : sorted) {
+                position = lowerBound(range.startHi, range.startLo, position);
+                if (position == size) {
+                    break; // Every remaining range starts after the last address
+                }
+                for (int i = position; i < size && inside(i, range); i++) {
+                    matches.add(new FeedMatch(range, matchAt(i)));
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of indexed addresses.
+     */
+    public int size() {
+        readLock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes the read lock, first folding in buffered changes if there are any.
+     */
+    private void readLock() {
+        lock.readLock().lock();
+        if (addedCount == 0 && removedEvidenceIds.isEmpty()) {
+            return;
+        }
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            merge();
+            lock.readLock().lock(); // Downgrade
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sorts the buffered additions and merges them with the sorted arrays,
+     * dropping removed evidence on the way. Caller holds the write lock.
+     */
+    private void merge() {
+        if (addedCount == 0 && removedEvidenceIds.isEmpty()) {
+            return;
+        }
+        int[] order = new int[addedCount];
+        for (int i = 0; i < addedCount; i++) {
+            order[i] = i;
+        }
+        sortByKey(order, new int[addedCount], 0, addedCount);
+        removedEvidenceIds.sort();
+
+        int capacity = size + addedCount;
+        long[] newHi = new long[capacity];
+        long[] newLo = new long[capacity];
+        int[] newEvidenceIds = new int[capacity];
+        int[] newComplaintIds = new int[capacity];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < addedCount) {
+            boolean takeExisting = j == addedCount || (i < size
+                    && IpRange.compare(keyHi[i], keyLo[i], addedHi[order[j]], addedLo[order[j]]) <= 0);
+            long hi;
+            long lo;
+            int evidenceId;
+            int complaintId;
+            if (takeExisting) {
+                hi = keyHi[i];
+                lo = keyLo[i];
+                evidenceId = evidenceIds[i];
+                complaintId = complaintIds[i];
+                i++;
+            } else {
+                int k = order[j++];
+                hi = addedHi[k];
+                lo = addedLo[k];
+                evidenceId = addedEvidenceIds[k];
+                complaintId = addedComplaintIds[k];
+            }
+            if (removedEvidenceIds.binarySearch(evidenceId) >= 0) {
+                continue;
+            }
+            newHi[count] = hi;
+            newLo[count] = lo;
+            newEvidenceIds[count] = evidenceId;
+            newComplaintIds[count] = complaintId;
+            count++;
+        }
+        keyHi = newHi;
+        keyLo = newLo;
+        evidenceIds = newEvidenceIds;
+        complaintIds = newComplaintIds;
+        size = count;
+        addedCount = 0;
+        removedEvidenceIds.clear();
+    }
+
+    /**
+     * Stable merge sort of buffer positions by their key.
+     */
+    private void sortByKey(int[] order, int[] scratch, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sortByKey(order, scratch, from, mid);
+        sortByKey(order, scratch, mid, to);
+        int a = from;
+        int b = mid;
+        int out = from;
+        while (a < mid || b < to) {
+            if (b == to || (a < mid && IpRange.compare(addedHi[order[a]], addedLo[order[a]],
+                    addedHi[order[b]], addedLo[order[b]]) <= 0)) {
+                scratch[out++] = order[a++];
+            } else {
+                scratch[out++] = order[b++];
+            }
+        }
+        System.arraycopy(scratch, from, order, from, to - from);
+    }
+
+    /**
+     * Finds the first position at or after 'from' whose key is >= (hi, lo),
+     * galloping forward before the binary search.
+     */
+    private int lowerBound(long hi, long lo, int from) {
+        int low = from;
+        int step = 1;
+        int high = from;
+        while (high < size && IpRange.compare(keyHi[high], keyLo[high], hi, lo) < 0) {
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        high = Math.min(high, size);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (IpRange.compare(keyHi[mid], keyLo[mid], hi, lo) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean inside(int position, IpRange range) {
+        return IpRange.compare(keyHi[position], keyLo[position], range.endHi, range.endLo) <= 0;
+    }
+
+    private Match matchAt(int position) {
+        return new Match(evidenceIds[position], complaintIds[position], IpRange.toKey(keyHi[position], keyLo[position]));
+    }
+
+    @Override
+    public String toString() {
+        return "IP Range Index [addresses=" + size() + "]";
+    }
+}
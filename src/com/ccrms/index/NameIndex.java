@@ -0,0 +1,406 @@
+package com.ccrms.index;
+
+import com.ccrms.models.Criminal;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram index over criminal names for fuzzy matching and duplicate detection.
+ *
+ * Names are normalized first: accents and punctuation are stripped, 'Last, First' is turned
+ * around and the words are sorted, so "John Doe", "DOE, John" and "doe john" are identical.
+ * Each word then contributes its padded trigrams, and two names are compared by the Dice
+ * coefficient of their trigram sets: 2 * |A and B| / (|A| + |B|).
+ *
+ * Lookups use prefix filtering: two sets can only reach a similarity threshold if they share
+ * one of the rarest few trigrams of either set, so only the postings of those rare trigrams are
+ * read. This keeps lookups far below a scan, and lets {@link #findDuplicateClusters(double)}
+ * group the whole table without comparing every pair.
+ */
+public class NameIndex {
+
+    /** Dice similarity above which two names are reported as likely duplicates. */
+    public static final double DEFAULT_MIN_SIMILARITY = 0.6;
+
+    /**
+     * A name similar to the query.
+     */
+    public static final class NameMatch {
+        private final int criminalId;
+        private final String name;
+        private final double similarity;
+
+        NameMatch(int criminalId, String name, double similarity) {
+            this.criminalId = criminalId;
+            this.name = name;
+            this.similarity = similarity;
+        }
+
+        public int getCriminalId() {
+            return criminalId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The Dice coefficient of the trigram sets, between 0 and 1.
+         */
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    // Criminals are stored at dense positions so postings and scratch arrays stay primitive
+    private final LongIntHashMap positionById = new LongIntHashMap(1024);
+    private int[] criminalIds = new int[64];
+    private long[][] trigramsAt = new long[64][];
+    private int[] sizesAt = new int[64]; // trigramsAt[i].length, kept flat for the filters
+    private String[] namesAt = new String[64];
+    private int positions;
+    private final IntList freePositions = new IntList();
+
+    // Trigram -> slot -> positions of the criminals containing it
+    private final LongIntHashMap slotByTrigram = new LongIntHashMap(4096);
+    private final List<IntList> postingsBySlot = new ArrayList<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void criminalAdded(Criminal criminal) {
+        long[] trigrams = trigrams(criminal.getName());
+        lock.writeLock().lock();
+        try {
+            if (positionById.get(criminal.getCriminalId()) >= 0) {
+                return;
+            }
+            int position;
+            if (freePositions.isEmpty()) {
+                if (positions == criminalIds.length) {
+                    int capacity = positions * 2;
+                    criminalIds = Arrays.copyOf(criminalIds, capacity);
+                    trigramsAt = Arrays.copyOf(trigramsAt, capacity);
+                    sizesAt = Arrays.copyOf(sizesAt, capacity);
+                    namesAt = Arrays.copyOf(namesAt, capacity);
+                }
+                position = positions++;
+            } else {
+                position = freePositions.removeLast();
+            }
+            positionById.put(criminal.getCriminalId(), position);
+            criminalIds[position] = criminal.getCriminalId();
+            trigramsAt[position] = trigrams;
+            sizesAt[position] = trigrams.length;
+            namesAt[position] = criminal.getName();
+            for (long trigram : trigrams) {
+                int slot = slotByTrigram.get(trigram);
+                if (slot < 0) {
+                    slot = postingsBySlot.size();
+                    postingsBySlot.add(new IntList(4));
+                    slotByTrigram.put(trigram, slot);
+                }
+                postingsBySlot.get(slot).add(position);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void criminalDeleted(int criminalId) {
+        lock.writeLock().lock();
+        try {
+            int position = positionById.remove(criminalId);
+            if (position < 0) {
+                return;
+            }
+            // Emptied postings keep their slot; the trigram alphabet of names is small
+            for (long trigram : trigramsAt[position]) {
+                postingsBySlot.get(slotByTrigram.get(trigram)).removeValueUnordered(position);
+            }
+            trigramsAt[position] = null;
+            namesAt[position] = null;
+            freePositions.add(position);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds indexed names similar to the given name, most similar first.
+     * @param name The name to look up, in any of the supported forms.
+     * @param minSimilarity The minimum Dice similarity, between 0 (exclusive) and 1.
+     * @param limit The maximum number of matches.
+     * @return The matches, best first.
+     */
+    public List<NameMatch> findSimilar(String name, double minSimilarity, int limit) {
+        long[] query = trigrams(name);
+        List<NameMatch> matches = new ArrayList<>();
+        if (query.length == 0) {
+            return matches;
+        }
+        lock.readLock().lock();
+        try {
+            boolean[] seen = new boolean[positions];
+            int[] slots = sortedSlots(query);
+            int prefix = prefixLength(query.length, slots.length, minSimilarity);
+            for (int k = 0; k < prefix; k++) {
+                IntList posting = postingsBySlot.get(slots[k]);
+                for (int i = 0; i < posting.size(); i++) {
+                    int position = posting.get(i);
+                    if (seen[position]) {
+                        continue;
+                    }
+                    seen[position] = true;
+                    // First met at the k-th rarest trigram: the k rarer ones are not shared
+                    if (canReach(slots.length - k, query.length, sizesAt[position], minSimilarity)) {
+                        double similarity = dice(query, trigramsAt[position]);
+                        if (similarity >= minSimilarity) {
+                            matches.add(new NameMatch(criminalIds[position], namesAt[position], similarity));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort((a, b) -> a.similarity != b.similarity
+                ? Double.compare(b.similarity, a.similarity)
+                : Integer.compare(a.criminalId, b.criminalId));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Groups all indexed names into clusters of likely duplicates.
+     *
+     * Each name only needs to be indexed by its prefix (its rarest trigrams) for any similar
+     * pair to share an entry, so the names are fed one by one into a temporary prefix-only
+     * index: each probes it for similar earlier names, then adds its own prefix. Similar pairs
+     * are merged with a union-find.
+     * @param minSimilarity The minimum Dice similarity for two names to be linked.
+     * @return The clusters with at least two criminals, largest first; IDs ascending within a cluster.
+     */
+    public List<int[]> findDuplicateClusters(double minSimilarity) {
+        lock.readLock().lock();
+        try {
+            // Per slot: (position, rank of the trigram within that name) pairs
+            IntList[] prefixPostings = new IntList[postingsBySlot.size()];
+            int[] lastSeenBy = new int[positions];
+            Arrays.fill(lastSeenBy, -1);
+            UnionFind sets = new UnionFind(positions);
+
+            for (int position = 0; position < positions; position++) {
+                long[] trigrams = trigramsAt[position];
+                if (trigrams == null || trigrams.length == 0) {
+                    continue;
+                }
+                int[] slots = sortedSlots(trigrams);
+                int prefix = prefixLength(trigrams.length, slots.length, minSimilarity);
+                for (int k = 0; k < prefix; k++) {
+                    IntList posting = prefixPostings[slots[k]];
+                    if (posting == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < posting.size(); i += 2) {
+                        int other = posting.get(i);
+                        if (lastSeenBy[other] == position) {
+                            continue;
+                        }
+                        lastSeenBy[other] = position;
+                        // The first shared trigram in rarity order bounds the overlap from both sides
+                        int bound = Math.min(trigrams.length - k, sizesAt[other] - posting.get(i + 1));
+                        if (canReach(bound, trigrams.length, sizesAt[other], minSimilarity)
+                                && dice(trigrams, trigramsAt[other]) >= minSimilarity) {
+                            sets.union(position, other);
+                        }
+                    }
+                }
+                for (int k = 0; k < prefix; k++) {
+                    if (prefixPostings[slots[k]] == null) {
+                        prefixPostings[slots[k]] = new IntList(4);
+                    }
+                    prefixPostings[slots[k]].add(position);
+                    prefixPostings[slots[k]].add(k);
+                }
+            }
+
+            Map<Integer, IntList> byRoot = new HashMap<>();
+            for (int position = 0; position < positions; position++) {
+                if (trigramsAt[position] != null && sets.sizeOf(position) > 1) {
+                    byRoot.computeIfAbsent(sets.find(position), k -> new IntList()).add(criminalIds[position]);
+                }
+            }
+            List<int[]> clusters = new ArrayList<>(byRoot.size());
+            for (IntList members : byRoot.values()) {
+                members.sort();
+                clusters.add(members.toArray());
+            }
+            clusters.sort((a, b) -> a.length != b.length ? Integer.compare(b.length, a.length) : Integer.compare(a[0], b[0]));
+            return clusters;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param criminalId A criminal ID.
+     * @return The indexed name, or null if the criminal is not indexed.
+     */
+    public String getName(int criminalId) {
+        lock.readLock().lock();
+        try {
+            int position = positionById.get(criminalId);
+            return position < 0 ? null : namesAt[position];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of indexed names.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return positionById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the posting slots of the indexed trigrams of a set, rarest first (fewest
+     * postings; ties by slot), which is the global order prefix filtering relies on.
+     * Caller holds the read lock.
+     */
+    private int[] sortedSlots(long[] trigrams) {
+        long[] bySize = new long[trigrams.length];
+        int known = 0;
+        for (long trigram : trigrams) {
+            int slot = slotByTrigram.get(trigram);
+            if (slot >= 0) {
+                // Posting size in the high bits, slot in the low bits: sorting orders by rarity
+                bySize[known++] = ((long) postingsBySlot.get(slot).size() << 32) | slot;
+            }
+        }
+        Arrays.sort(bySize, 0, known);
+        int[] slots = new int[known];
+        for (int i = 0; i < known; i++) {
+            slots[i] = (int) bySize[i];
+        }
+        return slots;
+    }
+
+    /**
+     * How many of the rarest trigrams must be probed: any set reaching minSimilarity shares
+     * at least one of the first |A| - ceil(j * |A|) + 1, where j = d / (2 - d) is the Jaccard
+     * equivalent of Dice d. Unindexed trigrams are the rarest of all but have nothing to read.
+     * @param total The number of trigrams in the set.
+     * @param known How many of them are indexed.
+     */
+    private static int prefixLength(int total, int known, double minSimilarity) {
+        double jaccard = minSimilarity / (2 - minSimilarity);
+        int prefix = total - (int) Math.ceil(jaccard * total - 1e-9) + 1;
+        return Math.max(0, Math.min(known, prefix - (total - known)));
+    }
+
+    /**
+     * @return true if an overlap of at most maxOverlap can still give sets of sizes a and b
+     *         a Dice similarity of minSimilarity.
+     */
+    private static boolean canReach(int maxOverlap, int a, int b, double minSimilarity) {
+        return 2.0 * maxOverlap >= minSimilarity * (a + b) - 1e-9;
+    }
+
+    /**
+     * Dice coefficient of two sorted trigram sets.
+     */
+    private static double dice(long[] a, long[] b) {
+        if (a.length + b.length == 0) {
+            return 0;
+        }
+        int common = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return 2.0 * common / (a.length + b.length);
+    }
+
+    /**
+     * Normalizes a name: strips accents and punctuation, turns 'Last, First' around and
+     * sorts the words.
+     * @param name A name in any form.
+     * @return The normalized words separated by single spaces (empty if there are none).
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String text = Normalizer.normalize(name, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        int comma = text.indexOf(',');
+        if (comma >= 0) {
+            text = text.substring(comma + 1) + " " + text.substring(0, comma);
+        }
+        String[] words = text.replaceAll("[^\\p{L}\\p{N}]+", " ").trim().split(" ");
+        if (words.length == 1 && words[0].isEmpty()) {
+            return "";
+        }
+        Arrays.sort(words);
+        return String.join(" ", words);
+    }
+
+    /**
+     * @return The distinct padded trigrams of the normalized name, sorted, each packed
+     *         as three 16-bit chars.
+     */
+    static long[] trigrams(String name) {
+        String normalized = normalize(name);
+        if (normalized.isEmpty()) {
+            return new long[0];
+        }
+        long[] buffer = new long[normalized.length() * 3 + 6];
+        int count = 0;
+        for (String word : normalized.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                buffer[count++] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+            }
+        }
+        Arrays.sort(buffer, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || buffer[i] != buffer[i - 1]) {
+                buffer[distinct++] = buffer[i];
+            }
+        }
+        return Arrays.copyOf(buffer, distinct);
+    }
+
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return "Name Index [names=" + positionById.size() + ", trigrams=" + slotByTrigram.size() + "]";
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
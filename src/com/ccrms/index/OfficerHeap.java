@@ -0,0 +1,123 @@
+package com.ccrms.index;
+
+import java.util.Arrays;
+
+/**
+ * An indexed binary min-heap of officer slots (dense ints) by a double key.
+ *
+ * The heap knows where each slot sits, so changing the key of any slot is a sift up or
+ * down, O(log n), instead of a remove and re-insert. Equal keys are ordered by slot, which
+ * keeps choices deterministic.
+ */
+final class OfficerHeap {
+
+    private int[] heap;      // Heap position -> slot
+    private int[] position;  // Slot -> heap position, -1 if absent
+    private double[] keys;   // Slot -> key
+    private int size = 0;
+
+    OfficerHeap(int slots) {
+        heap = new int[Math.max(slots, 4)];
+        position = new int[heap.length];
+        keys = new double[heap.length];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Inserts the slot or changes its key.
+     */
+    void set(int slot, double key) {
+        if (slot >= position.length) {
+            int capacity = Math.max(slot + 1, position.length * 2);
+            heap = Arrays.copyOf(heap, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            int old = position.length;
+            position = Arrays.copyOf(position, capacity);
+            Arrays.fill(position, old, capacity, -1);
+        }
+        int index = position[slot];
+        double old = keys[slot];
+        keys[slot] = key;
+        if (index < 0) {
+            heap[size] = slot;
+            position[slot] = size;
+            siftUp(size++);
+        } else if (key < old) {
+            siftUp(index);
+        } else {
+            siftDown(index);
+        }
+    }
+
+    void remove(int slot) {
+        int index = slot < position.length ? position[slot] : -1;
+        if (index < 0) {
+            return;
+        }
+        position[slot] = -1;
+        size--;
+        if (index < size) {
+            heap[index] = heap[size];
+            position[heap[index]] = index;
+            siftDown(index);
+            siftUp(index);
+        }
+    }
+
+    /**
+     * @return The slot with the smallest key, or -1 if the heap is empty.
+     */
+    int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    boolean contains(int slot) {
+        return slot < position.length && position[slot] >= 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!less(heap[index], heap[parent])) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && less(heap[left], heap[smallest])) {
+                smallest = left;
+            }
+            if (right < size && less(heap[right], heap[smallest])) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private boolean less(int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    private void swap(int i, int j) {
+        int slot = heap[i];
+        heap[i] = heap[j];
+        heap[j] = slot;
+        position[heap[i]] = i;
+        position[heap[j]] = j;
+    }
+}
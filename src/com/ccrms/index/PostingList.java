@@ -0,0 +1,141 @@
+package com.ccrms.index;
+
+import java.util.Arrays;
+
+/**
+ * A compressed posting list: the sorted document IDs containing a term, each with the
+ * term's frequency in that document.
+ *
+ * Entries are stored as variable-length (LEB128) encoded pairs of (ID delta, frequency)
+ * in a single byte array, which typically needs 2-3 bytes per entry instead of the 16+
+ * of a boxed representation. Appending an ID larger than the last one is O(1) amortized;
+ * other modifications re-encode the list.
+ */
+class PostingList {
+
+    private byte[] data = new byte[8];
+    private int length = 0;
+    private int count = 0;
+    private int lastDocId = 0;
+
+    /**
+     * Adds a document, keeping the IDs sorted.
+     */
+    void add(int docId, int frequency) {
+        if (count == 0 || docId > lastDocId) {
+            writeVarInt(docId - lastDocId);
+            writeVarInt(frequency);
+            lastDocId = docId;
+            count++;
+            return;
+        }
+        // Out-of-order insert: decode, insert, re-encode (rare; IDs are auto-increment)
+        int[] docs = new int[count + 1];
+        int[] freqs = new int[count + 1];
+        decode(docs, freqs);
+        int position = Arrays.binarySearch(docs, 0, count, docId);
+        if (position >= 0) {
+            freqs[position] = frequency;
+            rebuild(docs, freqs, count);
+            return;
+        }
+        int insertAt = -position - 1;
+        System.arraycopy(docs, insertAt, docs, insertAt + 1, count - insertAt);
+        System.arraycopy(freqs, insertAt, freqs, insertAt + 1, count - insertAt);
+        docs[insertAt] = docId;
+        freqs[insertAt] = frequency;
+        rebuild(docs, freqs, count + 1);
+    }
+
+    /**
+     * Removes a document if present.
+     * @return true if the document was in the list.
+     */
+    boolean remove(int docId) {
+        if (count == 0 || docId > lastDocId) {
+            return false;
+        }
+        int[] docs = new int[count];
+        int[] freqs = new int[count];
+        decode(docs, freqs);
+        int position = Arrays.binarySearch(docs, 0, count, docId);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(docs, position + 1, docs, position, count - position - 1);
+        System.arraycopy(freqs, position + 1, freqs, position, count - position - 1);
+        rebuild(docs, freqs, count - 1);
+        return true;
+    }
+
+    /**
+     * Decodes the list into the given arrays, which must hold at least size() entries.
+     */
+    void decode(int[] docs, int[] freqs) {
+        int position = 0;
+        int docId = 0;
+        for (int i = 0; i < count; i++) {
+            int shift = 0;
+            int delta = 0;
+            byte b;
+            do {
+                b = data[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            docId += delta;
+            docs[i] = docId;
+
+            shift = 0;
+            int frequency = 0;
+            do {
+                b = data[position++];
+                frequency |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            if (freqs != null) {
+                freqs[i] = frequency;
+            }
+        }
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * @return The number of bytes used by the encoded entries.
+     */
+    int encodedBytes() {
+        return length;
+    }
+
+    void trim() {
+        if (data.length != length) {
+            data = Arrays.copyOf(data, Math.max(1, length));
+        }
+    }
+
+    private void rebuild(int[] docs, int[] freqs, int newCount) {
+        length = 0;
+        count = 0;
+        lastDocId = 0;
+        for (int i = 0; i < newCount; i++) {
+            writeVarInt(docs[i] - lastDocId);
+            writeVarInt(freqs[i]);
+            lastDocId = docs[i];
+            count++;
+        }
+    }
+
+    private void writeVarInt(int value) {
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(length + 5, data.length + (data.length >> 1)));
+        }
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+}
@@ -0,0 +1,70 @@
+package com.ccrms.index;
+
+import com.ccrms.models.Complaint;
+import com.ccrms.models.Criminal;
+
+import java.util.List;
+
+/**
+ * Keyword search over complaint descriptions and criminal crime histories.
+ * Backed by two {@link InvertedIndex} instances, loaded from the database once by
+ * {@link Indexes} and then kept current by the DAO write paths.
+ */
+public class SearchIndex {
+
+    private final InvertedIndex complaintText = new InvertedIndex();
+    private final InvertedIndex criminalText = new InvertedIndex();
+
+    /**
+     * Releases spare capacity once the initial load is done.
+     */
+    void trim() {
+        complaintText.trim();
+        criminalText.trim();
+    }
+
+    void complaintAdded(Complaint complaint) {
+        complaintText.index(complaint.getComplaintId(), complaint.getDescription());
+    }
+
+    void complaintDeleted(int complaintId) {
+        complaintText.remove(complaintId);
+    }
+
+    void criminalAdded(Criminal criminal) {
+        criminalText.index(criminal.getCriminalId(), criminal.getCrimeHistory());
+    }
+
+    void criminalDeleted(int criminalId) {
+        criminalText.remove(criminalId);
+    }
+
+    /**
+     * Ranked keyword search over complaint descriptions.
+     * @param query The keywords.
+     * @param matchAll true if all keywords must occur, false if any may.
+     * @param limit The maximum number of hits.
+     * @return Hits whose IDs are complaint IDs, best first.
+     */
+    public List<InvertedIndex.Hit> searchComplaints(String query, boolean matchAll, int limit) {
+        return complaintText.search(query, matchAll, limit);
+    }
+
+    /**
+     * Ranked keyword search over criminal crime histories.
+     * @param query The keywords.
+     * @param matchAll true if all keywords must occur, false if any may.
+     * @param limit The maximum number of hits.
+     * @return Hits whose IDs are criminal IDs, best first.
+     */
+    public List<InvertedIndex.Hit> searchCriminals(String query, boolean matchAll, int limit) {
+        return criminalText.search(query, matchAll, limit);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Search Index [complaints=%d (%d terms, %d KB postings), criminals=%d (%d terms, %d KB postings)]",
+                complaintText.size(), complaintText.termCount(), complaintText.postingBytes() / 1024,
+                criminalText.size(), criminalText.termCount(), criminalText.postingBytes() / 1024);
+    }
+}
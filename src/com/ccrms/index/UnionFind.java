@@ -0,0 +1,95 @@
+package com.ccrms.index;
+
+import java.util.Arrays;
+
+/**
+ * Disjoint-set forest over the integers 0..n-1, with union by size and path halving,
+ * so any sequence of operations runs in near-constant amortized time per operation.
+ * Elements can be appended, which makes it suitable for incrementally growing graphs.
+ */
+class UnionFind {
+
+    private int[] parent;
+    private int[] size;
+    private int elements;
+    private int count;
+
+    UnionFind(int n) {
+        parent = new int[Math.max(n, 16)];
+        size = new int[parent.length];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        elements = n;
+        count = n;
+    }
+
+    /**
+     * Adds a new singleton element.
+     * @return The new element, which is the previous number of elements.
+     */
+    int add() {
+        if (elements == parent.length) {
+            parent = Arrays.copyOf(parent, elements * 2);
+            size = Arrays.copyOf(size, elements * 2);
+        }
+        parent[elements] = elements;
+        size[elements] = 1;
+        count++;
+        return elements++;
+    }
+
+    /**
+     * @return The representative of the set containing x.
+     */
+    int find(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]]; // Path halving
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Merges the sets containing a and b.
+     * @return true if they were in different sets.
+     */
+    boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        count--;
+        return true;
+    }
+
+    /**
+     * @return The number of elements in the set containing x.
+     */
+    int sizeOf(int x) {
+        return size[find(x)];
+    }
+
+    /**
+     * @return The number of elements.
+     */
+    int size() {
+        return elements;
+    }
+
+    /**
+     * @return The number of disjoint sets.
+     */
+    int count() {
+        return count;
+    }
+}
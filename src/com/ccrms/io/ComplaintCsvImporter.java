@@ -0,0 +1,291 @@
+package com.ccrms.io;
+
+import com.ccrms.dao.ComplaintRepository;
+import com.ccrms.dao.EvidenceRepository;
+import com.ccrms.models.Complaint;
+import com.ccrms.models.Evidence;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams complaints (and optionally one piece of evidence per row) from a CSV file
+ * into the database using the batch DAO APIs.
+ *
+ * The first line must be a header. Recognised columns (any order):
+ *   victim_name, crime_type, complaint_date (yyyy-MM-dd), description, status,
+ *   assigned_officer_id, criminal_id, evidence_type, evidence_details
+ * A row with empty complaint columns but evidence columns set attaches its evidence
+ * to the complaint of the previous row, which allows several evidence records per complaint.
+ *
+ * Only one chunk of rows is held in memory at a time.
+ */
+public class ComplaintCsvImporter {
+
+    /**
+     * Receives progress updates after every committed chunk.
+     */
+    public interface ProgressListener {
+        void onProgress(Result progress);
+    }
+
+    private final ComplaintRepository complaintDAO;
+    private final EvidenceRepository evidenceDAO;
+    private final int chunkSize;
+    private final int defaultOfficerId;
+
+    /**
+     * @param complaintDAO The DAO used for complaint batches.
+     * @param evidenceDAO The DAO used for evidence batches.
+     * @param chunkSize The number of rows per batch and per transaction.
+     * @param defaultOfficerId The officer assigned when a row has no assigned_officer_id.
+     */
+    public ComplaintCsvImporter(ComplaintRepository complaintDAO, EvidenceRepository evidenceDAO, int chunkSize, int defaultOfficerId) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.complaintDAO = complaintDAO;
+        this.evidenceDAO = evidenceDAO;
+        this.chunkSize = chunkSize;
+        this.defaultOfficerId = defaultOfficerId;
+    }
+
+    /**
+     * Imports the given CSV file.
+     * @param file The CSV file to read.
+     * @param listener Receives progress after each chunk; may be null.
+     * @return The final import statistics.
+     * @throws IOException if the file cannot be read or has no header.
+     */
+    public Result importFile(Path file, ProgressListener listener) throws IOException {
+        Result result = new Result(System.nanoTime());
+        List<Complaint> complaints = new ArrayList<>(chunkSize);
+        List<PendingEvidence> evidence = new ArrayList<>(chunkSize);
+
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            List<String> header = reader.readRecord();
+            if (header == null) {
+                throw new IOException("The file is empty; a header row is required.");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("victim_name") || !columns.containsKey("crime_type")) {
+                throw new IOException("The header must contain at least victim_name and crime_type.");
+            }
+
+            Complaint previous = null;
+            boolean rejectedPrevious = false;
+            List<String> record;
+            long line = reader.getLineNumber();
+            while ((record = reader.readRecord()) != null) {
+                result.rows++;
+                boolean evidenceOnly = !hasComplaintData(record, columns);
+                try {
+                    Complaint complaint = parseComplaint(record, columns);
+                    Evidence item = parseEvidence(record, columns);
+                    if (complaint == null) {
+                        if (item == null || previous == null) {
+                            throw new IllegalArgumentException(rejectedPrevious
+                                    ? "evidence row follows a rejected complaint"
+                                    : "row has neither complaint data nor evidence for a previous complaint");
+                        }
+                    } else {
+                        complaints.add(complaint);
+                        previous = complaint;
+                        rejectedPrevious = false;
+                    }
+                    if (item != null) {
+                        evidence.add(new PendingEvidence(previous, item));
+                    }
+                } catch (IllegalArgumentException e) {
+                    if (!evidenceOnly) {
+                        // Evidence rows that follow belong to the rejected complaint, not to the one before it
+                        previous = null;
+                        rejectedPrevious = true;
+                    }
+                    result.rejected++;
+                    System.err.println("Skipping CSV record at line " + line + ": " + e.getMessage());
+                }
+
+                if (complaints.size() >= chunkSize || evidence.size() >= chunkSize) {
+                    flush(complaints, evidence, result);
+                    if (listener != null) {
+                        listener.onProgress(result);
+                    }
+                }
+                line = reader.getLineNumber();
+            }
+        }
+        flush(complaints, evidence, result);
+        result.finishedNanos = System.nanoTime();
+        return result;
+    }
+
+    private void flush(List<Complaint> complaints, List<PendingEvidence> evidence, Result result) {
+        if (!complaints.isEmpty()) {
+            int[] ids = complaintDAO.addComplaints(complaints, chunkSize);
+            result.complaintsImported += ids.length;
+            result.failed += complaints.size() - ids.length;
+            complaints.clear();
+        }
+        if (!evidence.isEmpty()) {
+            // Link each evidence row to the ID generated for its complaint
+            List<Evidence> linked = new ArrayList<>(evidence.size());
+            for (PendingEvidence pending : evidence) {
+                if (pending.complaint.getComplaintId() > 0) {
+                    pending.evidence.setComplaintId(pending.complaint.getComplaintId());
+                    linked.add(pending.evidence);
+                } else {
+                    result.failed++;
+                }
+            }
+            int[] ids = evidenceDAO.addEvidenceBatch(linked, chunkSize);
+            result.evidenceImported += ids.length;
+            result.failed += linked.size() - ids.length;
+            evidence.clear();
+        }
+        result.finishedNanos = System.nanoTime();
+    }
+
+    /**
+     * @return false for an evidence-only row, which adds evidence to the complaint above it.
+     */
+    private static boolean hasComplaintData(List<String> record, Map<String, Integer> columns) {
+        return !field(record, columns, "victim_name").isEmpty() || !field(record, columns, "crime_type").isEmpty();
+    }
+
+    private Complaint parseComplaint(List<String> record, Map<String, Integer> columns) {
+        if (!hasComplaintData(record, columns)) {
+            return null;
+        }
+        String victimName = field(record, columns, "victim_name");
+        String crimeType = field(record, columns, "crime_type");
+        if (victimName.isEmpty() || crimeType.isEmpty()) {
+            throw new IllegalArgumentException("victim_name and crime_type are required");
+        }
+
+        Complaint complaint = new Complaint();
+        complaint.setVictimName(victimName);
+        complaint.setCrimeType(crimeType);
+        complaint.setDescription(field(record, columns, "description"));
+
+        String date = field(record, columns, "complaint_date");
+        complaint.setComplaintDate(date.isEmpty() ? new Date(System.currentTimeMillis()) : Date.valueOf(date));
+
+        String status = field(record, columns, "status");
+        if (status.isEmpty()) {
+            status = "Open";
+        } else if (!status.equals("Open") && !status.equals("Under Investigation") && !status.equals("Closed")) {
+            throw new IllegalArgumentException("invalid status '" + status + "'");
+        }
+        complaint.setStatus(status);
+
+        String officer = field(record, columns, "assigned_officer_id");
+        complaint.setAssignedOfficerId(officer.isEmpty() ? defaultOfficerId : Integer.parseInt(officer));
+
+        String criminal = field(record, columns, "criminal_id");
+        complaint.setCriminalId(criminal.isEmpty() ? null : Integer.valueOf(criminal));
+        return complaint;
+    }
+
+    private Evidence parseEvidence(List<String> record, Map<String, Integer> columns) {
+        String type = field(record, columns, "evidence_type");
+        String details = field(record, columns, "evidence_details");
+        if (type.isEmpty() && details.isEmpty()) {
+            return null;
+        }
+        if (type.isEmpty() || details.isEmpty()) {
+            throw new IllegalArgumentException("evidence_type and evidence_details must both be set");
+        }
+        Evidence evidence = new Evidence();
+        evidence.setEvidenceType(type);
+        evidence.setDetails(details);
+        return evidence;
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return "";
+        }
+        return record.get(index).trim();
+    }
+
+    /**
+     * An evidence row waiting for its complaint's generated ID.
+     */
+    private static final class PendingEvidence {
+        final Complaint complaint;
+        final Evidence evidence;
+
+        PendingEvidence(Complaint complaint, Evidence evidence) {
+            this.complaint = complaint;
+            this.evidence = evidence;
+        }
+    }
+
+    /**
+     * Running and final statistics of an import.
+     */
+    public static class Result {
+        private final long startedNanos;
+        private long finishedNanos;
+        private long rows;
+        private long complaintsImported;
+        private long evidenceImported;
+        private long rejected;
+        private long failed;
+
+        Result(long startedNanos) {
+            this.startedNanos = startedNanos;
+            this.finishedNanos = startedNanos;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getComplaintsImported() {
+            return complaintsImported;
+        }
+
+        public long getEvidenceImported() {
+            return evidenceImported;
+        }
+
+        /** @return Rows skipped because they could not be parsed or validated. */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /** @return Rows that were parsed but not committed because their chunk failed. */
+        public long getFailed() {
+            return failed;
+        }
+
+        public double getElapsedSeconds() {
+            return (finishedNanos - startedNanos) / 1_000_000_000.0;
+        }
+
+        public double getRowsPerSecond() {
+            double seconds = getElapsedSeconds();
+            return seconds <= 0 ? 0.0 : rows / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Rows read: %d, complaints: %d, evidence: %d, rejected: %d, failed: %d (%.1f s, %.0f rows/sec)",
+                    rows, complaintsImported, evidenceImported, rejected, failed, getElapsedSeconds(), getRowsPerSecond());
+        }
+    }
+}
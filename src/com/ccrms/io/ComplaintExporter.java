@@ -0,0 +1,285 @@
+package com.ccrms.io;
+
+import com.ccrms.dao.ExportDAO;
+import com.ccrms.models.Complaint;
+import com.ccrms.models.Evidence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes complaints with their evidence to a file as NDJSON or CSV, optionally gzip-compressed.
+ *
+ * Records are encoded straight into a fixed-size byte buffer that is drained to a
+ * {@link FileChannel}, so memory stays constant however many rows are exported.
+ *  - NDJSON: one JSON object per complaint, with its evidence as a nested array.
+ *  - CSV: one line per complaint/evidence pair (complaint columns repeat for each evidence row).
+ */
+public class ComplaintExporter implements ExportDAO.RowHandler, Closeable {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final String CSV_HEADER = "complaint_id,victim_name,crime_type,complaint_date,description,status,"
+            + "assigned_officer_id,criminal_id,criminal_name,evidence_id,evidence_type,evidence_details\n";
+
+    private final Format format;
+    private final FileChannel channel;
+    private final OutputStream gzip;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder record = new StringBuilder(1024);
+
+    private Complaint current = null;
+    private boolean firstEvidence = true;
+    private long complaintCount = 0;
+    private long bytesWritten = 0;
+
+    /**
+     * Opens (and truncates) the target file.
+     * @param file The output file.
+     * @param format The output format.
+     * @param compress Whether to gzip the output.
+     * @throws IOException if the file cannot be opened.
+     */
+    public ComplaintExporter(Path file, Format format, boolean compress) throws IOException {
+        this.format = format;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.gzip = compress ? new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE) : null;
+        if (format == Format.CSV) {
+            record.append(CSV_HEADER);
+            emit();
+        }
+    }
+
+    @Override
+    public void handle(Complaint complaint, String criminalName, Evidence evidence) throws IOException {
+        if (format == Format.CSV) {
+            appendCsvRow(complaint, criminalName, evidence);
+            emit();
+            if (complaint != current) {
+                current = complaint;
+                complaintCount++;
+            }
+            return;
+        }
+
+        if (complaint != current) {
+            finishJsonRecord();
+            current = complaint;
+            complaintCount++;
+            startJsonRecord(complaint, criminalName);
+        }
+        if (evidence != null) {
+            if (!firstEvidence) {
+                record.append(',');
+            }
+            firstEvidence = false;
+            record.append("{\"evidence_id\":").append(evidence.getEvidenceId())
+                  .append(",\"evidence_type\":");
+            appendJsonString(evidence.getEvidenceType());
+            record.append(",\"details\":");
+            appendJsonString(evidence.getDetails());
+            record.append('}');
+        }
+        // Flush large records early so a complaint with many evidence rows cannot grow the builder unbounded
+        if (record.length() >= BUFFER_SIZE / 2) {
+            emit();
+        }
+    }
+
+    private void startJsonRecord(Complaint complaint, String criminalName) {
+        record.append("{\"complaint_id\":").append(complaint.getComplaintId())
+              .append(",\"victim_name\":");
+        appendJsonString(complaint.getVictimName());
+        record.append(",\"crime_type\":");
+        appendJsonString(complaint.getCrimeType());
+        record.append(",\"complaint_date\":");
+        appendJsonString(complaint.getComplaintDate() == null ? null : complaint.getComplaintDate().toString());
+        record.append(",\"description\":");
+        appendJsonString(complaint.getDescription());
+        record.append(",\"status\":");
+        appendJsonString(complaint.getStatus());
+        record.append(",\"assigned_officer_id\":").append(complaint.getAssignedOfficerId())
+              .append(",\"criminal_id\":").append(complaint.getCriminalId() == null ? "null" : complaint.getCriminalId().toString())
+              .append(",\"criminal_name\":");
+        appendJsonString(criminalName);
+        record.append(",\"evidence\":[");
+        firstEvidence = true;
+    }
+
+    private void finishJsonRecord() throws IOException {
+        if (current != null) {
+            record.append("]}\n");
+            emit();
+        }
+    }
+
+    private void appendCsvRow(Complaint complaint, String criminalName, Evidence evidence) {
+        record.append(complaint.getComplaintId()).append(',');
+        appendCsvField(complaint.getVictimName());
+        record.append(',');
+        appendCsvField(complaint.getCrimeType());
+        record.append(',');
+        if (complaint.getComplaintDate() != null) {
+            record.append(complaint.getComplaintDate());
+        }
+        record.append(',');
+        appendCsvField(complaint.getDescription());
+        record.append(',');
+        appendCsvField(complaint.getStatus());
+        record.append(',').append(complaint.getAssignedOfficerId()).append(',');
+        if (complaint.getCriminalId() != null) {
+            record.append(complaint.getCriminalId());
+        }
+        record.append(',');
+        appendCsvField(criminalName);
+        record.append(',');
+        if (evidence != null) {
+            record.append(evidence.getEvidenceId()).append(',');
+            appendCsvField(evidence.getEvidenceType());
+            record.append(',');
+            appendCsvField(evidence.getDetails());
+        } else {
+            record.append(",,");
+        }
+        record.append('\n');
+    }
+
+    private void appendJsonString(String value) {
+        if (value == null) {
+            record.append("null");
+            return;
+        }
+        record.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    record.append("\\\"");
+                    break;
+                case '\\':
+                    record.append("\\\\");
+                    break;
+                case '\n':
+                    record.append("\\n");
+                    break;
+                case '\r':
+                    record.append("\\r");
+                    break;
+                case '\t':
+                    record.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        record.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        record.append(c);
+                    }
+            }
+        }
+        record.append('"');
+    }
+
+    private void appendCsvField(String value) {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            record.append(value);
+            return;
+        }
+        record.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                record.append('"');
+            }
+            record.append(c);
+        }
+        record.append('"');
+    }
+
+    /**
+     * Encodes the pending record into the byte buffer, draining the buffer as it fills up.
+     */
+    private void emit() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(record);
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, false);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isError()) {
+                result.throwException();
+            } else {
+                break;
+            }
+        }
+        record.setLength(0);
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        bytesWritten += buffer.remaining();
+        if (gzip != null) {
+            gzip.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+        } else {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        buffer.clear();
+    }
+
+    /**
+     * @return The number of complaints written so far.
+     */
+    public long getComplaintCount() {
+        return complaintCount;
+    }
+
+    /**
+     * @return The number of uncompressed bytes written so far.
+     */
+    public long getBytesWritten() {
+        return bytesWritten + buffer.position();
+    }
+
+    /**
+     * Finishes the last record, flushes all buffers and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (format == Format.NDJSON) {
+                finishJsonRecord();
+            }
+            drain();
+            if (gzip != null) {
+                gzip.close(); // Also closes the channel
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
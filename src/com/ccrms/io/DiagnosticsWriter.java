@@ -0,0 +1,165 @@
+package com.ccrms.io;
+
+import com.ccrms.dao.DaoMetrics;
+import com.ccrms.dao.Repositories;
+import com.ccrms.events.ChangeEventBus;
+import com.ccrms.store.ChangeJournal;
+import com.ccrms.store.EmbeddedStore;
+import com.ccrms.util.ConnectionPool;
+import com.ccrms.util.DatabaseConnector;
+import com.ccrms.util.LatencyHistogram;
+import com.ccrms.util.StatementRegistry;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Renders the DAO metrics, statement statistics, connection pool counters and heap usage
+ * as one JSON document, for monitoring scripts to scrape.
+ *
+ * Latencies are in milliseconds; all other values are plain counts. The file is written
+ * to a temporary sibling and moved into place, so a reader never sees a partial snapshot.
+ */
+public class DiagnosticsWriter {
+
+    private DiagnosticsWriter() {
+    }
+
+    /**
+     * @return The current snapshot as a JSON object.
+     */
+    public static String toJson() {
+        StringBuilder json = new StringBuilder(4096);
+        json.append("{\n  \"timestamp\": ");
+        Json.appendString(json, Instant.now().toString());
+        json.append(",\n  \"uptime_ms\": ").append(ManagementFactory.getRuntimeMXBean().getUptime());
+
+        json.append(",\n  \"dao_operations\": [");
+        List<DaoMetrics.Stats> operations = DaoMetrics.getStats();
+        for (int i = 0; i < operations.size(); i++) {
+            DaoMetrics.Stats stats = operations.get(i);
+            json.append(i == 0 ? "\n    {" : ",\n    {");
+            json.append("\"name\": ");
+            Json.appendString(json, stats.getName());
+            json.append(", \"calls\": ").append(stats.getCalls())
+                .append(", \"failures\": ").append(stats.getFailures());
+            appendLatency(json, stats.getLatency());
+            json.append('}');
+        }
+        json.append(operations.isEmpty() ? "]" : "\n  ]");
+
+        json.append(",\n  \"statements\": [");
+        List<StatementRegistry.Stats> statements = StatementRegistry.getStats();
+        for (int i = 0; i < statements.size(); i++) {
+            StatementRegistry.Stats stats = statements.get(i);
+            json.append(i == 0 ? "\n    {" : ",\n    {");
+            json.append("\"name\": ");
+            Json.appendString(json, stats.getName());
+            json.append(", \"executions\": ").append(stats.getExecutions())
+                .append(", \"rows\": ").append(stats.getRows())
+                .append(", \"errors\": ").append(stats.getErrors());
+            appendLatency(json, stats.getLatency());
+            json.append('}');
+        }
+        json.append(statements.isEmpty() ? "]" : "\n  ]");
+
+        if (Repositories.isEmbedded()) {
+            EmbeddedStore.Stats store = Repositories.getEmbeddedStore().getStats();
+            json.append(",\n  \"embedded_store\": {\"log_file\": ");
+            Json.appendString(json, store.getLogFile().toString());
+            json.append(", \"complaints\": ").append(store.getComplaints())
+                .append(", \"criminals\": ").append(store.getCriminals())
+                .append(", \"evidence\": ").append(store.getEvidence())
+                .append(", \"users\": ").append(store.getUsers())
+                .append(", \"log_bytes\": ").append(store.getLogBytes())
+                .append(", \"live_bytes\": ").append(store.getLiveBytes())
+                .append(", \"compactions\": ").append(store.getCompactions())
+                .append('}');
+        } else {
+            appendPool(json);
+        }
+
+        ChangeJournal journal = ChangeEventBus.getJournal();
+        json.append(",\n  \"change_events\": {\"published\": ").append(ChangeEventBus.getPublished())
+            .append(", \"last_sequence\": ").append(ChangeEventBus.getLastSequence())
+            .append(", \"journal_events\": ").append(journal == null ? "null" : String.valueOf(journal.getEventCount()))
+            .append(", \"subscriptions\": [");
+        List<ChangeEventBus.Subscription> subscriptions = ChangeEventBus.getSubscriptions();
+        for (int i = 0; i < subscriptions.size(); i++) {
+            ChangeEventBus.Subscription subscription = subscriptions.get(i);
+            json.append(i == 0 ? "{" : ", {").append("\"name\": ");
+            Json.appendString(json, subscription.getName());
+            json.append(", \"delivered\": ").append(subscription.getDelivered())
+                .append(", \"batches\": ").append(subscription.getBatches())
+                .append(", \"coalesced\": ").append(subscription.getCoalesced())
+                .append(", \"pending\": ").append(subscription.getPending())
+                .append(", \"lost\": ").append(subscription.getLost())
+                .append('}');
+        }
+        json.append("]}");
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        json.append(",\n  \"heap\": {")
+            .append("\"used_bytes\": ").append(heap.getUsed())
+            .append(", \"committed_bytes\": ").append(heap.getCommitted())
+            .append(", \"max_bytes\": ").append(heap.getMax())
+            .append("}\n}\n");
+        return json.toString();
+    }
+
+    private static void appendPool(StringBuilder json) {
+        ConnectionPool.Stats pool = DatabaseConnector.getPoolStats();
+        json.append(",\n  \"connection_pool\": {")
+            .append("\"active\": ").append(pool.getActive())
+            .append(", \"idle\": ").append(pool.getIdle())
+            .append(", \"max_size\": ").append(pool.getMaxSize())
+            .append(", \"borrows\": ").append(pool.getBorrowCount())
+            .append(", \"avg_borrow_wait_ms\": ").append(millis(pool.getAverageBorrowWaitMillis()))
+            .append(", \"max_borrow_wait_ms\": ").append(millis(pool.getMaxBorrowWaitNanos() / 1_000_000.0))
+            .append(", \"borrow_timeouts\": ").append(pool.getBorrowTimeouts())
+            .append(", \"created\": ").append(pool.getCreated())
+            .append(", \"destroyed\": ").append(pool.getDestroyed())
+            .append(", \"validation_failures\": ").append(pool.getValidationFailures())
+            .append(", \"leaks_detected\": ").append(pool.getLeaksDetected())
+            .append(", \"statement_cache_hits\": ").append(pool.getStatementCacheHits())
+            .append(", \"statement_prepares\": ").append(pool.getStatementCacheMisses())
+            .append('}');
+    }
+
+    /**
+     * Writes the current snapshot to a file, replacing it atomically.
+     * @param file The target file.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        Files.write(temp, toJson().getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Some file systems cannot move atomically; a plain replace is the next best thing
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void appendLatency(StringBuilder json, LatencyHistogram.Snapshot latency) {
+        json.append(", \"mean_ms\": ").append(millis(latency.getMeanNanos() / 1_000_000.0))
+            .append(", \"p50_ms\": ").append(millis(latency.getPercentileNanos(50) / 1_000_000.0))
+            .append(", \"p90_ms\": ").append(millis(latency.getPercentileNanos(90) / 1_000_000.0))
+            .append(", \"p99_ms\": ").append(millis(latency.getPercentileNanos(99) / 1_000_000.0))
+            .append(", \"max_ms\": ").append(millis(latency.getMaxNanos() / 1_000_000.0));
+    }
+
+    private static String millis(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
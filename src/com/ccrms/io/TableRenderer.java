@@ -0,0 +1,170 @@
+package com.ccrms.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Renders records as a compact, aligned text table.
+ *
+ * Columns are defined once with a header, a maximum width and a function extracting the
+ * cell value; each call to {@link #render} then lays out one page of rows with the chosen
+ * columns, sizing every column to its widest cell on that page. Cells are one line (line
+ * breaks become spaces) and values wider than their column are cut off with "...". The
+ * whole page is appended to one buffer, so printing it costs a single write.
+ *
+ * @param <T> The record type.
+ */
+public class TableRenderer<T> {
+
+    private static final String ELLIPSIS = "...";
+    private static final String COLUMN_GAP = "  ";
+
+    private static final class Column<T> {
+        final String header;
+        final int maxWidth;
+        final boolean alignRight;
+        final Function<? super T, ?> value;
+
+        Column(String header, int maxWidth, boolean alignRight, Function<? super T, ?> value) {
+            this.header = header;
+            this.maxWidth = Math.max(maxWidth, Math.max(header.length(), ELLIPSIS.length() + 1));
+            this.alignRight = alignRight;
+            this.value = value;
+        }
+    }
+
+    private final List<Column<T>> columns = new ArrayList<>();
+
+    /**
+     * Adds a left-aligned column.
+     * @param header The column title.
+     * @param maxWidth The widest the column may grow; longer values are cut off.
+     * @param value Extracts the cell value from a record; null renders as an empty cell.
+     * @return This renderer, for chaining.
+     */
+    public TableRenderer<T> addColumn(String header, int maxWidth, Function<? super T, ?> value) {
+        columns.add(new Column<>(header, maxWidth, false, value));
+        return this;
+    }
+
+    /**
+     * Adds a right-aligned column, for numbers.
+     */
+    public TableRenderer<T> addNumberColumn(String header, int maxWidth, Function<? super T, ?> value) {
+        columns.add(new Column<>(header, maxWidth, true, value));
+        return this;
+    }
+
+    /**
+     * @return The column titles, in definition order.
+     */
+    public List<String> getHeaders() {
+        List<String> headers = new ArrayList<>(columns.size());
+        for (Column<T> column : columns) {
+            headers.add(column.header);
+        }
+        return headers;
+    }
+
+    /**
+     * @return A selection of every column, to pass to {@link #render}.
+     */
+    public BitSet allColumns() {
+        BitSet all = new BitSet(columns.size());
+        all.set(0, columns.size());
+        return all;
+    }
+
+    /**
+     * Appends the header, a rule and one line per row.
+     * @param rows The records of the page.
+     * @param visible The indexes of the columns to show; an empty selection shows them all.
+     * @param out Where to append the table (e.g. a StringBuilder or a buffered Writer).
+     * @throws IOException if appending fails.
+     */
+    public void render(List<? extends T> rows, BitSet visible, Appendable out) throws IOException {
+        int[] shown = (visible.isEmpty() ? allColumns() : visible).stream()
+                .filter(i -> i < columns.size())
+                .toArray();
+
+        // Extract every cell once, tracking the widest in each column
+        String[][] cells = new String[rows.size()][shown.length];
+        int[] widths = new int[shown.length];
+        for (int c = 0; c < shown.length; c++) {
+            widths[c] = columns.get(shown[c]).header.length();
+        }
+        for (int r = 0; r < rows.size(); r++) {
+            T row = rows.get(r);
+            for (int c = 0; c < shown.length; c++) {
+                Column<T> column = columns.get(shown[c]);
+                String cell = cellText(column.value.apply(row), column.maxWidth);
+                cells[r][c] = cell;
+                widths[c] = Math.max(widths[c], cell.length());
+            }
+        }
+
+        int lineWidth = 0;
+        for (int c = 0; c < shown.length; c++) {
+            lineWidth += widths[c] + (c > 0 ? COLUMN_GAP.length() : 0);
+        }
+        String padding = " ".repeat(lineWidth);
+
+        for (int c = 0; c < shown.length; c++) {
+            appendCell(out, columns.get(shown[c]).header, widths[c], columns.get(shown[c]).alignRight, c, shown.length, padding);
+        }
+        out.append('\n').append("-".repeat(lineWidth)).append('\n');
+        for (String[] line : cells) {
+            for (int c = 0; c < shown.length; c++) {
+                appendCell(out, line[c], widths[c], columns.get(shown[c]).alignRight, c, shown.length, padding);
+            }
+            out.append('\n');
+        }
+    }
+
+    private static void appendCell(Appendable out, String text, int width, boolean alignRight,
+                                   int index, int count, String padding) throws IOException {
+        if (index > 0) {
+            out.append(COLUMN_GAP);
+        }
+        int pad = width - text.length();
+        if (alignRight) {
+            out.append(padding, 0, pad).append(text);
+        } else {
+            out.append(text);
+            // No trailing blanks after the last column
+            if (index < count - 1) {
+                out.append(padding, 0, pad);
+            }
+        }
+    }
+
+    /**
+     * Flattens a value to one line of at most maxWidth characters.
+     */
+    private static String cellText(Object value, int maxWidth) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        boolean clean = text.length() <= maxWidth;
+        for (int i = 0; clean && i < text.length(); i++) {
+            clean = text.charAt(i) >= ' ';
+        }
+        if (clean) {
+            return text;
+        }
+        StringBuilder cell = new StringBuilder(Math.min(text.length(), maxWidth));
+        for (int i = 0; i < text.length() && cell.length() < maxWidth; i++) {
+            char c = text.charAt(i);
+            cell.append(c < ' ' ? ' ' : c);
+        }
+        if (text.length() > maxWidth) {
+            cell.setLength(maxWidth - ELLIPSIS.length());
+            cell.append(ELLIPSIS);
+        }
+        return cell.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.ccrms.io;
+
+import com.ccrms.index.IpRange;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a plain-text threat feed of IP ranges.
+ *
+ * One entry per line: a CIDR block, a 'first-last' range or a single address, optionally
+ * followed by a label separated by whitespace or a comma (e.g. '203.0.113.0/24 botnet-c2').
+ * Blank lines and lines starting with '#' or ';' are ignored.
+ */
+public class ThreatFeedReader {
+
+    /**
+     * The parsed feed.
+     */
+    public static class Result {
+        private final List<IpRange> ranges;
+        private final int rejectedLines;
+
+        Result(List<IpRange> ranges, int rejectedLines) {
+            this.ranges = ranges;
+            this.rejectedLines = rejectedLines;
+        }
+
+        public List<IpRange> getRanges() {
+            return ranges;
+        }
+
+        /**
+         * @return The number of non-comment lines that were not a valid range.
+         */
+        public int getRejectedLines() {
+            return rejectedLines;
+        }
+    }
+
+    /**
+     * @param file The feed file (UTF-8).
+     * @return The valid ranges, in file order, and the number of rejected lines.
+     * @throws IOException if the file cannot be read.
+     */
+    public static Result read(Path file) throws IOException {
+        List<IpRange> ranges = new ArrayList<>();
+        int rejected = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.startsWith(";")) {
+                    continue;
+                }
+                int separator = 0;
+                while (separator < line.length() && !Character.isWhitespace(line.charAt(separator))
+                        && line.charAt(separator) != ',') {
+                    separator++;
+                }
+                String label = separator < line.length() ? line.substring(separator + 1).trim() : "";
+                IpRange range = IpRange.parse(line.substring(0, separator), label.isEmpty() ? null : label);
+                if (range == null) {
+                    rejected++;
+                } else {
+                    ranges.add(range);
+                }
+            }
+        }
+        return new Result(ranges, rejected);
+    }
+}
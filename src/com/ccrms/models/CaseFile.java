@@ -0,0 +1,38 @@
+package com.ccrms.models;
+
+import java.util.List;
+
+/**
+ * Model class bundling a complaint with everything linked to it:
+ * its evidence, its criminal (if any) and its assigned officer.
+ */
+public class CaseFile {
+    private final Complaint complaint;
+    private final List<Evidence> evidence;
+    private final Criminal criminal;
+    private final User officer;
+
+    public CaseFile(Complaint complaint, List<Evidence> evidence, Criminal criminal, User officer) {
+        this.complaint = complaint;
+        this.evidence = evidence;
+        this.criminal = criminal;
+        this.officer = officer;
+    }
+
+    // Getters
+    public Complaint getComplaint() {
+        return complaint;
+    }
+
+    public List<Evidence> getEvidence() {
+        return evidence;
+    }
+
+    public Criminal getCriminal() {
+        return criminal;
+    }
+
+    public User getOfficer() {
+        return officer;
+    }
+}
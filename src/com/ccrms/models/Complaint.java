@@ -86,16 +86,10 @@ public class Complaint {
 
     @Override
     public String toString() {
-        return String.format(
-            "Complaint [ID=%d, Type=%s, Victim=%s, Date=%s, Status=%s]\n  Description: %s\n  OfficerID: %d, CriminalID: %s",
-            complaintId,
-            crimeType,
-            victimName,
-            complaintDate,
-            status,
-            description,
-            assignedOfficerId,
-            (criminalId == null || criminalId == 0) ? "N/A" : criminalId.toString()
-        );
+        // Plain concatenation: same output as a format string, without parsing it on every call
+        return "Complaint [ID=" + complaintId + ", Type=" + crimeType + ", Victim=" + victimName
+            + ", Date=" + complaintDate + ", Status=" + status + "]\n  Description: " + description
+            + "\n  OfficerID: " + assignedOfficerId + ", CriminalID: "
+            + ((criminalId == null || criminalId == 0) ? "N/A" : criminalId.toString());
     }
 }
@@ -56,7 +56,7 @@ public class Evidence {
 
     @Override
     public String toString() {
-        return String.format("Evidence [ID=%d, ComplaintID=%d, Type=%s, Details=%s]",
-            evidenceId, complaintId, evidenceType, details);
+        return "Evidence [ID=" + evidenceId + ", ComplaintID=" + complaintId
+            + ", Type=" + evidenceType + ", Details=" + details + "]";
     }
 }
@@ -0,0 +1,151 @@
+package com.ccrms.store;
+
+import com.ccrms.events.ChangeEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A durable copy of the change-event stream, so a subscriber can catch up on what it
+ * missed, including across restarts.
+ *
+ * The journal is a {@link LogFile} with one frame per event:
+ * <pre>
+ *   [long sequence][long timestamp][byte entity][byte action][int ID][payload]
+ * </pre>
+ * where the payload is the record of an added complaint or criminal (see {@link RecordCodec}),
+ * the evidence record of an added or deleted evidence row, the new status of a status
+ * change, the new officer ID of a reassignment, and nothing otherwise. Like the store log
+ * it is append-only and holds at most 1 GB.
+ */
+public final class ChangeJournal implements Closeable {
+
+    private static final ChangeEvent.Entity[] ENTITIES = ChangeEvent.Entity.values();
+    private static final ChangeEvent.Action[] ACTIONS = ChangeEvent.Action.values();
+
+    private final LogFile log;
+    private long lastSequence = 0;
+    private long events = 0;
+
+    private ChangeJournal(LogFile log) {
+        this.log = log;
+    }
+
+    /**
+     * Opens a journal, creating it if necessary.
+     * @throws StoreException if the file is not a journal or cannot be read.
+     */
+    public static ChangeJournal open(Path path) throws StoreException {
+        ChangeJournal journal = new ChangeJournal(LogFile.open(path));
+        try {
+            journal.log.replay((body, offset) -> {
+                journal.lastSequence = body.getLong(0);
+                journal.events++;
+            });
+        } catch (StoreException | RuntimeException e) {
+            try {
+                journal.log.close();
+            } catch (IOException closeFailure) {
+                // Already failing
+            }
+            throw e;
+        }
+        return journal;
+    }
+
+    /**
+     * Appends events that have their sequence numbers, in sequence order.
+     */
+    public synchronized void append(List<ChangeEvent> batch) throws StoreException {
+        for (ChangeEvent event : batch) {
+            RecordCodec.Writer frame = new RecordCodec.Writer()
+                    .writeLong(event.getSequence())
+                    .writeLong(event.getTimestampMillis())
+                    .writeByte(event.getEntity().ordinal())
+                    .writeByte(event.getAction().ordinal())
+                    .writeInt(event.getId());
+            if (event.getAction() == ChangeEvent.Action.STATUS_CHANGED) {
+                frame.writeString(event.getStatus());
+            } else if (event.getAction() == ChangeEvent.Action.REASSIGNED) {
+                frame.writeInt(event.getOfficerId());
+            } else if (event.getEvidence() != null) {
+                frame.writeBytes(RecordCodec.encodeEvidence(event.getEvidence()));
+            } else if (event.getComplaint() != null) {
+                frame.writeBytes(RecordCodec.encodeComplaint(event.getComplaint()));
+            } else if (event.getCriminal() != null) {
+                frame.writeBytes(RecordCodec.encodeCriminal(event.getCriminal()));
+            }
+            log.append(frame.toBuffer());
+            lastSequence = event.getSequence();
+            events++;
+        }
+    }
+
+    /**
+     * Hands the journaled events with a sequence number in (after, through] to the consumer,
+     * in order. Appends may continue meanwhile.
+     */
+    public void replay(long after, long through, Consumer<ChangeEvent> consumer) throws StoreException {
+        int limit;
+        synchronized (this) {
+            limit = log.size();
+        }
+        log.scan(limit, (body, offset) -> {
+            long sequence = body.getLong(0);
+            if (sequence > after && sequence <= through) {
+                consumer.accept(decode(body));
+            }
+        });
+    }
+
+    private static ChangeEvent decode(ByteBuffer body) {
+        ByteBuffer in = body.duplicate();
+        long sequence = in.getLong();
+        long timestamp = in.getLong();
+        ChangeEvent.Entity entity = ENTITIES[in.get()];
+        ChangeEvent.Action action = ACTIONS[in.get()];
+        int id = in.getInt();
+        ByteBuffer payload = in.slice();
+        Object row = null;
+        String status = null;
+        int officerId = 0;
+        if (action == ChangeEvent.Action.STATUS_CHANGED) {
+            status = RecordCodec.readString(payload);
+        } else if (action == ChangeEvent.Action.REASSIGNED) {
+            officerId = payload.getInt();
+        } else if (entity == ChangeEvent.Entity.EVIDENCE) {
+            row = RecordCodec.decodeEvidence(id, payload);
+        } else if (action == ChangeEvent.Action.ADDED) {
+            row = entity == ChangeEvent.Entity.COMPLAINT ? RecordCodec.decodeComplaint(id, payload) : RecordCodec.decodeCriminal(id, payload);
+        }
+        return new ChangeEvent(sequence, timestamp, entity, action, id, row, status, officerId);
+    }
+
+    /**
+     * @return The sequence number of the last journaled event, or 0 if there is none.
+     */
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    public synchronized long getEventCount() {
+        return events;
+    }
+
+    public synchronized long getBytes() {
+        return log.size();
+    }
+
+    public Path getPath() {
+        return log.getPath();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+}
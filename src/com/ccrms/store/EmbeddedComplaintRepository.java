@@ -0,0 +1,424 @@
+package com.ccrms.store;
+
+import com.ccrms.dao.ComplaintDAO;
+import com.ccrms.dao.ComplaintFilter;
+import com.ccrms.dao.ComplaintRepository;
+import com.ccrms.dao.KeysetStreams;
+import com.ccrms.events.ChangeEvent;
+import com.ccrms.events.ChangeEventBus;
+import com.ccrms.models.Complaint;
+import com.ccrms.models.Evidence;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Complaints in the embedded store, with indexes by date (for the newest-first listing)
+ * and by linked criminal.
+ */
+final class EmbeddedComplaintRepository implements ComplaintRepository, EmbeddedStore.Table {
+
+    private static final Set<String> STATUSES = Set.of("Open", "Under Investigation", "Closed");
+
+    private final EmbeddedStore store;
+    // (complaint_date as epoch day) << 32 | complaint_id, so descending order is (date DESC, id DESC)
+    private final TreeSet<Long> byDate = new TreeSet<>();
+    private final Map<Integer, Set<Integer>> byCriminal = new HashMap<>();
+
+    EmbeddedComplaintRepository(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public boolean addComplaint(Complaint complaint) {
+        return addComplaints(Collections.singletonList(complaint), 1).length == 1;
+    }
+
+    @Override
+    public int[] addComplaints(Collection<Complaint> complaints) {
+        return addComplaints(complaints, ComplaintDAO.DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public int[] addComplaints(Collection<Complaint> complaints, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        int[] generatedIds = new int[complaints.size()];
+        int committed = 0;
+        Iterator<Complaint> iterator = complaints.iterator();
+        try {
+            while (iterator.hasNext()) {
+                List<Complaint> chunk = new ArrayList<>(Math.min(chunkSize, complaints.size() - committed));
+                while (iterator.hasNext() && chunk.size() < chunkSize) {
+                    chunk.add(iterator.next());
+                }
+                int[] ids = store.write(batch -> {
+                    int[] chunkIds = new int[chunk.size()];
+                    for (int i = 0; i < chunk.size(); i++) {
+                        Complaint complaint = chunk.get(i);
+                        validate(complaint);
+                        chunkIds[i] = batch.nextId(EmbeddedStore.COMPLAINTS);
+                        batch.put(EmbeddedStore.COMPLAINTS, chunkIds[i], RecordCodec.encodeComplaint(complaint));
+                    }
+                    return chunkIds;
+                });
+                List<ChangeEvent> events = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    chunk.get(i).setComplaintId(ids[i]);
+                    generatedIds[committed++] = ids[i];
+                    events.add(ChangeEvent.complaintAdded(chunk.get(i)));
+                }
+                ChangeEventBus.publish(events);
+            }
+        } catch (StoreException e) {
+            System.err.println("Store Error adding complaints: " + e.getMessage());
+        }
+        return committed == generatedIds.length ? generatedIds : Arrays.copyOf(generatedIds, committed);
+    }
+
+    /**
+     * Checks the constraints of the complaints table. Requires the write lock.
+     */
+    private void validate(Complaint complaint) throws StoreException {
+        if (complaint.getVictimName() == null || complaint.getCrimeType() == null || complaint.getComplaintDate() == null) {
+            throw new StoreException("Victim name, crime type and date are required");
+        }
+        if (!STATUSES.contains(complaint.getStatus())) {
+            throw new StoreException("Invalid status '" + complaint.getStatus() + "'");
+        }
+        if (!store.exists(EmbeddedStore.USERS, complaint.getAssignedOfficerId())) {
+            throw new StoreException("Unknown assigned officer " + complaint.getAssignedOfficerId());
+        }
+        if (complaint.getCriminalId() != null && !store.exists(EmbeddedStore.CRIMINALS, complaint.getCriminalId())) {
+            throw new StoreException("Unknown criminal " + complaint.getCriminalId());
+        }
+    }
+
+    @Override
+    public List<Complaint> getAllComplaints() {
+        return store.read(() -> collect(byDate.descendingSet(), byDate.size()));
+    }
+
+    @Override
+    public Complaint getComplaintById(int complaintId) {
+        return store.read(() -> {
+            ByteBuffer record = store.record(EmbeddedStore.COMPLAINTS, complaintId);
+            return record == null ? null : RecordCodec.decodeComplaint(complaintId, record);
+        });
+    }
+
+    @Override
+    public List<Complaint> getComplaintPage(Complaint after, int pageSize) {
+        return store.read(() -> {
+            NavigableSet<Long> newestFirst = byDate.descendingSet();
+            if (after != null) {
+                newestFirst = newestFirst.tailSet(dateKey(after), false);
+            }
+            return collect(newestFirst, pageSize);
+        });
+    }
+
+    @Override
+    public Stream<Complaint> streamAllComplaints(int pageSize) {
+        return KeysetStreams.stream(pageSize, after -> getComplaintPage(after, pageSize));
+    }
+
+    @Override
+    public List<Complaint> getComplaintsAfterId(int afterId, int pageSize) {
+        return store.read(() -> {
+            List<Complaint> complaints = new ArrayList<>(pageSize);
+            for (Map.Entry<Integer, Integer> row : store.ids(EmbeddedStore.COMPLAINTS).tailMap(afterId, false).entrySet()) {
+                if (complaints.size() == pageSize) {
+                    break;
+                }
+                complaints.add(RecordCodec.decodeComplaint(row.getKey(), store.recordAt(row.getValue())));
+            }
+            return complaints;
+        });
+    }
+
+    @Override
+    public Stream<Complaint> streamComplaintsById(int pageSize) {
+        return KeysetStreams.stream(pageSize,
+                after -> getComplaintsAfterId(after == null ? 0 : after.getComplaintId(), pageSize));
+    }
+
+    @Override
+    public boolean updateComplaintStatus(int complaintId, String newStatus) {
+        int[] counts = updateComplaintStatuses(new int[]{complaintId}, new String[]{newStatus}, 1);
+        return counts.length == 1 && counts[0] > 0;
+    }
+
+    @Override
+    public int[] updateComplaintStatuses(int[] complaintIds, String[] statuses, int chunkSize) {
+        if (complaintIds.length != statuses.length) {
+            throw new IllegalArgumentException("complaintIds and statuses must have the same length");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        int[] counts = new int[complaintIds.length];
+        int committed = 0;
+        try {
+            while (committed < complaintIds.length) {
+                int from = committed;
+                int to = Math.min(from + chunkSize, complaintIds.length);
+                store.write(batch -> {
+                    for (int i = from; i < to; i++) {
+                        if (!STATUSES.contains(statuses[i])) {
+                            throw new StoreException("Invalid status '" + statuses[i] + "'");
+                        }
+                        ByteBuffer record = store.record(EmbeddedStore.COMPLAINTS, complaintIds[i]);
+                        if (record == null) {
+                            counts[i] = 0;
+                            continue;
+                        }
+                        Complaint complaint = RecordCodec.decodeComplaint(complaintIds[i], record);
+                        complaint.setStatus(statuses[i]);
+                        batch.put(EmbeddedStore.COMPLAINTS, complaintIds[i], RecordCodec.encodeComplaint(complaint));
+                        counts[i] = 1;
+                    }
+                    return null;
+                });
+                List<ChangeEvent> events = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    if (counts[i] > 0) {
+                        events.add(ChangeEvent.complaintStatusChanged(complaintIds[i], statuses[i]));
+                    }
+                }
+                ChangeEventBus.publish(events);
+                committed = to;
+            }
+        } catch (StoreException e) {
+            System.err.println("Store Error updating complaint statuses: " + e.getMessage());
+        }
+        return committed == counts.length ? counts : Arrays.copyOf(counts, committed);
+    }
+
+    @Override
+    public int updateStatusByIds(int[] complaintIds, String newStatus) {
+        try {
+            // One write: every change is committed together or not at all
+            List<ChangeEvent> events = store.write(batch -> {
+                checkStatus(newStatus);
+                List<ChangeEvent> changed = new ArrayList<>();
+                Set<Integer> seen = new HashSet<>();
+                for (int complaintId : complaintIds) {
+                    if (seen.add(complaintId)) {
+                        setStatus(batch, complaintId, store.record(EmbeddedStore.COMPLAINTS, complaintId), newStatus, changed);
+                    }
+                }
+                return changed;
+            });
+            ChangeEventBus.publish(events);
+            return events.size();
+        } catch (StoreException e) {
+            System.err.println("Store Error updating complaint statuses: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    @Override
+    public int updateStatusWhere(ComplaintFilter filter, String newStatus) {
+        try {
+            List<ChangeEvent> events = store.write(batch -> {
+                checkStatus(newStatus);
+                List<ChangeEvent> changed = new ArrayList<>();
+                for (long key : byDate(filter)) {
+                    int complaintId = (int) key;
+                    ByteBuffer record = store.record(EmbeddedStore.COMPLAINTS, complaintId);
+                    if (filter.matches(RecordCodec.decodeComplaint(complaintId, record))) {
+                        setStatus(batch, complaintId, record, newStatus, changed);
+                    }
+                }
+                return changed;
+            });
+            ChangeEventBus.publish(events);
+            return events.size();
+        } catch (StoreException e) {
+            System.err.println("Store Error updating complaint statuses by filter: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    @Override
+    public int countComplaints(ComplaintFilter filter) {
+        return store.read(() -> {
+            if (filter.isEmpty()) {
+                return byDate.size();
+            }
+            int count = 0;
+            for (long key : byDate(filter)) {
+                int complaintId = (int) key;
+                if (filter.matches(RecordCodec.decodeComplaint(complaintId, store.record(EmbeddedStore.COMPLAINTS, complaintId)))) {
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    private static void checkStatus(String status) throws StoreException {
+        if (!STATUSES.contains(status)) {
+            throw new StoreException("Invalid status '" + status + "'");
+        }
+    }
+
+    /**
+     * Adds the status change to the batch unless the complaint is gone or already has the status.
+     */
+    private static void setStatus(EmbeddedStore.Batch batch, int complaintId, ByteBuffer record, String newStatus, List<ChangeEvent> changed) {
+        if (record == null) {
+            return;
+        }
+        Complaint complaint = RecordCodec.decodeComplaint(complaintId, record);
+        if (newStatus.equals(complaint.getStatus())) {
+            return;
+        }
+        complaint.setStatus(newStatus);
+        batch.put(EmbeddedStore.COMPLAINTS, complaintId, RecordCodec.encodeComplaint(complaint));
+        changed.add(ChangeEvent.complaintStatusChanged(complaintId, newStatus));
+    }
+
+    /**
+     * @return The date index keys within the filter's date range. Requires the read or write lock.
+     */
+    private NavigableSet<Long> byDate(ComplaintFilter filter) {
+        long from = filter.getFrom() == null ? Long.MIN_VALUE : filter.getFrom().toEpochDay() << 32;
+        long to = filter.getTo() == null ? Long.MAX_VALUE : (filter.getTo().toEpochDay() + 1) << 32;
+        return filter.getFrom() == null && filter.getTo() == null ? byDate : byDate.subSet(from, true, to, false);
+    }
+
+    @Override
+    public int[] reassignOpenComplaints(int[] complaintIds, int[] officerIds) {
+        if (complaintIds.length != officerIds.length) {
+            throw new IllegalArgumentException("complaintIds and officerIds must have the same length");
+        }
+        try {
+            // One write: every move is committed together or not at all
+            List<ChangeEvent> events = store.write(batch -> {
+                List<ChangeEvent> moved = new ArrayList<>();
+                for (int i = 0; i < complaintIds.length; i++) {
+                    if (!store.exists(EmbeddedStore.USERS, officerIds[i])) {
+                        throw new StoreException("Unknown assigned officer " + officerIds[i]);
+                    }
+                    ByteBuffer record = store.record(EmbeddedStore.COMPLAINTS, complaintIds[i]);
+                    if (record == null) {
+                        continue;
+                    }
+                    Complaint complaint = RecordCodec.decodeComplaint(complaintIds[i], record);
+                    if (!"Open".equals(complaint.getStatus())) {
+                        continue;
+                    }
+                    complaint.setAssignedOfficerId(officerIds[i]);
+                    batch.put(EmbeddedStore.COMPLAINTS, complaintIds[i], RecordCodec.encodeComplaint(complaint));
+                    moved.add(ChangeEvent.complaintReassigned(complaintIds[i], officerIds[i]));
+                }
+                return moved;
+            });
+            ChangeEventBus.publish(events);
+            return events.stream().mapToInt(ChangeEvent::getId).toArray();
+        } catch (StoreException e) {
+            System.err.println("Store Error reassigning complaints: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean deleteComplaint(int complaintId) {
+        List<Evidence> evidenceList = new ArrayList<>();
+        try {
+            boolean deleted = store.write(batch -> {
+                if (!store.exists(EmbeddedStore.COMPLAINTS, complaintId)) {
+                    return false;
+                }
+                for (int evidenceId : store.evidence.evidenceIdsForComplaint(complaintId)) {
+                    evidenceList.add(RecordCodec.decodeEvidence(evidenceId, store.record(EmbeddedStore.EVIDENCE, evidenceId)));
+                    batch.delete(EmbeddedStore.EVIDENCE, evidenceId);
+                }
+                batch.delete(EmbeddedStore.COMPLAINTS, complaintId);
+                return true;
+            });
+            if (deleted) {
+                List<ChangeEvent> events = new ArrayList<>(evidenceList.size() + 1);
+                for (Evidence evidence : evidenceList) {
+                    events.add(ChangeEvent.evidenceDeleted(evidence));
+                }
+                events.add(ChangeEvent.complaintDeleted(complaintId));
+                ChangeEventBus.publish(events);
+            }
+            return deleted;
+        } catch (StoreException e) {
+            System.err.println("Store Error deleting complaint: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return The IDs of the complaints linked to the criminal. Requires the read or write lock.
+     */
+    List<Integer> complaintIdsForCriminal(int criminalId) {
+        return new ArrayList<>(byCriminal.getOrDefault(criminalId, Collections.emptySet()));
+    }
+
+    private List<Complaint> collect(Iterable<Long> dateKeys, int limit) {
+        List<Complaint> complaints = new ArrayList<>(Math.min(limit, byDate.size()));
+        for (long key : dateKeys) {
+            if (complaints.size() == limit) {
+                break;
+            }
+            int complaintId = (int) key;
+            complaints.add(RecordCodec.decodeComplaint(complaintId, store.record(EmbeddedStore.COMPLAINTS, complaintId)));
+        }
+        return complaints;
+    }
+
+    private static long dateKey(Complaint complaint) {
+        return (complaint.getComplaintDate().toLocalDate().toEpochDay() << 32) | (complaint.getComplaintId() & 0xFFFFFFFFL);
+    }
+
+    // --- Index maintenance ---
+
+    @Override
+    public void clear() {
+        byDate.clear();
+        byCriminal.clear();
+    }
+
+    @Override
+    public void put(int id, ByteBuffer previous, ByteBuffer record) {
+        if (previous != null) {
+            delete(id, previous);
+        }
+        Complaint complaint = RecordCodec.decodeComplaint(id, record);
+        byDate.add(dateKey(complaint));
+        if (complaint.getCriminalId() != null) {
+            byCriminal.computeIfAbsent(complaint.getCriminalId(), k -> new TreeSet<>()).add(id);
+        }
+    }
+
+    @Override
+    public void delete(int id, ByteBuffer previous) {
+        Complaint complaint = RecordCodec.decodeComplaint(id, previous);
+        byDate.remove(dateKey(complaint));
+        if (complaint.getCriminalId() != null) {
+            Set<Integer> complaintIds = byCriminal.get(complaint.getCriminalId());
+            if (complaintIds != null && complaintIds.remove(id) && complaintIds.isEmpty()) {
+                byCriminal.remove(complaint.getCriminalId());
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.ccrms.store;
+
+import com.ccrms.dao.CriminalRepository;
+import com.ccrms.dao.KeysetStreams;
+import com.ccrms.events.ChangeEvent;
+import com.ccrms.events.ChangeEventBus;
+import com.ccrms.models.Complaint;
+import com.ccrms.models.Criminal;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Criminals in the embedded store, with a name index for the listing order.
+ */
+final class EmbeddedCriminalRepository implements CriminalRepository, EmbeddedStore.Table {
+
+    private final EmbeddedStore store;
+    // Lower-cased name, NUL, zero-padded ID: sorts by name (case-insensitively, like MySQL), then ID
+    private final TreeSet<String> byName = new TreeSet<>();
+
+    EmbeddedCriminalRepository(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public int addCriminal(Criminal criminal) {
+        if (criminal.getName() == null) {
+            System.err.println("Store Error adding criminal: A name is required");
+            return -1;
+        }
+        try {
+            int criminalId = store.write(batch -> {
+                int id = batch.nextId(EmbeddedStore.CRIMINALS);
+                batch.put(EmbeddedStore.CRIMINALS, id, RecordCodec.encodeCriminal(criminal));
+                return id;
+            });
+            criminal.setCriminalId(criminalId);
+            ChangeEventBus.publish(ChangeEvent.criminalAdded(criminal));
+            return criminalId;
+        } catch (StoreException e) {
+            System.err.println("Store Error adding criminal: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    @Override
+    public List<Criminal> getAllCriminals() {
+        return store.read(() -> {
+            List<Criminal> criminals = new ArrayList<>(byName.size());
+            for (String key : byName) {
+                int criminalId = idOf(key);
+                criminals.add(RecordCodec.decodeCriminal(criminalId, store.record(EmbeddedStore.CRIMINALS, criminalId)));
+            }
+            return criminals;
+        });
+    }
+
+    @Override
+    public List<Criminal> getCriminalsAfterId(int afterId, int pageSize) {
+        return store.read(() -> {
+            List<Criminal> criminals = new ArrayList<>(pageSize);
+            for (Map.Entry<Integer, Integer> row : store.ids(EmbeddedStore.CRIMINALS).tailMap(afterId, false).entrySet()) {
+                if (criminals.size() == pageSize) {
+                    break;
+                }
+                criminals.add(RecordCodec.decodeCriminal(row.getKey(), store.recordAt(row.getValue())));
+            }
+            return criminals;
+        });
+    }
+
+    @Override
+    public Stream<Criminal> streamCriminalsById(int pageSize) {
+        return KeysetStreams.stream(pageSize,
+                after -> getCriminalsAfterId(after == null ? 0 : after.getCriminalId(), pageSize));
+    }
+
+    @Override
+    public Criminal getCriminalById(int criminalId) {
+        return store.read(() -> {
+            ByteBuffer record = store.record(EmbeddedStore.CRIMINALS, criminalId);
+            return record == null ? null : RecordCodec.decodeCriminal(criminalId, record);
+        });
+    }
+
+    @Override
+    public Criminal getCriminalForComplaint(int complaintId) {
+        return store.read(() -> {
+            ByteBuffer complaint = store.record(EmbeddedStore.COMPLAINTS, complaintId);
+            Integer criminalId = complaint == null ? null : RecordCodec.decodeComplaint(complaintId, complaint).getCriminalId();
+            ByteBuffer record = criminalId == null ? null : store.record(EmbeddedStore.CRIMINALS, criminalId);
+            return record == null ? null : RecordCodec.decodeCriminal(criminalId, record);
+        });
+    }
+
+    @Override
+    public boolean deleteCriminal(int criminalId) {
+        try {
+            boolean deleted = store.write(batch -> {
+                if (!store.exists(EmbeddedStore.CRIMINALS, criminalId)) {
+                    return false;
+                }
+                // Unlink the criminal from their complaints first, like ON DELETE SET NULL
+                for (int complaintId : store.complaints.complaintIdsForCriminal(criminalId)) {
+                    Complaint complaint = RecordCodec.decodeComplaint(complaintId, store.record(EmbeddedStore.COMPLAINTS, complaintId));
+                    complaint.setCriminalId(null);
+                    batch.put(EmbeddedStore.COMPLAINTS, complaintId, RecordCodec.encodeComplaint(complaint));
+                }
+                batch.delete(EmbeddedStore.CRIMINALS, criminalId);
+                return true;
+            });
+            if (deleted) {
+                ChangeEventBus.publish(ChangeEvent.criminalDeleted(criminalId));
+            }
+            return deleted;
+        } catch (StoreException e) {
+            System.err.println("Store Error deleting criminal: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // --- Index maintenance ---
+
+    private static String nameKey(int id, ByteBuffer record) {
+        String name = RecordCodec.decodeCriminal(id, record).getName();
+        return name.toLowerCase(Locale.ROOT) + '\0' + String.format("%010d", id);
+    }
+
+    private static int idOf(String nameKey) {
+        return Integer.parseInt(nameKey.substring(nameKey.length() - 10));
+    }
+
+    @Override
+    public void clear() {
+        byName.clear();
+    }
+
+    @Override
+    public void put(int id, ByteBuffer previous, ByteBuffer record) {
+        if (previous != null) {
+            byName.remove(nameKey(id, previous));
+        }
+        byName.add(nameKey(id, record));
+    }
+
+    @Override
+    public void delete(int id, ByteBuffer previous) {
+        byName.remove(nameKey(id, previous));
+    }
+}
@@ -0,0 +1,234 @@
+package com.ccrms.store;
+
+import com.ccrms.dao.EvidenceDAO;
+import com.ccrms.dao.EvidenceRepository;
+import com.ccrms.dao.KeysetStreams;
+import com.ccrms.events.ChangeEvent;
+import com.ccrms.events.ChangeEventBus;
+import com.ccrms.index.IndicatorNormalizer;
+import com.ccrms.index.IpAddress;
+import com.ccrms.index.IpRange;
+import com.ccrms.models.Evidence;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Evidence in the embedded store, with indexes by complaint, by normalized indicator
+ * and by IP address (the counterparts of the evidence_indicators table and the
+ * ip_address column).
+ */
+final class EmbeddedEvidenceRepository implements EvidenceRepository, EmbeddedStore.Table {
+
+    private final EmbeddedStore store;
+    private final Map<Integer, Set<Integer>> byComplaint = new HashMap<>();
+    private final Map<Long, Set<Integer>> byIndicator = new HashMap<>();
+    // 16-byte address keys in unsigned order, as VARBINARY(16) sorts in MySQL
+    private final TreeMap<byte[], Set<Integer>> byIp = new TreeMap<>(Arrays::compareUnsigned);
+
+    EmbeddedEvidenceRepository(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public boolean addEvidence(Evidence evidence) {
+        return addEvidenceBatch(Collections.singletonList(evidence), 1).length == 1;
+    }
+
+    @Override
+    public int[] addEvidenceBatch(Collection<Evidence> evidenceList) {
+        return addEvidenceBatch(evidenceList, EvidenceDAO.DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public int[] addEvidenceBatch(Collection<Evidence> evidenceList, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        int[] generatedIds = new int[evidenceList.size()];
+        int committed = 0;
+        Iterator<Evidence> iterator = evidenceList.iterator();
+        try {
+            while (iterator.hasNext()) {
+                List<Evidence> chunk = new ArrayList<>(Math.min(chunkSize, evidenceList.size() - committed));
+                while (iterator.hasNext() && chunk.size() < chunkSize) {
+                    chunk.add(iterator.next());
+                }
+                int[] ids = store.write(batch -> {
+                    int[] chunkIds = new int[chunk.size()];
+                    for (int i = 0; i < chunk.size(); i++) {
+                        Evidence evidence = chunk.get(i);
+                        if (evidence.getEvidenceType() == null || evidence.getDetails() == null) {
+                            throw new StoreException("Evidence type and details are required");
+                        }
+                        if (!store.exists(EmbeddedStore.COMPLAINTS, evidence.getComplaintId())) {
+                            throw new StoreException("Unknown complaint " + evidence.getComplaintId());
+                        }
+                        chunkIds[i] = batch.nextId(EmbeddedStore.EVIDENCE);
+                        batch.put(EmbeddedStore.EVIDENCE, chunkIds[i], RecordCodec.encodeEvidence(evidence));
+                    }
+                    return chunkIds;
+                });
+                List<ChangeEvent> events = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    chunk.get(i).setEvidenceId(ids[i]);
+                    generatedIds[committed++] = ids[i];
+                    events.add(ChangeEvent.evidenceAdded(chunk.get(i)));
+                }
+                ChangeEventBus.publish(events);
+            }
+        } catch (StoreException e) {
+            System.err.println("Store Error adding evidence: " + e.getMessage());
+        }
+        return committed == generatedIds.length ? generatedIds : Arrays.copyOf(generatedIds, committed);
+    }
+
+    @Override
+    public List<Evidence> getEvidenceForComplaint(int complaintId) {
+        return store.read(() -> load(byComplaint.getOrDefault(complaintId, Collections.emptySet())));
+    }
+
+    @Override
+    public boolean deleteEvidence(int evidenceId) {
+        try {
+            Evidence deleted = store.write(batch -> {
+                ByteBuffer record = store.record(EmbeddedStore.EVIDENCE, evidenceId);
+                if (record == null) {
+                    return null;
+                }
+                batch.delete(EmbeddedStore.EVIDENCE, evidenceId);
+                return RecordCodec.decodeEvidence(evidenceId, record);
+            });
+            if (deleted != null) {
+                ChangeEventBus.publish(ChangeEvent.evidenceDeleted(deleted));
+            }
+            return deleted != null;
+        } catch (StoreException e) {
+            System.err.println("Store Error deleting evidence: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public List<Integer> findComplaintIdsByIndicator(String evidenceType, String details) {
+        String key = IndicatorNormalizer.normalize(evidenceType, details);
+        if (key == null) {
+            return new ArrayList<>();
+        }
+        return store.read(() -> {
+            TreeSet<Integer> complaintIds = new TreeSet<>();
+            for (int evidenceId : byIndicator.getOrDefault(IndicatorNormalizer.hash(key), Collections.emptySet())) {
+                complaintIds.add(RecordCodec.decodeEvidence(evidenceId, store.record(EmbeddedStore.EVIDENCE, evidenceId)).getComplaintId());
+            }
+            return new ArrayList<>(complaintIds);
+        });
+    }
+
+    @Override
+    public List<Evidence> findEvidenceByIpRange(IpRange range) {
+        return store.read(() -> {
+            List<Evidence> evidenceList = new ArrayList<>();
+            for (Set<Integer> evidenceIds : byIp.subMap(range.getStart(), true, range.getEnd(), true).values()) {
+                evidenceList.addAll(load(evidenceIds));
+            }
+            return evidenceList;
+        });
+    }
+
+    @Override
+    public List<Evidence> getEvidenceAfterId(int afterId, int pageSize) {
+        return store.read(() -> {
+            List<Evidence> evidenceList = new ArrayList<>(pageSize);
+            for (Map.Entry<Integer, Integer> row : store.ids(EmbeddedStore.EVIDENCE).tailMap(afterId, false).entrySet()) {
+                if (evidenceList.size() == pageSize) {
+                    break;
+                }
+                evidenceList.add(RecordCodec.decodeEvidence(row.getKey(), store.recordAt(row.getValue())));
+            }
+            return evidenceList;
+        });
+    }
+
+    @Override
+    public Stream<Evidence> streamEvidenceById(int pageSize) {
+        return KeysetStreams.stream(pageSize,
+                after -> getEvidenceAfterId(after == null ? 0 : after.getEvidenceId(), pageSize));
+    }
+
+    /**
+     * @return The IDs of the complaint's evidence. Requires the read or write lock.
+     */
+    List<Integer> evidenceIdsForComplaint(int complaintId) {
+        return new ArrayList<>(byComplaint.getOrDefault(complaintId, Collections.emptySet()));
+    }
+
+    private List<Evidence> load(Collection<Integer> evidenceIds) {
+        List<Evidence> evidenceList = new ArrayList<>(evidenceIds.size());
+        for (int evidenceId : evidenceIds) {
+            evidenceList.add(RecordCodec.decodeEvidence(evidenceId, store.record(EmbeddedStore.EVIDENCE, evidenceId)));
+        }
+        return evidenceList;
+    }
+
+    // --- Index maintenance ---
+
+    private static <K> void add(Map<K, Set<Integer>> index, K key, int id) {
+        index.computeIfAbsent(key, k -> new TreeSet<>()).add(id);
+    }
+
+    private static <K> void remove(Map<K, Set<Integer>> index, K key, int id) {
+        Set<Integer> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        byComplaint.clear();
+        byIndicator.clear();
+        byIp.clear();
+    }
+
+    @Override
+    public void put(int id, ByteBuffer previous, ByteBuffer record) {
+        if (previous != null) {
+            delete(id, previous);
+        }
+        Evidence evidence = RecordCodec.decodeEvidence(id, record);
+        add(byComplaint, evidence.getComplaintId(), id);
+        String key = IndicatorNormalizer.normalize(evidence.getEvidenceType(), evidence.getDetails());
+        if (key != null) {
+            add(byIndicator, IndicatorNormalizer.hash(key), id);
+        }
+        byte[] ipAddress = IpAddress.parseKey(evidence.getDetails());
+        if (ipAddress != null) {
+            add(byIp, ipAddress, id);
+        }
+    }
+
+    @Override
+    public void delete(int id, ByteBuffer previous) {
+        Evidence evidence = RecordCodec.decodeEvidence(id, previous);
+        remove(byComplaint, evidence.getComplaintId(), id);
+        String key = IndicatorNormalizer.normalize(evidence.getEvidenceType(), evidence.getDetails());
+        if (key != null) {
+            remove(byIndicator, IndicatorNormalizer.hash(key), id);
+        }
+        byte[] ipAddress = IpAddress.parseKey(evidence.getDetails());
+        if (ipAddress != null) {
+            remove(byIp, ipAddress, id);
+        }
+    }
+}
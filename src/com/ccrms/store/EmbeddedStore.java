@@ -0,0 +1,461 @@
+package com.ccrms.store;
+
+import com.ccrms.dao.ComplaintRepository;
+import com.ccrms.dao.CriminalRepository;
+import com.ccrms.dao.EvidenceRepository;
+import com.ccrms.dao.UserRepository;
+import com.ccrms.models.User;
+import com.ccrms.util.PasswordUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * An embedded, single-process store for the four tables, for machines without a MySQL server.
+ *
+ * Every change is appended to one memory-mapped log (see {@link LogFile}) as a frame holding
+ * all the row puts and deletes of one transaction, so a transaction is recovered entirely or
+ * not at all. In memory each table keeps a primary index from ID to the record's position in
+ * the log, and the repositories keep their secondary indexes (by date, name, complaint, ...)
+ * as sets of IDs; a read is a map lookup and a decode straight from the mapping. Opening the
+ * store replays the log to rebuild all indexes.
+ *
+ * Updated and deleted rows leave dead records behind. Once they take up more than half of the
+ * log (and at least {@link #COMPACTION_MIN_GARBAGE} bytes), the live records are copied to a
+ * new log, which then atomically replaces the old one.
+ *
+ * Reads run in parallel; writes are serialized by a read-write lock. Frames are forced to disk
+ * on every write only when the ccrms.store.sync system property is true; otherwise they are
+ * durable against a crash of the JVM and forced on close and compaction. Only one process may
+ * use a store directory at a time.
+ */
+public class EmbeddedStore implements Closeable {
+
+    static final byte USERS = 1;
+    static final byte CRIMINALS = 2;
+    static final byte COMPLAINTS = 3;
+    static final byte EVIDENCE = 4;
+    private static final int TABLE_COUNT = 5;
+
+    // Operations inside a frame body
+    private static final byte PUT = 1;        // table, id, record length, record
+    private static final byte DELETE = 2;     // table, id
+    private static final byte SEQUENCE = 3;   // table, last generated id (written by compaction)
+    private static final int PUT_OVERHEAD = 10;
+
+    static final String LOG_FILE = "ccrms.log";
+    private static final String COMPACT_FILE = LOG_FILE + ".compact";
+    private static final String LOCK_FILE = "ccrms.lock";
+    static final int COMPACTION_MIN_GARBAGE = 4 << 20;
+    private static final int COMPACTION_FRAME_SIZE = 1 << 20;
+    public static final String SYNC_PROPERTY = "ccrms.store.sync";
+
+    /**
+     * Keeps a table's secondary indexes in step with its rows. Called with the write lock
+     * held, for every change as it is applied and again for every row when the log is replayed.
+     */
+    interface Table {
+        void clear();
+
+        /**
+         * @param previous The record being replaced, or null for a new row.
+         */
+        void put(int id, ByteBuffer previous, ByteBuffer record);
+
+        void delete(int id, ByteBuffer previous);
+    }
+
+    /**
+     * Work done under the write lock, adding its changes to a batch.
+     */
+    interface Transaction<R> {
+        R run(Batch batch) throws StoreException;
+    }
+
+    private final Path directory;
+    private final FileChannel lockChannel;
+    private final boolean syncEveryWrite = Boolean.getBoolean(SYNC_PROPERTY);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Table[] tables = new Table[TABLE_COUNT];
+    private final TreeMap<Integer, Integer>[] offsets = newOffsetMaps();
+    private final int[] lastIds = new int[TABLE_COUNT];
+    private LogFile log;
+    private long liveBytes = 0;
+    private long compactions = 0;
+
+    // The repositories also consult each other's indexes (e.g. a complaint's evidence)
+    final EmbeddedUserRepository users;
+    final EmbeddedCriminalRepository criminals;
+    final EmbeddedComplaintRepository complaints;
+    final EmbeddedEvidenceRepository evidence;
+
+    /**
+     * A transaction's changes, encoded as a frame body.
+     */
+    final class Batch {
+        private final RecordCodec.Writer body = new RecordCodec.Writer();
+
+        /**
+         * @return A new ID for a row of the table.
+         */
+        int nextId(byte table) {
+            return ++lastIds[table];
+        }
+
+        void put(byte table, int id, ByteBuffer record) {
+            body.writeByte(PUT).writeByte(table).writeInt(id).writeInt(record.remaining()).writeBytes(record);
+        }
+
+        void delete(byte table, int id) {
+            body.writeByte(DELETE).writeByte(table).writeInt(id);
+        }
+
+        private void sequence(byte table, int lastId) {
+            body.writeByte(SEQUENCE).writeByte(table).writeInt(lastId);
+        }
+    }
+
+    private EmbeddedStore(Path directory, FileChannel lockChannel) {
+        this.directory = directory;
+        this.lockChannel = lockChannel;
+        users = new EmbeddedUserRepository(this);
+        criminals = new EmbeddedCriminalRepository(this);
+        complaints = new EmbeddedComplaintRepository(this);
+        evidence = new EmbeddedEvidenceRepository(this);
+        tables[USERS] = users;
+        tables[CRIMINALS] = criminals;
+        tables[COMPLAINTS] = complaints;
+        tables[EVIDENCE] = evidence;
+    }
+
+    /**
+     * Opens the store in a directory, creating it if necessary, and recovers its contents.
+     * A new store starts with the sample users of schema.sql.
+     * @throws StoreException if the store cannot be opened or another process is using it.
+     */
+    public static EmbeddedStore open(Path directory) throws StoreException {
+        FileChannel lockChannel = null;
+        try {
+            Files.createDirectories(directory);
+            lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (lockChannel.tryLock() == null) {
+                throw new StoreException("The store in " + directory + " is in use by another process.");
+            }
+            // A compaction that did not finish leaves its partial copy behind; the old log is intact
+            Files.deleteIfExists(directory.resolve(COMPACT_FILE));
+        } catch (IOException e) {
+            closeQuietly(lockChannel);
+            throw new StoreException("Cannot open the store in " + directory + ": " + e.getMessage(), e);
+        } catch (StoreException e) {
+            closeQuietly(lockChannel);
+            throw e;
+        }
+
+        EmbeddedStore store = new EmbeddedStore(directory, lockChannel);
+        try {
+            store.load();
+            if (store.offsets[USERS].isEmpty()) {
+                store.seedUsers();
+            }
+        } catch (StoreException e) {
+            closeQuietly(lockChannel);
+            throw e;
+        }
+        return store;
+    }
+
+    public ComplaintRepository complaints() {
+        return complaints;
+    }
+
+    public CriminalRepository criminals() {
+        return criminals;
+    }
+
+    public EvidenceRepository evidence() {
+        return evidence;
+    }
+
+    public UserRepository users() {
+        return users;
+    }
+
+    // --- Reading ---
+
+    /**
+     * Runs a query under the read lock, so it sees the indexes and the log consistently.
+     */
+    <R> R read(Supplier<R> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The row's record, or null if there is no such row. Requires the read or write lock.
+     */
+    ByteBuffer record(byte table, int id) {
+        Integer offset = offsets[table].get(id);
+        return offset == null ? null : recordAt(offset);
+    }
+
+    boolean exists(byte table, int id) {
+        return offsets[table].containsKey(id);
+    }
+
+    /**
+     * @return The table's IDs in ascending order, mapped to record positions. Requires the read or write lock.
+     */
+    NavigableMap<Integer, Integer> ids(byte table) {
+        return offsets[table];
+    }
+
+    ByteBuffer recordAt(int offset) {
+        return log.slice(offset, log.getInt(offset - 4));
+    }
+
+    // --- Writing ---
+
+    /**
+     * Runs a transaction under the write lock and appends its changes as one frame.
+     * If the transaction throws, nothing is written.
+     */
+    <R> R write(Transaction<R> transaction) throws StoreException {
+        lock.writeLock().lock();
+        try {
+            Batch batch = new Batch();
+            R result = transaction.run(batch);
+            if (batch.body.size() > 0) {
+                ByteBuffer body = batch.body.toBuffer();
+                int bodyOffset = log.append(body);
+                apply(log.slice(bodyOffset, body.remaining()), bodyOffset);
+                if (syncEveryWrite) {
+                    log.force();
+                }
+                compactIfWorthwhile();
+            }
+            return result;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the operations of one frame to the indexes.
+     */
+    private void apply(ByteBuffer body, int bodyOffset) throws StoreException {
+        while (body.hasRemaining()) {
+            byte op = body.get();
+            byte table = body.get();
+            int id = body.getInt();
+            if (table <= 0 || table >= TABLE_COUNT) {
+                throw new StoreException("Corrupt log: unknown table " + table + " at " + (bodyOffset + body.position()));
+            }
+            switch (op) {
+                case PUT: {
+                    int length = body.getInt();
+                    int offset = bodyOffset + body.position();
+                    ByteBuffer record = log.slice(offset, length);
+                    Integer previousOffset = offsets[table].put(id, offset);
+                    ByteBuffer previous = previousOffset == null ? null : recordAt(previousOffset);
+                    liveBytes += length + PUT_OVERHEAD - (previous == null ? 0 : previous.remaining() + PUT_OVERHEAD);
+                    lastIds[table] = Math.max(lastIds[table], id);
+                    tables[table].put(id, previous, record);
+                    body.position(body.position() + length);
+                    break;
+                }
+                case DELETE: {
+                    Integer previousOffset = offsets[table].remove(id);
+                    if (previousOffset != null) {
+                        ByteBuffer previous = recordAt(previousOffset);
+                        liveBytes -= previous.remaining() + PUT_OVERHEAD;
+                        tables[table].delete(id, previous);
+                    }
+                    break;
+                }
+                case SEQUENCE:
+                    lastIds[table] = Math.max(lastIds[table], id);
+                    break;
+                default:
+                    throw new StoreException("Corrupt log: unknown operation " + op + " at " + (bodyOffset + body.position()));
+            }
+        }
+    }
+
+    /**
+     * Replays the log into empty indexes.
+     */
+    private void load() throws StoreException {
+        for (int table = 1; table < TABLE_COUNT; table++) {
+            offsets[table].clear();
+            tables[table].clear();
+            lastIds[table] = 0;
+        }
+        liveBytes = 0;
+        log = LogFile.open(directory.resolve(LOG_FILE));
+        log.replay(this::apply);
+    }
+
+    private void seedUsers() throws StoreException {
+        // Same sample accounts as schema.sql
+        write(batch -> {
+            String[][] accounts = {{"admin", "admin_password", "Admin"}, {"officer_jane", "officer_password", "Officer"}};
+            for (String[] account : accounts) {
+                User user = new User(0, account[0], account[2]);
+                user.setPasswordHash(PasswordUtil.hashPassword(account[1]));
+                batch.put(USERS, batch.nextId(USERS), RecordCodec.encodeUser(user));
+            }
+            return null;
+        });
+    }
+
+    // --- Compaction ---
+
+    private void compactIfWorthwhile() throws StoreException {
+        long garbage = log.size() - LogFile.HEADER_SIZE - liveBytes;
+        if (garbage > liveBytes && garbage >= COMPACTION_MIN_GARBAGE) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the log with only the live records, then swaps it in and reloads.
+     */
+    public void compact() throws StoreException {
+        lock.writeLock().lock();
+        try {
+            Path compactPath = directory.resolve(COMPACT_FILE);
+            try (LogFile compacted = LogFile.open(compactPath)) {
+                Batch batch = new Batch();
+                for (byte table = 1; table < TABLE_COUNT; table++) {
+                    batch.sequence(table, lastIds[table]);
+                    for (Map.Entry<Integer, Integer> row : offsets[table].entrySet()) {
+                        batch.put(table, row.getKey(), recordAt(row.getValue()));
+                        if (batch.body.size() >= COMPACTION_FRAME_SIZE) {
+                            compacted.append(batch.body.toBuffer());
+                            batch = new Batch();
+                        }
+                    }
+                }
+                if (batch.body.size() > 0) {
+                    compacted.append(batch.body.toBuffer());
+                }
+                compacted.force();
+            } catch (IOException e) {
+                throw new StoreException("Cannot write the compacted log: " + e.getMessage(), e);
+            }
+
+            try {
+                log.close();
+                Files.move(compactPath, directory.resolve(LOG_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new StoreException("Cannot replace the log with the compacted copy: " + e.getMessage(), e);
+            } finally {
+                // Either way the log on disk is complete; reopen whichever one is there
+                load();
+            }
+            compactions++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return A snapshot of the store's size counters.
+     */
+    public Stats getStats() {
+        return read(() -> new Stats(log.getPath(),
+                offsets[COMPLAINTS].size(), offsets[CRIMINALS].size(), offsets[EVIDENCE].size(), offsets[USERS].size(),
+                log.size(), liveBytes, compactions));
+    }
+
+    /**
+     * Forces outstanding changes to disk and releases the store.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            log.close();
+        } finally {
+            lock.writeLock().unlock();
+            lockChannel.close();
+        }
+    }
+
+    /**
+     * @return One empty primary index per table. Java cannot create a generic array directly.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static TreeMap<Integer, Integer>[] newOffsetMaps() {
+        TreeMap<Integer, Integer>[] maps = new TreeMap[TABLE_COUNT];
+        for (int table = 0; table < TABLE_COUNT; table++) {
+            maps[table] = new TreeMap<>();
+        }
+        return maps;
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Already failing
+            }
+        }
+    }
+
+    /**
+     * Immutable snapshot of the store counters.
+     */
+    public static class Stats {
+        private final Path logFile;
+        private final int complaints;
+        private final int criminals;
+        private final int evidence;
+        private final int users;
+        private final long logBytes;
+        private final long liveBytes;
+        private final long compactions;
+
+        Stats(Path logFile, int complaints, int criminals, int evidence, int users, long logBytes, long liveBytes, long compactions) {
+            this.logFile = logFile;
+            this.complaints = complaints;
+            this.criminals = criminals;
+            this.evidence = evidence;
+            this.users = users;
+            this.logBytes = logBytes;
+            this.liveBytes = liveBytes;
+            this.compactions = compactions;
+        }
+
+        public Path getLogFile() { return logFile; }
+        public int getComplaints() { return complaints; }
+        public int getCriminals() { return criminals; }
+        public int getEvidence() { return evidence; }
+        public int getUsers() { return users; }
+        public long getLogBytes() { return logBytes; }
+        public long getLiveBytes() { return liveBytes; }
+        public long getCompactions() { return compactions; }
+
+        @Override
+        public String toString() {
+            return String.format("Embedded Store [%s: %d complaints, %d criminals, %d evidence, %d users; log %d KB, %d KB live, %d compactions]",
+                    logFile, complaints, criminals, evidence, users, logBytes / 1024, liveBytes / 1024, compactions);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.ccrms.store;
+
+import com.ccrms.dao.UserRepository;
+import com.ccrms.models.User;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Users in the embedded store, with a username index.
+ */
+final class EmbeddedUserRepository implements UserRepository, EmbeddedStore.Table {
+
+    private final EmbeddedStore store;
+    private final Map<String, Integer> idByUsername = new HashMap<>();
+
+    EmbeddedUserRepository(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public User findByUsername(String username) {
+        return store.read(() -> {
+            Integer userId = idByUsername.get(username);
+            return userId == null ? null : RecordCodec.decodeUser(userId, store.record(EmbeddedStore.USERS, userId));
+        });
+    }
+
+    @Override
+    public User findById(int userId) {
+        return store.read(() -> {
+            ByteBuffer record = store.record(EmbeddedStore.USERS, userId);
+            return record == null ? null : RecordCodec.decodeUser(userId, record);
+        });
+    }
+
+    @Override
+    public List<User> getUsersByRole(String role) {
+        return store.read(() -> {
+            List<User> users = new ArrayList<>();
+            for (int userId : idByUsername.values()) {
+                User user = RecordCodec.decodeUser(userId, store.record(EmbeddedStore.USERS, userId));
+                if (user.getRole().equals(role)) {
+                    users.add(user);
+                }
+            }
+            users.sort(Comparator.comparingInt(User::getUserId));
+            return users;
+        });
+    }
+
+    @Override
+    public boolean updatePassword(int userId, String newPasswordHash) {
+        return update(userId, "password", user -> user.setPasswordHash(newPasswordHash));
+    }
+
+    @Override
+    public boolean updateRole(int userId, String newRole) {
+        if (!"Admin".equals(newRole) && !"Officer".equals(newRole)) {
+            System.err.println("Store Error updating user role: Invalid role '" + newRole + "'");
+            return false;
+        }
+        return update(userId, "role", user -> user.setRole(newRole));
+    }
+
+    private boolean update(int userId, String what, Consumer<User> change) {
+        try {
+            return store.write(batch -> {
+                ByteBuffer record = store.record(EmbeddedStore.USERS, userId);
+                if (record == null) {
+                    return false;
+                }
+                User user = RecordCodec.decodeUser(userId, record);
+                change.accept(user);
+                batch.put(EmbeddedStore.USERS, userId, RecordCodec.encodeUser(user));
+                return true;
+            });
+        } catch (StoreException e) {
+            System.err.println("Store Error updating user " + what + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // --- Index maintenance ---
+
+    @Override
+    public void clear() {
+        idByUsername.clear();
+    }
+
+    @Override
+    public void put(int id, ByteBuffer previous, ByteBuffer record) {
+        if (previous != null) {
+            idByUsername.remove(RecordCodec.decodeUser(id, previous).getUsername());
+        }
+        idByUsername.put(RecordCodec.decodeUser(id, record).getUsername(), id);
+    }
+
+    @Override
+    public void delete(int id, ByteBuffer previous) {
+        idByUsername.remove(RecordCodec.decodeUser(id, previous).getUsername());
+    }
+}
@@ -0,0 +1,219 @@
+package com.ccrms.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only file of checksummed frames, memory-mapped for both reading and writing.
+ *
+ * Layout: a 12-byte header (magic number and format version), then frames of
+ * <pre>
+ *   [int body length][int CRC32C of the body][body]
+ * </pre>
+ * Replaying the file reads every frame in order. Replay stops at the first frame whose
+ * length is impossible or whose checksum does not match, which is where a write was torn
+ * by a crash; the next append overwrites it. A frame is therefore applied entirely or not
+ * at all.
+ *
+ * The mapping covers the whole file and grows by doubling, so positions are ints and a
+ * log holds at most 1 GB. Frames written to the mapping survive a crash of the JVM, since
+ * they are already in the operating system's page cache; {@link #force()} also makes them
+ * survive a power failure.
+ */
+final class LogFile implements Closeable {
+
+    /**
+     * Receives the frames found when a log is replayed.
+     */
+    interface FrameHandler {
+        /**
+         * @param body The frame body, positioned at its start.
+         * @param bodyOffset The file position of the body, for later {@link #slice} calls.
+         */
+        void frame(ByteBuffer body, int bodyOffset) throws StoreException;
+    }
+
+    static final int HEADER_SIZE = 12;
+    static final int FRAME_OVERHEAD = 8;
+
+    private static final long MAGIC = 0x4343524D534C4F47L; // "CCRMSLOG"
+    private static final int VERSION = 1;
+    private static final int MIN_CAPACITY = 1 << 20;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final Path path;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int end; // Position after the last valid frame
+
+    private LogFile(Path path, FileChannel channel, MappedByteBuffer buffer, int end) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.end = end;
+    }
+
+    /**
+     * Opens a log, creating it if necessary. An existing log must be replayed before
+     * anything is appended to it.
+     * @throws StoreException if the file is not a log or cannot be read.
+     */
+    static LogFile open(Path path) throws StoreException {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            if (size > MAX_CAPACITY) {
+                throw new StoreException("Log file is larger than " + MAX_CAPACITY + " bytes: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityFor(size));
+            if (size == 0) {
+                buffer.putLong(0, MAGIC);
+                buffer.putInt(8, VERSION);
+            } else if (buffer.getLong(0) != MAGIC || buffer.getInt(8) != VERSION) {
+                throw new StoreException("Not a CCRMS store log (or an unsupported version): " + path);
+            }
+            return new LogFile(path, channel, buffer, HEADER_SIZE);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new StoreException("Cannot open " + path + ": " + e.getMessage(), e);
+        } catch (StoreException | RuntimeException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * Hands every valid frame to the handler in order, and positions the end of the log
+     * after the last one.
+     * @throws StoreException if the handler fails.
+     */
+    void replay(FrameHandler handler) throws StoreException {
+        int position = HEADER_SIZE;
+        CRC32C crc = new CRC32C();
+        while (position + FRAME_OVERHEAD <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > buffer.capacity() - position - FRAME_OVERHEAD) {
+                break;
+            }
+            ByteBuffer body = slice(position + FRAME_OVERHEAD, length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break; // Torn write
+            }
+            handler.frame(body, position + FRAME_OVERHEAD);
+            position += FRAME_OVERHEAD + length;
+        }
+        end = position;
+    }
+
+    /**
+     * Hands the frames before the limit to the handler, without moving the end of the log.
+     * Frames below a limit read from {@link #size()} do not change, so the caller need not
+     * hold the lock that guards appends while this runs.
+     */
+    void scan(int limit, FrameHandler handler) throws StoreException {
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        int position = HEADER_SIZE;
+        while (position + FRAME_OVERHEAD <= limit) {
+            int length = view.getInt(position);
+            handler.frame(view.duplicate().position(position + FRAME_OVERHEAD).limit(position + FRAME_OVERHEAD + length).slice(),
+                    position + FRAME_OVERHEAD);
+            position += FRAME_OVERHEAD + length;
+        }
+    }
+
+    /**
+     * Appends one frame.
+     * @param body The frame body, from its position to its limit.
+     * @return The file position of the body.
+     */
+    int append(ByteBuffer body) throws StoreException {
+        int length = body.remaining();
+        ensureCapacity((long) end + FRAME_OVERHEAD + length);
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        int bodyOffset = end + FRAME_OVERHEAD;
+        buffer.put(bodyOffset, body, body.position(), length);
+        buffer.putInt(end + 4, (int) crc.getValue());
+        // The length goes in last: until then a reader of the file sees the end of the log here
+        buffer.putInt(end, length);
+        end = bodyOffset + length;
+        return bodyOffset;
+    }
+
+    /**
+     * @return A read-only view of length bytes at the file position.
+     */
+    ByteBuffer slice(int offset, int length) {
+        return buffer.asReadOnlyBuffer().position(offset).limit(offset + length).slice();
+    }
+
+    int getInt(int offset) {
+        return buffer.getInt(offset);
+    }
+
+    /**
+     * @return The number of bytes in use, header included.
+     */
+    int size() {
+        return end;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Writes the mapped changes through to the storage device.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void ensureCapacity(long required) throws StoreException {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        if (required > MAX_CAPACITY) {
+            throw new StoreException("Log file would exceed " + MAX_CAPACITY + " bytes: " + path);
+        }
+        try {
+            // The old mapping stays valid for readers still holding slices of it
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityFor(required));
+        } catch (IOException e) {
+            throw new StoreException("Cannot grow " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static int capacityFor(long size) {
+        long capacity = MIN_CAPACITY;
+        while (capacity < size) {
+            capacity <<= 1;
+        }
+        return (int) Math.min(capacity, MAX_CAPACITY);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Already failing
+            }
+        }
+    }
+}
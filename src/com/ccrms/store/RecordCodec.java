@@ -0,0 +1,169 @@
+package com.ccrms.store;
+
+import com.ccrms.models.Complaint;
+import com.ccrms.models.Criminal;
+import com.ccrms.models.Evidence;
+import com.ccrms.models.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Binary encoding of the models in the store log.
+ *
+ * The ID is not part of a record (it is stored next to it in the log). Ints are big-endian;
+ * strings are an int byte count (-1 for null) followed by UTF-8; dates are epoch days; a
+ * missing criminal ID is 0, since generated IDs start at 1.
+ */
+final class RecordCodec {
+
+    private RecordCodec() {
+    }
+
+    static ByteBuffer encodeUser(User user) {
+        return new Writer()
+                .writeString(user.getUsername())
+                .writeString(user.getPasswordHash())
+                .writeString(user.getRole())
+                .toBuffer();
+    }
+
+    static User decodeUser(int userId, ByteBuffer record) {
+        ByteBuffer in = record.duplicate();
+        User user = new User(userId, readString(in), null);
+        user.setPasswordHash(readString(in));
+        user.setRole(readString(in));
+        return user;
+    }
+
+    static ByteBuffer encodeCriminal(Criminal criminal) {
+        return new Writer()
+                .writeString(criminal.getName())
+                .writeString(criminal.getCrimeHistory())
+                .writeString(criminal.getStatus())
+                .toBuffer();
+    }
+
+    static Criminal decodeCriminal(int criminalId, ByteBuffer record) {
+        ByteBuffer in = record.duplicate();
+        Criminal criminal = new Criminal();
+        criminal.setCriminalId(criminalId);
+        criminal.setName(readString(in));
+        criminal.setCrimeHistory(readString(in));
+        criminal.setStatus(readString(in));
+        return criminal;
+    }
+
+    static ByteBuffer encodeComplaint(Complaint complaint) {
+        return new Writer()
+                .writeString(complaint.getVictimName())
+                .writeString(complaint.getCrimeType())
+                .writeInt((int) complaint.getComplaintDate().toLocalDate().toEpochDay())
+                .writeString(complaint.getDescription())
+                .writeString(complaint.getStatus())
+                .writeInt(complaint.getAssignedOfficerId())
+                .writeInt(complaint.getCriminalId() == null ? 0 : complaint.getCriminalId())
+                .toBuffer();
+    }
+
+    static Complaint decodeComplaint(int complaintId, ByteBuffer record) {
+        ByteBuffer in = record.duplicate();
+        Complaint complaint = new Complaint();
+        complaint.setComplaintId(complaintId);
+        complaint.setVictimName(readString(in));
+        complaint.setCrimeType(readString(in));
+        complaint.setComplaintDate(Date.valueOf(LocalDate.ofEpochDay(in.getInt())));
+        complaint.setDescription(readString(in));
+        complaint.setStatus(readString(in));
+        complaint.setAssignedOfficerId(in.getInt());
+        int criminalId = in.getInt();
+        complaint.setCriminalId(criminalId == 0 ? null : criminalId);
+        return complaint;
+    }
+
+    static ByteBuffer encodeEvidence(Evidence evidence) {
+        return new Writer()
+                .writeInt(evidence.getComplaintId())
+                .writeString(evidence.getEvidenceType())
+                .writeString(evidence.getDetails())
+                .toBuffer();
+    }
+
+    static Evidence decodeEvidence(int evidenceId, ByteBuffer record) {
+        ByteBuffer in = record.duplicate();
+        int complaintId = in.getInt();
+        return new Evidence(evidenceId, complaintId, readString(in), readString(in));
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A growable big-endian byte buffer.
+     */
+    static final class Writer {
+        private byte[] bytes = new byte[128];
+        private int size = 0;
+
+        Writer writeByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+            return this;
+        }
+
+        Writer writeInt(int value) {
+            ensure(4);
+            bytes[size++] = (byte) (value >>> 24);
+            bytes[size++] = (byte) (value >>> 16);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+            return this;
+        }
+
+        Writer writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            return writeInt((int) value);
+        }
+
+        Writer writeString(String value) {
+            if (value == null) {
+                return writeInt(-1);
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(utf8.length);
+            return writeBytes(ByteBuffer.wrap(utf8));
+        }
+
+        Writer writeBytes(ByteBuffer value) {
+            int length = value.remaining();
+            ensure(length);
+            value.duplicate().get(bytes, size, length);
+            size += length;
+            return this;
+        }
+
+        int size() {
+            return size;
+        }
+
+        ByteBuffer toBuffer() {
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
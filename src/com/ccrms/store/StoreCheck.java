@@ -0,0 +1,180 @@
+package com.ccrms.store;
+
+import com.ccrms.models.Criminal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Recovery check for the embedded store; needs no MySQL server.
+ *
+ * Writes and deletes rows in a scratch store, then checks that reopening the store replays
+ * the same rows, that a torn last frame is dropped as a whole while everything before it
+ * survives, and that a compacted log holds the same rows and keeps generating new IDs.
+ *
+ * Usage:
+ *   java -cp bin com.ccrms.store.StoreCheck [--rows N]
+ * Exits with status 1 if any check fails.
+ */
+public class StoreCheck {
+
+    private int failures = 0;
+
+    public static void main(String[] args) {
+        int rows = 2000;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--rows") && i + 1 < args.length) {
+                rows = Integer.parseInt(args[++i]);
+            }
+        }
+
+        StoreCheck check = new StoreCheck();
+        Path directory = null;
+        try {
+            directory = Files.createTempDirectory("ccrms-store-check");
+            check.run(directory, rows);
+        } catch (IOException | StoreException e) {
+            System.err.println("Store Error running the store check: " + e.getMessage());
+            check.failures = -1;
+        } finally {
+            deleteRecursively(directory);
+        }
+
+        if (check.failures != 0) {
+            System.out.println(check.failures < 0 ? "Store check aborted." : check.failures + " check(s) failed.");
+            System.exit(1);
+        }
+        System.out.println("All store checks OK.");
+    }
+
+    private void run(Path directory, int rows) throws IOException, StoreException {
+        // Criminal ID -> name, as the store should hold it
+        Map<Integer, String> expected = new TreeMap<>();
+
+        try (EmbeddedStore store = EmbeddedStore.open(directory)) {
+            for (int i = 0; i < rows; i++) {
+                add(store, expected, "Criminal " + i);
+            }
+            // Every third row, and the newest one, become dead records
+            List<Integer> ids = new ArrayList<>(expected.keySet());
+            for (int i = 0; i < ids.size(); i += 3) {
+                delete(store, expected, ids.get(i));
+            }
+            delete(store, expected, ids.get(ids.size() - 1));
+            verify("rows before reopening", store, expected);
+        }
+
+        int lastId;
+        try (EmbeddedStore store = EmbeddedStore.open(directory)) {
+            verify("replay", store, expected);
+            lastId = add(store, expected, "After replay");
+            check("replay keeps generating new IDs", lastId > rows, "got ID " + lastId);
+        }
+
+        // A crash while writing a frame leaves its bytes without a valid checksum
+        int tornOffset;
+        try (EmbeddedStore store = EmbeddedStore.open(directory)) {
+            tornOffset = (int) store.getStats().getLogBytes();
+            int tornId = store.criminals().addCriminal(new Criminal(0, "Torn write", null, "Wanted"));
+            check("torn row was written", store.criminals().getCriminalById(tornId) != null, "ID " + tornId);
+        }
+        Path logPath = directory.resolve(EmbeddedStore.LOG_FILE);
+        flipByte(logPath, tornOffset + LogFile.FRAME_OVERHEAD);
+        try (EmbeddedStore store = EmbeddedStore.open(directory)) {
+            verify("torn frame dropped", store, expected);
+            check("log ends before the torn frame", store.getStats().getLogBytes() == tornOffset,
+                    store.getStats().getLogBytes() + " bytes, expected " + tornOffset);
+            lastId = add(store, expected, "After torn write");
+        }
+        try (EmbeddedStore store = EmbeddedStore.open(directory)) {
+            verify("append over the torn frame", store, expected);
+        }
+
+        // Compaction must not hand out the ID of the deleted newest row again
+        expected.remove(lastId);
+        try (EmbeddedStore store = EmbeddedStore.open(directory)) {
+            check("row deleted before compaction", store.criminals().deleteCriminal(lastId), "ID " + lastId);
+            long before = store.getStats().getLogBytes();
+            store.compact();
+            long after = store.getStats().getLogBytes();
+            check("compaction shrinks the log", after < before, before + " -> " + after + " bytes");
+            verify("compaction", store, expected);
+        }
+        try (EmbeddedStore store = EmbeddedStore.open(directory)) {
+            verify("replay of the compacted log", store, expected);
+            int id = add(store, expected, "After compaction");
+            check("compaction keeps the ID sequence", id > lastId, "got ID " + id + " after " + lastId);
+        }
+        try (EmbeddedStore store = EmbeddedStore.open(directory)) {
+            verify("append to the compacted log", store, expected);
+        }
+    }
+
+    private int add(EmbeddedStore store, Map<Integer, String> expected, String name) {
+        int id = store.criminals().addCriminal(new Criminal(0, name, null, "Wanted"));
+        if (id > 0) {
+            expected.put(id, name);
+        }
+        return id;
+    }
+
+    private void delete(EmbeddedStore store, Map<Integer, String> expected, int id) {
+        store.criminals().deleteCriminal(id);
+        expected.remove(id);
+    }
+
+    private void verify(String name, EmbeddedStore store, Map<Integer, String> expected) {
+        Map<Integer, String> actual = new TreeMap<>();
+        for (Criminal criminal : store.criminals().getAllCriminals()) {
+            actual.put(criminal.getCriminalId(), criminal.getName());
+        }
+        boolean counted = store.getStats().getCriminals() == expected.size();
+        check(name, actual.equals(expected) && counted,
+                actual.size() + " rows (" + store.getStats().getCriminals() + " counted), expected " + expected.size());
+    }
+
+    private void check(String name, boolean ok, String detail) {
+        if (ok) {
+            System.out.println("OK    " + name);
+        } else {
+            failures++;
+            System.out.println("FAIL  " + name + ": " + detail);
+        }
+    }
+
+    private static void flipByte(Path path, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, offset);
+            b.put(0, (byte) ~b.get(0)).rewind();
+            channel.write(b, offset);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Could not remove " + directory + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ccrms.store;
+
+/**
+ * Signals that the embedded store could not carry out an operation: an I/O failure, a
+ * corrupt log, or a write that would break a constraint (e.g. a missing referenced row).
+ * Nothing of a failed write is applied.
+ */
+public class StoreException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public StoreException(String message) {
+        super(message);
+    }
+
+    public StoreException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,711 @@
+package com.ccrms.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small bounded JDBC connection pool.
+ *
+ * Connections handed out by {@link #borrow()} are proxies: calling close() on them
+ * returns the underlying physical connection to the pool instead of closing it,
+ * so the DAOs' try-with-resources blocks keep working unchanged.
+ *
+ * The pool provides:
+ *  - a hard upper bound on the number of physical connections,
+ *  - validation of connections that have been idle for a while before they are handed out,
+ *  - eviction of connections that stay idle longer than the configured limit,
+ *  - leak detection for connections that are held longer than the configured threshold,
+ *    reporting the borrowing thread (and, with -Dccrms.pool.leakTrace=true, the stack that
+ *    borrowed the connection, at the cost of capturing it on every borrow),
+ *  - per-connection reuse of the prepared statements declared in the {@link StatementRegistry},
+ *  - borrow-wait, active and idle counters (see {@link Stats}).
+ *
+ * Preparing a registered SQL string returns a proxy around the physical statement the
+ * connection already holds for it; closing the proxy clears its parameters and keeps the
+ * statement open for the next borrower. The proxy (and the ResultSets it returns) record
+ * latency, rows and errors in the registry.
+ */
+public class ConnectionPool {
+
+    public static final String LEAK_TRACE_PROPERTY = "ccrms.pool.leakTrace";
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private final int maxSize;
+    private final int minIdle;
+    private final long borrowTimeoutMillis;
+    private final long maxIdleMillis;
+    private final long validateAfterIdleMillis;
+    private final long leakThresholdMillis;
+    private final boolean traceBorrowSites = Boolean.getBoolean(LEAK_TRACE_PROPERTY);
+
+    // Idle connections, most recently used first (LIFO keeps the hot set small)
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown = false;
+
+    // Statistics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowWaitNanos = new AtomicLong();
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    /**
+     * Creates a new pool. No connection is opened until the first borrow.
+     *
+     * @param url The JDBC URL.
+     * @param user The database user.
+     * @param password The database password.
+     * @param maxSize The maximum number of physical connections.
+     * @param minIdle The number of idle connections kept open by the eviction task.
+     * @param borrowTimeoutMillis How long {@link #borrow()} waits for a free connection.
+     * @param maxIdleMillis How long a connection may stay idle before it is evicted.
+     * @param validateAfterIdleMillis Idle time after which a connection is validated on borrow.
+     * @param leakThresholdMillis How long a connection may be held before it is reported as a leak.
+     */
+    public ConnectionPool(String url, String user, String password,
+                          int maxSize, int minIdle,
+                          long borrowTimeoutMillis, long maxIdleMillis,
+                          long validateAfterIdleMillis, long leakThresholdMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(minIdle, maxSize);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.maxIdleMillis = maxIdleMillis;
+        this.validateAfterIdleMillis = validateAfterIdleMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ccrms-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(maxIdleMillis, leakThresholdMillis) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, waiting up to the borrow timeout if all
+     * connections are in use. The returned connection must be closed by the caller,
+     * which returns it to the pool.
+     *
+     * @return A pooled Connection.
+     * @throws SQLException if no connection could be obtained in time or a new one could not be opened.
+     */
+    public Connection borrow() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down.");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection (pool size " + maxSize + ").");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+
+        PooledConnection pooled;
+        try {
+            pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(DriverManager.getConnection(url, user, password));
+                createdCount.incrementAndGet();
+            }
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        long waited = System.nanoTime() - start;
+        borrowCount.incrementAndGet();
+        borrowWaitNanos.addAndGet(waited);
+        maxBorrowWaitNanos.accumulateAndGet(waited, Math::max);
+
+        pooled.borrowedAt = System.currentTimeMillis();
+        pooled.borrowThread = Thread.currentThread().getName();
+        pooled.borrowSite = traceBorrowSites ? new Throwable("Connection borrowed here") : null;
+        pooled.leakReported = false;
+        active.add(pooled);
+        return pooled.newHandle();
+    }
+
+    /**
+     * Polls idle connections until a usable one is found.
+     * Connections idle for longer than the validation threshold are pinged first.
+     */
+    private PooledConnection takeValidIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            long idleFor = System.currentTimeMillis() - pooled.lastReturned;
+            if (idleFor < validateAfterIdleMillis || isValid(pooled)) {
+                return pooled;
+            }
+            validationFailures.incrementAndGet();
+            destroy(pooled);
+        }
+        return null;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a connection to the pool. Called by the proxy's close().
+     */
+    private void release(PooledConnection pooled) {
+        active.remove(pooled);
+        pooled.borrowThread = null;
+        pooled.borrowSite = null;
+        pooled.releaseStatements();
+        try {
+            if (shutdown || pooled.physical.isClosed()) {
+                destroy(pooled);
+            } else {
+                // Leave the connection in a clean state for the next borrower
+                if (!pooled.physical.getAutoCommit()) {
+                    pooled.physical.rollback();
+                    pooled.physical.setAutoCommit(true);
+                }
+                if (pooled.physical.isReadOnly()) {
+                    pooled.physical.setReadOnly(false);
+                }
+                pooled.physical.clearWarnings();
+                pooled.lastReturned = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            System.err.println("Discarding broken pooled connection: " + e.getMessage());
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        destroyedCount.incrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error while closing a pooled connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Periodic task: evicts connections idle for too long and reports leaked connections.
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        // Idle eviction, oldest first, keeping at least minIdle connections open
+        while (idle.size() > minIdle) {
+            PooledConnection oldest = idle.peekLast();
+            if (oldest == null || now - oldest.lastReturned < maxIdleMillis) {
+                break;
+            }
+            if (idle.removeLastOccurrence(oldest)) {
+                destroy(oldest);
+            }
+        }
+
+        // Leak detection
+        for (PooledConnection pooled : active) {
+            String thread = pooled.borrowThread;
+            Throwable site = pooled.borrowSite;
+            if (!pooled.leakReported && thread != null && now - pooled.borrowedAt > leakThresholdMillis) {
+                pooled.leakReported = true;
+                leaksDetected.incrementAndGet();
+                System.err.println("WARNING: Possible connection leak, connection held for "
+                        + (now - pooled.borrowedAt) + " ms by thread " + thread + ".");
+                if (site != null) {
+                    site.printStackTrace();
+                } else {
+                    System.err.println("Start with -D" + LEAK_TRACE_PROPERTY + "=true to see where it was borrowed.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes all idle connections and stops the housekeeping task.
+     * Connections still in use are closed when they are returned.
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return A point-in-time snapshot of the pool counters.
+     */
+    public Stats getStats() {
+        return new Stats(active.size(), idle.size(), maxSize,
+                borrowCount.get(), borrowWaitNanos.get(), maxBorrowWaitNanos.get(),
+                borrowTimeouts.get(), createdCount.get(), destroyedCount.get(),
+                validationFailures.get(), leaksDetected.get(),
+                statementCacheHits.get(), statementCacheMisses.get());
+    }
+
+    /**
+     * A physical connection plus its pool bookkeeping.
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        volatile long lastReturned = System.currentTimeMillis();
+        volatile long borrowedAt;
+        volatile String borrowThread;
+        volatile Throwable borrowSite; // Only with leak tracing
+        volatile boolean leakReported;
+
+        // Prepared statements kept open on this connection, keyed by SQL and prepare options.
+        // Only registered statements are cached, so the map stays small. It is only used by
+        // the thread that currently holds the connection.
+        final Map<String, CachedStatement> statements = new HashMap<>();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * Prepares a registered statement, reusing the cached one when it is free.
+         * A statement that is already in use on this connection (the same query open
+         * twice) gets a temporary, uncached copy.
+         */
+        PreparedStatement prepare(Handle handle, StatementRegistry.Entry entry, Method method, Object[] args) throws Throwable {
+            String key = cacheKey(args);
+            CachedStatement cached = key == null ? null : statements.get(key);
+            if (cached != null && !cached.inUse && !cached.physical.isClosed()) {
+                statementCacheHits.incrementAndGet();
+            } else {
+                statementCacheMisses.incrementAndGet();
+                PreparedStatement physicalStatement = (PreparedStatement) invokeOn(physical, method, args);
+                if (key != null && (cached == null || cached.physical.isClosed())) {
+                    cached = new CachedStatement(key, physicalStatement);
+                    statements.put(key, cached);
+                } else {
+                    cached = new CachedStatement(null, physicalStatement);
+                }
+            }
+            cached.inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new TrackedStatement(handle, entry, cached));
+        }
+
+        /**
+         * Makes every cached statement available again. Called when the connection is returned,
+         * in case a borrower did not close its statements.
+         */
+        void releaseStatements() {
+            for (CachedStatement cached : statements.values()) {
+                if (cached.inUse) {
+                    recycle(cached);
+                }
+            }
+        }
+
+        /**
+         * Clears a statement for its next use, or drops it from the cache if that fails.
+         */
+        void recycle(CachedStatement cached) {
+            cached.inUse = false;
+            if (cached.key == null) {
+                closeQuietly(cached);
+                return;
+            }
+            try {
+                if (!cached.physical.isClosed()) {
+                    cached.physical.clearParameters();
+                    cached.physical.clearBatch();
+                    if (cached.physical.getFetchSize() != 0) {
+                        cached.physical.setFetchSize(0);
+                    }
+                    return;
+                }
+            } catch (SQLException e) {
+                closeQuietly(cached);
+            }
+            statements.remove(cached.key);
+        }
+
+        private void closeQuietly(CachedStatement cached) {
+            try {
+                cached.physical.close();
+            } catch (SQLException e) {
+                System.err.println("Error while closing a pooled statement: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Creates a fresh proxy for one borrow. Once closed, the proxy refuses further use,
+         * so a stale reference cannot interfere with the next borrower.
+         */
+        Connection newHandle() {
+            Handle handle = new Handle(this);
+            handle.proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    handle);
+            return handle.proxy;
+        }
+    }
+
+    /**
+     * Invocation handler behind each borrowed connection.
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private Connection proxy;
+        private boolean closed = false;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            if (method.getName().equals("prepareStatement")) {
+                StatementRegistry.Entry entry = StatementRegistry.lookup((String) args[0]);
+                if (entry != null) {
+                    return pooled.prepare(this, entry, method, args);
+                }
+            }
+            return invokeOn(pooled.physical, method, args);
+        }
+    }
+
+    /**
+     * A physical prepared statement owned by one connection.
+     */
+    private static final class CachedStatement {
+        final String key; // null for a temporary statement that is closed after use
+        final PreparedStatement physical;
+        boolean inUse;
+
+        CachedStatement(String key, PreparedStatement physical) {
+            this.key = key;
+            this.physical = physical;
+        }
+    }
+
+    /**
+     * Invocation handler behind each prepared statement handed out for a registered query.
+     * Times executions and counts the rows they return or affect.
+     */
+    private final class TrackedStatement implements InvocationHandler {
+        private final Handle connection;
+        private final StatementRegistry.Entry entry;
+        private final CachedStatement cached;
+        private TrackedResults results;
+        private boolean closed = false;
+
+        TrackedStatement(Handle connection, StatementRegistry.Entry entry, CachedStatement cached) {
+            this.connection = connection;
+            this.entry = entry;
+            this.cached = cached;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        finishResults();
+                        // Once the connection is returned, its cached statements belong to the next borrower
+                        if (!connection.closed || cached.key == null) {
+                            connection.pooled.recycle(cached);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || connection.closed || cached.physical.isClosed();
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledStatement[" + entry.name + "]";
+                default:
+                    break;
+            }
+            if (closed || connection.closed) {
+                throw new SQLException("Statement has already been closed.");
+            }
+            switch (method.getName()) {
+                case "getConnection":
+                    return connection.proxy;
+                case "executeQuery":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "executeBatch":
+                case "executeLargeBatch":
+                case "execute":
+                    return execute(proxy, method, args);
+                default:
+                    return invokeOn(cached.physical, method, args);
+            }
+        }
+
+        private Object execute(Object proxy, Method method, Object[] args) throws Throwable {
+            finishResults();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeOn(cached.physical, method, args);
+            } catch (Throwable t) {
+                entry.recordError();
+                throw t;
+            }
+            entry.recordExecution(System.nanoTime() - start);
+
+            if (result instanceof ResultSet) {
+                results = new TrackedResults(entry, (ResultSet) result, (PreparedStatement) proxy);
+                return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, results);
+            } else if (result instanceof Number) {
+                entry.recordRows(Math.max(((Number) result).longValue(), 0));
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    entry.recordRows(Math.max(count, 0));
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    entry.recordRows(Math.max(count, 0));
+                }
+            } else if (Boolean.FALSE.equals(result)) {
+                entry.recordRows(Math.max(cached.physical.getUpdateCount(), 0));
+            }
+            return result;
+        }
+
+        private void finishResults() {
+            if (results != null) {
+                results.finish();
+                results = null;
+            }
+        }
+    }
+
+    /**
+     * Invocation handler behind the ResultSets of a tracked statement; counts the rows read.
+     * unwrap() returns the driver's ResultSet.
+     */
+    private static final class TrackedResults implements InvocationHandler {
+        private final StatementRegistry.Entry entry;
+        private final ResultSet physical;
+        private final PreparedStatement statement;
+        private long rows;
+        private boolean finished = false;
+
+        TrackedResults(StatementRegistry.Entry entry, ResultSet physical, PreparedStatement statement) {
+            this.entry = entry;
+            this.physical = physical;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    boolean hasRow = physical.next();
+                    if (hasRow) {
+                        rows++;
+                    }
+                    return hasRow;
+                case "close":
+                    finish();
+                    physical.close();
+                    return null;
+                case "getStatement":
+                    return statement;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return invokeOn(physical, method, args);
+            }
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                entry.recordRows(rows);
+            }
+        }
+    }
+
+    /**
+     * @return The statement cache key for prepareStatement() arguments, or null if the
+     *         options cannot be cached (column index or name arrays).
+     */
+    private static String cacheKey(Object[] args) {
+        if (args.length == 1) {
+            return (String) args[0];
+        }
+        StringBuilder key = new StringBuilder((String) args[0]);
+        for (int i = 1; i < args.length; i++) {
+            if (!(args[i] instanceof Integer)) {
+                return null;
+            }
+            key.append('\0').append(args[i]);
+        }
+        return key.toString();
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Immutable snapshot of the pool counters.
+     */
+    public static class Stats {
+        private final int active;
+        private final int idle;
+        private final int maxSize;
+        private final long borrowCount;
+        private final long totalBorrowWaitNanos;
+        private final long maxBorrowWaitNanos;
+        private final long borrowTimeouts;
+        private final long created;
+        private final long destroyed;
+        private final long validationFailures;
+        private final long leaksDetected;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+
+        Stats(int active, int idle, int maxSize, long borrowCount, long totalBorrowWaitNanos,
+              long maxBorrowWaitNanos, long borrowTimeouts, long created, long destroyed,
+              long validationFailures, long leaksDetected,
+              long statementCacheHits, long statementCacheMisses) {
+            this.active = active;
+            this.idle = idle;
+            this.maxSize = maxSize;
+            this.borrowCount = borrowCount;
+            this.totalBorrowWaitNanos = totalBorrowWaitNanos;
+            this.maxBorrowWaitNanos = maxBorrowWaitNanos;
+            this.borrowTimeouts = borrowTimeouts;
+            this.created = created;
+            this.destroyed = destroyed;
+            this.validationFailures = validationFailures;
+            this.leaksDetected = leaksDetected;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getMaxSize() { return maxSize; }
+        public long getBorrowCount() { return borrowCount; }
+        public long getTotalBorrowWaitNanos() { return totalBorrowWaitNanos; }
+        public long getMaxBorrowWaitNanos() { return maxBorrowWaitNanos; }
+        public long getBorrowTimeouts() { return borrowTimeouts; }
+        public long getCreated() { return created; }
+        public long getDestroyed() { return destroyed; }
+        public long getValidationFailures() { return validationFailures; }
+        public long getLeaksDetected() { return leaksDetected; }
+        public long getStatementCacheHits() { return statementCacheHits; }
+        public long getStatementCacheMisses() { return statementCacheMisses; }
+
+        public double getAverageBorrowWaitMillis() {
+            return borrowCount == 0 ? 0.0 : totalBorrowWaitNanos / 1_000_000.0 / borrowCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "Pool [active=%d, idle=%d, max=%d]\n  Borrows: %d, avg wait: %.3f ms, max wait: %.3f ms, timeouts: %d\n  Created: %d, destroyed: %d, validation failures: %d, leaks: %d\n  Statement cache: %d hits, %d prepares",
+                active, idle, maxSize,
+                borrowCount, getAverageBorrowWaitMillis(), maxBorrowWaitNanos / 1_000_000.0, borrowTimeouts,
+                created, destroyed, validationFailures, leaksDetected,
+                statementCacheHits, statementCacheMisses
+            );
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ccrms.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Periodic JDK Flight Recorder sample of the connection pool counters, emitted once
+ * per second while a recording is running.
+ */
+@Name("com.ccrms.ConnectionPool")
+@Label("Connection Pool")
+@Category({"CCRMS", "Database"})
+@Description("Connection pool usage and statement cache counters")
+@Period("1 s")
+@StackTrace(false)
+class ConnectionPoolEvent extends Event {
+
+    private static volatile ConnectionPool monitored;
+    private static boolean registered = false;
+
+    @Label("Active Connections")
+    int active;
+
+    @Label("Idle Connections")
+    int idle;
+
+    @Label("Maximum Connections")
+    int maxSize;
+
+    @Label("Borrows")
+    long borrows;
+
+    @Label("Borrow Timeouts")
+    long borrowTimeouts;
+
+    @Label("Maximum Borrow Wait (ms)")
+    double maxBorrowWaitMillis;
+
+    @Label("Statement Cache Hits")
+    long statementCacheHits;
+
+    @Label("Statement Prepares")
+    long statementCacheMisses;
+
+    /**
+     * Samples the given pool from now on; null stops sampling.
+     */
+    static synchronized void monitor(ConnectionPool pool) {
+        monitored = pool;
+        if (!registered && pool != null) {
+            registered = true;
+            FlightRecorder.addPeriodicEvent(ConnectionPoolEvent.class, ConnectionPoolEvent::emit);
+        }
+    }
+
+    private static void emit() {
+        ConnectionPool pool = monitored;
+        if (pool == null) {
+            return;
+        }
+        ConnectionPool.Stats stats = pool.getStats();
+        ConnectionPoolEvent event = new ConnectionPoolEvent();
+        event.active = stats.getActive();
+        event.idle = stats.getIdle();
+        event.maxSize = stats.getMaxSize();
+        event.borrows = stats.getBorrowCount();
+        event.borrowTimeouts = stats.getBorrowTimeouts();
+        event.maxBorrowWaitMillis = stats.getMaxBorrowWaitNanos() / 1_000_000.0;
+        event.statementCacheHits = stats.getStatementCacheHits();
+        event.statementCacheMisses = stats.getStatementCacheMisses();
+        event.commit();
+    }
+}
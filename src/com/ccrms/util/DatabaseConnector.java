@@ -1,12 +1,14 @@
 package com.ccrms.util;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
  * Utility class for managing database connections.
- * It provides a static method to get a database connection.
+ * It provides a static method to borrow a connection from a bounded pool.
  *
  * NOTE: In a production environment, connection details should be externalized
  * to a configuration file (e.g., .properties) or environment variables
@@ -22,46 +24,143 @@ public class DatabaseConnector {
     // CREATE USER 'ccrms_user'@'localhost' IDENTIFIED BY 'ccrms_password';
     // GRANT ALL PRIVILEGES ON cyber_crime_db.* TO 'ccrms_user'@'localhost';
     // FLUSH PRIVILEGES;
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/cyber_crime_db";
+    // rewriteBatchedStatements lets the driver send JDBC batches as multi-row INSERTs.
+    // useServerPrepStmts makes prepared statements server-side, so the statements the pool
+    // keeps per connection (see StatementRegistry) are parsed by the server only once.
+    private static final String DB_URL = "jdbc:mysql://localhost:3306/cyber_crime_db?rewriteBatchedStatements=true&useServerPrepStmts=true";
     private static final String DB_USER = "ccrms_user";
     private static final String DB_PASSWORD = "ccrms_password";
 
-    private static Connection connection = null;
+    // --- CONNECTION POOL SETTINGS ---
+    private static final int POOL_MAX_SIZE = 10;
+    private static final int POOL_MIN_IDLE = 1;
+    private static final long POOL_BORROW_TIMEOUT_MS = 10_000;
+    private static final long POOL_MAX_IDLE_MS = 5 * 60_000;
+    private static final long POOL_VALIDATE_AFTER_IDLE_MS = 5_000;
+    private static final long POOL_LEAK_THRESHOLD_MS = 60_000;
+
+    private static ConnectionPool pool = null;
+
+    // Connection shared by all DAO calls of a thread, see pinConnection()
+    private static final ThreadLocal<Connection> pinned = new ThreadLocal<>();
 
     /**
-     * Returns a singleton connection to the database.
-     * If the connection is null or closed, it attempts to create a new one.
+     * Borrows a connection from the shared connection pool.
+     * Closing the returned connection (e.g. via try-with-resources) hands it back
+     * to the pool instead of tearing down the physical connection.
      *
      * @return A valid database Connection object.
      * @throws SQLException if a database access error occurs.
      */
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                // The new driver class is com.mysql.cj.jdbc.Driver
-                // However, it's automatically registered via the SPI mechanism,
-                // so Class.forName() is not required for modern JDBC drivers.
-                connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-            } catch (SQLException e) {
-                System.err.println("FATAL: Database connection failed.");
-                System.err.println("Please check if the database is running and if the credentials in DatabaseConnector.java are correct.");
-                throw e; // Propagate the exception to the caller
-            }
+        Connection shared = pinned.get();
+        if (shared != null) {
+            return nonClosing(shared);
         }
-        return connection;
+        try {
+            // The new driver class is com.mysql.cj.jdbc.Driver
+            // However, it's automatically registered via the SPI mechanism,
+            // so Class.forName() is not required for modern JDBC drivers.
+            return getPool().borrow();
+        } catch (SQLException e) {
+            System.err.println("FATAL: Database connection failed.");
+            System.err.println("Please check if the database is running and if the credentials in DatabaseConnector.java are correct.");
+            throw e; // Propagate the exception to the caller
+        }
+    }
+
+    /**
+     * Borrows one connection and makes every getConnection() call of the current thread
+     * return it until the returned handle is closed, so a sequence of DAO calls (e.g. a
+     * batch script) runs on a single connection and its prepared statements.
+     * Closing the connections handed out in between has no effect.
+     *
+     * @return The pinned connection; close it to unpin it and return it to the pool.
+     * @throws SQLException if a connection could not be borrowed.
+     * @throws IllegalStateException if the thread already has a pinned connection.
+     */
+    public static Connection pinConnection() throws SQLException {
+        if (pinned.get() != null) {
+            throw new IllegalStateException("This thread already has a pinned connection.");
+        }
+        Connection connection = getConnection();
+        pinned.set(connection);
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && pinned.get() == connection) {
+                        pinned.remove();
+                    }
+                    return invoke(connection, method, args);
+                });
+    }
+
+    /**
+     * Wraps a pinned connection so that the DAOs' close() calls leave it open.
+     */
+    private static Connection nonClosing(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            return invoke(connection, method, args);
+                    }
+                });
+    }
+
+    private static Object invoke(Connection connection, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns the shared pool, creating it on first use.
+     */
+    private static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            pool = new ConnectionPool(DB_URL, DB_USER, DB_PASSWORD,
+                    POOL_MAX_SIZE, POOL_MIN_IDLE,
+                    POOL_BORROW_TIMEOUT_MS, POOL_MAX_IDLE_MS,
+                    POOL_VALIDATE_AFTER_IDLE_MS, POOL_LEAK_THRESHOLD_MS);
+            ConnectionPoolEvent.monitor(pool);
+        }
+        return pool;
+    }
+
+    /**
+     * @return The maximum number of connections the pool will open.
+     */
+    public static int getMaxPoolSize() {
+        return POOL_MAX_SIZE;
+    }
+
+    /**
+     * @return A snapshot of the pool counters (active, idle, borrow waits, ...).
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return getPool().getStats();
     }
 
     /**
-     * Closes the singleton database connection.
+     * Shuts down the connection pool and closes all idle connections.
      */
-    public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null;
-            } catch (SQLException e) {
-                System.err.println("Error while closing the database connection: " + e.getMessage());
-            }
+    public static synchronized void closeConnection() {
+        if (pool != null) {
+            ConnectionPoolEvent.monitor(null);
+            pool.shutdown();
+            pool = null;
         }
     }
 }
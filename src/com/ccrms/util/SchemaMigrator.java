@@ -0,0 +1,197 @@
+package com.ccrms.util;
+
+import com.ccrms.dao.EvidenceDAO;
+import com.ccrms.dao.Repositories;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Applies versioned schema migrations on top of the base schema in schema.sql.
+ *
+ * Applied versions are recorded in the schema_version table, so each migration runs
+ * exactly once per database. Migrations are append-only: never change what a released one
+ * does, add a new version instead.
+ *
+ * MySQL commits every DDL statement on its own, so a migration that fails partway leaves
+ * its earlier statements applied while its version stays unrecorded. Every step is therefore
+ * idempotent: tables are created with IF NOT EXISTS, indexes and columns only if
+ * information_schema does not list them yet, and data steps only fill in what is missing.
+ * The next start then simply finishes the migration.
+ */
+public class SchemaMigrator {
+
+    /**
+     * One idempotent step of a migration: DDL or a data step for work that cannot be
+     * expressed in SQL.
+     */
+    private interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    /**
+     * A numbered list of steps, optionally followed by a data step.
+     */
+    private static final class Migration {
+        final int version;
+        final String description;
+        final Step[] steps;
+        Step dataStep;
+
+        Migration(int version, String description, Step... steps) {
+            this.version = version;
+            this.description = description;
+            this.steps = steps;
+        }
+
+        Migration then(Step step) {
+            this.dataStep = step;
+            return this;
+        }
+    }
+
+    private static final List<Migration> MIGRATIONS = Arrays.asList(
+        new Migration(1, "Secondary indexes for DAO queries",
+            // Keyset paging and ORDER BY complaint_date (InnoDB appends complaint_id to every secondary index)
+            createIndex("complaints", "idx_complaints_date", "complaint_date"),
+            // Status report and status filters, newest first
+            createIndex("complaints", "idx_complaints_status_date", "status, complaint_date"),
+            // Officer workload report; also serves the assigned_officer_id foreign key
+            createIndex("complaints", "idx_complaints_officer_status", "assigned_officer_id, status"),
+            // Crime type report, crime type x status and month x crime type cross-tabs (covering)
+            createIndex("complaints", "idx_complaints_type_status_date", "crime_type, status, complaint_date"),
+            // getAllCriminals() orders by name
+            createIndex("criminals", "idx_criminals_name", "name")
+            // complaints.criminal_id and evidence.complaint_id are covered by their implicit foreign key indexes
+        ),
+        new Migration(2, "Hashed indicator lookup table for evidence",
+            sql("CREATE TABLE IF NOT EXISTS evidence_indicators ("
+                + "evidence_id INT PRIMARY KEY, "
+                + "complaint_id INT NOT NULL, "
+                + "indicator_hash BIGINT NOT NULL, "
+                + "indicator_key VARCHAR(255) NOT NULL, "
+                // "Which complaints mention X" is an index-only range on (hash, complaint_id)
+                + "INDEX idx_indicators_hash (indicator_hash, complaint_id), "
+                + "FOREIGN KEY (evidence_id) REFERENCES evidence(evidence_id) ON DELETE CASCADE)")
+        ).then(EvidenceDAO::backfillIndicators), // Normalization and hashing live in Java
+        new Migration(3, "Numeric IP addresses for evidence",
+            // 16-byte big-endian, IPv4 stored IPv4-mapped, so BETWEEN on bytes is a numeric range
+            addColumn("evidence", "ip_address", "VARBINARY(16) NULL AFTER details"),
+            createIndex("evidence", "idx_evidence_ip", "ip_address")
+        ).then(EvidenceDAO::backfillIpAddresses)
+    );
+
+    private static final String INDEX_EXISTS_SQL = "SELECT COUNT(*) FROM information_schema.statistics "
+            + "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?";
+    private static final String COLUMN_EXISTS_SQL = "SELECT COUNT(*) FROM information_schema.columns "
+            + "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?";
+
+    private static final String CREATE_VERSION_TABLE_SQL = "CREATE TABLE IF NOT EXISTS schema_version ("
+            + "version INT PRIMARY KEY, "
+            + "description VARCHAR(200) NOT NULL, "
+            + "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+    private static final String CURRENT_VERSION_SQL = "SELECT COALESCE(MAX(version), 0) FROM schema_version";
+    private static final String RECORD_VERSION_SQL = "INSERT INTO schema_version (version, description) VALUES (?, ?)";
+
+    /**
+     * @return The highest migration version known to this build.
+     */
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    /**
+     * Applies all pending migrations in version order.
+     * The version is recorded once all steps of a migration have succeeded; after a failure
+     * the next run repeats the migration, skipping what its steps already did.
+     *
+     * @return The number of migrations applied, or -1 if a migration failed.
+     */
+    public static int migrate() {
+        if (Repositories.isEmbedded()) {
+            return 0; // The embedded store has no SQL schema
+        }
+        int applied = 0;
+        try (Connection conn = DatabaseConnector.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            stmt.executeUpdate(CREATE_VERSION_TABLE_SQL);
+            int current;
+            try (ResultSet rs = stmt.executeQuery(CURRENT_VERSION_SQL)) {
+                rs.next();
+                current = rs.getInt(1);
+            }
+
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version <= current) {
+                    continue;
+                }
+                for (Step step : migration.steps) {
+                    step.apply(conn);
+                }
+                if (migration.dataStep != null) {
+                    migration.dataStep.apply(conn);
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(RECORD_VERSION_SQL)) {
+                    pstmt.setInt(1, migration.version);
+                    pstmt.setString(2, migration.description);
+                    pstmt.executeUpdate();
+                }
+                System.out.println("Applied schema migration " + migration.version + ": " + migration.description);
+                applied++;
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL Error applying schema migrations: " + e.getMessage());
+            return -1;
+        }
+        return applied;
+    }
+
+    /**
+     * @return A step that runs one statement, which must be idempotent by itself (e.g. IF NOT EXISTS).
+     */
+    private static Step sql(String statement) {
+        return conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(statement);
+            }
+        };
+    }
+
+    /**
+     * @return A step that creates the index unless the table already has one with this name.
+     */
+    private static Step createIndex(String table, String index, String columns) {
+        return conn -> {
+            if (!exists(conn, INDEX_EXISTS_SQL, table, index)) {
+                sql("CREATE INDEX " + index + " ON " + table + " (" + columns + ")").apply(conn);
+            }
+        };
+    }
+
+    /**
+     * @return A step that adds the column unless the table already has it.
+     */
+    private static Step addColumn(String table, String column, String definition) {
+        return conn -> {
+            if (!exists(conn, COLUMN_EXISTS_SQL, table, column)) {
+                sql("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition).apply(conn);
+            }
+        };
+    }
+
+    private static boolean exists(Connection conn, String query, String table, String name) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setString(1, table);
+            pstmt.setString(2, name);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+}
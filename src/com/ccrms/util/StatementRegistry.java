@@ -0,0 +1,126 @@
+package com.ccrms.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The registry of every SQL statement the DAOs run.
+ *
+ * DAOs declare each query once, as a constant initialized through {@link #register}.
+ * When a registered SQL string is prepared on a pooled connection, the
+ * {@link ConnectionPool} reuses the server-side prepared statement it keeps for that
+ * connection instead of preparing it again, and records the execution count,
+ * latency histogram, rows returned or affected and errors of the statement here.
+ * Statements that were not registered are prepared and closed as usual and are not tracked.
+ */
+public class StatementRegistry {
+
+    private static final Map<String, Entry> BY_SQL = new ConcurrentHashMap<>();
+
+    private StatementRegistry() {
+    }
+
+    /**
+     * Registers a statement. Registering the same SQL again returns the existing
+     * registration, so statements built at runtime can be registered on every use.
+     *
+     * @param name A short name for reports, e.g. "ComplaintDAO.getComplaintById".
+     * @param sql The SQL text.
+     * @return The SQL text, to be stored in the DAO's constant and passed to prepareStatement().
+     */
+    public static String register(String name, String sql) {
+        return BY_SQL.computeIfAbsent(sql, s -> new Entry(name, s)).sql;
+    }
+
+    /**
+     * @return The registration for the SQL text, or null if it was not registered.
+     */
+    static Entry lookup(String sql) {
+        return BY_SQL.get(sql);
+    }
+
+    /**
+     * @return The statistics of every registered statement, most total execution time first.
+     */
+    public static List<Stats> getStats() {
+        List<Stats> stats = new ArrayList<>(BY_SQL.size());
+        for (Entry entry : BY_SQL.values()) {
+            stats.add(entry.stats());
+        }
+        stats.sort(Comparator.comparingLong((Stats s) -> s.getLatency().getTotalNanos()).reversed()
+                .thenComparing(Stats::getName));
+        return stats;
+    }
+
+    /**
+     * A registered statement and its counters.
+     */
+    static final class Entry {
+        final String name;
+        final String sql;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        Entry(String name, String sql) {
+            this.name = name;
+            this.sql = sql;
+        }
+
+        void recordExecution(long nanos) {
+            latency.record(nanos);
+        }
+
+        void recordRows(long count) {
+            rows.add(count);
+        }
+
+        void recordError() {
+            errors.increment();
+        }
+
+        Stats stats() {
+            return new Stats(name, sql, latency.snapshot(), rows.sum(), errors.sum());
+        }
+    }
+
+    /**
+     * Immutable snapshot of one statement's counters.
+     */
+    public static class Stats {
+        private final String name;
+        private final String sql;
+        private final LatencyHistogram.Snapshot latency;
+        private final long rows;
+        private final long errors;
+
+        Stats(String name, String sql, LatencyHistogram.Snapshot latency, long rows, long errors) {
+            this.name = name;
+            this.sql = sql;
+            this.latency = latency;
+            this.rows = rows;
+            this.errors = errors;
+        }
+
+        public String getName() { return name; }
+        public String getSql() { return sql; }
+        public LatencyHistogram.Snapshot getLatency() { return latency; }
+        public long getExecutions() { return latency.getCount(); }
+        public long getRows() { return rows; }
+        public long getErrors() { return errors; }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%s: %d executions, %d rows, %d errors\n  mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                name, getExecutions(), rows, errors,
+                latency.getMeanNanos() / 1_000_000.0, latency.getPercentileNanos(50) / 1_000_000.0,
+                latency.getPercentileNanos(99) / 1_000_000.0, latency.getMaxNanos() / 1_000_000.0
+            );
+        }
+    }
+}